@@ -2,6 +2,7 @@ plugins {
     java
     `maven-publish`
     signing
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "io.github.casey-c"
@@ -21,8 +22,55 @@ var compileOnlyLibs: String = System.getenv("STS_MODDING_LIB")
 // Uses the value written in settings.gradle
 var modName: String = rootProject.name
 
+repositories {
+    mavenCentral()
+}
+
 dependencies {
     compileOnly(fileTree(compileOnlyLibs))
+
+    // Benchmarks run outside of the game on the headless runtime (easel.runtime.HeadlessRuntime), with stand-ins in
+    //   src/jmh/java for the BaseMod interfaces implemented by easel.Easel. The libraries the game bundles are still
+    //   required
+    jmh("com.badlogicgames.gdx:gdx:1.9.5")
+    jmh("com.google.code.gson:gson:2.8.9")
+    jmh("org.apache.logging.log4j:log4j-api:2.17.1")
+    jmh("org.apache.logging.log4j:log4j-core:2.17.1")
+
+    // Unit tests (src/test) use the headless runtime as well. Tests that need a SpriteBatch get a stubbed out GL context
+    //   (see easel.HeadlessGL) through the headless backend, which also loads the desktop natives. Like the benchmarks,
+    //   they have stand-ins in src/test/java for the BaseMod interfaces and for ModTheSpire's SpireConfig
+    testImplementation("com.badlogicgames.gdx:gdx:1.9.5")
+    testImplementation("com.badlogicgames.gdx:gdx-backend-headless:1.9.5")
+    testImplementation("com.badlogicgames.gdx:gdx-platform:1.9.5:natives-desktop")
+    testImplementation("com.google.code.gson:gson:2.8.9")
+    testImplementation("org.apache.logging.log4j:log4j-api:2.17.1")
+    testImplementation("org.apache.logging.log4j:log4j-core:2.17.1")
+    testImplementation("org.junit.jupiter:junit-jupiter:5.10.2")
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher:1.10.2")
+}
+
+tasks.test {
+    useJUnitPlatform()
+}
+
+// --------------------------------------------------------------------------------
+// Benchmarks (src/jmh). Run with: gradlew jmh
+//   - results (ops/s, plus allocation rates from the gc profiler) are written to build/results/jmh
+//   - narrow down which benchmarks run with e.g. -PjmhIncludes=LayoutBenchmark
+
+jmh {
+    benchmarkMode.add("thrpt")
+    timeUnit.set("s")
+    profilers.add("gc")
+    resultFormat.set("JSON")
+
+    warmupIterations.set(3)
+    iterations.set(5)
+    fork.set(1)
+
+    if (project.hasProperty("jmhIncludes"))
+        includes.add(project.property("jmhIncludes") as String)
 }
 
 // --------------------------------------------------------------------------------
@@ -0,0 +1,8 @@
+package basemod.interfaces;
+
+/**
+ * Benchmark stand-in for BaseMod's <code>PostUpdateSubscriber</code>, so that <code>easel.Easel</code> (and its logger) can be loaded outside of the game.
+ */
+public interface PostUpdateSubscriber {
+    void receivePostUpdate();
+}
@@ -0,0 +1,110 @@
+package easel.ui;
+
+import easel.runtime.EaselRuntime;
+import easel.ui.layouts.VerticalLayout;
+import easel.utils.EaselClock;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+
+/**
+ * Movement queues: scheduling moves on a large subtree and resolving many in-flight animations each frame. Time is driven by a virtual {@link EaselClock} stepping at 144 FPS, so every run simulates exactly the same animation.
+ */
+@State(Scope.Thread)
+public class AnimationBenchmark {
+    private static final float FRAME_SECONDS = 1.0f / 144.0f;
+
+    // Re-target every animation after this many simulated frames (two seconds), so there is always work in flight
+    private static final int FRAMES_PER_ROUND = 288;
+
+    @Param({ "1000" })
+    public int numWidgets;
+
+    @Param({ "SLOW", "EASE_OUT", "SPRING" })
+    public InterpolationSpeed speed;
+
+    private EaselClock.VirtualSource clock;
+
+    private VerticalLayout subtree;
+    private AbstractWidget deepestLeaf;
+
+    private final ArrayList<BenchmarkBox> animated = new ArrayList<>();
+    private int frame;
+    private int translations;
+
+    @Setup
+    public void setup() {
+        EaselRuntime.useHeadlessRuntime();
+
+        clock = new EaselClock.VirtualSource();
+        EaselClock.setSource(clock);
+
+        // A subtree of numWidgets leaves, nested a few levels deep
+        subtree = new VerticalLayout(2);
+        VerticalLayout parent = subtree;
+
+        for (int i = 0; i < numWidgets; ++i) {
+            if (i % 100 == 0) {
+                VerticalLayout child = new VerticalLayout(2);
+                parent.withChild(child);
+                parent = child;
+            }
+
+            BenchmarkBox leaf = new BenchmarkBox(20, 20);
+            parent.withChild(leaf);
+            deepestLeaf = leaf;
+        }
+
+        subtree.anchoredAt(100, 100, AnchorPosition.LEFT_BOTTOM);
+
+        // Independent widgets, each with its own movement queue
+        for (int i = 0; i < numWidgets; ++i)
+            animated.add(new BenchmarkBox(20, 20).anchoredAt(i % 1900, i % 1000, AnchorPosition.LEFT_BOTTOM));
+
+        retarget();
+    }
+
+    @TearDown
+    public void tearDown() {
+        EaselClock.useGdxClock();
+    }
+
+    private void retarget() {
+        boolean even = (frame / FRAMES_PER_ROUND) % 2 == 0;
+
+        for (int i = 0; i < animated.size(); ++i) {
+            float x = even ? 1800 - (i % 1800) : (i % 1800);
+            animated.get(i).anchoredAt(x, i % 1000, AnchorPosition.LEFT_BOTTOM, speed);
+        }
+    }
+
+    // --------------------------------------------------------------------------------
+
+    @Benchmark
+    public void delayedTranslateLargeSubtree(Blackhole bh) {
+        clock.step(FRAME_SECONDS);
+
+        // Back and forth, so positions stay bounded
+        float deltaX = ((++translations & 1) == 0) ? 1 : -1;
+
+        subtree.delayedTranslate(deltaX, 0, InterpolationSpeed.INSTANT, 0);
+        subtree.resolveMovementQueue();
+
+        // Descendants follow their (moved) ancestors
+        bh.consume(deepestLeaf.getLeft());
+    }
+
+    @Benchmark
+    public void resolveMovementQueueUnderLoad(Blackhole bh) {
+        clock.step(FRAME_SECONDS);
+
+        if (++frame % FRAMES_PER_ROUND == 0)
+            retarget();
+
+        for (BenchmarkBox widget : animated) {
+            widget.resolveMovementQueue();
+            bh.consume(widget.getLeft());
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package easel.ui;
+
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+
+/**
+ * A plain resizable widget for benchmarks. Renders nothing.
+ */
+public class BenchmarkBox extends AbstractWidget<BenchmarkBox> {
+    private float width;
+    private float height;
+
+    public BenchmarkBox(float width, float height) {
+        this.width = width;
+        this.height = height;
+    }
+
+    public BenchmarkBox withDimensions(float width, float height) {
+        this.width = width;
+        this.height = height;
+        scaleHitboxToContent();
+        return this;
+    }
+
+    @Override public float getContentWidth() { return width; }
+    @Override public float getContentHeight() { return height; }
+
+    @Override protected void renderWidget(SpriteBatch sb) { }
+}
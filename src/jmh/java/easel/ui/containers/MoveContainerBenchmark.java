@@ -0,0 +1,69 @@
+package easel.ui.containers;
+
+import easel.runtime.EaselRuntime;
+import easel.runtime.HeadlessRuntime;
+import easel.ui.AnchorPosition;
+import easel.ui.BenchmarkBox;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+
+/**
+ * Per-frame update of a {@link MoveContainer} full of widgets while the mouse wanders around the screen (no clicks), which is dominated by finding the top-most child under the mouse, as well as restacking children (as done on every click).
+ */
+@State(Scope.Thread)
+public class MoveContainerBenchmark {
+    private static final int NUM_MOUSE_POSITIONS = 1024;
+
+    @Param({ "50", "500" })
+    public int numChildren;
+
+    private HeadlessRuntime runtime;
+    private MoveContainer container;
+    private BenchmarkBox[] children;
+    private int nextRaise;
+
+    private final int[] mouseXs = new int[NUM_MOUSE_POSITIONS];
+    private final int[] mouseYs = new int[NUM_MOUSE_POSITIONS];
+    private int nextMouse;
+
+    @Setup
+    public void setup() {
+        runtime = EaselRuntime.useHeadlessRuntime();
+        Random random = new Random(0);
+
+        container = new MoveContainer();
+        children = new BenchmarkBox[numChildren];
+
+        for (int i = 0; i < numChildren; ++i) {
+            BenchmarkBox box = new BenchmarkBox(50 + random.nextInt(200), 50 + random.nextInt(200))
+                    .anchoredAt(random.nextInt(1700), random.nextInt(900), AnchorPosition.LEFT_BOTTOM);
+
+            container.withChild(box);
+            children[i] = box;
+        }
+
+        for (int i = 0; i < NUM_MOUSE_POSITIONS; ++i) {
+            mouseXs[i] = random.nextInt(1920);
+            mouseYs[i] = random.nextInt(1080);
+        }
+    }
+
+    @Benchmark
+    public void updateWithMovingMouse() {
+        nextMouse = (nextMouse + 1) & (NUM_MOUSE_POSITIONS - 1);
+
+        runtime.setMousePosition(mouseXs[nextMouse], mouseYs[nextMouse]);
+
+        container.update();
+        runtime.endFrame();
+    }
+
+    @Benchmark
+    public void bringToTop() {
+        // Every step raises a child from somewhere in the middle of the stack
+        nextRaise = (nextRaise + 7) % numChildren;
+
+        container.bringToTop(children[nextRaise]);
+    }
+}
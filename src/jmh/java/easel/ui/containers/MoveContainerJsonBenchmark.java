@@ -0,0 +1,46 @@
+package easel.ui.containers;
+
+import easel.runtime.EaselRuntime;
+import easel.ui.AnchorPosition;
+import easel.ui.BenchmarkBox;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+
+/**
+ * Saving and restoring the layout of a {@link MoveContainer} full of widgets, as done whenever a config is saved or loaded.
+ */
+@State(Scope.Thread)
+public class MoveContainerJsonBenchmark {
+    @Param({ "50", "500" })
+    public int numChildren;
+
+    private MoveContainer container;
+    private String json;
+
+    @Setup
+    public void setup() {
+        EaselRuntime.useHeadlessRuntime();
+        Random random = new Random(0);
+
+        container = new MoveContainer();
+        for (int i = 0; i < numChildren; ++i) {
+            BenchmarkBox box = new BenchmarkBox(50 + random.nextInt(200), 50 + random.nextInt(200))
+                    .anchoredAt(random.nextInt(1700), random.nextInt(900), AnchorPosition.LEFT_BOTTOM);
+
+            container.withChild(box);
+        }
+
+        json = container.toJsonString();
+    }
+
+    @Benchmark
+    public String serialize() {
+        return container.toJsonString();
+    }
+
+    @Benchmark
+    public boolean deserialize() {
+        return container.loadFromJsonString(json);
+    }
+}
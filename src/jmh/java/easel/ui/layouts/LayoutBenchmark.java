@@ -0,0 +1,123 @@
+package easel.ui.layouts;
+
+import easel.runtime.EaselRuntime;
+import easel.ui.AnchorPosition;
+import easel.ui.BenchmarkBox;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Anchoring deep layout trees, both when nothing has changed (just moving the root) and after a single leaf changes size (forcing the dirty path to be measured and arranged again).
+ */
+@State(Scope.Thread)
+public class LayoutBenchmark {
+    @Param({ "20" })
+    public int fanOut;
+
+    private VerticalLayout verticalRoot;
+    private BenchmarkBox verticalLeaf;
+
+    private HorizontalLayout horizontalRoot;
+    private BenchmarkBox horizontalLeaf;
+
+    private GridLayout grid;
+    private BenchmarkBox gridLeaf;
+
+    private int toggle;
+
+    @Setup
+    public void setup() {
+        EaselRuntime.useHeadlessRuntime();
+
+        // Vertical of horizontals of verticals: fanOut^2 * 5 leaves
+        verticalRoot = new VerticalLayout(4);
+        for (int i = 0; i < fanOut; ++i) {
+            HorizontalLayout row = new HorizontalLayout(4);
+
+            for (int j = 0; j < fanOut; ++j) {
+                VerticalLayout column = new VerticalLayout(2);
+
+                for (int k = 0; k < 5; ++k) {
+                    verticalLeaf = new BenchmarkBox(10, 10);
+                    column.withChild(verticalLeaf);
+                }
+
+                row.withChild(column);
+            }
+
+            verticalRoot.withChild(row);
+        }
+
+        // Horizontal of verticals of horizontals
+        horizontalRoot = new HorizontalLayout(4);
+        for (int i = 0; i < fanOut; ++i) {
+            VerticalLayout column = new VerticalLayout(4);
+
+            for (int j = 0; j < fanOut; ++j) {
+                HorizontalLayout row = new HorizontalLayout(2);
+
+                for (int k = 0; k < 5; ++k) {
+                    horizontalLeaf = new BenchmarkBox(10, 10);
+                    row.withChild(horizontalLeaf);
+                }
+
+                column.withChild(row);
+            }
+
+            horizontalRoot.withChild(column);
+        }
+
+        // (fanOut * 2) x (fanOut * 2) grid
+        int size = fanOut * 2;
+        grid = new GridLayout().withRowsCols(size * 12, size * 12, size, size);
+        for (int row = 0; row < size; ++row) {
+            for (int col = 0; col < size; ++col) {
+                gridLeaf = new BenchmarkBox(10, 10);
+                grid.withChild(row, col, gridLeaf);
+            }
+        }
+
+        verticalRoot.anchoredAt(100, 100, AnchorPosition.LEFT_BOTTOM);
+        horizontalRoot.anchoredAt(100, 100, AnchorPosition.LEFT_BOTTOM);
+        grid.anchoredAt(100, 100, AnchorPosition.LEFT_BOTTOM);
+    }
+
+    private float nextSize() {
+        return ((++toggle & 1) == 0) ? 10 : 11;
+    }
+
+    // --------------------------------------------------------------------------------
+
+    @Benchmark
+    public void anchorVerticalTree(Blackhole bh) {
+        verticalRoot.anchoredAt(100 + (toggle++ & 1), 100, AnchorPosition.LEFT_BOTTOM);
+        bh.consume(verticalLeaf.getLeft());
+    }
+
+    @Benchmark
+    public void anchorVerticalTreeAfterResize(Blackhole bh) {
+        float size = nextSize();
+        verticalLeaf.withDimensions(size, size);
+
+        verticalRoot.anchoredAt(100, 100, AnchorPosition.LEFT_BOTTOM);
+        bh.consume(verticalLeaf.getLeft());
+    }
+
+    @Benchmark
+    public void anchorHorizontalTreeAfterResize(Blackhole bh) {
+        float size = nextSize();
+        horizontalLeaf.withDimensions(size, size);
+
+        horizontalRoot.anchoredAt(100, 100, AnchorPosition.LEFT_BOTTOM);
+        bh.consume(horizontalLeaf.getLeft());
+    }
+
+    @Benchmark
+    public void anchorGridAfterResize(Blackhole bh) {
+        float size = nextSize();
+        gridLeaf.withDimensions(size, size);
+
+        grid.anchoredAt(100, 100, AnchorPosition.LEFT_BOTTOM);
+        bh.consume(gridLeaf.getLeft());
+    }
+}
@@ -0,0 +1,38 @@
+package easel.ui.text;
+
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import easel.runtime.EaselRuntime;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Building wrapped text with {@link SmartLabel#withText(String)}.
+ */
+@State(Scope.Thread)
+public class SmartLabelBenchmark {
+    private static final String PARAGRAPH = "Whenever you play a card, gain 1 Block. At the start of your turn, draw 2 additional cards " +
+            "and lose 1 HP. This effect stacks with any other relics or powers that increase the number of cards drawn " +
+            "each turn, and cannot be removed by Artifact.";
+
+    @Param({ "200", "600" })
+    public float lineWidth;
+
+    @Param({ "1", "10" })
+    public int repeats;
+
+    private BitmapFont font;
+
+    @Setup
+    public void setup() {
+        font = EaselRuntime.useHeadlessRuntime().getDefaultFont();
+    }
+
+    @Benchmark
+    public float withTextWrapping() {
+        SmartLabel label = new SmartLabel(font, lineWidth);
+
+        for (int i = 0; i < repeats; ++i)
+            label.withText(PARAGRAPH);
+
+        return label.getContentHeight();
+    }
+}
@@ -2,7 +2,9 @@ package easel;
 
 import basemod.BaseMod;
 import basemod.interfaces.PostInitializeSubscriber;
+import basemod.interfaces.PostUpdateSubscriber;
 import com.evacipated.cardcrawl.modthespire.lib.SpireInitializer;
+import easel.config.EaselConfigHelper;
 import easel.utils.EaselFonts;
 import easel.utils.textures.TextureAtlasDatabase;
 import easel.utils.textures.TextureDatabase;
@@ -11,7 +13,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 @SpireInitializer
-public class Easel implements PostInitializeSubscriber {
+public class Easel implements PostInitializeSubscriber, PostUpdateSubscriber {
     public static final Logger logger = LogManager.getLogger(Easel.class);
 
     public static void initialize() {
@@ -24,12 +26,22 @@ public class Easel implements PostInitializeSubscriber {
 
     @Override
     public void receivePostInitialize() {
-        TextureLoader.loadTextures(TextureDatabase.values());
-        Easel.logger.info("TextureManager: loaded " + TextureDatabase.values().length + " textures.");
-
-        TextureLoader.loadTextureAtlases(TextureAtlasDatabase.values());
-        Easel.logger.info("TextureManager: loaded " + TextureAtlasDatabase.values().length + " texture atlases.");
+        // Decode in the background while the fonts load; anything not packed below is only uploaded when first used
+        TextureLoader.prefetchTextures(TextureDatabase.values());
+        TextureLoader.prefetchTextureAtlases(TextureAtlasDatabase.values());
 
         EaselFonts.loadFonts();
+
+        // Merge everything into shared pages so widgets can draw without switching textures. Packing copies the decoded
+        // pixels directly, so the originals are never uploaded
+        TextureLoader.packTextures(TextureDatabase.values());
+        TextureLoader.packTextureAtlases(TextureAtlasDatabase.values());
+        TextureLoader.logTimingReport();
+    }
+
+    @Override
+    public void receivePostUpdate() {
+        // Config changes made during this frame are sent to their listeners all at once
+        EaselConfigHelper.dispatchChanges();
     }
-}
\ No newline at end of file
+}
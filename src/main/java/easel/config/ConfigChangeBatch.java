@@ -0,0 +1,49 @@
+package easel.config;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * <p>
+ * All the options of an {@link EaselConfigHelper} that changed during a single frame, handed to the global listeners registered with {@link EaselConfigHelper#addChangeListener(java.util.function.Consumer)}. An option shows up at most once per batch, no matter how many times it was set; use the config helper's regular getters to find out its new value.
+ * </p>
+ */
+public final class ConfigChangeBatch {
+    private final EaselConfigHelper<?, ?, ?> config;
+    private final Set<Object> changed;
+
+    ConfigChangeBatch(EaselConfigHelper<?, ?, ?> config, LinkedHashSet<Object> changed) {
+        this.config = config;
+        this.changed = Collections.unmodifiableSet(changed);
+    }
+
+    /**
+     * @return the config helper whose options changed
+     */
+    public EaselConfigHelper<?, ?, ?> getConfig() {
+        return config;
+    }
+
+    /**
+     * @param choice an option from one of the config's enums
+     * @return true if that option changed in this batch
+     */
+    public boolean contains(Object choice) {
+        return changed.contains(choice);
+    }
+
+    /**
+     * @return every option that changed in this batch, in the order they were first changed
+     */
+    public Set<Object> getChanged() {
+        return changed;
+    }
+
+    /**
+     * @return the number of options that changed in this batch
+     */
+    public int size() {
+        return changed.size();
+    }
+}
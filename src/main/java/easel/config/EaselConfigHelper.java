@@ -1,22 +1,39 @@
 package easel.config;
 
 import com.evacipated.cardcrawl.modthespire.lib.SpireConfig;
-import com.google.gson.*;
-import com.google.gson.annotations.SerializedName;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 import easel.config.enums.ConfigBooleanEnum;
 import easel.config.enums.ConfigIntegerEnum;
 import easel.config.enums.ConfigStringEnum;
+import easel.Easel;
 import easel.ui.containers.MoveContainer;
+import easel.utils.EaselJsonHelper;
 
+import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
 
 /**
  * <p>
  * EXPERIMENTAL / UNSTABLE (API subject to change until easel 1.0.0)
  * </p>
  * <p>
- * An alternative system for managing config settings. It's mostly designed for more complicated systems where the amount of config options isn't known up front but may increase rapidly throughout development. Virtually all the effort for using this system is front-loaded, and adding new config options later is as simple as adding a row to an enum. With this system, there is no need to manually produce getter or setters for each config item, write (de)serialization code, etc. - it's all abstracted away through customizable enumerations. It has the added benefit of being partially type safe: allowing suggestions, code completion, and seeing fallback default values directly through your IDE. The backend of this config helper relies on hash maps to store and manage the data: getting a config option is O(1), while setting a config option to a different value is slightly more expensive as it will automatically save the entire group of options to disk when things change. The convenience of these benefits do not come free: there are some significant upfront development costs and limitations to this approach.
+ * An alternative system for managing config settings. It's mostly designed for more complicated systems where the amount of config options isn't known up front but may increase rapidly throughout development. Virtually all the effort for using this system is front-loaded, and adding new config options later is as simple as adding a row to an enum. With this system, there is no need to manually produce getter or setters for each config item, write (de)serialization code, etc. - it's all abstracted away through customizable enumerations. It has the added benefit of being partially type safe: allowing suggestions, code completion, and seeing fallback default values directly through your IDE. The backend of this config helper stores the values of each enum in a primitive array indexed by the enum's ordinal: getting a config option is a plain array read (cheap enough to do every frame, with no hashing or boxing involved), while setting a config option to a different value is more expensive as it will automatically save the entire group of options to disk when things change. The convenience of these benefits do not come free: there are some significant upfront development costs and limitations to this approach.
  * </p>
  * <p>
  * This system is NOT intended for simple or smaller use cases - if you only have a few config options, it is recommended that you do not follow this pattern as the boilerplate is substantial. The limitations of Java generics mixed with the verbosity required to make it work tend to make this method a bit too over-engineered for the vast majority of projects; however, larger projects with more complicated config reliance (e.g. the FilterTheSpire mod) can reap substantial benefits from using this setup.
@@ -82,7 +99,7 @@ import java.util.HashMap;
  * }
  * </pre>
  * <p>
- * As stated previously, as your project evolves and begins to require more config options, all you need to do is to go into your custom enums and add rows to them. Since the config helper relies on maps in the backend, you'll be able to easily add new options, stop referring to old options, and update your config cleanly as your project grows and your needs evolve. Should your config change dramatically enough between public releases, there are even helper functions like {@link #resetAllToDefaults(Class, Class, Class)} which can automatically clean up previously saved data and remove everything but the currently used options.
+ * As stated previously, as your project evolves and begins to require more config options, all you need to do is to go into your custom enums and add rows to them. Since options are saved by name (not by their position in the enum), you'll be able to easily add new options, stop referring to old options, and update your config cleanly as your project grows and your needs evolve. Should your config change dramatically enough between public releases, there are even helper functions like {@link #resetAllToDefaults(Class, Class, Class)} which can automatically clean up previously saved data and remove everything but the currently used options.
  * </p>
  * <p>
  * For general design suggestions: you'd typically want to make your ConfigHelper a public static from inside your main class, and build it using the factory methods within a "postInitialize" subscription hook inside BaseMod. The factory methods will automatically attempt to load previously saved data from the disk (and then using the setters later will update and save the files as needed). With this pattern, other classes that need access to config options can just call <code>MyMod.configHelper.getBoolean(...)</code> etc. as they see fit. As a fair warning: this config helper is not thread safe so if you're trying to set config options from various threads you may run into race conditions.
@@ -90,23 +107,70 @@ import java.util.HashMap;
  * <p>
  * The place this config gets saved to / loaded from is defined by the <code>modName</code> and <code>configName</code> options used by the factory methods: the <code>modName</code> should uniquely identify your mod (e.g. the id from your ModTheSpire.json), and the <code>configName</code> will define this particular set of config values. You may find it convenient to use multiple <code>configName</code> configs for a single mod (i.e. one <code>modName</code> for all, but multiple different ConfigHelpers each with a different <code>configName</code>), but usually a singular config is enough.
  * </p>
+ * <p>
+ * By default, every setter that changes a value writes the whole config to disk right away. If your options change often (e.g. a slider bound to {@link #setInt(ConfigIntegerEnum, int)}), turn on write-behind mode with {@link #withWriteBehind(long)}: changes then only mark the config as dirty, and it is written on a background thread once no further changes have come in for the given quiet period (or at the latest a few quiet periods after the first unsaved change). Anything still unsaved is written when the game shuts down, or immediately with {@link #flush()}. Either way, the file is written to a temporary file first and then renamed over the old one, so a crash in the middle of saving leaves the previous config intact instead of a corrupted one. Only the background writes are forced onto the disk with an fsync, since that can take a long time; saves made directly by the setters leave that to the operating system.
+ * </p>
+ * <p>
+ * Instead of polling the getters every frame to notice when something changes, you can subscribe to changes: {@link #addBooleanListener(ConfigBooleanEnum, Consumer)} (and the integer / string versions) listen to a single option, and {@link #addChangeListener(Consumer)} hears about every option at once. Notifications are not sent from inside the setters, but collected and sent once per frame (after the game's update), so an option that is set ten times in one frame notifies its listeners only once, with its final value. Use {@link #runBatch(Runnable)} when setting many options at once to also save only once at the end.
+ * </p>
  * @param <B> the type of the enum storing boolean options (defaults to {@link ConfigBooleanEnum} if not specified as an implementer of that interface)
  * @param <I> the type of the enum storing integer options (defaults to {@link ConfigIntegerEnum} if not specified as an implementer of that interface)
  * @param <S> the type of the enum storing string options (defaults to {@link ConfigStringEnum} if not specified as an implementer of that interface)
  */
 public class EaselConfigHelper<B extends ConfigBooleanEnum, I extends ConfigIntegerEnum, S extends ConfigStringEnum> {
-    @SerializedName("booleans")
+    // Saved options that aren't (or are no longer) in the enums, by name. They're saved again as is, so nothing gets lost
+    // until one of the reset functions clears them out
     private HashMap<String, Boolean> booleanMap = new HashMap<>();
-
-    @SerializedName("integers")
     private HashMap<String, Integer> integerMap = new HashMap<>();
-
-    @SerializedName("strings")
     private HashMap<String, String> stringMap = new HashMap<>();
 
     private final String modName;
     private final String configName;
 
+    // The values of the options in the enums, indexed by ordinal
+    private OrdinalTable<B> booleanTable;
+    private boolean[] booleanValues;
+
+    private OrdinalTable<I> integerTable;
+    private int[] integerValues;
+
+    private OrdinalTable<S> stringTable;
+    private String[] stringValues;
+
+    // Write-behind state
+    private long writeBehindMillis;
+    private boolean isDirty;
+    private long firstDirtyTime;
+    private ScheduledFuture<?> scheduledWrite;
+    private final Object writeLock = new Object();
+
+    // A burst of changes is never held back for more than this many quiet periods
+    private static final int MAX_DELAY_QUIET_PERIODS = 5;
+
+    private static ScheduledExecutorService writer;
+
+    // Configs with changes that haven't been written yet (flushed when the game shuts down)
+    private static final Set<EaselConfigHelper<?, ?, ?>> dirtyConfigs = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+
+    // Change notification state
+    private int batchDepth;
+    private boolean hasBatchedChanges;
+    private LinkedHashSet<Object> pendingChanges = new LinkedHashSet<>();
+    private final IdentityHashMap<Object, ArrayList<KeyListener>> keyListeners = new IdentityHashMap<>();
+    private final ArrayList<Consumer<ConfigChangeBatch>> changeListeners = new ArrayList<>();
+
+    private static final Set<EaselConfigHelper<?, ?, ?>> changedConfigs = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+
+    private static final class KeyListener {
+        final Object listener;
+        final Runnable notifier;
+
+        KeyListener(Object listener, Runnable notifier) {
+            this.listener = listener;
+            this.notifier = notifier;
+        }
+    }
+
     // --------------------------------------------------------------------------------
 
     private EaselConfigHelper(String modName, String configName, Class<? extends B> booleans, Class<? extends I> integers, Class<? extends S> strings) {
@@ -242,27 +306,29 @@ public class EaselConfigHelper<B extends ConfigBooleanEnum, I extends ConfigInte
 
     private void initializeBooleans(Class<? extends B> booleans) {
         booleanMap = new HashMap<>();
-        if (booleans.getEnumConstants() != null) {
-            for (B choice : booleans.getEnumConstants())
-                booleanMap.put(choice.toString(), choice.getDefault());
-        }
+        booleanTable = new OrdinalTable<>(booleans);
+        booleanValues = new boolean[booleanTable.size()];
+
+        for (int i = 0; i < booleanTable.size(); ++i)
+            booleanValues[i] = booleanTable.get(i).getDefault();
     }
 
     private void initializeIntegers(Class<? extends I> integers) {
         integerMap = new HashMap<>();
-        if (integers.getEnumConstants() != null) {
-            for (I choice : integers.getEnumConstants())
-                integerMap.put(choice.toString(), choice.getDefault());
-        }
+        integerTable = new OrdinalTable<>(integers);
+        integerValues = new int[integerTable.size()];
+
+        for (int i = 0; i < integerTable.size(); ++i)
+            integerValues[i] = integerTable.get(i).getDefault();
     }
 
     private void initializeStrings(Class<? extends S> strings) {
         stringMap = new HashMap<>();
+        stringTable = new OrdinalTable<>(strings);
+        stringValues = new String[stringTable.size()];
 
-        if (strings.getEnumConstants() != null) {
-            for (S choice : strings.getEnumConstants())
-                stringMap.put(choice.toString(), choice.getDefault());
-        }
+        for (int i = 0; i < stringTable.size(); ++i)
+            stringValues[i] = stringTable.get(i).getDefault();
     }
 
     // --------------------------------------------------------------------------------
@@ -272,7 +338,12 @@ public class EaselConfigHelper<B extends ConfigBooleanEnum, I extends ConfigInte
      * @return the current value of this particular choice or the default value if it doesn't exist yet
      */
     public boolean getBoolean(B choice) {
-        return booleanMap.getOrDefault(choice.toString(), choice.getDefault());
+        int ordinal = booleanTable.ordinalOf(choice);
+
+        if (ordinal >= 0)
+            return booleanValues[ordinal];
+        else
+            return booleanMap.getOrDefault(choice.toString(), choice.getDefault());
     }
 
     /**
@@ -282,12 +353,8 @@ public class EaselConfigHelper<B extends ConfigBooleanEnum, I extends ConfigInte
      * @return true if the value is new and the config was successfully saved; false if the value existed already or if something went wrong when saving (there will be a stack trace if IO failed)
      */
     public boolean setBoolean(B choice, boolean value) {
-        Boolean existing = booleanMap.get(choice.toString());
-
-        if (existing == null || !existing.equals(value)) {
-            booleanMap.put(choice.toString(), value);
-            return save();
-        }
+        if (setBooleanWithoutSaving(choice, value))
+            return onChanged();
         else
             return false;
     }
@@ -299,7 +366,12 @@ public class EaselConfigHelper<B extends ConfigBooleanEnum, I extends ConfigInte
      * @return the current value of this particular choice or the default value if it doesn't exist yet
      */
     public int getInt(I choice) {
-        return integerMap.getOrDefault(choice.toString(), choice.getDefault());
+        int ordinal = integerTable.ordinalOf(choice);
+
+        if (ordinal >= 0)
+            return integerValues[ordinal];
+        else
+            return integerMap.getOrDefault(choice.toString(), choice.getDefault());
     }
 
     /**
@@ -309,12 +381,8 @@ public class EaselConfigHelper<B extends ConfigBooleanEnum, I extends ConfigInte
      * @return true if the value is new and the config was successfully saved; false if the value existed already or if something went wrong when saving (there will be a stack trace if IO failed)
      */
     public boolean setInt(I choice, int value) {
-        Integer existing = integerMap.get(choice.toString());
-
-        if (existing == null || !existing.equals(value)) {
-            integerMap.put(choice.toString(), value);
-            return save();
-        }
+        if (setIntWithoutSaving(choice, value))
+            return onChanged();
         else
             return false;
     }
@@ -326,7 +394,12 @@ public class EaselConfigHelper<B extends ConfigBooleanEnum, I extends ConfigInte
      * @return the current value of this particular choice or the default value if it doesn't exist yet
      */
     public String getString(S choice) {
-        return stringMap.getOrDefault(choice.toString(), choice.getDefault());
+        int ordinal = stringTable.ordinalOf(choice);
+
+        if (ordinal >= 0)
+            return stringValues[ordinal];
+        else
+            return stringMap.getOrDefault(choice.toString(), choice.getDefault());
     }
 
     /**
@@ -336,12 +409,8 @@ public class EaselConfigHelper<B extends ConfigBooleanEnum, I extends ConfigInte
      * @return true if the value is new and the config was successfully saved; false if the value existed already or if something went wrong when saving (there will be a stack trace if IO failed)
      */
     public boolean setString(S choice, String value) {
-        String existing = stringMap.get(choice.toString());
-
-        if (existing == null || !existing.equals(value)) {
-            stringMap.put(choice.toString(), value);
-            return save();
-        }
+        if (setStringWithoutSaving(choice, value))
+            return onChanged();
         else
             return false;
     }
@@ -354,11 +423,23 @@ public class EaselConfigHelper<B extends ConfigBooleanEnum, I extends ConfigInte
      * @param value the new value of this particular choice
      * @return true if the new value is different than the one previously stored by the map
      */
-    public boolean setBooleanWithoutSaving(B choice, boolean value) {
+    public synchronized boolean setBooleanWithoutSaving(B choice, boolean value) {
+        int ordinal = booleanTable.ordinalOf(choice);
+
+        if (ordinal >= 0) {
+            if (booleanValues[ordinal] == value)
+                return false;
+
+            booleanValues[ordinal] = value;
+            recordChange(choice);
+            return true;
+        }
+
         Boolean existing = booleanMap.get(choice.toString());
 
         if (existing == null || !existing.equals(value)) {
             booleanMap.put(choice.toString(), value);
+            recordChange(choice);
             return true;
         }
         else
@@ -371,11 +452,23 @@ public class EaselConfigHelper<B extends ConfigBooleanEnum, I extends ConfigInte
      * @param value the new value of this particular choice
      * @return true if the new value is different than the one previously stored by the map
      */
-    public boolean setIntWithoutSaving(I choice, int value) {
+    public synchronized boolean setIntWithoutSaving(I choice, int value) {
+        int ordinal = integerTable.ordinalOf(choice);
+
+        if (ordinal >= 0) {
+            if (integerValues[ordinal] == value)
+                return false;
+
+            integerValues[ordinal] = value;
+            recordChange(choice);
+            return true;
+        }
+
         Integer existing = integerMap.get(choice.toString());
 
         if (existing == null || !existing.equals(value)) {
             integerMap.put(choice.toString(), value);
+            recordChange(choice);
             return true;
         }
         else
@@ -388,11 +481,23 @@ public class EaselConfigHelper<B extends ConfigBooleanEnum, I extends ConfigInte
      * @param value the new value of this particular choice
      * @return true if the new value is different than the one previously stored by the map
      */
-    public boolean setStringWithoutSaving(S choice, String value) {
+    public synchronized boolean setStringWithoutSaving(S choice, String value) {
+        int ordinal = stringTable.ordinalOf(choice);
+
+        if (ordinal >= 0) {
+            if (stringValues[ordinal] != null && stringValues[ordinal].equals(value))
+                return false;
+
+            stringValues[ordinal] = value;
+            recordChange(choice);
+            return true;
+        }
+
         String existing = stringMap.get(choice.toString());
 
         if (existing == null || !existing.equals(value)) {
             stringMap.put(choice.toString(), value);
+            recordChange(choice);
             return true;
         }
         else
@@ -400,6 +505,187 @@ public class EaselConfigHelper<B extends ConfigBooleanEnum, I extends ConfigInte
     }
 
     // --------------------------------------------------------------------------------
+    // Listeners
+
+    /**
+     * Listens for changes to a single boolean option. The listener is called at most once per frame, with the final value of the option, during the frame in which the option changed (see {@link #dispatchChanges()}).
+     * @param choice a choice in the boolean enum
+     * @param listener called with the new value
+     */
+    public void addBooleanListener(B choice, Consumer<Boolean> listener) {
+        addKeyListener(choice, listener, () -> listener.accept(getBoolean(choice)));
+    }
+
+    /**
+     * Listens for changes to a single integer option. The listener is called at most once per frame, with the final value of the option, during the frame in which the option changed (see {@link #dispatchChanges()}).
+     * @param choice a choice in the integer enum
+     * @param listener called with the new value
+     */
+    public void addIntListener(I choice, IntConsumer listener) {
+        addKeyListener(choice, listener, () -> listener.accept(getInt(choice)));
+    }
+
+    /**
+     * Listens for changes to a single string option. The listener is called at most once per frame, with the final value of the option, during the frame in which the option changed (see {@link #dispatchChanges()}).
+     * @param choice a choice in the string enum
+     * @param listener called with the new value
+     */
+    public void addStringListener(S choice, Consumer<String> listener) {
+        addKeyListener(choice, listener, () -> listener.accept(getString(choice)));
+    }
+
+    /**
+     * Listens for changes to any option in this config. The listener is called at most once per frame, with every option that changed during that frame.
+     * @param listener called with the batch of changed options
+     */
+    public void addChangeListener(Consumer<ConfigChangeBatch> listener) {
+        changeListeners.add(listener);
+    }
+
+    /**
+     * Unregisters a listener previously added by any of the "add...Listener" functions (from every option it was listening to).
+     * @param listener the listener to remove
+     */
+    public void removeListener(Object listener) {
+        changeListeners.remove(listener);
+
+        for (ArrayList<KeyListener> listeners : keyListeners.values())
+            listeners.removeIf(l -> l.listener == listener);
+    }
+
+    private void addKeyListener(Object choice, Object listener, Runnable notifier) {
+        keyListeners.computeIfAbsent(choice, c -> new ArrayList<>()).add(new KeyListener(listener, notifier));
+    }
+
+    private void recordChange(Object choice) {
+        if (pendingChanges.add(choice) && pendingChanges.size() == 1)
+            changedConfigs.add(this);
+    }
+
+    private void recordChanges(OrdinalTable<?> oldTable, boolean[] oldValues, OrdinalTable<?> newTable, boolean[] newValues) {
+        boolean isSameEnum = oldTable.isSameEnum(newTable);
+
+        for (int i = 0; i < newTable.size(); ++i) {
+            if (!isSameEnum || oldValues[i] != newValues[i])
+                recordChange(newTable.get(i));
+        }
+    }
+
+    private void recordChanges(OrdinalTable<?> oldTable, int[] oldValues, OrdinalTable<?> newTable, int[] newValues) {
+        boolean isSameEnum = oldTable.isSameEnum(newTable);
+
+        for (int i = 0; i < newTable.size(); ++i) {
+            if (!isSameEnum || oldValues[i] != newValues[i])
+                recordChange(newTable.get(i));
+        }
+    }
+
+    private void recordChanges(OrdinalTable<?> oldTable, String[] oldValues, OrdinalTable<?> newTable, String[] newValues) {
+        boolean isSameEnum = oldTable.isSameEnum(newTable);
+
+        for (int i = 0; i < newTable.size(); ++i) {
+            if (!isSameEnum || !Objects.equals(oldValues[i], newValues[i]))
+                recordChange(newTable.get(i));
+        }
+    }
+
+    // --------------------------------------------------------------------------------
+    // Batching
+
+    /**
+     * Starts a batch of changes: until the matching {@link #endBatch()}, the regular setters only update the values, without saving or notifying any listeners. Batches can be nested; only the outermost one counts.
+     * @see #runBatch(Runnable)
+     */
+    public void beginBatch() {
+        ++batchDepth;
+    }
+
+    /**
+     * Ends a batch started with {@link #beginBatch()}. If this ends the outermost batch and anything changed during it, the config is saved once (or scheduled to be, in write-behind mode) and the listeners will hear about all of the changes together in the next notification.
+     * @return true if something changed during the batch and it was saved successfully
+     */
+    public boolean endBatch() {
+        if (batchDepth <= 0) {
+            Easel.logger.warn("EaselConfigHelper: endBatch() called without a matching beginBatch()");
+            return false;
+        }
+
+        if (--batchDepth > 0 || !hasBatchedChanges)
+            return false;
+
+        hasBatchedChanges = false;
+        return onChanged();
+    }
+
+    /**
+     * Convenience: runs the given code between {@link #beginBatch()} and {@link #endBatch()}, so that any number of options can be set with only a single save and a single notification. E.g. <code>config.runBatch(() -&gt; { config.setBoolean(A, true); config.setInt(B, 3); });</code>
+     * @param changes the code setting the options
+     * @return true if something changed and it was saved successfully
+     */
+    public boolean runBatch(Runnable changes) {
+        beginBatch();
+
+        try {
+            changes.run();
+        }
+        catch (RuntimeException e) {
+            endBatch();
+            throw e;
+        }
+
+        return endBatch();
+    }
+
+    // --------------------------------------------------------------------------------
+    // Notifying
+
+    /**
+     * Notifies the listeners of every config helper about the changes made since the last call. Easel calls this automatically once per frame (after the game's update), so you shouldn't need to call it yourself. Configs in the middle of a batch are skipped until the batch ends. Listeners that change options themselves will cause another notification on the next frame.
+     */
+    public static void dispatchChanges() {
+        if (changedConfigs.isEmpty())
+            return;
+
+        ArrayList<EaselConfigHelper<?, ?, ?>> configs;
+
+        synchronized (changedConfigs) {
+            configs = new ArrayList<>(changedConfigs);
+        }
+
+        for (EaselConfigHelper<?, ?, ?> config : configs)
+            config.notifyListeners();
+    }
+
+    private void notifyListeners() {
+        if (batchDepth > 0)
+            return;
+
+        LinkedHashSet<Object> changes;
+
+        synchronized (this) {
+            changes = pendingChanges;
+            pendingChanges = new LinkedHashSet<>();
+            changedConfigs.remove(this);
+        }
+
+        for (Object choice : changes) {
+            ArrayList<KeyListener> listeners = keyListeners.get(choice);
+
+            if (listeners != null) {
+                for (KeyListener listener : new ArrayList<>(listeners))
+                    listener.notifier.run();
+            }
+        }
+
+        if (!changeListeners.isEmpty()) {
+            ConfigChangeBatch batch = new ConfigChangeBatch(this, changes);
+
+            for (Consumer<ConfigChangeBatch> listener : new ArrayList<>(changeListeners))
+                listener.accept(batch);
+        }
+    }
+
+    // --------------------------------------------------------------------------------
 
 //    public JsonObject toJson() {
 //        return new Gson().toJsonTree(this).getAsJsonObject();
@@ -413,65 +699,378 @@ public class EaselConfigHelper<B extends ConfigBooleanEnum, I extends ConfigInte
 //        this.stringOptions = other.stringOptions;
 //    }
 
-    private void loadFromJsonString(String jsonString) {
-        EaselConfigHelper other = new Gson().fromJson(jsonString, EaselConfigHelper.class);
+    /**
+     * A copy of all values (taken while holding the lock), so that it can be written out without holding up the setters.
+     */
+    private static final class Values {
+        final OrdinalTable<?> booleanTable;
+        final OrdinalTable<?> integerTable;
+        final OrdinalTable<?> stringTable;
+
+        final boolean[] booleans;
+        final int[] integers;
+        final String[] strings;
 
-        if (other.booleanMap != null)
-            this.booleanMap = other.booleanMap;
-        else
-            this.booleanMap.clear();
+        final HashMap<String, Boolean> booleanMap;
+        final HashMap<String, Integer> integerMap;
+        final HashMap<String, String> stringMap;
 
-        if (other.integerMap != null)
-            this.integerMap = other.integerMap;
-        else
-            this.integerMap.clear();
+        Values(OrdinalTable<?> booleanTable, boolean[] booleans, HashMap<String, Boolean> booleanMap,
+               OrdinalTable<?> integerTable, int[] integers, HashMap<String, Integer> integerMap,
+               OrdinalTable<?> stringTable, String[] strings, HashMap<String, String> stringMap) {
+            this.booleanTable = booleanTable;
+            this.booleans = booleans;
+            this.booleanMap = booleanMap;
 
-        if (other.stringMap != null)
-            this.stringMap = other.stringMap;
-        else
-            this.stringMap.clear();
+            this.integerTable = integerTable;
+            this.integers = integers;
+            this.integerMap = integerMap;
+
+            this.stringTable = stringTable;
+            this.strings = strings;
+            this.stringMap = stringMap;
+        }
+    }
+
+    private synchronized Values copyValues() {
+        return new Values(booleanTable, booleanValues.clone(), new HashMap<>(booleanMap),
+                integerTable, integerValues.clone(), new HashMap<>(integerMap),
+                stringTable, stringValues.clone(), new HashMap<>(stringMap));
+    }
+
+    /**
+     * Writes the values in the same format Gson used to produce from this class: <code>{"booleans":{...},"integers":{...},"strings":{...},"modName":...,"configName":...}</code>.
+     */
+    private void writeJson(JsonWriter out, Values values) throws IOException {
+        out.beginObject();
+
+        out.name("booleans").beginObject();
+        for (int i = 0; i < values.booleanTable.size(); ++i)
+            out.name(values.booleanTable.getName(i)).value(values.booleans[i]);
+        for (Map.Entry<String, Boolean> entry : values.booleanMap.entrySet()) {
+            if (values.booleanTable.ordinalOf(entry.getKey()) < 0)
+                out.name(entry.getKey()).value(entry.getValue());
+        }
+        out.endObject();
+
+        out.name("integers").beginObject();
+        for (int i = 0; i < values.integerTable.size(); ++i)
+            out.name(values.integerTable.getName(i)).value(values.integers[i]);
+        for (Map.Entry<String, Integer> entry : values.integerMap.entrySet()) {
+            if (values.integerTable.ordinalOf(entry.getKey()) < 0)
+                out.name(entry.getKey()).value(entry.getValue());
+        }
+        out.endObject();
+
+        out.name("strings").beginObject();
+        for (int i = 0; i < values.stringTable.size(); ++i)
+            out.name(values.stringTable.getName(i)).value(values.strings[i]);
+        for (Map.Entry<String, String> entry : values.stringMap.entrySet()) {
+            if (values.stringTable.ordinalOf(entry.getKey()) < 0)
+                out.name(entry.getKey()).value(entry.getValue());
+        }
+        out.endObject();
+
+        out.name("modName").value(modName);
+        out.name("configName").value(configName);
+
+        out.endObject();
+    }
+
+    /**
+     * Reads values written by {@link #writeJson(JsonWriter, Values)} in a single pass. Options missing from the input get their default values. Nothing is changed until the whole input has been read successfully.
+     * @return the values read, or null if the input is just a JSON null
+     */
+    private Values readJson(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        OrdinalTable<B> booleanTable = this.booleanTable;
+        OrdinalTable<I> integerTable = this.integerTable;
+        OrdinalTable<S> stringTable = this.stringTable;
+
+        boolean[] booleans = new boolean[booleanTable.size()];
+        for (int i = 0; i < booleans.length; ++i)
+            booleans[i] = booleanTable.get(i).getDefault();
+
+        int[] integers = new int[integerTable.size()];
+        for (int i = 0; i < integers.length; ++i)
+            integers[i] = integerTable.get(i).getDefault();
+
+        String[] strings = new String[stringTable.size()];
+        for (int i = 0; i < strings.length; ++i)
+            strings[i] = stringTable.get(i).getDefault();
+
+        HashMap<String, Boolean> booleanMap = new HashMap<>();
+        HashMap<String, Integer> integerMap = new HashMap<>();
+        HashMap<String, String> stringMap = new HashMap<>();
+
+        in.beginObject();
+
+        while (in.hasNext()) {
+            String section = in.nextName();
+
+            if (in.peek() == JsonToken.NULL || !(section.equals("booleans") || section.equals("integers") || section.equals("strings"))) {
+                in.skipValue();
+                continue;
+            }
+
+            in.beginObject();
+
+            while (in.hasNext()) {
+                String name = in.nextName();
+
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                    continue;
+                }
+
+                if (section.equals("booleans")) {
+                    boolean value = in.nextBoolean();
+                    int ordinal = booleanTable.ordinalOf(name);
+
+                    if (ordinal >= 0)
+                        booleans[ordinal] = value;
+                    else
+                        booleanMap.put(name, value);
+                }
+                else if (section.equals("integers")) {
+                    int value = in.nextInt();
+                    int ordinal = integerTable.ordinalOf(name);
+
+                    if (ordinal >= 0)
+                        integers[ordinal] = value;
+                    else
+                        integerMap.put(name, value);
+                }
+                else {
+                    String value = in.nextString();
+                    int ordinal = stringTable.ordinalOf(name);
+
+                    if (ordinal >= 0)
+                        strings[ordinal] = value;
+                    else
+                        stringMap.put(name, value);
+                }
+            }
+
+            in.endObject();
+        }
+
+        in.endObject();
+
+        return new Values(booleanTable, booleans, booleanMap, integerTable, integers, integerMap, stringTable, strings, stringMap);
+    }
+
+    /**
+     * Replaces all values with freshly loaded ones, letting the listeners know about any that changed.
+     */
+    private synchronized void applyValues(Values values) {
+        // The enums were swapped out by a reset while loading; the values don't match up anymore
+        if (values.booleanTable != booleanTable || values.integerTable != integerTable || values.stringTable != stringTable)
+            return;
+
+        recordChanges(booleanTable, booleanValues, booleanTable, values.booleans);
+        recordChanges(integerTable, integerValues, integerTable, values.integers);
+        recordChanges(stringTable, stringValues, stringTable, values.strings);
+
+        booleanValues = values.booleans;
+        integerValues = values.integers;
+        stringValues = values.strings;
+
+        booleanMap = values.booleanMap;
+        integerMap = values.integerMap;
+        stringMap = values.stringMap;
     }
 
     /**
      * Serializes the entire config (and all current values) as a JSON string.
-     * @return json formatted string auto-generated by Gson
+     * @return json formatted string, in the same format as the saved config file
      */
     @Override
     public String toString() {
-        return new Gson().toJson(this);
+        Values values = copyValues();
+        return EaselJsonHelper.toJsonString(out -> writeJson(out, values));
+    }
+
+    /**
+     * @return the file this config is saved to
+     */
+    public File getFile() {
+        return new File(SpireConfig.makeFilePath(modName, configName, "json"));
     }
 
     // --------------------------------------------------------------------------------
 
     /**
-     * Attempt to save this config to disk. Not needed if you use the regular setters (as the saving will occur automatically). Only necessary to call this after using something like {@link #setBooleanWithoutSaving(ConfigBooleanEnum, boolean)}, which are intended to let you set the values in bulk and save only at a designated time.
+     * Attempt to save this config to disk. Not needed if you use the regular setters (as the saving will occur automatically). Only necessary to call this after using something like {@link #setBooleanWithoutSaving(ConfigBooleanEnum, boolean)}, which are intended to let you set the values in bulk and save only at a designated time. Always writes immediately (on the calling thread), even in write-behind mode, and replaces any write that was still waiting for its quiet period. To keep this cheap enough for the render thread, the file is not forced onto the disk (fsync); that is left to the operating system, or to {@link #flush()}.
      * @return true if the save is successful; if it fails and returns false, there should be an IOException stack trace
      */
     public boolean save() {
-        try {
-            SpireConfig spireConfig = new SpireConfig(modName, configName);
-            spireConfig.setString("json", toString());
-            spireConfig.save();
+        return write(false);
+    }
+
+    /**
+     * @param durable whether to force the file onto the disk before returning (slow, so only done off the render thread)
+     */
+    private boolean write(boolean durable) {
+        // Snapshots are taken while holding the write lock, so an older snapshot can never be written over a newer one
+        synchronized (writeLock) {
+            Values values;
+
+            synchronized (this) {
+                values = copyValues();
+                isDirty = false;
+
+                if (scheduledWrite != null) {
+                    scheduledWrite.cancel(false);
+                    scheduledWrite = null;
+                }
+            }
+
+            dirtyConfigs.remove(this);
+
+            try {
+                EaselJsonHelper.writeFile(getFile(), out -> writeJson(out, values), durable);
+                return true;
+            }
+            catch (IOException e) {
+                e.printStackTrace();
+            }
+
+            return false;
+        }
+    }
+
+    /**
+     * Writes any changes that are still waiting to be saved in write-behind mode, blocking until they're on disk (including an fsync, unlike {@link #save()}). This is what the background writer and the shutdown hook use. Does nothing if there are no unsaved changes (so unlike {@link #save()}, changes made with the "WithoutSaving" setters are not written unless something else marked the config as dirty).
+     * @return true if there was nothing to save, or the save was successful
+     * @see #withWriteBehind(long)
+     */
+    public boolean flush() {
+        synchronized (this) {
+            if (!isDirty)
+                return true;
+        }
+
+        return write(true);
+    }
+
+    /**
+     * Flushes every config with unsaved write-behind changes. This runs automatically when the game shuts down.
+     */
+    public static void flushAll() {
+        ArrayList<EaselConfigHelper<?, ?, ?>> configs;
+
+        synchronized (dirtyConfigs) {
+            configs = new ArrayList<>(dirtyConfigs);
+        }
+
+        for (EaselConfigHelper<?, ?, ?> config : configs)
+            config.flush();
+    }
+
+    /**
+     * Turns on write-behind mode: instead of saving on every change, the setters only mark the config as dirty and it gets written on a background thread once it hasn't been changed for <code>quietPeriodMillis</code>. A continuous stream of changes is still written at least every few quiet periods. Unsaved changes are written when the game shuts down, or when calling {@link #flush()}. While in this mode, the regular setters return true as soon as a value changes (a failed background save only shows up as a stack trace).
+     * @param quietPeriodMillis how long the config must go unchanged before it is written, in milliseconds; zero or less turns write-behind mode back off (flushing anything unsaved)
+     * @return this config helper
+     */
+    public EaselConfigHelper<B, I, S> withWriteBehind(long quietPeriodMillis) {
+        this.writeBehindMillis = Math.max(0, quietPeriodMillis);
+
+        if (writeBehindMillis == 0)
+            flush();
+
+        return this;
+    }
+
+    /**
+     * @return true if there are changes waiting to be written by write-behind mode
+     */
+    public synchronized boolean isDirty() {
+        return isDirty;
+    }
+
+    private boolean onChanged() {
+        if (batchDepth > 0) {
+            hasBatchedChanges = true;
             return true;
         }
-        catch (IOException e) {
-            e.printStackTrace();
+
+        if (writeBehindMillis <= 0)
+            return save();
+
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+
+            if (!isDirty) {
+                isDirty = true;
+                firstDirtyTime = now;
+                dirtyConfigs.add(this);
+            }
+
+            // Postpone the pending write until things quiet down again, unless it's been held back long enough already
+            if (scheduledWrite != null) {
+                if (now - firstDirtyTime >= MAX_DELAY_QUIET_PERIODS * writeBehindMillis)
+                    return true;
+
+                scheduledWrite.cancel(false);
+            }
+
+            scheduledWrite = getWriter().schedule(this::flush, writeBehindMillis, TimeUnit.MILLISECONDS);
         }
 
-        return false;
+        return true;
+    }
+
+    private static synchronized ScheduledExecutorService getWriter() {
+        if (writer == null) {
+            writer = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "Easel config writer");
+                t.setDaemon(true);
+                return t;
+            });
+
+            Runtime.getRuntime().addShutdownHook(new Thread(EaselConfigHelper::flushAll, "Easel config flush"));
+        }
+
+        return writer;
     }
 
     /**
-     * Attempt to load in this config from disk. Called automatically by the factory methods and almost never needed to be called manually. Uses the <code>modName</code> and <code>configName</code> set by the factory methods to identify which file to load.
+     * Attempt to load in this config from disk. Called automatically by the factory methods and almost never needed to be called manually. Uses the <code>modName</code> and <code>configName</code> set by the factory methods to identify which file to load (see {@link #getFile()}). Configs saved by older versions of easel (as a JSON string embedded in a SpireConfig properties file) are still loaded if there's no newer file, and are immediately saved in the new format. The old file is left in place: it is ignored from then on, but an older version of the mod installed again still finds it (with the settings as they were when migrated, rather than the defaults).
      * @return true if was able to find and successfully load the file
      */
     public boolean load() {
         try {
-            SpireConfig spireConfig = new SpireConfig(modName, configName);
-            spireConfig.load();
+            File file = getFile();
+            boolean isLegacy = false;
+            Values values;
+
+            if (file.exists()) {
+                values = EaselJsonHelper.readFile(file, this::readJson);
+            }
+            else {
+                // Older versions saved the JSON as a single string inside a SpireConfig properties file
+                SpireConfig spireConfig = new SpireConfig(modName, configName);
+                spireConfig.load();
+
+                if (!spireConfig.has("json"))
+                    return false;
+
+                values = EaselJsonHelper.fromJsonString(spireConfig.getString("json"), this::readJson);
+                isLegacy = true;
+            }
+
+            if (values != null) {
+                applyValues(values);
+
+                // From now on, the new file takes precedence over the (untouched) old one
+                if (isLegacy)
+                    write(true);
 
-            if (spireConfig.has("json")) {
-                loadFromJsonString(spireConfig.getString("json"));
                 return true;
             }
         }
@@ -491,8 +1090,15 @@ public class EaselConfigHelper<B extends ConfigBooleanEnum, I extends ConfigInte
      * @return true if the save is completed successfully
      */
     public boolean resetBooleansToDefaults(Class<B> booleanClz) {
-        initializeBooleans(booleanClz);
-        return save();
+        synchronized (this) {
+            OrdinalTable<?> oldTable = booleanTable;
+            boolean[] oldValues = booleanValues;
+
+            initializeBooleans(booleanClz);
+            recordChanges(oldTable, oldValues, booleanTable, booleanValues);
+        }
+
+        return onChanged();
     }
 
     /**
@@ -501,8 +1107,15 @@ public class EaselConfigHelper<B extends ConfigBooleanEnum, I extends ConfigInte
      * @return true if the save is completed successfully
      */
     public boolean resetIntegersToDefaults(Class<I> integerClz) {
-        initializeIntegers(integerClz);
-        return save();
+        synchronized (this) {
+            OrdinalTable<?> oldTable = integerTable;
+            int[] oldValues = integerValues;
+
+            initializeIntegers(integerClz);
+            recordChanges(oldTable, oldValues, integerTable, integerValues);
+        }
+
+        return onChanged();
     }
 
     /**
@@ -511,23 +1124,30 @@ public class EaselConfigHelper<B extends ConfigBooleanEnum, I extends ConfigInte
      * @return true if the save is completed successfully
      */
     public boolean resetStringsToDefaults(Class<S> stringClz) {
-        initializeStrings(stringClz);
-        return save();
+        synchronized (this) {
+            OrdinalTable<?> oldTable = stringTable;
+            String[] oldValues = stringValues;
+
+            initializeStrings(stringClz);
+            recordChanges(oldTable, oldValues, stringTable, stringValues);
+        }
+
+        return onChanged();
     }
 
     /**
-     * Convenience: calls {@link #resetBooleansToDefaults(Class)}, {@link #resetIntegersToDefaults(Class)}, and {@link #resetStringsToDefaults(Class)} all at once to completely rebuild the entire config structure.
+     * Convenience: calls {@link #resetBooleansToDefaults(Class)}, {@link #resetIntegersToDefaults(Class)}, and {@link #resetStringsToDefaults(Class)} all at once (as a single batch, so the config is only saved once) to completely rebuild the entire config structure.
      * @param booleanClz the enum class for the boolean options
      * @param integerClz the enum class for the integer options
      * @param stringClz the enum class for the string options
      * @return true if the save is completed successfully
      */
     public boolean resetAllToDefaults(Class<B> booleanClz, Class<I> integerClz, Class<S> stringClz) {
-        boolean hasSaved = false;
-        hasSaved = hasSaved || resetBooleansToDefaults(booleanClz);
-        hasSaved = hasSaved || resetIntegersToDefaults(integerClz);
-        hasSaved = hasSaved || resetStringsToDefaults(stringClz);
-        return hasSaved;
+        return runBatch(() -> {
+            resetBooleansToDefaults(booleanClz);
+            resetIntegersToDefaults(integerClz);
+            resetStringsToDefaults(stringClz);
+        });
     }
 
 }
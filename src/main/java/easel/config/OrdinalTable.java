@@ -0,0 +1,69 @@
+package easel.config;
+
+import java.util.HashMap;
+
+/**
+ * <p>
+ * Maps the constants of a config enum to their array slots (i.e. their ordinals) and their saved names (their <code>toString()</code>), in both directions. Built once per enum class by the {@link EaselConfigHelper}, which keeps its values in primitive arrays indexed by ordinal so that reads don't need to hash strings or unbox anything.
+ * </p>
+ * <p>
+ * The config helpers built without an enum for a certain type use the bare interface (e.g. {@link easel.config.enums.ConfigBooleanEnum}) as a placeholder. Their tables are simply empty, and {@link #ordinalOf(Object)} rejects everything.
+ * </p>
+ * @param <E> the type of the config enum
+ */
+final class OrdinalTable<E> {
+    private final Class<?> enumClass;
+    private final E[] constants;
+    private final String[] names;
+    private final HashMap<String, Integer> ordinals = new HashMap<>();
+
+    @SuppressWarnings("unchecked")
+    OrdinalTable(Class<? extends E> enumClass) {
+        E[] values = enumClass.getEnumConstants();
+
+        this.enumClass = enumClass;
+        this.constants = (values != null) ? values : (E[])new Object[0];
+        this.names = new String[constants.length];
+
+        for (int i = 0; i < constants.length; ++i) {
+            names[i] = constants[i].toString();
+            ordinals.put(names[i], i);
+        }
+    }
+
+    /**
+     * @param choice a config option
+     * @return the array slot of the option, or -1 if it doesn't belong to this table's enum (in which case the caller should fall back to looking it up by name)
+     */
+    int ordinalOf(Object choice) {
+        if (choice instanceof Enum && ((Enum<?>)choice).getDeclaringClass() == enumClass)
+            return ((Enum<?>)choice).ordinal();
+        else
+            return -1;
+    }
+
+    /**
+     * @param name the saved name of a config option
+     * @return the array slot of the option with that name, or -1 if there is no such option
+     */
+    int ordinalOf(String name) {
+        Integer ordinal = ordinals.get(name);
+        return (ordinal != null) ? ordinal : -1;
+    }
+
+    boolean isSameEnum(OrdinalTable<?> other) {
+        return enumClass == other.enumClass;
+    }
+
+    int size() {
+        return constants.length;
+    }
+
+    E get(int ordinal) {
+        return constants[ordinal];
+    }
+
+    String getName(int ordinal) {
+        return names[ordinal];
+    }
+}
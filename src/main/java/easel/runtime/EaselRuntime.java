@@ -0,0 +1,90 @@
+package easel.runtime;
+
+import easel.utils.EaselClock;
+
+/**
+ * <p>
+ * The single point where widgets touch the environment they run in: the screen size and scale ({@link ScreenMetrics}), mouse and keyboard state ({@link InputSource}), text measurement ({@link FontMetrics}), hover detection ({@link HitRegionProvider}), and shared textures ({@link TextureProvider}). The code in <code>easel.ui</code> only goes through here, never through the game's statics directly.
+ * </p>
+ * <p>
+ * Inside the game nothing needs to be done, as the default is the {@link GameRuntime}. To run widget trees outside of the game (e.g. in a benchmark or a test), switch to a {@link HeadlessRuntime} before constructing any widgets:
+ * </p>
+ * <pre>
+ * {@code
+ * HeadlessRuntime runtime = EaselRuntime.useHeadlessRuntime()
+ *         .setScreenSize(2560, 1440);
+ * }
+ * </pre>
+ * <p>
+ * Widgets size their hit regions with the current scale when they are created, so the runtime should not be swapped while widgets built with the old one are still in use.
+ * </p>
+ */
+public class EaselRuntime {
+    private static ScreenMetrics screen;
+    private static InputSource input;
+    private static FontMetrics fonts;
+    private static HitRegionProvider hitRegions;
+    private static TextureProvider textures;
+
+    static {
+        useGameRuntime();
+    }
+
+    // --------------------------------------------------------------------------------
+
+    /**
+     * Replaces the runtime pieces individually, e.g. to use the game's screen and fonts but scripted input.
+     * @param screen the new screen metrics
+     * @param input the new input source
+     * @param fonts the new font metrics
+     * @param hitRegions the new hit region provider
+     * @param textures the new texture provider
+     */
+    public static void install(ScreenMetrics screen, InputSource input, FontMetrics fonts, HitRegionProvider hitRegions, TextureProvider textures) {
+        EaselRuntime.screen = screen;
+        EaselRuntime.input = input;
+        EaselRuntime.fonts = fonts;
+        EaselRuntime.hitRegions = hitRegions;
+        EaselRuntime.textures = textures;
+    }
+
+    /**
+     * Replaces the runtime pieces individually, keeping the current {@link TextureProvider}.
+     * @param screen the new screen metrics
+     * @param input the new input source
+     * @param fonts the new font metrics
+     * @param hitRegions the new hit region provider
+     * @see #install(ScreenMetrics, InputSource, FontMetrics, HitRegionProvider, TextureProvider)
+     */
+    public static void install(ScreenMetrics screen, InputSource input, FontMetrics fonts, HitRegionProvider hitRegions) {
+        install(screen, input, fonts, hitRegions, textures);
+    }
+
+    /**
+     * Restores the default runtime, backed by the running game. Does not touch the {@link EaselClock}; see {@link EaselClock#useGdxClock()}.
+     */
+    public static void useGameRuntime() {
+        GameRuntime runtime = new GameRuntime();
+        install(runtime, runtime, runtime, runtime, runtime);
+    }
+
+    /**
+     * Switches to a fresh runtime that doesn't require the game. The {@link EaselClock} is switched over to the runtime's simulated clock as well (see {@link HeadlessRuntime#getClock()}).
+     * @return the new runtime, for setting the screen size and simulating input
+     */
+    public static HeadlessRuntime useHeadlessRuntime() {
+        HeadlessRuntime runtime = new HeadlessRuntime();
+        install(runtime, runtime, runtime, runtime, runtime);
+
+        EaselClock.setSource(runtime.getClock());
+        return runtime;
+    }
+
+    // --------------------------------------------------------------------------------
+
+    public static ScreenMetrics getScreen() { return screen; }
+    public static InputSource getInput() { return input; }
+    public static FontMetrics getFonts() { return fonts; }
+    public static HitRegionProvider getHitRegions() { return hitRegions; }
+    public static TextureProvider getTextures() { return textures; }
+}
@@ -0,0 +1,34 @@
+package easel.runtime;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+
+/**
+ * Text measurement, as used by labels to determine their size. Mirrors the measurement half of the base game's <code>FontHelper</code>, along with the defaults used by text widgets.
+ * @see EaselRuntime#getFonts()
+ */
+public interface FontMetrics {
+    /**
+     * @param font the font to measure with
+     * @param text the text to measure (a single line)
+     * @param scale a multiplier applied to the result
+     * @return the width of the text, in screen pixels (times the scale)
+     */
+    float getWidth(BitmapFont font, String text, float scale);
+
+    /**
+     * @param font the font to measure
+     * @return the height of a single line of text, in screen pixels
+     */
+    float getHeight(BitmapFont font);
+
+    /**
+     * @return the font used by text widgets when none is specified (the base game's <code>FontHelper.tipBodyFont</code>)
+     */
+    BitmapFont getDefaultFont();
+
+    /**
+     * @return the color used by text widgets when none is specified (the base game's <code>Settings.CREAM_COLOR</code>)
+     */
+    Color getDefaultColor();
+}
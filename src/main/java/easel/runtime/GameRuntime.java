@@ -0,0 +1,98 @@
+package easel.runtime;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.megacrit.cardcrawl.core.Settings;
+import com.megacrit.cardcrawl.helpers.FontHelper;
+import com.megacrit.cardcrawl.helpers.Hitbox;
+import com.megacrit.cardcrawl.helpers.ImageMaster;
+import com.megacrit.cardcrawl.helpers.controller.CInputActionSet;
+import com.megacrit.cardcrawl.helpers.input.InputHelper;
+
+/**
+ * The default runtime, backed by the running game: <code>Settings</code>, <code>InputHelper</code>, <code>CInputActionSet</code>, <code>FontHelper</code>, <code>Hitbox</code>, and <code>ImageMaster</code>. Everything is read straight from the game's statics each time it is asked for, so changes made by the game (e.g. a resolution change) are picked up immediately.
+ * @see EaselRuntime#useGameRuntime()
+ */
+public class GameRuntime implements ScreenMetrics, InputSource, FontMetrics, HitRegionProvider, TextureProvider {
+    /**
+     * A hit region backed by the base game's {@link Hitbox}.
+     */
+    public static class GameHitRegion implements HitRegion {
+        private final Hitbox hb;
+
+        GameHitRegion(float width, float height) {
+            this.hb = new Hitbox(width, height);
+        }
+
+        /**
+         * @return the underlying base game hitbox
+         */
+        public Hitbox getHitbox() {
+            return hb;
+        }
+
+        @Override public void move(float centerX, float centerY) { hb.move(centerX, centerY); }
+        @Override public void resize(float width, float height) { hb.resize(width, height); }
+        @Override public void update() { hb.update(); }
+        @Override public boolean isHovered() { return hb.hovered; }
+
+        @Override public float getX() { return hb.x; }
+        @Override public float getY() { return hb.y; }
+        @Override public float getWidth() { return hb.width; }
+        @Override public float getHeight() { return hb.height; }
+
+        @Override public void render(SpriteBatch sb) { hb.render(sb); }
+    }
+
+    // --------------------------------------------------------------------------------
+    // Screen
+
+    @Override public int getWidth() { return Settings.WIDTH; }
+    @Override public int getHeight() { return Settings.HEIGHT; }
+    @Override public float getScale() { return Settings.scale; }
+    @Override public float getXScale() { return Settings.xScale; }
+    @Override public float getYScale() { return Settings.yScale; }
+
+    // --------------------------------------------------------------------------------
+    // Input
+
+    @Override public int getMouseX() { return InputHelper.mX; }
+    @Override public int getMouseY() { return InputHelper.mY; }
+
+    @Override public boolean isLeftClickJustPressed() { return InputHelper.justClickedLeft; }
+    @Override public boolean isLeftClickJustReleased() { return InputHelper.justReleasedClickLeft; }
+    @Override public boolean isRightClickJustPressed() { return InputHelper.justClickedRight; }
+    @Override public boolean isRightClickJustReleased() { return InputHelper.justReleasedClickRight; }
+
+    @Override public boolean isScrolledUp() { return InputHelper.scrolledUp; }
+    @Override public boolean isScrolledDown() { return InputHelper.scrolledDown; }
+
+    @Override public boolean isKeyPressed(int keycode) { return Gdx.input.isKeyPressed(keycode); }
+
+    @Override public boolean isControllerSelectJustPressed() { return CInputActionSet.select.isJustPressed(); }
+    @Override public void consumeControllerSelect() { CInputActionSet.select.unpress(); }
+
+    // --------------------------------------------------------------------------------
+    // Fonts
+
+    @Override public float getWidth(BitmapFont font, String text, float scale) { return FontHelper.getWidth(font, text, scale); }
+    @Override public float getHeight(BitmapFont font) { return FontHelper.getHeight(font); }
+    @Override public BitmapFont getDefaultFont() { return FontHelper.tipBodyFont; }
+    @Override public Color getDefaultColor() { return Settings.CREAM_COLOR; }
+
+    // --------------------------------------------------------------------------------
+    // Hit regions
+
+    @Override
+    public HitRegion createHitRegion(float width, float height) {
+        return new GameHitRegion(width, height);
+    }
+
+    // --------------------------------------------------------------------------------
+    // Textures
+
+    @Override public Texture getWhiteSquare() { return ImageMaster.WHITE_SQUARE_IMG; }
+}
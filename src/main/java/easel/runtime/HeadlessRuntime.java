@@ -0,0 +1,311 @@
+package easel.runtime;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.GlyphLayout;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntSet;
+import easel.utils.EaselClock;
+
+/**
+ * <p>
+ * A runtime that doesn't need the game (or a GL context) at all, for running widget trees in a plain JVM: profiling, soak tests, benchmarks, and performance checks in CI. The screen size and all input are set manually, and hit regions are simple rectangles tested against the simulated mouse. Only <code>update()</code> and the layout / anchoring functions are supported: rendering still requires the game.
+ * </p>
+ * <p>
+ * Input follows the same per-frame rules as the game: the "just pressed" and "just released" states last until {@link #endFrame()} is called, which should happen after each update of the widget tree. Time is simulated as well: {@link EaselRuntime#useHeadlessRuntime()} drives the {@link EaselClock} from this runtime's {@link #getClock()}, which advances by a fixed step on every {@link #endFrame()}.
+ * </p>
+ * <pre>
+ * {@code
+ * HeadlessRuntime runtime = EaselRuntime.useHeadlessRuntime();
+ *
+ * AbstractWidget root = buildSomeTree()
+ *         .anchoredCenteredOnScreen();
+ *
+ * runtime.setMousePosition(960, 540);
+ * runtime.pressLeft();
+ * root.update();
+ * runtime.endFrame();
+ *
+ * runtime.releaseLeft();
+ * root.update();
+ * runtime.endFrame();
+ * }
+ * </pre>
+ * @see EaselRuntime#useHeadlessRuntime()
+ */
+public class HeadlessRuntime implements ScreenMetrics, InputSource, FontMetrics, HitRegionProvider, TextureProvider {
+    // The base game lays everything out in this space
+    private static final float REFERENCE_WIDTH = 1920.0f;
+    private static final float REFERENCE_HEIGHT = 1080.0f;
+
+    // Same as the base game's Settings.CREAM_COLOR
+    private static final Color DEFAULT_COLOR = new Color(1.0f, 0.965f, 0.886f, 1.0f);
+
+    private int width;
+    private int height;
+    private float xScale;
+    private float yScale;
+
+    private int mouseX;
+    private int mouseY;
+
+    private boolean justClickedLeft;
+    private boolean justReleasedLeft;
+    private boolean justClickedRight;
+    private boolean justReleasedRight;
+    private boolean scrolledUp;
+    private boolean scrolledDown;
+    private boolean controllerSelect;
+
+    private final IntSet pressedKeys = new IntSet();
+
+    private final EaselClock.VirtualSource clock = new EaselClock.VirtualSource();
+    private float frameSeconds = 1.0f / 60.0f;
+
+    private final GlyphLayout layout = new GlyphLayout();
+    private BitmapFont defaultFont;
+
+    /**
+     * A hit region tested against the simulated mouse of its runtime, with the same (exclusive) bounds check as the base game's <code>Hitbox</code>.
+     */
+    private class HeadlessHitRegion implements HitRegion {
+        private float x = -10000.0f;
+        private float y = -10000.0f;
+        private float width;
+        private float height;
+        private boolean hovered;
+
+        HeadlessHitRegion(float width, float height) {
+            this.width = width;
+            this.height = height;
+        }
+
+        @Override
+        public void move(float centerX, float centerY) {
+            this.x = centerX - 0.5f * width;
+            this.y = centerY - 0.5f * height;
+        }
+
+        @Override
+        public void resize(float width, float height) {
+            this.width = width;
+            this.height = height;
+        }
+
+        @Override
+        public void update() {
+            hovered = mouseX > x && mouseX < x + width && mouseY > y && mouseY < y + height;
+        }
+
+        @Override public boolean isHovered() { return hovered; }
+
+        @Override public float getX() { return x; }
+        @Override public float getY() { return y; }
+        @Override public float getWidth() { return width; }
+        @Override public float getHeight() { return height; }
+
+        @Override public void render(SpriteBatch sb) { }
+    }
+
+    /**
+     * Creates a headless runtime with a 1920x1080 screen (scale 1) and the mouse at the origin.
+     */
+    public HeadlessRuntime() {
+        setScreenSize(1920, 1080);
+    }
+
+    // --------------------------------------------------------------------------------
+
+    /**
+     * Changes the simulated screen size. The scale factors are derived the same way the base game does, relative to 1920x1080.
+     * @param width the new width, in pixels
+     * @param height the new height, in pixels
+     * @return this runtime
+     */
+    public HeadlessRuntime setScreenSize(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.xScale = width / REFERENCE_WIDTH;
+        this.yScale = height / REFERENCE_HEIGHT;
+        return this;
+    }
+
+    /**
+     * @param x the new X coordinate of the mouse, in screen pixels
+     * @param y the new Y coordinate of the mouse, in screen pixels
+     * @return this runtime
+     */
+    public HeadlessRuntime setMousePosition(int x, int y) {
+        this.mouseX = x;
+        this.mouseY = y;
+        return this;
+    }
+
+    public HeadlessRuntime pressLeft() { this.justClickedLeft = true; return this; }
+    public HeadlessRuntime releaseLeft() { this.justReleasedLeft = true; return this; }
+    public HeadlessRuntime pressRight() { this.justClickedRight = true; return this; }
+    public HeadlessRuntime releaseRight() { this.justReleasedRight = true; return this; }
+    public HeadlessRuntime scrollUp() { this.scrolledUp = true; return this; }
+    public HeadlessRuntime scrollDown() { this.scrolledDown = true; return this; }
+    public HeadlessRuntime pressControllerSelect() { this.controllerSelect = true; return this; }
+
+    /**
+     * @param keycode a libGDX key code, e.g. <code>Input.Keys.SHIFT_LEFT</code>
+     * @param pressed whether the key is held down
+     * @return this runtime
+     */
+    public HeadlessRuntime setKeyPressed(int keycode, boolean pressed) {
+        if (pressed)
+            pressedKeys.add(keycode);
+        else
+            pressedKeys.remove(keycode);
+
+        return this;
+    }
+
+    /**
+     * @param frameSeconds how much simulated time passes on each {@link #endFrame()} (defaults to a sixtieth of a second)
+     * @return this runtime
+     */
+    public HeadlessRuntime setFrameSeconds(float frameSeconds) {
+        this.frameSeconds = frameSeconds;
+        return this;
+    }
+
+    /**
+     * @return the simulated clock, advanced by {@link #endFrame()} (and free to be stepped manually as well)
+     */
+    public EaselClock.VirtualSource getClock() {
+        return clock;
+    }
+
+    /**
+     * Clears all of the single frame input states (clicks, releases, scrolls, and controller presses) and advances the clock to the next frame. Held keys and the mouse position carry over to the next frame.
+     */
+    public void endFrame() {
+        clock.step(frameSeconds);
+
+        justClickedLeft = false;
+        justReleasedLeft = false;
+        justClickedRight = false;
+        justReleasedRight = false;
+        scrolledUp = false;
+        scrolledDown = false;
+        controllerSelect = false;
+    }
+
+    // --------------------------------------------------------------------------------
+
+    /**
+     * Builds a font usable for measurement (but not rendering) without any font files, textures, or GL context. Every printable ASCII character has the same advance, so text widths are easy to predict. Measurement still runs through libGDX's real <code>GlyphLayout</code>.
+     * @param lineHeight the line height of the font
+     * @param advance how far each printable, non-space character moves the cursor
+     * @param spaceAdvance how far a space moves the cursor
+     * @return the new font
+     */
+    public static BitmapFont makeMeasurementFont(float lineHeight, float advance, float spaceAdvance) {
+        BitmapFont.BitmapFontData data = new BitmapFont.BitmapFontData();
+        data.lineHeight = lineHeight;
+        data.capHeight = lineHeight * 0.6f;
+        data.spaceWidth = spaceAdvance;
+
+        // Glyphs are added after construction, as the font would otherwise try to map them onto (non-existent) textures
+        BitmapFont font = new BitmapFont(data, new Array<>(new TextureRegion[] { new TextureRegion() }), true);
+
+        for (char c = 33; c < 127; ++c)
+            data.setGlyph(c, makeGlyph(c, advance, data.capHeight));
+
+        data.setGlyph(' ', makeGlyph(' ', spaceAdvance, 0.0f));
+
+        return font;
+    }
+
+    private static BitmapFont.Glyph makeGlyph(char c, float advance, float height) {
+        BitmapFont.Glyph glyph = new BitmapFont.Glyph();
+        glyph.id = c;
+        glyph.width = Math.max((int)advance - 1, 0);
+        glyph.height = (int)height;
+        glyph.xadvance = (int)advance;
+        return glyph;
+    }
+
+    // --------------------------------------------------------------------------------
+    // Screen
+
+    @Override public int getWidth() { return width; }
+    @Override public int getHeight() { return height; }
+    @Override public float getScale() { return xScale; }
+    @Override public float getXScale() { return xScale; }
+    @Override public float getYScale() { return yScale; }
+
+    // --------------------------------------------------------------------------------
+    // Input
+
+    @Override public int getMouseX() { return mouseX; }
+    @Override public int getMouseY() { return mouseY; }
+
+    @Override public boolean isLeftClickJustPressed() { return justClickedLeft; }
+    @Override public boolean isLeftClickJustReleased() { return justReleasedLeft; }
+    @Override public boolean isRightClickJustPressed() { return justClickedRight; }
+    @Override public boolean isRightClickJustReleased() { return justReleasedRight; }
+
+    @Override public boolean isScrolledUp() { return scrolledUp; }
+    @Override public boolean isScrolledDown() { return scrolledDown; }
+
+    @Override public boolean isKeyPressed(int keycode) { return pressedKeys.contains(keycode); }
+
+    @Override public boolean isControllerSelectJustPressed() { return controllerSelect; }
+    @Override public void consumeControllerSelect() { controllerSelect = false; }
+
+    // --------------------------------------------------------------------------------
+    // Fonts
+
+    @Override
+    public float getWidth(BitmapFont font, String text, float scale) {
+        layout.setText(font, text);
+        return layout.width * scale;
+    }
+
+    @Override
+    public float getHeight(BitmapFont font) {
+        return font.getLineHeight();
+    }
+
+    /**
+     * @return a measurement only font (see {@link #makeMeasurementFont(float, float, float)}) roughly the size of the base game's tip body font
+     */
+    @Override
+    public BitmapFont getDefaultFont() {
+        if (defaultFont == null)
+            defaultFont = makeMeasurementFont(26.0f, 10.0f, 7.0f);
+
+        return defaultFont;
+    }
+
+    @Override
+    public Color getDefaultColor() {
+        return DEFAULT_COLOR;
+    }
+
+    // --------------------------------------------------------------------------------
+    // Hit regions
+
+    @Override
+    public HitRegion createHitRegion(float width, float height) {
+        return new HeadlessHitRegion(width, height);
+    }
+
+    // --------------------------------------------------------------------------------
+    // Textures
+
+    /**
+     * @return null, as there is nothing to render with
+     */
+    @Override
+    public Texture getWhiteSquare() {
+        return null;
+    }
+}
@@ -0,0 +1,44 @@
+package easel.runtime;
+
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+
+/**
+ * An axis-aligned rectangle in screen pixels that knows whether the mouse is over it. Mirrors the base game's <code>Hitbox</code>.
+ * @see HitRegionProvider
+ */
+public interface HitRegion {
+    /**
+     * Moves the region to a new center point.
+     * @param centerX the new horizontal center, in screen pixels
+     * @param centerY the new vertical center, in screen pixels
+     */
+    void move(float centerX, float centerY);
+
+    /**
+     * Changes the size of the region. The bottom left corner stays put (matching the base game's <code>Hitbox</code>).
+     * @param width the new width, in screen pixels
+     * @param height the new height, in screen pixels
+     */
+    void resize(float width, float height);
+
+    /**
+     * Refreshes the hover state against the current mouse position. Should be called once per frame.
+     */
+    void update();
+
+    /**
+     * @return true if the mouse was inside this region as of the last {@link #update()}
+     */
+    boolean isHovered();
+
+    float getX();
+    float getY();
+    float getWidth();
+    float getHeight();
+
+    /**
+     * Draws the region outline if the game's debug mode is enabled.
+     * @param sb the SpriteBatch to render upon
+     */
+    void render(SpriteBatch sb);
+}
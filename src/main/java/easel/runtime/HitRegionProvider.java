@@ -0,0 +1,14 @@
+package easel.runtime;
+
+/**
+ * Creates the hit regions used by interactive widgets.
+ * @see EaselRuntime#getHitRegions()
+ */
+public interface HitRegionProvider {
+    /**
+     * @param width the initial width, in screen pixels
+     * @param height the initial height, in screen pixels
+     * @return a new hit region (placed off screen until it is moved)
+     */
+    HitRegion createHitRegion(float width, float height);
+}
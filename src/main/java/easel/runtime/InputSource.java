@@ -0,0 +1,43 @@
+package easel.runtime;
+
+/**
+ * The mouse, keyboard, and controller state widgets react to during <code>update()</code>. Mirrors the pieces of the base game's <code>InputHelper</code> and <code>CInputActionSet</code> that easel uses. All of the "just" functions refer to the current frame only.
+ * @see EaselRuntime#getInput()
+ */
+public interface InputSource {
+    /**
+     * @return the X coordinate of the mouse, in screen pixels
+     */
+    int getMouseX();
+
+    /**
+     * @return the Y coordinate of the mouse, in screen pixels (increasing towards the top of the screen)
+     */
+    int getMouseY();
+
+    boolean isLeftClickJustPressed();
+    boolean isLeftClickJustReleased();
+
+    boolean isRightClickJustPressed();
+    boolean isRightClickJustReleased();
+
+    boolean isScrolledUp();
+    boolean isScrolledDown();
+
+    /**
+     * @param keycode a libGDX key code, e.g. <code>Input.Keys.SHIFT_LEFT</code>
+     * @return true if that key is currently held down
+     */
+    boolean isKeyPressed(int keycode);
+
+    /**
+     * @return true if the controller's select (confirm) action was just pressed and hasn't been consumed yet
+     * @see #consumeControllerSelect()
+     */
+    boolean isControllerSelectJustPressed();
+
+    /**
+     * Marks the controller's select action as handled, so nothing else reacts to the same press.
+     */
+    void consumeControllerSelect();
+}
@@ -0,0 +1,32 @@
+package easel.runtime;
+
+/**
+ * The size of the screen and the scale factors used to convert between the unscaled (1080p) space that widgets are laid out in and actual screen pixels. Mirrors the base game's <code>Settings.WIDTH</code>, <code>Settings.HEIGHT</code>, <code>Settings.scale</code>, <code>Settings.xScale</code>, and <code>Settings.yScale</code>.
+ * @see EaselRuntime#getScreen()
+ */
+public interface ScreenMetrics {
+    /**
+     * @return the width of the screen, in pixels
+     */
+    int getWidth();
+
+    /**
+     * @return the height of the screen, in pixels
+     */
+    int getHeight();
+
+    /**
+     * @return the uniform scale factor (used for things like font sizes that shouldn't be stretched)
+     */
+    float getScale();
+
+    /**
+     * @return the horizontal scale factor (screen pixels per unscaled pixel)
+     */
+    float getXScale();
+
+    /**
+     * @return the vertical scale factor (screen pixels per unscaled pixel)
+     */
+    float getYScale();
+}
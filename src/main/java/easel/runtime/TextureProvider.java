@@ -0,0 +1,14 @@
+package easel.runtime;
+
+import com.badlogic.gdx.graphics.Texture;
+
+/**
+ * Shared textures used by widgets that draw plain shapes. Mirrors the part of the base game's <code>ImageMaster</code> that widgets use.
+ * @see EaselRuntime#getTextures()
+ */
+public interface TextureProvider {
+    /**
+     * @return a plain white texture, tinted with the SpriteBatch color to draw solid rectangles (the base game's <code>ImageMaster.WHITE_SQUARE_IMG</code>); null if the runtime can't render
+     */
+    Texture getWhiteSquare();
+}
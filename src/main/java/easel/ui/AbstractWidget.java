@@ -1,16 +1,18 @@
 package easel.ui;
 
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
-import com.megacrit.cardcrawl.core.Settings;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
 import com.megacrit.cardcrawl.helpers.Hitbox;
-import com.megacrit.cardcrawl.helpers.controller.CInputActionSet;
-import com.megacrit.cardcrawl.helpers.input.InputHelper;
 import easel.Easel;
+import easel.runtime.EaselRuntime;
+import easel.runtime.GameRuntime;
+import easel.runtime.HitRegion;
+import easel.runtime.InputSource;
+import easel.runtime.ScreenMetrics;
+import easel.utils.EaselClock;
 import easel.utils.EaselInputHelper;
-import org.apache.commons.lang3.tuple.Pair;
 
-import java.util.Comparator;
-import java.util.TreeSet;
+import java.lang.ref.WeakReference;
 import java.util.function.Consumer;
 
 /**
@@ -98,6 +100,9 @@ import java.util.function.Consumer;
  * Building more complicated widget hierarchies never really gets more complex than this as long as you follow the 3 step process. Often it is convenient to make your own classes extend <code>AbstractWidget</code> in order to take advantage of the various automatic layout managers; this approach is recommended once you find yourself having to deal with excessive manual placement of widgets, since the layouts were originally designed to make handling many widgets as painless as possible. As long as you stick to convention, it is pretty easy to add new functionality and compose widgets together in new and exciting ways.
  * </p>
  * <p>
+ * <b>Custom widgets holding children of their own:</b> positions are stored relative to the parent widget, and a child only has a parent once it is attached with {@link #attachChild(AbstractWidget)}. Attached children follow every move of their parent for free (including drags by a {@link easel.ui.containers.MoveContainer}), invalidate its layout when they change size, and are disposed along with it. Custom widgets written before this existed usually override {@link #anchoredAt(float, float, AnchorPosition, InterpolationSpeed)} to re-anchor their children instead. That still works, as anchoring calls the override and the <code>MoveContainer</code> drags such widgets by re-anchoring them, but it costs a traversal of the subtree on every move. To migrate, call <code>attachChild(child)</code> when the widget starts holding a child (and {@link #detachChild(AbstractWidget)} when it stops), then remove the <code>anchoredAt</code> override; children can then be positioned once, relative to the widget, e.g. from {@link #arrange()}.
+ * </p>
+ * <p>
  * Eventually, we hope to include some additional samples to study which provide more practical examples to follow. For now, please explore the various classes on this javadoc and take a look at the functions to see what's available.
  * </p>
  * @param <T> a self-type pattern; when extending AbstractWidget with your own custom class, make sure to extend it like: <code>public class MyWidget extends AbstractWidget{@literal <}MyWidget{@literal >} { ... }</code>. This lets the builder pattern-esque functions work nicely and be easily chainable without explicit casts.
@@ -105,7 +110,29 @@ import java.util.function.Consumer;
 public abstract class AbstractWidget<T extends AbstractWidget<T>> {
     private float marginLeft, marginRight, marginTop, marginBottom;
 
+    // Position of the bottom left corner, relative to the bottom left corner of the parent (or the screen if this widget has no parent)
     private float x, y;
+
+    private AbstractWidget parent;
+
+    // Attached children (see attachChild()), as a linked list running through the children themselves
+    private AbstractWidget firstChild;
+    private AbstractWidget prevSibling, nextSibling;
+
+    // Cached screen position; only valid while worldDirty is false. Moving a widget only marks its own subtree dirty, and
+    // stops early at widgets which are already dirty (since everything below a dirty widget is dirty too)
+    private float worldX, worldY;
+    private boolean worldDirty = true;
+
+    // Set when the screen position (or that of an ancestor) changed since the hitbox was last anchored
+    private boolean hitboxStale;
+
+    // Layout invalidation (see invalidateLayout())
+    private boolean needsMeasure = true;
+    private boolean needsArrange = true;
+
+    // Render invalidation (see invalidateRender())
+    private boolean needsRedraw = true;
 //    private float targetX, targetY;
 //    private InterpolationSpeed interpolationSpeed = InterpolationSpeed.INSTANT;
 
@@ -113,11 +140,23 @@ public abstract class AbstractWidget<T extends AbstractWidget<T>> {
 
     protected boolean hasInteractivity;
 
+    /**
+     * The base game hitbox behind this widget's hit region, for subclasses that use it directly (e.g. to check <code>hb.hovered</code>). Only set once the widget is interactive, and only while running on the {@link easel.runtime.GameRuntime}; other runtimes leave it null. Prefer {@link #getHitRegion()}, which works on every runtime.
+     */
     protected Hitbox hb;
+
+    // The hit region actually used for hover detection (see EaselRuntime.getHitRegions())
+    private HitRegion hitRegion;
     protected boolean leftClickStarted;
     protected boolean rightClickStarted;
     protected boolean isHovered;
 
+    // Handle of this widget's hitbox inside the shared InteractivityIndex (NONE while hidden or detached)
+    private int hitboxHandle = InteractivityIndex.NONE;
+    private boolean isHitboxHidden;
+
+    private static final InteractivityIndex interactivityIndex = InteractivityIndex.INSTANCE;
+
     private final Consumer<T> NOOP = x -> {};
 
     protected Consumer<T> onLeftClick = NOOP;
@@ -133,93 +172,22 @@ public abstract class AbstractWidget<T extends AbstractWidget<T>> {
 //    private boolean hasMovable;
 //    private MovableWidget movableWidget;
 
-    private static final class DelayedMovement {
-        private boolean relative;
-        private boolean started = false;
-
-        private float x, y;
-        private float destX, destY;
-        private float currX, currY;
-
-        private InterpolationSpeed delayedSpeed;
-
-        // --------------------------------------------------------------------------------
-
-        private DelayedMovement(float x, float y, InterpolationSpeed delayedSpeed, boolean isRelative) {
-            this.x = x;
-            this.y = y;
-            this.delayedSpeed = delayedSpeed;
-            this.relative = isRelative;
-        }
-
-        public static DelayedMovement absolute(float destinationX, float destinationY, InterpolationSpeed delayedSpeed) {
-            return new DelayedMovement(destinationX, destinationY, delayedSpeed, false);
-        }
-
-        public static DelayedMovement relative(float deltaX, float deltaY, InterpolationSpeed delayedSpeed) {
-            return new DelayedMovement(deltaX, deltaY, delayedSpeed, true);
-        }
-
-        // --------------------------------------------------------------------------------
-
-        public float getX() {
-            return x;
-        }
-
-        public float getY() {
-            return y;
-        }
-
-        // --------------------------------------------------------------------------------
-
-        public boolean isRelative() {
-            return relative;
-        }
-
-        public boolean isStarted() {
-            return started;
-        }
-
-        public boolean isFinished() {
-            return (currX == destX) && (currY == destY);
-        }
-
-        // --------------------------------------------------------------------------------
-
-        public void start(float currX, float currY) {
-            started = true;
+    // Head of this widget's queue of pending movements, stored inside the shared AnimationEngine pool
+    private int movementHead = AnimationEngine.NONE;
 
-            this.currX = currX;
-            this.currY = currY;
+    // Reused weak reference to this widget, handed to the shared AnimationEngine and InteractivityIndex
+    private WeakReference<AbstractWidget<T>> selfReference;
 
-            if (relative) {
-                destX = currX + x;
-                destY = currY + y;
-            }
-            else {
-                destX = x;
-                destY = y;
-            }
-        }
+    private static final AnimationEngine animations = AnimationEngine.INSTANCE;
 
-        public float interpolatedX() {
-            currX = delayedSpeed.interpolate(currX, destX);
-            return currX;
-        }
+    // Shader left bound by the last widget rendered with useSharedShader() (and the shader it replaced). Only kept
+    //   between siblings of a parent that draws nothing itself (see rendersOnlyChildren()), so consecutive widgets
+    //   using the same program don't flush between each other
+    private static SpriteBatch sharedShaderBatch;
+    private static ShaderProgram replacedShader;
 
-        public float interpolatedY() {
-            currY = delayedSpeed.interpolate(currY, destY);
-            return currY;
-        }
-    }
-
-    private final TreeSet<Pair<Long, DelayedMovement>> delayedMovementQueue = new TreeSet<>(new Comparator<Pair<Long, DelayedMovement>>() {
-        @Override
-        public int compare(Pair<Long, DelayedMovement> a, Pair<Long, DelayedMovement> b) {
-//            return b.getKey().compareTo(a.getKey());
-            return a.getKey().compareTo(b.getKey());
-        }
-    });
+    // The widget whose renderWidget() is currently running, i.e. the caller of any nested render(); null outside of rendering
+    private static AbstractWidget renderingWidget;
 
 //    private boolean hasMovementDelay;
 //    private long movementDelayStartTime;
@@ -258,6 +226,7 @@ public abstract class AbstractWidget<T extends AbstractWidget<T>> {
      */
     public T withMargins(float all) {
         this.marginLeft = this.marginBottom = this.marginRight = this.marginTop = all;
+        invalidateLayout();
         return (T)this;
     }
 
@@ -271,6 +240,7 @@ public abstract class AbstractWidget<T extends AbstractWidget<T>> {
     public T withMargins(float horizontal, float vertical) {
         this.marginLeft = this.marginRight = horizontal;
         this.marginBottom = this.marginTop = vertical;
+        invalidateLayout();
         return (T)this;
     }
 
@@ -297,6 +267,7 @@ public abstract class AbstractWidget<T extends AbstractWidget<T>> {
         this.marginRight = right;
         this.marginBottom = bottom;
         this.marginTop = top;
+        invalidateLayout();
         return (T)this;
     }
 
@@ -342,11 +313,11 @@ public abstract class AbstractWidget<T extends AbstractWidget<T>> {
 //                false
 //        )));
 
-        delayedMovementQueue.add(Pair.of(System.currentTimeMillis() - 10, DelayedMovement.absolute(
-                anchorPosition.getLeft(x, getWidth()),
-                anchorPosition.getBottom(y, getHeight()),
-                movementSpeed
-        )));
+        enqueueMovement(EaselClock.getTimeMillis(),
+                anchorPosition.getLeft(x, getWidth()) - getParentLeft(),
+                anchorPosition.getBottom(y, getHeight()) - getParentBottom(),
+                movementSpeed,
+                false);
 
         // Attempt to resolve this move instantly
 //        if (movementSpeed == InterpolationSpeed.INSTANT)
@@ -364,6 +335,9 @@ public abstract class AbstractWidget<T extends AbstractWidget<T>> {
 
         anchorHitboxOnTarget();
 
+        // Bring any stale children up to date (a no-op if nothing changed since the last arrange)
+        validateLayout();
+
         return (T)this;
     }
 
@@ -427,20 +401,8 @@ public abstract class AbstractWidget<T extends AbstractWidget<T>> {
      * @see #anchoredAt(float, float, AnchorPosition)
      */
     public final T anchoredAtClamped(float x, float y, AnchorPosition anchorPosition, InterpolationSpeed movementSpeed, float clampedBorder) {
-        float tx = anchorPosition.getLeft(x, getWidth());
-        float ty = anchorPosition.getBottom(y, getHeight());
-
-        // Clamp bottom left
-        if (tx < clampedBorder)
-            tx = clampedBorder;
-        if (ty < clampedBorder)
-            ty = clampedBorder;
-
-        // Clamp top right
-        if (tx + getWidth() > (Settings.WIDTH - clampedBorder))
-            tx = Settings.WIDTH - clampedBorder - getWidth();
-        if (ty + getHeight() > (Settings.HEIGHT - clampedBorder))
-            ty = Settings.HEIGHT - clampedBorder - getHeight();
+        float tx = clampLeft(anchorPosition.getLeft(x, getWidth()), clampedBorder);
+        float ty = clampBottom(anchorPosition.getBottom(y, getHeight()), clampedBorder);
 
         // Do the anchoring
         return anchoredAt(tx, ty, AnchorPosition.LEFT_BOTTOM, movementSpeed);
@@ -495,6 +457,28 @@ public abstract class AbstractWidget<T extends AbstractWidget<T>> {
         return anchoredAtClamped(x, y, anchorPosition, InterpolationSpeed.INSTANT, clampedBorder);
     }
 
+    private float clampLeft(float left, float clampedBorder) {
+        if (left < clampedBorder)
+            left = clampedBorder;
+
+        int screenWidth = EaselRuntime.getScreen().getWidth();
+        if (left + getWidth() > (screenWidth - clampedBorder))
+            left = screenWidth - clampedBorder - getWidth();
+
+        return left;
+    }
+
+    private float clampBottom(float bottom, float clampedBorder) {
+        if (bottom < clampedBorder)
+            bottom = clampedBorder;
+
+        int screenHeight = EaselRuntime.getScreen().getHeight();
+        if (bottom + getHeight() > (screenHeight - clampedBorder))
+            bottom = screenHeight - clampedBorder - getHeight();
+
+        return bottom;
+    }
+
     /**
      * Instantly move the widget such that the widget's center point is centered on the screen's center point.
      * @return this widget
@@ -513,8 +497,9 @@ public abstract class AbstractWidget<T extends AbstractWidget<T>> {
      * @see #anchoredAt(float, float, AnchorPosition, InterpolationSpeed)
      */
     public final T anchoredCenteredOnScreen(InterpolationSpeed movementSpeed) {
-        float screenCenterX = (Settings.WIDTH / 2.0f) / Settings.xScale;
-        float screenCenterY = (Settings.HEIGHT / 2.0f) / Settings.yScale;
+        ScreenMetrics screen = EaselRuntime.getScreen();
+        float screenCenterX = (screen.getWidth() / 2.0f) / screen.getXScale();
+        float screenCenterY = (screen.getHeight() / 2.0f) / screen.getYScale();
 
         return anchoredAt(screenCenterX, screenCenterY, AnchorPosition.CENTER, movementSpeed);
     }
@@ -545,8 +530,9 @@ public abstract class AbstractWidget<T extends AbstractWidget<T>> {
      * @return this widget
      */
     public final T anchoredCenteredOnMouse(float offsetX, float offsetY, AnchorPosition anchorPosition) {
-        float scaledX = InputHelper.mX / Settings.xScale;
-        float scaledY = InputHelper.mY / Settings.yScale;
+        ScreenMetrics screen = EaselRuntime.getScreen();
+        float scaledX = EaselRuntime.getInput().getMouseX() / screen.getXScale();
+        float scaledY = EaselRuntime.getInput().getMouseY() / screen.getYScale();
 
         return anchoredAt(scaledX + offsetX, scaledY + offsetY, anchorPosition);
     }
@@ -560,8 +546,9 @@ public abstract class AbstractWidget<T extends AbstractWidget<T>> {
      * @return this widget
      */
     public final T anchoredCenteredOnMouseClamped(float offsetX, float offsetY, AnchorPosition anchorPosition, float clampedBorder) {
-        float scaledX = InputHelper.mX / Settings.xScale;
-        float scaledY = InputHelper.mY / Settings.yScale;
+        ScreenMetrics screen = EaselRuntime.getScreen();
+        float scaledX = EaselRuntime.getInput().getMouseX() / screen.getXScale();
+        float scaledY = EaselRuntime.getInput().getMouseY() / screen.getYScale();
 
         return anchoredAtClamped(scaledX + offsetX, scaledY + offsetY, anchorPosition, clampedBorder);
     }
@@ -571,11 +558,12 @@ public abstract class AbstractWidget<T extends AbstractWidget<T>> {
      * Force a refresh of the anchor position but keep the widget in the same exact spot. This may be useful in a few extremely niche cases, though in typical use of the library this function should NOT be needed nor used. This can be used to recompute subtle anchor changes down the hierarchy as it simply calls anchoredAt() but in a way where the position is unchanged. Note that calling this function may invalidate any previous slower-moving anchor calls (i.e. those generated by anchor calls without {@link InterpolationSpeed#INSTANT}). Friendly advice: don't structure any custom widgets in a way where this function is required if you can avoid it. As a reminder, calling any member of the anchoredAt family can be reasonably expensive and should be avoided if possible (i.e. only call anchoredAt once until the widget actually needs to move; hopefully the first time you've called anchoredAt everything will update properly). If you're using easel's built in widgets, the general hope is that calling this function on them won't be noticeable at all / won't do what you probably were wanting it to do. This function is mostly included as a "nuclear option" if some custom widget just wants a (lazy) way to refresh some sort of internal layout.
      * </p>
      * <p>
-     * Note: Implementation-wise, this function is simply an alias for <code>anchoredAt(getLeft(), getBottom(), AnchorPosition.LEFT_BOTTOM)</code>, and will traverse down the hierarchy as needed.
+     * Note: Implementation-wise, this function is simply {@link #invalidateLayout()} followed by <code>anchoredAt(getLeft(), getBottom(), AnchorPosition.LEFT_BOTTOM)</code>, and will re-measure and re-arrange this widget and its ancestors. Since widgets invalidate themselves whenever their size changes, this should almost never be necessary.
      * </p>
      * @return this widget
      */
     public final T refreshAnchor() {
+        invalidateLayout();
         return anchoredAt(getLeft(), getBottom(), AnchorPosition.LEFT_BOTTOM);
     }
 
@@ -583,22 +571,30 @@ public abstract class AbstractWidget<T extends AbstractWidget<T>> {
      * Sets up the necessary pieces in order to move to the target location after a delay. Called by {@link #setAllDelayedMovement(float, float, InterpolationSpeed, long)} which in turn is called whenever you {@link #delayedTranslate(float, float, InterpolationSpeed, long)} (the real, public facing access for delayed movement).
      * @param deltaX how much movement horizontally
      * @param deltaY how much movement vertically
-     * @param movementSpeed how fast the widget will move towards the target, once startingTimeMillis is reached (i.e. {@link System#currentTimeMillis()} is greater than or equal to this starting time)
-     * @param startingTimeMillis a time generated by an offset of {@link System#currentTimeMillis()}, determined by the original {@link #delayedTranslate(float, float, InterpolationSpeed, long)} function that starts this chain
+     * @param movementSpeed how fast the widget will move towards the target, once startingTimeMillis is reached (i.e. {@link EaselClock#getTimeMillis()} is greater than or equal to this starting time)
+     * @param startingTimeMillis a time generated by an offset of {@link EaselClock#getTimeMillis()}, determined by the original {@link #delayedTranslate(float, float, InterpolationSpeed, long)} function that starts this chain
      */
     private final void setPersonalDelayedMovement(float deltaX, float deltaY, InterpolationSpeed movementSpeed, long startingTimeMillis) {
-        delayedMovementQueue.add(
-                Pair.of(startingTimeMillis, DelayedMovement.relative(deltaX, deltaY, movementSpeed))
-        );
+        enqueueMovement(startingTimeMillis, deltaX, deltaY, movementSpeed, true);
+    }
+
+    private void enqueueMovement(long startingTimeMillis, float x, float y, InterpolationSpeed movementSpeed, boolean isRelative) {
+        movementHead = animations.enqueue(movementHead, getSelfReference(), startingTimeMillis, x, y, movementSpeed, isRelative);
+
+        // The target position changed, so the hitboxes of this subtree need to be moved over there
+        invalidateWorldPosition();
 
+        // Pending movements only advance when rendered, so make sure cached ancestors keep rendering us
+        if (parent != null)
+            parent.invalidateRender();
     }
 
     /**
-     * For use with {@link #delayedTranslate(float, float, InterpolationSpeed, long)}. Make sure any widget with children (e.g. containers, layouts, etc.) overrides this function and calls {@link #setAllDelayedMovement(float, float, InterpolationSpeed, long)} using the input to this function on all direct descendants. This is required if you want to be able to use a delayed anchoredAt command on custom widgets.
+     * For use with {@link #delayedTranslate(float, float, InterpolationSpeed, long)}. Children attached with {@link #attachChild(AbstractWidget)} are positioned relative to this widget and follow its movements automatically, so they should NOT be handled here. Only custom widgets that manage children without attaching them (i.e. children positioned directly in screen space) need to override this function and call {@link #setAllDelayedMovement(float, float, InterpolationSpeed, long)} using the input to this function on those children.
      * @param deltaX how much movement horizontally
      * @param deltaY how much movement vertically
-     * @param movementSpeed how fast the widget will move towards the target, once startingTimeMillis is reached (i.e. {@link System#currentTimeMillis()} is greater than or equal to this starting time)
-     * @param startingTimeMillis a time generated by an offset of {@link System#currentTimeMillis()}, determined by the original {@link #delayedTranslate(float, float, InterpolationSpeed, long)} function that starts this chain
+     * @param movementSpeed how fast the widget will move towards the target, once startingTimeMillis is reached (i.e. {@link EaselClock#getTimeMillis()} is greater than or equal to this starting time)
+     * @param startingTimeMillis a time generated by an offset of {@link EaselClock#getTimeMillis()}, determined by the original {@link #delayedTranslate(float, float, InterpolationSpeed, long)} function that starts this chain
      */
     protected void setChildrenDelayedMovement(float deltaX, float deltaY, InterpolationSpeed movementSpeed, long startingTimeMillis) {
         // should be overridden by containers, layouts, or any widget managing children etc.
@@ -608,8 +604,8 @@ public abstract class AbstractWidget<T extends AbstractWidget<T>> {
      * Don't call directly. Used inside {@link #setChildrenDelayedMovement(float, float, InterpolationSpeed, long)} as the operation called on all a widget's children in order to percolate the results of {@link #delayedTranslate(float, float, InterpolationSpeed, long)} down the widget hierarchy. Use {@link #delayedTranslate(float, float, InterpolationSpeed, long)} if you want to use the delayed movement functionality (this function is public to make it slightly easier for widgets with children to use stream iterators, but should be considered as if it was protected and not used directly).
      * @param deltaX how much movement horizontally
      * @param deltaY how much movement vertically
-     * @param movementSpeed how fast the widget will move towards the target, once startingTimeMillis is reached (i.e. {@link System#currentTimeMillis()} is greater than or equal to this starting time)
-     * @param startingTimeMillis a time generated by an offset of {@link System#currentTimeMillis()}, determined by the original {@link #delayedTranslate(float, float, InterpolationSpeed, long)} function that starts this chain
+     * @param movementSpeed how fast the widget will move towards the target, once startingTimeMillis is reached (i.e. {@link EaselClock#getTimeMillis()} is greater than or equal to this starting time)
+     * @param startingTimeMillis a time generated by an offset of {@link EaselClock#getTimeMillis()}, determined by the original {@link #delayedTranslate(float, float, InterpolationSpeed, long)} function that starts this chain
      */
     public final void setAllDelayedMovement(float deltaX, float deltaY, InterpolationSpeed movementSpeed, long startingTimeMillis) {
         setPersonalDelayedMovement(deltaX, deltaY, movementSpeed, startingTimeMillis);
@@ -629,7 +625,7 @@ public abstract class AbstractWidget<T extends AbstractWidget<T>> {
         if (shouldTryAndResolveOneLastTime)
             resolveMovementQueue();
 
-        delayedMovementQueue.clear();
+        movementHead = animations.releaseAll(movementHead);
 
         cancelMovementQueueForAllChildren(shouldTryAndResolveOneLastTime);
     }
@@ -640,26 +636,26 @@ public abstract class AbstractWidget<T extends AbstractWidget<T>> {
 
     /**
      * <p>
-     * Translate the widget but delay the movement until a certain number of milliseconds have passed. Note that this is a more "advanced" anchoring function which lets you set a simple timer to aid in making more aesthetic movements (e.g. synchronizing widgets to move one after the other). This function will override any previous calls of itself if they're not completed by the time the timer expires (i.e you can only have one of these working at once, and the one that finishes first will clear the others). Custom widgets that have descendants of their own will need to override {@link #setChildrenDelayedMovement(float, float, InterpolationSpeed, long)} and call {@link #setAllDelayedMovement(float, float, InterpolationSpeed, long)} on all children in order for this function to work. By default, any widget included in this library that has descendants (e.g. layouts, containers, etc.) will already have this implemented and should be usable out of the box.
+     * Translate the widget but delay the movement until a certain number of milliseconds have passed. Note that this is a more "advanced" anchoring function which lets you set a simple timer to aid in making more aesthetic movements (e.g. synchronizing widgets to move one after the other). This function will override any previous calls of itself if they're not completed by the time the timer expires (i.e you can only have one of these working at once, and the one that finishes first will clear the others). Descendants attached with {@link #attachChild(AbstractWidget)} are positioned relative to this widget, so only this widget's own movement is queued and the whole subtree follows along. By default, any widget included in this library that has descendants (e.g. layouts, containers, etc.) attaches them and should be usable out of the box.
      * </p>
      * <p>
      * See {@link #anchoredAt(float, float, AnchorPosition, InterpolationSpeed)} for more details about anchoring.
      * </p>
      * @param deltaX how much to translate horizontally (positive values are to the right)
      * @param deltaY how much to translate vertically (positive values are towards the top)
-     * @param movementSpeed how fast the widget will move towards the target, once startingTimeMillis is reached (i.e. {@link System#currentTimeMillis()} is greater than or equal to this starting time)
+     * @param movementSpeed how fast the widget will move towards the target, once startingTimeMillis is reached (i.e. {@link EaselClock#getTimeMillis()} is greater than or equal to this starting time)
      * @param delayTimeMillis the number of milliseconds necessary to pass in the game loop before the move is started
      * @return this widget
      * @see #translate(float, float, InterpolationSpeed)
      * @see #anchoredAt(float, float, AnchorPosition, InterpolationSpeed)
      */
     public final T delayedTranslate(float deltaX, float deltaY, InterpolationSpeed movementSpeed, long delayTimeMillis) {
-        setAllDelayedMovement(deltaX, deltaY, movementSpeed, System.currentTimeMillis() + delayTimeMillis);
+        setAllDelayedMovement(deltaX, deltaY, movementSpeed, EaselClock.getTimeMillis() + delayTimeMillis);
         return (T) this;
     }
 
     /**
-     * Translate the widget by a given amount. Translations are performed by shifting the bottom left ({@link #getLeft()}, {@link #getBottom()}) point to the right (or left if negative) a distance of <code>deltaX</code> and up (or down) a distance of <code>deltaY</code>. Translations depend on having anchored previously and are mostly included as convenience.
+     * Translate the widget by a given amount. Translations are performed by shifting the bottom left ({@link #getLeft()}, {@link #getBottom()}) point to the right (or left if negative) a distance of <code>deltaX</code> and up (or down) a distance of <code>deltaY</code>. Translations depend on having anchored previously and are mostly included as convenience. Since children are positioned relative to their parent, translating a container only moves the container itself: its descendants follow along without needing to be re-anchored, no matter how large the subtree is.
      * @param deltaX how much to translate horizontally (positive values are to the right)
      * @param deltaY how much to translate vertically (positive values are towards the top)
      * @param movementSpeed how fast the widget will move towards the target
@@ -668,7 +664,29 @@ public abstract class AbstractWidget<T extends AbstractWidget<T>> {
      * @see #anchoredAt(float, float, AnchorPosition, InterpolationSpeed)
      */
     public final T translate(float deltaX, float deltaY, InterpolationSpeed movementSpeed) {
-        return anchoredAt(getLeft() + deltaX, getBottom() + deltaY, AnchorPosition.LEFT_BOTTOM, movementSpeed);
+        enqueueMovement(EaselClock.getTimeMillis(), x + deltaX, y + deltaY, movementSpeed, false);
+
+        resolveMovementQueue();
+        anchorHitboxOnTarget();
+
+        return (T)this;
+    }
+
+    /**
+     * Instantly translate the widget by a given amount, but keep the widget's full bounds at least <code>clampedBorder</code> away from the edges of the screen. This is the translation counterpart to {@link #anchoredAtClamped(float, float, AnchorPosition, float)}, and is useful for things like dragging a widget around with the mouse: like {@link #translate(float, float)}, only this widget is moved and its descendants follow along for free.
+     * @param deltaX the requested horizontal amount to shift by
+     * @param deltaY the requested vertical amount to shift by
+     * @param clampedBorder the minimum distance to keep between the widget and the edges of the screen
+     * @return this widget
+     * @see #anchoredAtClamped(float, float, AnchorPosition, float)
+     */
+    public final T translateClamped(float deltaX, float deltaY, float clampedBorder) {
+        float left = getLeft();
+        float bottom = getBottom();
+
+        return translate(clampLeft(left + deltaX, clampedBorder) - left,
+                clampBottom(bottom + deltaY, clampedBorder) - bottom,
+                InterpolationSpeed.INSTANT);
     }
 
 
@@ -700,49 +718,52 @@ public abstract class AbstractWidget<T extends AbstractWidget<T>> {
      * @return the left-most point (past the left margin)
      * @see #getLeft()
      */
-    public float getContentLeft() { return x + marginLeft; }
+    public float getContentLeft() { return getLeft() + marginLeft; }
 
     /**
      * The right-most point of the inner content area, useful for internal widget rendering. Undefined behavior if used before anchoring at least once.
      * @return the right-most point (minus the right margin)
      * @see #getRight()
      */
-    public float getContentRight() { return x + marginLeft + getContentWidth(); }
+    public float getContentRight() { return getLeft() + marginLeft + getContentWidth(); }
 
     /**
      * The bottom-most point of the inner content area, useful for internal widget rendering. Undefined behavior if used before anchoring at least once.
      * @return the bottom-most point (above the bottom margin)
      * @see #getBottom()
      */
-    public float getContentBottom() { return y + marginBottom; }
+    public float getContentBottom() { return getBottom() + marginBottom; }
 
     /**
      * The upper-most point of the inner content area, useful for internal widget rendering. Undefined behavior if used before anchoring at least once.
      * @return the top-most point (below the top margin)
      * @see #getTop()
      */
-    public float getContentTop() { return y + marginBottom + getContentHeight(); }
+    public float getContentTop() { return getBottom() + marginBottom + getContentHeight(); }
 
     /**
      * The horizontal center of the inner content area, useful for internal widget rendering. Computed as <code>getLeft() + marginLeft + 0.5f * getContentWidth()</code>. Undefined behavior if used before anchoring at least once.
      * @return the horizontal center of this widget
      * @see #getContentCenterY()
      */
-    public float getContentCenterX() { return x + marginLeft + 0.5f * getContentWidth(); }
+    public float getContentCenterX() { return getLeft() + marginLeft + 0.5f * getContentWidth(); }
 
     /**
      * The vertical center of the inner content area, useful for internal widget rendering. Computed as <code>getBottom() + marginBottom + 0.5f * getContentHeight()</code>. Undefined behavior if used before anchoring at least once.
      * @return the vertical center of this widget
      * @see #getContentCenterX()
      */
-    public float getContentCenterY() { return y + marginBottom + 0.5f * getContentHeight(); }
+    public float getContentCenterY() { return getBottom() + marginBottom + 0.5f * getContentHeight(); }
 
     /**
      * The absolute left most point of the widget, useful for layout managers. Undefined behavior if used before anchoring at least once.
      * @return the left-most point (ignores margins)
      * @see #getContentLeft()
      */
-    public float getLeft() { return x; }
+    public float getLeft() {
+        refreshWorldPosition();
+        return worldX;
+    }
 
 
     /**
@@ -750,21 +771,236 @@ public abstract class AbstractWidget<T extends AbstractWidget<T>> {
      * @return the bottom-most point (ignores margins)
      * @see #getContentBottom()
      */
-    public float getBottom() { return y; }
+    public float getBottom() {
+        refreshWorldPosition();
+        return worldY;
+    }
 
     /**
      * The absolute top-most point of the widget, useful for layout managers. Undefined behavior if used before anchoring at least once.
      * @return the top-most point (ignores margins)
      * @see #getContentTop()
      */
-    public float getTop() { return y + getHeight(); }
+    public float getTop() { return getBottom() + getHeight(); }
 
     /**
      * The absolute right-most point of the widget, useful for layout managers. Undefined behavior if used before anchoring at least once.
      * @return the right-most point (ignores margins)
      * @see #getContentRight()
      */
-    public float getRight() { return x + getWidth(); }
+    public float getRight() { return getLeft() + getWidth(); }
+
+    // --------------------------------------------------------------------------------
+    // Layout (measure / arrange)
+    // --------------------------------------------------------------------------------
+
+    /**
+     * <p>
+     * Marks the layout of this widget as out of date. This should be called whenever something that affects the size of this widget (e.g. its content width/height, margins, or the set of children it manages) changes. The invalidation is passed up through every attached ancestor (see {@link #attachChild(AbstractWidget)}), since their sizes and arrangements may depend on this one.
+     * </p>
+     * <p>
+     * Invalidating is cheap and no work is done immediately: dirty widgets are re-measured ({@link #measure()}) the next time their size is needed and re-arranged ({@link #arrange()}) the next time they are rendered or anchored, or right away with {@link #validateLayout()}. This means many changes in a row (e.g. adding hundreds of children to a layout) only result in a single layout pass.
+     * </p>
+     * @see #validateLayout()
+     */
+    protected final void invalidateLayout() {
+        for (AbstractWidget widget = this; widget != null; widget = widget.parent) {
+            widget.needsMeasure = true;
+            widget.needsArrange = true;
+            widget.needsRedraw = true;
+        }
+    }
+
+    /**
+     * Marks the appearance of this widget as changed, without affecting its size (e.g. after changing a color or a texture). Like {@link #invalidateLayout()}, this is passed up through every attached ancestor. Most widgets render every frame and ignore this entirely; it only matters to widgets that cache the rendered result of their descendants (see {@link easel.ui.containers.CachedWidget}). Changes to size or to the position of a child relative to its parent invalidate automatically.
+     * @see #consumeRenderInvalidation()
+     */
+    protected final void invalidateRender() {
+        for (AbstractWidget widget = this; widget != null; widget = widget.parent)
+            widget.needsRedraw = true;
+    }
+
+    /**
+     * Checks (and resets) whether anything about this widget or its attached descendants has changed in appearance since the last time this was called.
+     * @return true if {@link #invalidateRender()} (or {@link #invalidateLayout()}) was called on this widget or any attached descendant since the last call
+     */
+    protected final boolean consumeRenderInvalidation() {
+        boolean changed = needsRedraw;
+        needsRedraw = false;
+        return changed;
+    }
+
+    /**
+     * Immediately brings the layout of this widget up to date, if it has been invalidated since the last time it was laid out. Dirty children are laid out as part of this process; children whose layouts are already up to date are left alone. This is done automatically whenever the widget is rendered or anchored, so calling this manually is only necessary if you need accurate positions of descendants before then.
+     * @return this widget
+     * @see #invalidateLayout()
+     */
+    public final T validateLayout() {
+        measureIfNeeded();
+
+        if (needsArrange) {
+            needsArrange = false;
+            arrange();
+        }
+
+        return (T)this;
+    }
+
+    /**
+     * Runs the measure pass for this widget if it has been invalidated. Widgets that compute their size in {@link #measure()} should call this at the start of their <code>getContentWidth()</code> and <code>getContentHeight()</code> implementations so that their size is always up to date when queried.
+     */
+    protected final void measureIfNeeded() {
+        if (needsMeasure) {
+            needsMeasure = false;
+            measure();
+            resizeHitbox();
+        }
+    }
+
+    /**
+     * The measure pass. Widgets whose size depends on their children (e.g. layouts) should override this to recompute their size. Children sizes can be queried freely: children with out of date layouts measure themselves on demand. Called at most once per invalidation. The default implementation does nothing.
+     * @see #measureIfNeeded()
+     */
+    protected void measure() { }
+
+    /**
+     * The arrange pass. Widgets with children should override this to anchor those children somewhere inside this widget (e.g. using the current {@link #getContentLeft()}, {@link #getContentTop()}, etc.). Since attached children are positioned relative to their parent, the arrangement does not need to be redone when this widget moves; it is only called after {@link #invalidateLayout()}. Children should be anchored with {@link InterpolationSpeed#INSTANT}, as they automatically follow any movement animation of this widget. The default implementation does nothing.
+     */
+    protected void arrange() { }
+
+    // --------------------------------------------------------------------------------
+    // Parent-relative positioning
+    // --------------------------------------------------------------------------------
+
+    private void refreshWorldPosition() {
+        if (!worldDirty)
+            return;
+
+        if (parent == null) {
+            worldX = x;
+            worldY = y;
+        }
+        else {
+            worldX = parent.getLeft() + x;
+            worldY = parent.getBottom() + y;
+        }
+
+        worldDirty = false;
+
+        if (hasInteractivity)
+            hitboxStale = true;
+    }
+
+    /**
+     * Marks the cached screen position of this widget and all its attached descendants as out of date.
+     */
+    private void invalidateWorldPosition() {
+        if (worldDirty)
+            return;
+
+        worldDirty = true;
+
+        for (AbstractWidget child = firstChild; child != null; child = child.nextSibling)
+            child.invalidateWorldPosition();
+    }
+
+    private void setLocalPosition(float localX, float localY) {
+        if (localX != x || localY != y) {
+            this.x = localX;
+            this.y = localY;
+            invalidateWorldPosition();
+
+            // Moving relative to the parent changes how the parent looks (but moving the parent itself doesn't)
+            if (parent != null)
+                parent.invalidateRender();
+        }
+    }
+
+    private float getParentLeft() { return (parent == null) ? 0.0f : parent.getLeft(); }
+    private float getParentBottom() { return (parent == null) ? 0.0f : parent.getBottom(); }
+
+    /**
+     * <p>
+     * Makes this widget the parent of the given child. Positions are stored relative to the parent, so once attached, the child (and its entire subtree) automatically follows any movement of this widget: translating or animating a container is a single update regardless of how many descendants it has. Anchoring functions still take and return screen coordinates, so {@link #getLeft()}, {@link #getContentLeft()}, etc. behave exactly as before.
+     * </p>
+     * <p>
+     * Widgets that manage children (layouts, containers, etc.) should call this when they start managing a child and {@link #detachChild(AbstractWidget)} when they stop. The child keeps its current screen position when attached.
+     * </p>
+     * @param child the widget to attach
+     * @see #detachChild(AbstractWidget)
+     */
+    protected final void attachChild(AbstractWidget child) {
+        if (child == null || child.parent == this)
+            return;
+
+        float oldParentLeft = child.getParentLeft();
+        float oldParentBottom = child.getParentBottom();
+
+        if (child.parent != null)
+            child.parent.unlinkChild(child);
+
+        child.parent = this;
+
+        child.nextSibling = firstChild;
+        if (firstChild != null)
+            firstChild.prevSibling = child;
+        firstChild = child;
+
+        float deltaX = oldParentLeft - getLeft();
+        float deltaY = oldParentBottom - getBottom();
+
+        animations.rebase(child.movementHead, deltaX, deltaY);
+        child.setLocalPosition(child.x + deltaX, child.y + deltaY);
+        child.invalidateWorldPosition();
+
+        invalidateLayout();
+    }
+
+    /**
+     * Stops treating the given child as relative to this widget. The child keeps its current screen position and becomes a root widget (positioned directly in screen space). Does nothing if the child isn't attached to this widget.
+     * @param child the widget to detach
+     * @see #attachChild(AbstractWidget)
+     */
+    protected final void detachChild(AbstractWidget child) {
+        if (child == null || child.parent != this)
+            return;
+
+        float deltaX = getLeft();
+        float deltaY = getBottom();
+
+        unlinkChild(child);
+        child.parent = null;
+
+        // Until it gets used again somewhere else, the subtree shouldn't take up room in the shared index
+        child.removeSubtreeHitboxesFromIndex();
+
+        animations.rebase(child.movementHead, deltaX, deltaY);
+        child.setLocalPosition(child.x + deltaX, child.y + deltaY);
+        child.invalidateWorldPosition();
+
+        invalidateLayout();
+    }
+
+    private void unlinkChild(AbstractWidget child) {
+        if (child.prevSibling != null)
+            child.prevSibling.nextSibling = child.nextSibling;
+        else
+            firstChild = child.nextSibling;
+
+        if (child.nextSibling != null)
+            child.nextSibling.prevSibling = child.prevSibling;
+
+        child.prevSibling = null;
+        child.nextSibling = null;
+    }
+
+    /**
+     * @return the widget this one is positioned relative to, or null if it is positioned directly in screen space
+     * @see #attachChild(AbstractWidget)
+     */
+    public AbstractWidget getParent() {
+        return parent;
+    }
 
     // --------------------------------------------------------------------------------
 
@@ -772,24 +1008,23 @@ public abstract class AbstractWidget<T extends AbstractWidget<T>> {
      * Moves the widget to the target anchor position. This occurs when an <code>anchorAt</code> is called with an <code>InterpolationSpeed</code> other than <code>InterpolationSpeed.INSTANT</code>.
      */
     protected void resolveMovementQueue() {
-        while (!delayedMovementQueue.isEmpty()) {
-            Pair<Long, DelayedMovement> queueEntry = delayedMovementQueue.first();
-
-            long startTime = queueEntry.getLeft();
+        if (movementHead == AnimationEngine.NONE)
+            return;
 
-            if (System.currentTimeMillis() >= startTime) {
-                DelayedMovement movement = queueEntry.getRight();
+        long currentTime = EaselClock.getTimeMillis();
 
-                if (!movement.isStarted()) {
-                    movement.start(x, y);
+        while (movementHead != AnimationEngine.NONE) {
+            if (currentTime >= animations.getStartTime(movementHead)) {
+                if (!animations.isStarted(movementHead)) {
+                    animations.start(movementHead, x, y);
                 }
 
-                this.x = movement.interpolatedX();
-                this.y = movement.interpolatedY();
+                animations.advance(movementHead);
+                setLocalPosition(animations.getCurrX(movementHead), animations.getCurrY(movementHead));
 
-                if (movement.isFinished()) {
+                if (animations.isFinished(movementHead)) {
                     // Remove this from the queue
-                    delayedMovementQueue.pollFirst();
+                    movementHead = animations.release(movementHead);
                 }
                 else {
                     // Don't update anything else on the queue this update frame, as we're not done with this one yet
@@ -802,18 +1037,108 @@ public abstract class AbstractWidget<T extends AbstractWidget<T>> {
                 break;
             }
         }
+
+        if (movementHead != AnimationEngine.NONE && parent != null)
+            parent.invalidateRender();
     }
 
     /**
-     * Renders this widget onto the SpriteBatch. The position it is rendered at is determined by previously calling one of the anchoring methods, e.g. {@link #anchoredAt(float, float, AnchorPosition)}. If this widget changes the SpriteBatch parameters at all mid render (e.g. adding a shader, calling a sb.end(), etc.), these changes will be reset by the end of the render call so that the SpriteBatch has the same settings at the end as it did when entering this function. Container widgets (e.g. {@link easel.ui.layouts.VerticalLayout} etc.) will render all children that they manage.
+     * Renders this widget onto the SpriteBatch. The position it is rendered at is determined by previously calling one of the anchoring methods, e.g. {@link #anchoredAt(float, float, AnchorPosition)}. If this widget changes the SpriteBatch parameters at all mid render (e.g. adding a shader, calling a sb.end(), etc.), these changes will be reset by the end of the render call so that the SpriteBatch has the same settings at the end as it did when entering this function (the one exception being a shader shared between siblings, see {@link #useSharedShader(SpriteBatch, ShaderProgram)}, which the parent restores once it is done). Container widgets (e.g. {@link easel.ui.layouts.VerticalLayout} etc.) will render all children that they manage.
      * @param sb the SpriteBatch to render this widget upon
      */
     public final void render(SpriteBatch sb) {
+        // Catch up on any layout changes made since the last frame (dirty subtrees only)
+        if (needsMeasure || needsArrange)
+            validateLayout();
+
         resolveMovementQueue();
-        renderWidget(sb);
 
-        if (hasInteractivity)
-            hb.render(sb);
+        // A shader left bound by the previous widget can only be kept if this widget draws with the same program
+        ShaderProgram sharedShader = getSharedShader();
+
+        if (sharedShader != null)
+            useSharedShader(sb, sharedShader);
+        else if (!usesSharedShader())
+            restoreSharedShader();
+
+        AbstractWidget caller = renderingWidget;
+        renderingWidget = this;
+
+        try {
+            renderWidget(sb);
+        }
+        finally {
+            renderingWidget = caller;
+        }
+
+        if (hasInteractivity) {
+            restoreSharedShader();
+            hitRegion.render(sb);
+        }
+
+        // The shader can only stay bound for the next sibling if the caller won't draw anything itself in between
+        if (caller == null || !caller.rendersOnlyChildren())
+            restoreSharedShader();
+    }
+
+    /**
+     * @return true if this widget draws using {@link #useSharedShader(SpriteBatch, ShaderProgram)}, in which case a shader left bound by the previous widget is not restored before rendering it. By default, true if {@link #getSharedShader()} returns a program
+     */
+    protected boolean usesSharedShader() {
+        return getSharedShader() != null;
+    }
+
+    /**
+     * Widgets that always draw with a single shared program (e.g. text in a distance field font) can return it here instead of binding it themselves: it is bound with {@link #useSharedShader(SpriteBatch, ShaderProgram)} right before {@link #renderWidget(SpriteBatch)}.
+     * @return the shared program to draw this widget with, or null (the default) to leave the shader alone
+     */
+    protected ShaderProgram getSharedShader() {
+        return null;
+    }
+
+    /**
+     * Containers whose {@link #renderWidget(SpriteBatch)} does nothing but render their children (e.g. layouts) should override this to return true. A shader bound by one of their children with {@link #useSharedShader(SpriteBatch, ShaderProgram)} then stays bound for the next child, instead of being restored as soon as that child's {@link #render(SpriteBatch)} returns. Containers that draw anything themselves after rendering a child must keep the default of false, or their own draws would use the child's shader.
+     * @return true if this widget never draws on the SpriteBatch directly while rendering, aside from rendering its children
+     */
+    protected boolean rendersOnlyChildren() {
+        return false;
+    }
+
+    /**
+     * <p>
+     * Binds the given shader program for this widget's draws without necessarily restoring the previous shader at the end of the render. If the parent only renders children (see {@link #rendersOnlyChildren()}), the program stays bound until a sibling that doesn't use a shared shader renders, or until the parent's own render returns; otherwise, it is restored as soon as this widget's {@link #render(SpriteBatch)} returns. Consecutive widgets using the same program (e.g. a layout full of {@link easel.ui.graphics.pie.PieChartWidget}) therefore end up in a single batch, instead of flushing twice each.
+     * </p>
+     * <p>
+     * As the batch is only flushed after the last of these widgets, every parameter specific to a single widget needs to be stored in its vertices (e.g. the vertex color) rather than in uniforms. Widgets calling this need to override {@link #usesSharedShader()} to return true.
+     * </p>
+     * @param sb the SpriteBatch to render on
+     * @param program the program to draw with
+     * @see easel.ui.graphics.ShaderWidget
+     */
+    protected static void useSharedShader(SpriteBatch sb, ShaderProgram program) {
+        if (sharedShaderBatch != sb) {
+            restoreSharedShader();
+
+            sharedShaderBatch = sb;
+            replacedShader = sb.getShader();
+        }
+
+        if (sb.getShader() != program)
+            sb.setShader(program);
+    }
+
+    /**
+     * Restores the shader replaced by {@link #useSharedShader(SpriteBatch, ShaderProgram)}, if one is still bound. This happens automatically during rendering; widgets only need to call this themselves before ending the SpriteBatch in the middle of a render (e.g. to draw their content into a frame buffer).
+     */
+    protected static void restoreSharedShader() {
+        if (sharedShaderBatch == null)
+            return;
+
+        if (sharedShaderBatch.getShader() != replacedShader)
+            sharedShaderBatch.setShader(replacedShader);
+
+        sharedShaderBatch = null;
+        replacedShader = null;
     }
 
     /**
@@ -842,6 +1167,14 @@ public abstract class AbstractWidget<T extends AbstractWidget<T>> {
      */
     public void renderTopLevel(SpriteBatch sb) { }
 
+    /**
+     * Releases any GL resources (shader programs, frame buffers, etc.) held by this widget and every child attached to it (see {@link #attachChild(AbstractWidget)}). Call this on the root of a hierarchy once it is no longer needed; its widgets should not be rendered afterwards. Widgets holding resources of their own (or managing children they don't attach) should override this and call <code>super.dispose()</code>.
+     */
+    public void dispose() {
+        for (AbstractWidget child = firstChild; child != null; child = child.nextSibling)
+            child.dispose();
+    }
+
     /**
      * <p>
      * Custom widgets should implement this method for rendering. Use the inner content positions (e.g. {@link #getContentLeft()}, {@link #getContentWidth()}, etc.) to determine any position information necessary for rendering at a specific location. If the library is used as intended, these content locations should be accurate to where the widget needs to be rendered, as they reflect the most up to date location set by an anchoredAt call (this automatically will be interpolated if the anchorAt move is set to occur over several frames).
@@ -859,20 +1192,80 @@ public abstract class AbstractWidget<T extends AbstractWidget<T>> {
     // --------------------------------------------------------------------------------
 
     /**
-     * This should be called whenever the <code>getContentWidth()</code> or <code>getContentHeight()</code> changes.
+     * This should be called whenever the <code>getContentWidth()</code> or <code>getContentHeight()</code> changes. Besides resizing the hitbox, this also invalidates the layout of this widget (and its ancestors), see {@link #invalidateLayout()}.
      */
     protected void scaleHitboxToContent() {
+        resizeHitbox();
+        invalidateLayout();
+    }
+
+    private void resizeHitbox() {
         if (hasInteractivity) {
-            if (this.hb == null)
-                this.hb = new Hitbox(getContentWidth() * Settings.xScale, getContentHeight() * Settings.yScale);
-            else
-                this.hb.resize(getContentWidth() * Settings.xScale, getContentHeight() * Settings.yScale);
+            ScreenMetrics screen = EaselRuntime.getScreen();
+            float width = getContentWidth() * screen.getXScale();
+            float height = getContentHeight() * screen.getYScale();
+
+            if (this.hitRegion == null) {
+                this.hitRegion = EaselRuntime.getHitRegions().createHitRegion(width, height);
+
+                if (hitRegion instanceof GameRuntime.GameHitRegion)
+                    this.hb = ((GameRuntime.GameHitRegion)hitRegion).getHitbox();
+            }
+            else {
+                this.hitRegion.resize(width, height);
+            }
+
+            updateHitboxIndex();
+        }
+    }
+
+    private WeakReference<AbstractWidget<T>> getSelfReference() {
+        if (selfReference == null)
+            selfReference = new WeakReference<>(this);
+
+        return selfReference;
+    }
+
+    private void updateHitboxIndex() {
+        if (isHitboxHidden)
+            return;
+
+        if (hitboxHandle == InteractivityIndex.NONE) {
+            hitboxHandle = interactivityIndex.register(getSelfReference(), hitRegion);
+        }
+        else {
+            interactivityIndex.update(hitboxHandle, hitRegion);
+        }
+    }
+
+    private void removeHitboxFromIndex() {
+        if (hitboxHandle != InteractivityIndex.NONE) {
+            interactivityIndex.remove(hitboxHandle);
+            hitboxHandle = InteractivityIndex.NONE;
         }
     }
 
+    /**
+     * Takes the hitboxes of this widget and all its attached descendants out of the shared index. They are registered again the next time they are anchored or updated.
+     */
+    private void removeSubtreeHitboxesFromIndex() {
+        removeHitboxFromIndex();
+
+        for (AbstractWidget child = firstChild; child != null; child = child.nextSibling)
+            child.removeSubtreeHitboxesFromIndex();
+    }
+
+    /**
+     * @return the region used to detect whether the mouse is over this widget (in screen pixels), or null if this widget isn't interactive
+     * @see #hb
+     */
+    protected final HitRegion getHitRegion() {
+        return hitRegion;
+    }
+
     protected void initializeInteractivity() {
         this.hasInteractivity = true;
-        scaleHitboxToContent();
+        resizeHitbox();
     }
 
     public T onLeftClick(Consumer<T> onLeftClick) {
@@ -945,34 +1338,49 @@ public abstract class AbstractWidget<T extends AbstractWidget<T>> {
 //            movableWidget.hb.move(centerX * Settings.xScale,
 //                    centerY * Settings.yScale);
 //    }
-    private void anchorHitboxOnTarget() {
-        if (!hasInteractivity)
-            return;
-
-        // Figure out the final destination (after all queued moves complete)
+    // Figure out the final destination (after all queued moves complete, including those of any ancestors)
+    private float getTargetLeft() {
         float tx = x;
+
+        for (int movement = movementHead; movement != AnimationEngine.NONE; movement = animations.next(movement)) {
+            if (animations.isRelative(movement))
+                tx += animations.getX(movement);
+            else
+                tx = animations.getX(movement);
+        }
+
+        return (parent == null) ? tx : parent.getTargetLeft() + tx;
+    }
+
+    private float getTargetBottom() {
         float ty = y;
 
-        for (Pair<Long, DelayedMovement> pair : delayedMovementQueue) {
-            DelayedMovement movement = pair.getRight();
-            if (movement.isRelative()) {
-                tx += movement.getX();
-                ty += movement.getY();
-            }
-            else {
-                tx = movement.getX();
-                ty = movement.getY();
-            }
+        for (int movement = movementHead; movement != AnimationEngine.NONE; movement = animations.next(movement)) {
+            if (animations.isRelative(movement))
+                ty += animations.getY(movement);
+            else
+                ty = animations.getY(movement);
         }
 
-        float cx = tx + marginLeft + 0.5f * getContentWidth();
-        float cy = ty + marginBottom + 0.5f * getContentHeight();
+        return (parent == null) ? ty : parent.getTargetBottom() + ty;
+    }
+
+    private void anchorHitboxOnTarget() {
+        if (!hasInteractivity)
+            return;
+
+        float cx = getTargetLeft() + marginLeft + 0.5f * getContentWidth();
+        float cy = getTargetBottom() + marginBottom + 0.5f * getContentHeight();
 
         //public float getContentCenterX() { return x + marginLeft + 0.5f * getContentWidth(); }
         //float cx = getContentCenterX();
         //float cy = getContentCenterY();
 
-        hb.move(cx * Settings.xScale, cy * Settings.yScale);
+        ScreenMetrics screen = EaselRuntime.getScreen();
+        hitRegion.move(cx * screen.getXScale(), cy * screen.getYScale());
+        updateHitboxIndex();
+
+        hitboxStale = false;
     }
 
     // --------------------------------------------------------------------------------
@@ -980,11 +1388,13 @@ public abstract class AbstractWidget<T extends AbstractWidget<T>> {
     protected void mouseEnter() {
         onMouseEnter.accept((T)this);
         isHovered = true;
+        invalidateRender();
     }
 
     protected void mouseLeave() {
         onMouseLeave.accept((T)this);
         isHovered = false;
+        invalidateRender();
     }
 
     protected void leftMouseClick() {
@@ -1019,12 +1429,24 @@ public abstract class AbstractWidget<T extends AbstractWidget<T>> {
     protected void updateInteractivity() {
         // Update interactive pieces of this widget
         if (hasInteractivity) {
-            hb.update();
+            // Ancestors may have moved without this widget being re-anchored. Only their subtrees get marked, so
+            //   widgets outside of anything that moved skip this entirely
+            refreshWorldPosition();
+
+            if (hitboxStale)
+                anchorHitboxOnTarget();
+
+            // Nothing can change unless the mouse is (or was just) over this widget, so skip the real work for everything
+            //   else. The shared index makes this check cheap
+            if (!isHovered && !hitRegion.isHovered() && !leftClickStarted && !rightClickStarted && !interactivityIndex.isCandidate(hitboxHandle))
+                return;
+
+            hitRegion.update();
 
             // Hover (mouse enter / leave)
-            if (hb.hovered && !isHovered)
+            if (hitRegion.isHovered() && !isHovered)
                 mouseEnter();
-            else if (!hb.hovered && isHovered)
+            else if (!hitRegion.isHovered() && isHovered)
                 mouseLeave();
 
             // Mouse button down / up
@@ -1035,13 +1457,15 @@ public abstract class AbstractWidget<T extends AbstractWidget<T>> {
 
 
     private void updateLeftClicks() {
+        InputSource input = EaselRuntime.getInput();
+
         // Left click started
-        if (isHovered && InputHelper.justClickedLeft) {
+        if (isHovered && input.isLeftClickJustPressed()) {
             leftClickStarted = true;
             leftMouseDown();
         }
-        else if (hb.hovered && CInputActionSet.select.isJustPressed()) {
-            CInputActionSet.select.unpress();
+        else if (hitRegion.isHovered() && input.isControllerSelectJustPressed()) {
+            input.consumeControllerSelect();
 
 //            Easel.logger.info("Clicked (using CInputActionSet)");
 //            Easel.logger.info(this);
@@ -1051,7 +1475,7 @@ public abstract class AbstractWidget<T extends AbstractWidget<T>> {
         }
 
         // Left click ended
-        if (leftClickStarted && InputHelper.justReleasedClickLeft) {
+        if (leftClickStarted && input.isLeftClickJustReleased()) {
             if (isHovered) {
                 leftMouseReleased();
                 leftMouseClick();
@@ -1062,8 +1486,10 @@ public abstract class AbstractWidget<T extends AbstractWidget<T>> {
     }
 
     private void updateRightClicks() {
+        InputSource input = EaselRuntime.getInput();
+
         // Right click started
-        if (isHovered && InputHelper.justClickedRight) {
+        if (isHovered && input.isRightClickJustPressed()) {
             rightClickStarted = true;
             rightMouseDown();
         }
@@ -1077,7 +1503,7 @@ public abstract class AbstractWidget<T extends AbstractWidget<T>> {
 //        }
 
         // Right click ended
-        if (rightClickStarted && InputHelper.justReleasedClickRight) {
+        if (rightClickStarted && input.isRightClickJustReleased()) {
             if (isHovered) {
                 rightMouseReleased();
                 rightMouseClick();
@@ -1142,8 +1568,25 @@ public abstract class AbstractWidget<T extends AbstractWidget<T>> {
     // Usually for hitboxes, but can be used to enable/disable computations required each frame - these should recurse
     // down the hierarchy when appropriate
 
-    public void show() {}
-    public void hide() {}
+    /**
+     * Undoes {@link #hide()}. Overrides (e.g. containers passing this on to their children) should call <code>super.show()</code>.
+     */
+    public void show() {
+        if (isHitboxHidden) {
+            isHitboxHidden = false;
+
+            if (hasInteractivity)
+                anchorHitboxOnTarget();
+        }
+    }
+
+    /**
+     * Removes the hitbox of this widget (if any) from consideration for mouse events until {@link #show()} is called. Overrides (e.g. containers passing this on to their children) should call <code>super.hide()</code>.
+     */
+    public void hide() {
+        isHitboxHidden = true;
+        removeHitboxFromIndex();
+    }
 
     // --------------------------------------------------------------------------------
 
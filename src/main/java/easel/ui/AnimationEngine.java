@@ -0,0 +1,335 @@
+package easel.ui;
+
+import easel.utils.EaselClock;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Central storage for every queued widget movement (the interpolated moves produced by the <code>anchoredAt</code> family and the delayed moves produced by {@link AbstractWidget#delayedTranslate(float, float, InterpolationSpeed, long)}). Movements live in a single pool of parallel primitive arrays (struct-of-arrays style) and are chained into per-widget queues by index, so each widget only needs to remember the index of the head of its own queue.
+ * </p>
+ * <p>
+ * Slots are recycled through a free list. Once the pool has grown large enough to hold the peak number of in-flight movements, queueing, resolving, and finishing movements does not allocate. Slots still held by widgets that have since been garbage collected are reclaimed the next time the pool runs out of room, before it grows.
+ * </p>
+ * <p>
+ * Like the rest of the widget code, this engine is not thread-safe and should only be touched from the render thread.
+ * </p>
+ */
+final class AnimationEngine {
+    static final int NONE = -1;
+
+    static final AnimationEngine INSTANCE = new AnimationEngine();
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    private static final byte FLAG_RELATIVE = 1;
+    private static final byte FLAG_STARTED = 2;
+
+    // Movement data, indexed by slot
+    private long[] startTimes;
+    private float[] xs;
+    private float[] ys;
+    private float[] destXs;
+    private float[] destYs;
+    private float[] currXs;
+    private float[] currYs;
+    private InterpolationSpeed[] speeds;
+
+    // Time-based interpolation state (positions when started, spring velocities, clock times in seconds)
+    private float[] fromXs;
+    private float[] fromYs;
+    private float[] velXs;
+    private float[] velYs;
+    private double[] startedTimes;
+    private double[] lastTimes;
+    private byte[] flags;
+
+    // Queue links (next slot in the same widget queue, or the next free slot)
+    private int[] nexts;
+
+    // The widget that owns each slot (null if the slot is free)
+    private WeakReference<?>[] owners;
+
+    private int freeHead = NONE;
+    private int numUsed;
+
+    // --------------------------------------------------------------------------------
+
+    private AnimationEngine() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    private void allocate(int capacity) {
+        startTimes = new long[capacity];
+        xs = new float[capacity];
+        ys = new float[capacity];
+        destXs = new float[capacity];
+        destYs = new float[capacity];
+        currXs = new float[capacity];
+        currYs = new float[capacity];
+        speeds = new InterpolationSpeed[capacity];
+        fromXs = new float[capacity];
+        fromYs = new float[capacity];
+        velXs = new float[capacity];
+        velYs = new float[capacity];
+        startedTimes = new double[capacity];
+        lastTimes = new double[capacity];
+        flags = new byte[capacity];
+        nexts = new int[capacity];
+        owners = new WeakReference<?>[capacity];
+
+        chainFreeSlots(0, capacity);
+    }
+
+    private void grow() {
+        int oldCapacity = nexts.length;
+        int newCapacity = oldCapacity * 2;
+
+        startTimes = Arrays.copyOf(startTimes, newCapacity);
+        xs = Arrays.copyOf(xs, newCapacity);
+        ys = Arrays.copyOf(ys, newCapacity);
+        destXs = Arrays.copyOf(destXs, newCapacity);
+        destYs = Arrays.copyOf(destYs, newCapacity);
+        currXs = Arrays.copyOf(currXs, newCapacity);
+        currYs = Arrays.copyOf(currYs, newCapacity);
+        speeds = Arrays.copyOf(speeds, newCapacity);
+        fromXs = Arrays.copyOf(fromXs, newCapacity);
+        fromYs = Arrays.copyOf(fromYs, newCapacity);
+        velXs = Arrays.copyOf(velXs, newCapacity);
+        velYs = Arrays.copyOf(velYs, newCapacity);
+        startedTimes = Arrays.copyOf(startedTimes, newCapacity);
+        lastTimes = Arrays.copyOf(lastTimes, newCapacity);
+        flags = Arrays.copyOf(flags, newCapacity);
+        nexts = Arrays.copyOf(nexts, newCapacity);
+        owners = Arrays.copyOf(owners, newCapacity);
+
+        chainFreeSlots(oldCapacity, newCapacity);
+    }
+
+    private void chainFreeSlots(int from, int to) {
+        for (int i = to - 1; i >= from; --i) {
+            nexts[i] = freeHead;
+            freeHead = i;
+        }
+    }
+
+    /**
+     * Returns slots owned by widgets that no longer exist back to the free list.
+     * @return the number of slots reclaimed
+     */
+    private int reclaimAbandonedSlots() {
+        int reclaimed = 0;
+
+        for (int i = 0; i < owners.length; ++i) {
+            if (owners[i] != null && owners[i].get() == null) {
+                freeSlot(i);
+                ++reclaimed;
+            }
+        }
+
+        return reclaimed;
+    }
+
+    private int takeSlot() {
+        if (freeHead == NONE && reclaimAbandonedSlots() == 0)
+            grow();
+
+        int slot = freeHead;
+        freeHead = nexts[slot];
+        ++numUsed;
+
+        return slot;
+    }
+
+    private void freeSlot(int slot) {
+        owners[slot] = null;
+        speeds[slot] = null;
+        flags[slot] = 0;
+
+        nexts[slot] = freeHead;
+        freeHead = slot;
+        --numUsed;
+    }
+
+    // --------------------------------------------------------------------------------
+
+    /**
+     * Adds a new movement into the queue starting at <code>head</code>. The queue is kept sorted by starting time; movements with equal starting times keep the order they were enqueued in.
+     * @param head the first slot of the widget's current queue (or {@link #NONE} if empty)
+     * @param owner a (reused) weak reference to the widget owning the queue
+     * @param startTime when the movement should begin, in milliseconds
+     * @param x the absolute destination x (or the horizontal delta, if relative)
+     * @param y the absolute destination y (or the vertical delta, if relative)
+     * @param speed how quickly the movement interpolates once started
+     * @param relative whether (x, y) is a delta instead of a destination
+     * @return the (possibly new) head of the queue
+     */
+    int enqueue(int head, WeakReference<?> owner, long startTime, float x, float y, InterpolationSpeed speed, boolean relative) {
+        int slot = takeSlot();
+
+        startTimes[slot] = startTime;
+        xs[slot] = x;
+        ys[slot] = y;
+        speeds[slot] = speed;
+        flags[slot] = relative ? FLAG_RELATIVE : 0;
+        owners[slot] = owner;
+
+        // New earliest movement
+        if (head == NONE || startTime < startTimes[head]) {
+            nexts[slot] = head;
+            return slot;
+        }
+
+        // Otherwise insert after the last movement starting at or before this one
+        int prev = head;
+        while (nexts[prev] != NONE && startTimes[nexts[prev]] <= startTime)
+            prev = nexts[prev];
+
+        nexts[slot] = nexts[prev];
+        nexts[prev] = slot;
+
+        return head;
+    }
+
+    /**
+     * Finishes (removes) the given movement, which should be the head of its queue.
+     * @param slot the head of a queue
+     * @return the new head of that queue
+     */
+    int release(int slot) {
+        int next = nexts[slot];
+        freeSlot(slot);
+        return next;
+    }
+
+    /**
+     * Removes every movement in the queue.
+     * @param head the first slot of the queue
+     * @return {@link #NONE}, for convenience when clearing the stored head
+     */
+    int releaseAll(int head) {
+        while (head != NONE)
+            head = release(head);
+
+        return NONE;
+    }
+
+    /**
+     * Shifts every absolute destination in the queue by the given amount. Used when the coordinate space the queue was built in changes (e.g. the widget owning the queue gets a new parent). Relative movements are deltas and are left alone.
+     * @param head the first slot of the queue
+     * @param deltaX horizontal shift
+     * @param deltaY vertical shift
+     */
+    void rebase(int head, float deltaX, float deltaY) {
+        for (int slot = head; slot != NONE; slot = nexts[slot]) {
+            if (!isRelative(slot)) {
+                xs[slot] += deltaX;
+                ys[slot] += deltaY;
+            }
+
+            if (isStarted(slot)) {
+                fromXs[slot] += deltaX;
+                fromYs[slot] += deltaY;
+                currXs[slot] += deltaX;
+                currYs[slot] += deltaY;
+                destXs[slot] += deltaX;
+                destYs[slot] += deltaY;
+            }
+        }
+    }
+
+    // --------------------------------------------------------------------------------
+
+    int next(int slot) { return nexts[slot]; }
+    long getStartTime(int slot) { return startTimes[slot]; }
+
+    float getX(int slot) { return xs[slot]; }
+    float getY(int slot) { return ys[slot]; }
+
+    boolean isRelative(int slot) { return (flags[slot] & FLAG_RELATIVE) != 0; }
+    boolean isStarted(int slot) { return (flags[slot] & FLAG_STARTED) != 0; }
+
+    boolean isFinished(int slot) {
+        return (currXs[slot] == destXs[slot]) && (currYs[slot] == destYs[slot]) && velXs[slot] == 0.0f && velYs[slot] == 0.0f;
+    }
+
+    /**
+     * @return the number of movements currently queued across all widgets
+     */
+    int size() { return numUsed; }
+
+    // --------------------------------------------------------------------------------
+
+    /**
+     * Begins the movement from the given position at the current {@link EaselClock} time.
+     */
+    void start(int slot, float currX, float currY) {
+        flags[slot] |= FLAG_STARTED;
+
+        currXs[slot] = currX;
+        currYs[slot] = currY;
+        fromXs[slot] = currX;
+        fromYs[slot] = currY;
+        velXs[slot] = 0.0f;
+        velYs[slot] = 0.0f;
+
+        startedTimes[slot] = EaselClock.getTimeSeconds();
+        lastTimes[slot] = startedTimes[slot];
+
+        if (isRelative(slot)) {
+            destXs[slot] = currX + xs[slot];
+            destYs[slot] = currY + ys[slot];
+        }
+        else {
+            destXs[slot] = xs[slot];
+            destYs[slot] = ys[slot];
+        }
+    }
+
+    // Scratch {position, velocity} pair for spring steps
+    private final float[] springState = new float[2];
+
+    /**
+     * Moves a started movement forward to the current {@link EaselClock} time. Advancing more than once in the same frame has no further effect (no time has passed), so it is safe to resolve queues whenever convenient.
+     */
+    void advance(int slot) {
+        double now = EaselClock.getTimeSeconds();
+        float deltaSeconds = (float)(now - lastTimes[slot]);
+        lastTimes[slot] = now;
+
+        InterpolationSpeed speed = speeds[slot];
+
+        switch (speed.kind) {
+            case INSTANT:
+                currXs[slot] = destXs[slot];
+                currYs[slot] = destYs[slot];
+                break;
+            case EXPONENTIAL:
+                currXs[slot] = speed.stepExponential(currXs[slot], destXs[slot], deltaSeconds);
+                currYs[slot] = speed.stepExponential(currYs[slot], destYs[slot], deltaSeconds);
+                break;
+            case EASING:
+                float elapsedSeconds = (float)(now - startedTimes[slot]);
+                currXs[slot] = speed.ease(fromXs[slot], destXs[slot], elapsedSeconds);
+                currYs[slot] = speed.ease(fromYs[slot], destYs[slot], elapsedSeconds);
+                break;
+            case SPRING:
+                springState[0] = currXs[slot];
+                springState[1] = velXs[slot];
+                speed.stepSpring(springState, destXs[slot], deltaSeconds);
+                currXs[slot] = springState[0];
+                velXs[slot] = springState[1];
+
+                springState[0] = currYs[slot];
+                springState[1] = velYs[slot];
+                speed.stepSpring(springState, destYs[slot], deltaSeconds);
+                currYs[slot] = springState[0];
+                velYs[slot] = springState[1];
+                break;
+        }
+    }
+
+    float getCurrX(int slot) { return currXs[slot]; }
+    float getCurrY(int slot) { return currYs[slot]; }
+}
@@ -0,0 +1,170 @@
+package easel.ui;
+
+import com.badlogic.gdx.utils.IntArray;
+import easel.runtime.EaselRuntime;
+import easel.runtime.HitRegion;
+import easel.runtime.InputSource;
+import easel.runtime.ScreenMetrics;
+import easel.utils.SpatialIndex;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Shared spatial index of every interactive widget's hitbox (in screen pixels, the same space as {@link HitRegion}). Widgets register their hitbox once it is created and keep the index up to date whenever the hitbox moves or resizes. In return, {@link AbstractWidget#updateInteractivity()} can ask whether the mouse could possibly be over a widget before running any of the real hover and click logic.
+ * </p>
+ * <p>
+ * The set of candidates under the mouse is recomputed only when the mouse moves, using a single point query into a uniform grid. Hitboxes that move afterwards update their own candidate mark, so the marks always agree with the current hitbox bounds. The grid follows the screen size, and is rebuilt if the resolution changes. Widgets remove their hitbox when they are hidden or detached from their parent (and register it again once they are shown or anchored); entries belonging to widgets that were garbage collected without being removed are purged when they show up in a query, or swept up in bulk once enough handles have been handed out.
+ * </p>
+ * <p>
+ * Like the rest of the widget code, this index is not thread-safe and should only be touched from the render thread.
+ * </p>
+ */
+final class InteractivityIndex {
+    static final int NONE = SpatialIndex.NONE;
+
+    static final InteractivityIndex INSTANCE = new InteractivityIndex();
+
+    // Roughly the size of a typical button, in pixels
+    private static final float CELL_SIZE = 128.0f;
+
+    private final SpatialIndex<WeakReference<?>> index;
+
+    // Handles whose candidate mark equals the current mark are (inclusively) under the mouse
+    private int[] marks = new int[64];
+    private int currentMark = 1;
+
+    private int lastMouseX = Integer.MIN_VALUE;
+    private int lastMouseY = Integer.MIN_VALUE;
+
+    private final IntArray queryResults = new IntArray();
+
+    private int insertsSinceSweep;
+
+    // The screen size the grid was built for
+    private int screenWidth;
+    private int screenHeight;
+
+    // --------------------------------------------------------------------------------
+
+    private InteractivityIndex() {
+        ScreenMetrics screen = EaselRuntime.getScreen();
+        this.screenWidth = screen.getWidth();
+        this.screenHeight = screen.getHeight();
+        this.index = new SpatialIndex<>(Math.max(screenWidth, 1), Math.max(screenHeight, 1), CELL_SIZE);
+    }
+
+    private void resizeIfNeeded(ScreenMetrics screen) {
+        if (screen.getWidth() != screenWidth || screen.getHeight() != screenHeight) {
+            screenWidth = screen.getWidth();
+            screenHeight = screen.getHeight();
+            index.resize(Math.max(screenWidth, 1), Math.max(screenHeight, 1));
+        }
+    }
+
+    private void ensureMarkCapacity(int handle) {
+        if (handle >= marks.length)
+            marks = Arrays.copyOf(marks, Math.max(marks.length * 2, handle + 1));
+    }
+
+    private void setMark(int handle, boolean underMouse) {
+        marks[handle] = underMouse ? currentMark : 0;
+    }
+
+    /**
+     * Removes entries whose widgets no longer exist. Only runs once the number of inserts since the last sweep exceeds the number of live entries, so the cost is amortized across inserts.
+     */
+    private void sweepIfNeeded() {
+        if (++insertsSinceSweep <= index.size())
+            return;
+
+        insertsSinceSweep = 0;
+
+        for (int handle = 0; handle < index.capacity(); ++handle) {
+            WeakReference<?> ref = index.get(handle);
+
+            if (ref != null && ref.get() == null)
+                index.remove(handle);
+        }
+    }
+
+    // --------------------------------------------------------------------------------
+
+    /**
+     * @param owner a (reused) weak reference to the widget owning the hitbox
+     * @param hb the hitbox to track
+     * @return a handle to pass to {@link #update(int, HitRegion)} and {@link #remove(int)}
+     */
+    int register(WeakReference<?> owner, HitRegion hb) {
+        sweepIfNeeded();
+
+        int handle = index.insert(owner, hb.getX(), hb.getY(), hb.getWidth(), hb.getHeight(), 0);
+
+        ensureMarkCapacity(handle);
+        setMark(handle, index.contains(handle, lastMouseX, lastMouseY));
+
+        return handle;
+    }
+
+    /**
+     * Should be called whenever the hitbox moves or changes size.
+     * @param handle a handle returned by {@link #register(WeakReference, HitRegion)}
+     * @param hb the (moved) hitbox
+     */
+    void update(int handle, HitRegion hb) {
+        index.update(handle, hb.getX(), hb.getY(), hb.getWidth(), hb.getHeight());
+        setMark(handle, index.contains(handle, lastMouseX, lastMouseY));
+    }
+
+    /**
+     * Stops tracking a hitbox (e.g. when its widget is hidden). The handle must not be used afterwards.
+     * @param handle a handle returned by {@link #register(WeakReference, HitRegion)}
+     */
+    void remove(int handle) {
+        // May have been purged already, if the widget was collected in the meantime
+        if (index.get(handle) == null)
+            return;
+
+        index.remove(handle);
+        marks[handle] = 0;
+    }
+
+    /**
+     * @param handle a handle returned by {@link #register(WeakReference, HitRegion)}, or {@link #NONE}
+     * @return true if the mouse is inside (or on the border of) the registered hitbox; false means the hitbox definitely isn't hovered (or isn't registered at all)
+     */
+    boolean isCandidate(int handle) {
+        if (handle == NONE)
+            return false;
+
+        InputSource input = EaselRuntime.getInput();
+
+        if (input.getMouseX() != lastMouseX || input.getMouseY() != lastMouseY) {
+            resizeIfNeeded(EaselRuntime.getScreen());
+            refreshCandidates(input);
+        }
+
+        return marks[handle] == currentMark;
+    }
+
+    private void refreshCandidates(InputSource input) {
+        lastMouseX = input.getMouseX();
+        lastMouseY = input.getMouseY();
+
+        // Invalidates every previous mark at once
+        ++currentMark;
+
+        queryResults.clear();
+        index.queryPoint(lastMouseX, lastMouseY, queryResults);
+
+        for (int i = 0; i < queryResults.size; ++i) {
+            int handle = queryResults.items[i];
+
+            if (index.get(handle).get() == null)
+                index.remove(handle);
+            else
+                marks[handle] = currentMark;
+        }
+    }
+}
@@ -1,23 +1,158 @@
 package easel.ui;
 
-import com.megacrit.cardcrawl.helpers.MathHelper;
+import com.badlogic.gdx.math.Interpolation;
+import easel.utils.EaselClock;
 
+/**
+ * <p>
+ * How a widget (or any other value) moves towards its target over time. All speeds are driven by the {@link EaselClock}, so they take the same amount of real time to finish regardless of frame rate.
+ * </p>
+ * <ul>
+ *     <li>{@link #INSTANT}: jumps straight to the target.</li>
+ *     <li>{@link #FAST}, {@link #MEDIUM}, {@link #SLOW}: exponential approach (quick at first, slowing down towards the end), matching the feel of the base game's lerp-snap functions.</li>
+ *     <li>{@link #EASE_OUT}, {@link #EASE_IN_OUT}: fixed duration easing curves.</li>
+ *     <li>{@link #SPRING}, {@link #SPRING_BOUNCY}: damped springs, which may overshoot the target slightly before settling.</li>
+ * </ul>
+ */
 public enum InterpolationSpeed {
-    INSTANT, // No delay
-    FAST,    // 20x (mouseLerpSnap)
-    MEDIUM,  // 12x (fadelerpSnap)
-    SLOW;    // 6x (cardlerpSnap)
+    INSTANT(Kind.INSTANT, 0.0f, 0.0f, null), // No delay
+    FAST(Kind.EXPONENTIAL, 20.0f, 0.0f, null),    // 20x (mouseLerpSnap)
+    MEDIUM(Kind.EXPONENTIAL, 12.0f, 0.0f, null),  // 12x (fadelerpSnap)
+    SLOW(Kind.EXPONENTIAL, 6.0f, 0.0f, null),     // 6x (cardlerpSnap)
 
+    EASE_OUT(Kind.EASING, 0.25f, 0.0f, Interpolation.pow2Out),      // 250 ms
+    EASE_IN_OUT(Kind.EASING, 0.4f, 0.0f, Interpolation.pow2),       // 400 ms
+
+    SPRING(Kind.SPRING, 170.0f, 26.0f, null),         // Nearly critically damped
+    SPRING_BOUNCY(Kind.SPRING, 300.0f, 14.0f, null);  // Overshoots a bit before settling
+
+    enum Kind { INSTANT, EXPONENTIAL, EASING, SPRING }
+
+    // Distance (in the units being interpolated) considered close enough to snap to the target
+    static final float POSITION_SNAP_THRESHOLD = 0.5f;
+
+    // Per frame snapping, matching the base game: about a pixel for the card and mouse lerps, 0.01 for the fade lerp
+    private static final float PIXEL_SNAP_THRESHOLD = 1.0f;
+    private static final float FADE_SNAP_THRESHOLD = 0.01f;
+
+    // Springs are integrated in steps no longer than this for stability
+    private static final float MAX_SPRING_STEP = 1.0f / 240.0f;
+
+    final Kind kind;
+
+    // EXPONENTIAL: rate (per second); EASING: duration (seconds); SPRING: stiffness
+    private final float a;
+
+    // SPRING: damping
+    private final float b;
+
+    private final Interpolation curve;
+
+    InterpolationSpeed(Kind kind, float a, float b, Interpolation curve) {
+        this.kind = kind;
+        this.a = a;
+        this.b = b;
+        this.curve = curve;
+    }
+
+    // --------------------------------------------------------------------------------
+
+    /**
+     * Moves <code>start</code> one frame closer to <code>target</code>. This is intended to be called once per frame, feeding the result back in as the next start. As it doesn't keep any state, the fixed duration and spring speeds are approximated by an exponential approach that finishes in roughly the same time. Like the base game's lerp-snap functions, the value snaps onto the target once it is within a pixel ({@link #MEDIUM}: within 0.01, like <code>fadeLerpSnap</code>).
+     * @param start the current value
+     * @param target the desired value
+     * @return the value for this frame
+     */
     public float interpolate(float start, float target) {
-        switch (this) {
-            case INSTANT:
-                return target;
-            case FAST:
-                return MathHelper.mouseLerpSnap(start, target);
-            case MEDIUM:
-                return MathHelper.fadeLerpSnap(start, target);
+        return interpolate(start, target, (this == MEDIUM) ? FADE_SNAP_THRESHOLD : PIXEL_SNAP_THRESHOLD);
+    }
+
+    /**
+     * Like {@link #interpolate(float, float)}, with a custom distance at which the value snaps onto the target.
+     * @param start the current value
+     * @param target the desired value
+     * @param snapThreshold how close is close enough to jump straight to the target
+     * @return the value for this frame
+     */
+    public float interpolate(float start, float target, float snapThreshold) {
+        if (kind == Kind.INSTANT)
+            return target;
+
+        return approach(start, target, getApproximateRate(), EaselClock.getDeltaSeconds(), snapThreshold);
+    }
+
+    private float getApproximateRate() {
+        switch (kind) {
+            case EXPONENTIAL:
+                return a;
+            case EASING:
+                return 5.0f / a;
             default:
-                return MathHelper.cardLerpSnap(start, target);
+                return (float)Math.sqrt(a) * 0.5f;
         }
     }
+
+    private static float approach(float current, float target, float rate, float deltaSeconds, float snapThreshold) {
+        // Frame rate independent version of lerp(current, target, rate * dt)
+        float next = target + (current - target) * (float)Math.exp(-rate * deltaSeconds);
+        return (Math.abs(next - target) < snapThreshold) ? target : next;
+    }
+
+    // --------------------------------------------------------------------------------
+    // Stateful evaluation (used by the AnimationEngine, which tracks elapsed time and velocity per movement)
+
+    /**
+     * @param current the current value
+     * @param target the target value
+     * @param deltaSeconds time since the last step
+     * @return the next value for an exponential approach
+     */
+    float stepExponential(float current, float target, float deltaSeconds) {
+        return approach(current, target, a, deltaSeconds, POSITION_SNAP_THRESHOLD);
+    }
+
+    /**
+     * @param from the value when the movement started
+     * @param target the target value
+     * @param elapsedSeconds time since the movement started
+     * @return the value along the easing curve
+     */
+    float ease(float from, float target, float elapsedSeconds) {
+        if (elapsedSeconds >= a)
+            return target;
+
+        return curve.apply(from, target, elapsedSeconds / a);
+    }
+
+    /**
+     * Advances a spring simulation for one axis.
+     * @param state a two element array of {position, velocity}, updated in place
+     * @param target the rest position of the spring
+     * @param deltaSeconds time since the last step
+     * @return true if the spring has settled (position snapped to target, velocity zeroed)
+     */
+    boolean stepSpring(float[] state, float target, float deltaSeconds) {
+        float position = state[0];
+        float velocity = state[1];
+
+        while (deltaSeconds > 0.0f) {
+            float dt = Math.min(deltaSeconds, MAX_SPRING_STEP);
+            deltaSeconds -= dt;
+
+            // Semi-implicit Euler
+            float acceleration = a * (target - position) - b * velocity;
+            velocity += acceleration * dt;
+            position += velocity * dt;
+        }
+
+        if (Math.abs(target - position) < POSITION_SNAP_THRESHOLD && Math.abs(velocity) < POSITION_SNAP_THRESHOLD) {
+            position = target;
+            velocity = 0.0f;
+        }
+
+        state[0] = position;
+        state[1] = velocity;
+
+        return position == target && velocity == 0.0f;
+    }
 }
@@ -0,0 +1,214 @@
+package easel.ui.containers;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.glutils.FrameBuffer;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Matrix4;
+import easel.runtime.EaselRuntime;
+import easel.runtime.ScreenMetrics;
+import easel.ui.AbstractWidget;
+import easel.ui.AnchorPosition;
+
+/**
+ * <p>
+ * Wraps a (mostly static) widget hierarchy and renders it into an off-screen texture, which is then drawn as a single quad each frame. The content is only re-rendered into the texture after something inside it changes: a size change, a change in the position of any descendant relative to its parent, a color or texture change, a hover change, or a pending movement. Moving this container itself does not require re-rendering. For something like a {@link StyledContainer} full of labels, this turns dozens of draws per frame into one.
+ * </p>
+ * <p>
+ * Changes are detected through {@link AbstractWidget#invalidateRender()}, which only travels up through attached children (see {@link AbstractWidget#attachChild(AbstractWidget)}); all the built in layouts and containers attach their children (except the {@link MoveContainer}). Changes that widgets can't see won't trigger a re-render: e.g. mutating a {@link Color} object in place, a {@link easel.ui.text.SmartLabel} using a <code>Supplier</code> whose color changes over time, or a custom widget that draws something different each frame. Use {@link #invalidateCache()} to force a re-render in these cases, or simply don't cache content that animates.
+ * </p>
+ * <p>
+ * Content that relies on scissor clipping (e.g. {@link easel.ui.layouts.VirtualizedVerticalLayout}) or that renders into its own frame buffers should not be cached, and caches should not be nested. The texture is a GL resource: call {@link #dispose()} when this widget is no longer needed.
+ * </p>
+ */
+public class CachedWidget extends AbstractWidget<CachedWidget> {
+    private final AbstractWidget content;
+
+    private boolean cachingEnabled = true;
+    private boolean forceRedraw = true;
+
+    // Extra room (unscaled) around the content for things drawn outside its bounds (e.g. shadows)
+    private float padding;
+
+    private FrameBuffer frameBuffer;
+    private int cacheWidth;
+    private int cacheHeight;
+
+    private final Matrix4 cacheProjection = new Matrix4();
+    private final Matrix4 savedProjection = new Matrix4();
+
+    /**
+     * Constructs a new cache around the given content. The content is positioned at the bottom left of this widget and will follow it wherever it is anchored.
+     * @param content the widget hierarchy to cache
+     */
+    public CachedWidget(AbstractWidget content) {
+        this.content = content;
+        attachChild(content);
+    }
+
+    // --------------------------------------------------------------------------------
+
+    /**
+     * Turn caching on or off. When turned off, the content renders directly every frame like any other widget (and the texture is released).
+     * @param enabled whether to cache the content
+     * @return this widget
+     */
+    public CachedWidget withCaching(boolean enabled) {
+        this.cachingEnabled = enabled;
+
+        if (!enabled)
+            releaseFrameBuffer();
+
+        invalidateCache();
+        return this;
+    }
+
+    /**
+     * Grows the cached area by the given amount on every side, for content that draws outside of its own bounds (e.g. a {@link StyledContainer} with shadows enabled).
+     * @param padding extra room on each side, in unscaled pixels
+     * @return this widget
+     */
+    public CachedWidget withPadding(float padding) {
+        this.padding = padding;
+        invalidateCache();
+        return this;
+    }
+
+    /**
+     * Forces the content to be rendered into the cache again on the next frame. Only required for changes that aren't detected automatically (see the class description).
+     * @return this widget
+     */
+    public CachedWidget invalidateCache() {
+        this.forceRedraw = true;
+        return this;
+    }
+
+    /**
+     * Releases the off-screen texture, along with any resources held by the content.
+     */
+    @Override
+    public void dispose() {
+        super.dispose();
+        releaseFrameBuffer();
+    }
+
+    private void releaseFrameBuffer() {
+        if (frameBuffer != null) {
+            frameBuffer.dispose();
+            frameBuffer = null;
+        }
+    }
+
+    /**
+     * @return the widget being cached
+     */
+    public AbstractWidget getContent() {
+        return content;
+    }
+
+    // --------------------------------------------------------------------------------
+
+    @Override public float getContentWidth() { return content.getWidth(); }
+    @Override public float getContentHeight() { return content.getHeight(); }
+
+    @Override
+    protected void arrange() {
+        content.anchoredAt(getContentLeft(), getContentBottom(), AnchorPosition.LEFT_BOTTOM);
+    }
+
+    @Override
+    protected void updateWidget() {
+        content.update();
+    }
+
+    @Override public void show() { super.show(); content.show(); }
+    @Override public void hide() { super.hide(); content.hide(); }
+
+    // --------------------------------------------------------------------------------
+
+    private float getCacheLeft(ScreenMetrics screen) { return (getContentLeft() - padding) * screen.getXScale(); }
+    private float getCacheBottom(ScreenMetrics screen) { return (getContentBottom() - padding) * screen.getYScale(); }
+
+    @Override
+    protected void renderWidget(SpriteBatch sb) {
+        if (!cachingEnabled) {
+            content.render(sb);
+            return;
+        }
+
+        ScreenMetrics screen = EaselRuntime.getScreen();
+        int width = MathUtils.ceil((getContentWidth() + 2.0f * padding) * screen.getXScale());
+        int height = MathUtils.ceil((getContentHeight() + 2.0f * padding) * screen.getYScale());
+
+        if (width <= 0 || height <= 0)
+            return;
+
+        boolean changed = consumeRenderInvalidation();
+
+        if (frameBuffer == null || width != cacheWidth || height != cacheHeight) {
+            releaseFrameBuffer();
+
+            frameBuffer = new FrameBuffer(Pixmap.Format.RGBA8888, width, height, false);
+            cacheWidth = width;
+            cacheHeight = height;
+
+            changed = true;
+        }
+
+        if (changed || forceRedraw)
+            redrawCache(sb, screen);
+
+        // The cache holds premultiplied alpha
+        int oldSrc = sb.getBlendSrcFunc();
+        int oldDst = sb.getBlendDstFunc();
+
+        sb.setBlendFunction(GL20.GL_ONE, GL20.GL_ONE_MINUS_SRC_ALPHA);
+        sb.setColor(Color.WHITE);
+
+        Texture texture = frameBuffer.getColorBufferTexture();
+        sb.draw(texture, getCacheLeft(screen), getCacheBottom(screen), cacheWidth, cacheHeight, 0, 0, cacheWidth, cacheHeight, false, true);
+
+        sb.setBlendFunction(oldSrc, oldDst);
+    }
+
+    private void redrawCache(SpriteBatch sb, ScreenMetrics screen) {
+        sb.end();
+
+        savedProjection.set(sb.getProjectionMatrix());
+        int oldSrc = sb.getBlendSrcFunc();
+        int oldDst = sb.getBlendDstFunc();
+
+        frameBuffer.begin();
+
+        Gdx.gl.glClearColor(0.0f, 0.0f, 0.0f, 0.0f);
+        Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
+
+        // Everything keeps rendering at its usual screen position; the projection maps the cached region onto the texture
+        cacheProjection.setToOrtho2D(getCacheLeft(screen), getCacheBottom(screen), cacheWidth, cacheHeight);
+        sb.setProjectionMatrix(cacheProjection);
+
+        // Blend alpha separately so the texture ends up with correct (premultiplied) transparency. A source blend
+        //   function of -1 stops the batch from overriding this when it flushes
+        sb.setBlendFunction(-1, -1);
+        sb.begin();
+        Gdx.gl.glBlendFuncSeparate(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA, GL20.GL_ONE, GL20.GL_ONE_MINUS_SRC_ALPHA);
+
+        content.render(sb);
+
+        // Shaders the content left bound for batching shouldn't stay bound once we're back to drawing on the screen
+        restoreSharedShader();
+
+        sb.end();
+        frameBuffer.end();
+
+        sb.setBlendFunction(oldSrc, oldDst);
+        sb.setProjectionMatrix(savedProjection);
+        sb.begin();
+
+        forceRedraw = false;
+    }
+}
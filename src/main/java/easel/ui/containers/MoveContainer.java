@@ -1,28 +1,38 @@
 package easel.ui.containers;
 
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
-import com.google.gson.Gson;
-import com.megacrit.cardcrawl.core.Settings;
-import com.megacrit.cardcrawl.helpers.input.InputHelper;
+import com.badlogic.gdx.utils.FloatArray;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import easel.Easel;
+import easel.runtime.EaselRuntime;
 import easel.ui.AbstractWidget;
 import easel.ui.AnchorPosition;
+import easel.ui.InterpolationSpeed;
 import easel.ui.layouts.GridLayout;
 import easel.ui.layouts.HorizontalLayout;
 import easel.ui.layouts.VerticalLayout;
 import easel.utils.EaselInputHelper;
+import easel.utils.EaselJsonHelper;
 import easel.utils.EaselMathHelper;
 import easel.utils.EaselSoundHelper;
+import easel.utils.SpatialIndex;
 import easel.utils.UpdateSuppressor;
 
+import java.io.IOException;
+import java.lang.reflect.Method;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * <p>
  * A special kind of container that grants the ability for each direct child to be LEFT+CLICK+DRAGGED and moved around on the screen. The movable regions of these tracked children will be their content bounds, using {@link AbstractWidget#isMouseInContentBounds()} to determine which child to move. This container is currently a full screen widget and does not adjust its children positions using the typical {@link AbstractWidget#anchoredAt(float, float, AnchorPosition)} downward percolation (i.e. the children will not be affected by anchoring this widget somewhere else, unlike most other containers). As with any other container, it can (and should) be used to <code>render()</code> and <code>update()</code>, as it will pass those function calls down the hierarchy.
  * </p>
  * <p>
- * This widget can serialize/deserialize the current positions of the tracked widgets. This information is in JSON string form, and can be directly used within the {@link easel.config.EaselConfigHelper} to have persistent locations of widgets across game boots. You can learn more about this serialization process on the {@link #toJsonString()} and {@link #loadFromJsonString(String)} javadocs.
+ * This widget can serialize/deserialize the current positions of the tracked widgets. This information is in JSON string form, and can be directly used within the {@link easel.config.EaselConfigHelper} to have persistent locations of widgets across game boots. You can learn more about this serialization process on the {@link #toJsonString()} and {@link #loadFromJsonString(String)} javadocs. Children added with an ID (see {@link #withChild(AbstractWidget, String)}) are saved under that ID, so their saved positions survive changes to the set of children; all others are identified by the order they were added in. To keep the layout in a file of its own instead, {@link #writeJson(JsonWriter)} and {@link #readJson(JsonReader)} stream the same JSON directly, e.g. <code>EaselJsonHelper.writeFile(file, container::writeJson)</code> and <code>EaselJsonHelper.readFile(file, container::readJson)</code> (see {@link EaselJsonHelper}).
  * </p>
  * <p>
  * The following is an example that makes all children of a layout movable and leverages the {@link easel.config.EaselConfigHelper} pattern to make the moves persistent. It will SAVE the positions of the moved children when right clicking anywhere, and will attempt to LOAD these saved positions after this container is initialized. The move container is added to the widgets array at the end like any other widget might be, to be used in something like <code>widgets.forEach(widget → widget.render(sb))</code> (or similarly for <code>update()</code> as well) in order for everything to be rendered and updated properly.
@@ -47,13 +57,49 @@ public class MoveContainer extends AbstractWidget<MoveContainer> {
     private final float width;
     private final float height;
 
-    private final TreeMap<Integer, MapItem> map = new TreeMap<>();
+    // Whether a widget class overrides anchoredAt(float, float, AnchorPosition, InterpolationSpeed), i.e. it may position
+    //   children of its own without attaching them (the way custom containers were written before attachChild() existed)
+    private static final ClassValue<Boolean> OVERRIDES_ANCHORING = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            try {
+                Method method = type.getMethod("anchoredAt", float.class, float.class, AnchorPosition.class, InterpolationSpeed.class);
+                return method.getDeclaringClass() != AbstractWidget.class;
+            }
+            catch (NoSuchMethodException e) {
+                return false;
+            }
+        }
+    };
 
-    private int addOrder = 0;
+    // The stacking order, as a doubly linked list running through the items themselves: raising or lowering a child is
+    // just a few pointer swaps, and walking it from bottom to top (to update and render) allocates nothing
+    private MapItem bottomItem;
+    private MapItem topItem;
+    private int numItems;
+
+    // Content bounds of each child, prioritized by their z value (i.e. stacking order)
+    private final SpatialIndex<MapItem> boundsIndex;
+
+    // Every child ever tracked, indexed by add order, by widget, and (for the ones given an ID, see withChild(child, id)) by their ID
+    private final ArrayList<MapItem> itemsByAddOrder = new ArrayList<>();
+    private final IdentityHashMap<AbstractWidget, MapItem> itemsByWidget = new IdentityHashMap<>();
+    private final HashMap<String, MapItem> itemsById = new HashMap<>();
 
     private static class MapItem {
         AbstractWidget widget;
         int addOrder;
+        String id;
+
+        // Neighbors in the stacking order, and a value that increases from bottom to top (the spatial index priority)
+        MapItem below;
+        MapItem above;
+        int z;
+
+        int handle;
+
+        // Position of this item in the restored stacking order while a layout is being loaded, otherwise -1
+        int restoreSlot = -1;
 
         public MapItem(AbstractWidget widget, int addOrder) {
             this.widget = widget;
@@ -62,8 +108,10 @@ public class MoveContainer extends AbstractWidget<MoveContainer> {
     }
 
     public MoveContainer() {
-        this.width = Settings.WIDTH;
-        this.height = Settings.HEIGHT;
+        this.width = EaselRuntime.getScreen().getWidth();
+        this.height = EaselRuntime.getScreen().getHeight();
+
+        this.boundsIndex = new SpatialIndex<>(width, height, 128.0f);
     }
 
     // --------------------------------------------------------------------------------
@@ -77,7 +125,37 @@ public class MoveContainer extends AbstractWidget<MoveContainer> {
      * @see #withAllChildrenOfLayout(HorizontalLayout)
      */
     public MoveContainer withChild(AbstractWidget child) {
-        map.put(getTopMostIndex() + 1, new MapItem(child, addOrder++));
+        track(child);
+        return this;
+    }
+
+    /**
+     * Adds a new child to be managed by this container, exactly like {@link #withChild(AbstractWidget)}, but also gives it a stable ID to identify it by in the serialized layout (see {@link #toJsonString()}). Children without an ID are identified by the order they were added in, so adding, removing, or reordering children in a future version of your mod would make previously saved layouts move the wrong widgets around. Children with an ID keep their saved position no matter what else gets added around them.
+     * @param child the new child to be managed
+     * @param id a name for the child, unique within this container, which must stay the same across game boots (e.g. <code>"relic_tracker"</code>)
+     * @return this widget
+     * @see #withChildId(AbstractWidget, String)
+     */
+    public MoveContainer withChild(AbstractWidget child, String id) {
+        track(child);
+        assignId(itemsByAddOrder.get(itemsByAddOrder.size() - 1), id);
+        return this;
+    }
+
+    /**
+     * Gives a stable ID to a child that is already managed by this container (e.g. one transferred over with {@link #withAllChildrenOfLayout(VerticalLayout)}). See {@link #withChild(AbstractWidget, String)} for details.
+     * @param child a child managed by this container
+     * @param id a name for the child, unique within this container, which must stay the same across game boots
+     * @return this widget
+     */
+    public MoveContainer withChildId(AbstractWidget child, String id) {
+        MapItem item = itemsByWidget.get(child);
+
+        if (item != null)
+            assignId(item, id);
+        else
+            Easel.logger.warn("MoveContainer: can't give ID " + id + " to a widget which isn't a child of this container");
+
         return this;
     }
 
@@ -90,9 +168,7 @@ public class MoveContainer extends AbstractWidget<MoveContainer> {
      * @see #withAllChildrenOfLayout(GridLayout)
      */
     public MoveContainer withAllChildrenOfLayout(VerticalLayout layout) {
-        layout.iterator().forEach( child -> {
-            map.put(getTopMostIndex() + 1, new MapItem(child, addOrder++));
-        });
+        layout.iterator().forEach(this::track);
 
         layout.clear();
 
@@ -108,9 +184,7 @@ public class MoveContainer extends AbstractWidget<MoveContainer> {
      * @see #withAllChildrenOfLayout(GridLayout)
      */
     public MoveContainer withAllChildrenOfLayout(HorizontalLayout layout) {
-        layout.iterator().forEach( child -> {
-            map.put(getTopMostIndex() + 1, new MapItem(child, addOrder++));
-        });
+        layout.iterator().forEach(this::track);
 
         layout.clear();
         return this;
@@ -125,9 +199,7 @@ public class MoveContainer extends AbstractWidget<MoveContainer> {
      * @see #withAllChildrenOfLayout(VerticalLayout)
      */
     public MoveContainer withAllChildrenOfLayout(GridLayout layout) {
-        layout.iterator().forEach( child -> {
-            map.put(getTopMostIndex() + 1, new MapItem(child, addOrder++));
-        });
+        layout.iterator().forEach(this::track);
 
         layout.clear();
 
@@ -136,24 +208,129 @@ public class MoveContainer extends AbstractWidget<MoveContainer> {
 
     // --------------------------------------------------------------------------------
 
-    private int getBottomMostIndex() {
-        return map.isEmpty() ? 0 : map.firstKey();
+    private void track(AbstractWidget child) {
+        MapItem item = new MapItem(child, itemsByAddOrder.size());
+        itemsByAddOrder.add(item);
+        itemsByWidget.put(child, item);
+
+        item.handle = boundsIndex.insert(item, child.getContentLeft(), child.getContentBottom(), child.getContentWidth(), child.getContentHeight(), 0);
+
+        linkOnTop(item);
     }
 
-    private int getTopMostIndex() {
-        return map.isEmpty() ? 0 : map.lastKey();
+    private void unlink(MapItem item) {
+        if (item.below != null)
+            item.below.above = item.above;
+        else
+            bottomItem = item.above;
+
+        if (item.above != null)
+            item.above.below = item.below;
+        else
+            topItem = item.below;
+
+        item.below = null;
+        item.above = null;
+        --numItems;
     }
 
-    private void bringIndexToBottom(int index) {
-        MapItem item = map.get(index);
-        map.remove(index);
-        map.put(getBottomMostIndex() - 1, item);
+    private void linkOnTop(MapItem item) {
+        // Out of room to count upwards: compact everything back down first (only happens after billions of raises)
+        if (topItem != null && topItem.z == Integer.MAX_VALUE)
+            renumber();
+
+        item.below = topItem;
+        item.above = null;
+
+        if (topItem != null)
+            topItem.above = item;
+        else
+            bottomItem = item;
+
+        topItem = item;
+        ++numItems;
+
+        setZ(item, (item.below != null) ? item.below.z + 1 : 0);
     }
 
-    private void bringIndexToTop(int index) {
-        MapItem item = map.get(index);
-        map.remove(index);
-        map.put(getTopMostIndex() + 1, item);
+    private void linkOnBottom(MapItem item) {
+        if (bottomItem != null && bottomItem.z == Integer.MIN_VALUE)
+            renumber();
+
+        item.above = bottomItem;
+        item.below = null;
+
+        if (bottomItem != null)
+            bottomItem.below = item;
+        else
+            topItem = item;
+
+        bottomItem = item;
+        ++numItems;
+
+        setZ(item, (item.above != null) ? item.above.z - 1 : 0);
+    }
+
+    private void setZ(MapItem item, int z) {
+        item.z = z;
+        boundsIndex.setPriority(item.handle, z);
+    }
+
+    /**
+     * Resets the z values to 0, 1, 2, ... from bottom to top, so they can't drift off no matter how often children are raised or lowered.
+     */
+    private void renumber() {
+        int z = 0;
+
+        for (MapItem item = bottomItem; item != null; item = item.above)
+            setZ(item, z++);
+    }
+
+    private void raiseToTop(MapItem item) {
+        if (item != topItem) {
+            unlink(item);
+            linkOnTop(item);
+        }
+    }
+
+    private void lowerToBottom(MapItem item) {
+        if (item != bottomItem) {
+            unlink(item);
+            linkOnBottom(item);
+        }
+    }
+
+    private void assignId(MapItem item, String id) {
+        MapItem existing = itemsById.get(id);
+
+        if (existing != null && existing != item) {
+            Easel.logger.warn("MoveContainer: ID " + id + " is already used by another child; ignoring it");
+            return;
+        }
+
+        if (item.id != null)
+            itemsById.remove(item.id);
+
+        item.id = id;
+        itemsById.put(id, item);
+    }
+
+    /**
+     * Rebuilds the stacking order in one go: everything not being restored stays at the bottom (in its current order), with the restored items stacked on top of it in the given order.
+     */
+    private void restack(List<MapItem> restored) {
+        for (MapItem item : restored)
+            unlink(item);
+
+        for (MapItem item : restored)
+            linkOnTop(item);
+
+        renumber();
+    }
+
+    private void refreshBounds(MapItem item) {
+        AbstractWidget w = item.widget;
+        boundsIndex.update(item.handle, w.getContentLeft(), w.getContentBottom(), w.getContentWidth(), w.getContentHeight());
     }
 
     // --------------------------------------------------------------------------------
@@ -177,9 +354,128 @@ public class MoveContainer extends AbstractWidget<MoveContainer> {
 
     /**
      * @return a stream containing all children managed by this widget, in their render order from bottom to top
+     * @see #forEachChild(Consumer)
      */
     public Stream<AbstractWidget> iterator() {
-        return map.values().stream().map(item -> item.widget);
+        Iterator<AbstractWidget> it = new Iterator<AbstractWidget>() {
+            private MapItem next = bottomItem;
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public AbstractWidget next() {
+                if (next == null)
+                    throw new NoSuchElementException();
+
+                AbstractWidget widget = next.widget;
+                next = next.above;
+                return widget;
+            }
+        };
+
+        return StreamSupport.stream(Spliterators.spliterator(it, numItems, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Runs the given function on every child managed by this widget, in their render order from bottom to top. Unlike {@link #iterator()}, this doesn't build a stream, so it's better suited for things that happen every frame.
+     * @param action the function to run on each child
+     * @see #iterator()
+     */
+    public void forEachChild(Consumer<AbstractWidget> action) {
+        MapItem next;
+
+        for (MapItem item = bottomItem; item != null; item = next) {
+            next = item.above;
+            action.accept(item.widget);
+        }
+    }
+
+    /**
+     * @return the number of children managed by this widget
+     */
+    public int getNumChildren() {
+        return numItems;
+    }
+
+    // --------------------------------------------------------------------------------
+    // Stacking order
+    // --------------------------------------------------------------------------------
+
+    /**
+     * Moves a child above all other children, as if it were just clicked. Takes constant time.
+     * @param child a child managed by this container
+     * @return this widget
+     * @see #bringToBottom(AbstractWidget)
+     */
+    public MoveContainer bringToTop(AbstractWidget child) {
+        MapItem item = itemsByWidget.get(child);
+
+        if (item != null)
+            raiseToTop(item);
+
+        return this;
+    }
+
+    /**
+     * Moves a child below all other children. Takes constant time.
+     * @param child a child managed by this container
+     * @return this widget
+     * @see #bringToTop(AbstractWidget)
+     */
+    public MoveContainer bringToBottom(AbstractWidget child) {
+        MapItem item = itemsByWidget.get(child);
+
+        if (item != null)
+            lowerToBottom(item);
+
+        return this;
+    }
+
+    /**
+     * Restacks several children at once: the given children end up on top of all others, stacked in the given order (the last one on top). Children not listed keep their current order underneath. Takes time linear in the number of children.
+     * @param children children managed by this container, from bottom to top
+     * @return this widget
+     */
+    public MoveContainer withStackingOrder(List<? extends AbstractWidget> children) {
+        ArrayList<MapItem> items = new ArrayList<>(children.size());
+
+        for (AbstractWidget child : children) {
+            MapItem item = itemsByWidget.get(child);
+
+            // Skip strangers and duplicates
+            if (item != null && item.restoreSlot < 0) {
+                item.restoreSlot = items.size();
+                items.add(item);
+            }
+        }
+
+        for (MapItem item : items)
+            item.restoreSlot = -1;
+
+        restack(items);
+        return this;
+    }
+
+    /**
+     * Arranges all children like cascaded windows: the bottom-most child is placed with its top left corner at the given position, and each child above it is shifted over by the given offsets. The stacking order is left as is. Children are kept on screen the same way as when they're moved by the mouse.
+     * @param left the left edge of the bottom-most child
+     * @param top the top edge of the bottom-most child
+     * @param offsetX how far to shift each successive child to the right
+     * @param offsetY how far to shift each successive child downwards
+     * @return this widget
+     */
+    public MoveContainer cascade(float left, float top, float offsetX, float offsetY) {
+        int i = 0;
+
+        for (MapItem item = bottomItem; item != null; item = item.above, ++i) {
+            item.widget.anchoredAtClamped(left + i * offsetX, top - i * offsetY, AnchorPosition.LEFT_TOP, 20);
+            refreshBounds(item);
+        }
+
+        return this;
     }
 
     /**
@@ -205,13 +501,10 @@ public class MoveContainer extends AbstractWidget<MoveContainer> {
     private int startingMouseX;
     private int startingMouseY;
 
-    private Optional<Map.Entry<Integer, MapItem>> findTopMostWidgetUnderMouse() {
-        for (Map.Entry<Integer, MapItem> item : map.descendingMap().entrySet()) {
-            if (item.getValue().widget.isMouseInContentBounds())
-                return Optional.of(item);
-        }
+    private Optional<MapItem> findTopMostWidgetUnderMouse() {
+        int handle = boundsIndex.findTopMost(EaselInputHelper.getMouseX(), EaselInputHelper.getMouseY());
 
-        return Optional.empty();
+        return (handle == SpatialIndex.NONE) ? Optional.empty() : Optional.of(boundsIndex.get(handle));
     }
 
     private void updateCurrentlyMoving() {
@@ -231,10 +524,15 @@ public class MoveContainer extends AbstractWidget<MoveContainer> {
             newWidgetTop = EaselMathHelper.roundToMultipleOf(newWidgetTop, 10);
         }
 
-        moveTarget.anchoredAtClamped(newWidgetLeft, newWidgetTop, AnchorPosition.LEFT_TOP, 20);
+        // Only the dragged widget moves; its (attached) descendants are positioned relative to it. Widgets that override
+        //   anchoring may be moving children they never attached, so they're re-anchored like before instead
+        if (OVERRIDES_ANCHORING.get(moveTarget.getClass()))
+            moveTarget.anchoredAtClamped(newWidgetLeft, newWidgetTop, AnchorPosition.LEFT_TOP, 20);
+        else
+            moveTarget.translateClamped(newWidgetLeft - moveTarget.getLeft(), newWidgetTop - moveTarget.getTop(), 20);
 
         // Handle releasing the mouse down
-        if (InputHelper.justReleasedClickLeft) {
+        if (EaselRuntime.getInput().isLeftClickJustReleased()) {
             this.moving = false;
 
             if (moveTarget instanceof StyledContainer) {
@@ -250,14 +548,24 @@ public class MoveContainer extends AbstractWidget<MoveContainer> {
     protected void updateWidget() {
         // Update all children
 //        map.values().forEach(AbstractWidget::update);
-        iterator().forEach(AbstractWidget::update);
+        MapItem next;
+
+        for (MapItem item = bottomItem; item != null; item = next) {
+            // Grabbed first, in case the update restacks this child
+            next = item.above;
+
+            item.widget.update();
+
+            // Cheap if the child hasn't moved or resized since the last frame
+            refreshBounds(item);
+        }
 
         // Test for click and drag moves
         if (moving)
             updateCurrentlyMoving();
         else {
             // Figure out the move target
-            Optional<Map.Entry<Integer, MapItem>> target = findTopMostWidgetUnderMouse();
+            Optional<MapItem> target = findTopMostWidgetUnderMouse();
 
             // Nothing under mouse
             if (!target.isPresent()) {
@@ -266,11 +574,11 @@ public class MoveContainer extends AbstractWidget<MoveContainer> {
             }
 
             // Left click started (start moving)
-            if (InputHelper.justClickedLeft) {
+            if (EaselRuntime.getInput().isLeftClickJustPressed()) {
                 UpdateSuppressor.suppressAll(true);
 
-                Map.Entry<Integer, MapItem> validTarget = target.get();
-                this.moveTarget = validTarget.getValue().widget;
+                MapItem validTarget = target.get();
+                this.moveTarget = validTarget.widget;
 
                 moveTarget.cancelMovementQueue(true);
 
@@ -278,7 +586,7 @@ public class MoveContainer extends AbstractWidget<MoveContainer> {
                     ((StyledContainer)moveTarget).withShadows(true);
                 }
 
-                bringIndexToTop(validTarget.getKey());
+                raiseToTop(validTarget);
 
                 // Start the move
                 EaselSoundHelper.uiClick1();
@@ -304,54 +612,49 @@ public class MoveContainer extends AbstractWidget<MoveContainer> {
 
     @Override
     protected void renderWidget(SpriteBatch sb) {
-        iterator().forEach(w -> w.render(sb));
+        for (MapItem item = bottomItem; item != null; item = item.above)
+            item.widget.render(sb);
     }
 
-    // --------------------------------------------------------------------------------
-    // Serialization / Deserialization
-    // --------------------------------------------------------------------------------
-
-    private boolean forcePosition(int orderedPosition, float newLeft, float newBottom) {
-        for (Map.Entry<Integer, MapItem> entry : map.entrySet()) {
-            MapItem item = entry.getValue();
-
-            if (item.addOrder == orderedPosition) {
-                item.widget.anchoredAtClamped(newLeft, newBottom, AnchorPosition.LEFT_BOTTOM, 20);
-
-                // Recover stacking order?
-                bringIndexToTop(entry.getKey());
-                return true;
-            }
-        }
-
-        return false;
+    @Override
+    protected boolean rendersOnlyChildren() {
+        return true;
     }
 
-    private static class SerializationHelperWidget {
-        int addOrder;
-        float left;
-        float bottom;
+    /**
+     * Disposes every child managed by this container (see {@link AbstractWidget#dispose()}), as they aren't attached to it.
+     */
+    @Override
+    public void dispose() {
+        super.dispose();
 
-        public SerializationHelperWidget(int addOrder, AbstractWidget widget) {
-            this.addOrder = addOrder;
-            this.left = widget.getLeft();
-            this.bottom = widget.getBottom();
-        }
+        for (MapItem item = bottomItem; item != null; item = item.above)
+            item.widget.dispose();
     }
 
-    private static class SerializationHelperContainer {
-        List<SerializationHelperWidget> widgets;
+    // --------------------------------------------------------------------------------
+    // Serialization / Deserialization
+    // --------------------------------------------------------------------------------
+
+    private MapItem findSavedItem(String id, int addOrder) {
+        // Entries saved with an ID only ever match that ID; the add order is just a fallback for layouts saved without them
+        if (id != null)
+            return itemsById.get(id);
+        else if (addOrder >= 0 && addOrder < itemsByAddOrder.size())
+            return itemsByAddOrder.get(addOrder);
+        else
+            return null;
     }
 
     /**
      * <p>
-     * Forcibly update all widget positions based on a previously serialized string. Note that the serialization writes out information about widget positions to a JSON formatted string, with the ability to identify widgets based on the order they are added to this container. Thus, this deserialization step only works correctly if you've added the same widgets in the same order as the time when {@link #toJsonString()} was called - i.e. unless you're doing something very weird and fancy by adding a variable number of widgets in a dynamic way, this deserialization / serialization step should work out of the box. Be sure to call this load AFTER adding all widgets to the container that existed when the serialized string was created.
+     * Forcibly update all widget positions based on a previously serialized string. Note that the serialization writes out information about widget positions to a JSON formatted string, with the ability to identify widgets based on the ID they were given (see {@link #withChild(AbstractWidget, String)}), or otherwise the order they are added to this container. Thus, for children without an ID, this deserialization step only works correctly if you've added the same widgets in the same order as the time when {@link #toJsonString()} was called - i.e. unless you're doing something very weird and fancy by adding a variable number of widgets in a dynamic way, this deserialization / serialization step should work out of the box. Be sure to call this load AFTER adding all widgets to the container that existed when the serialized string was created.
      * </p>
      * <p>
      * An empty <code>jsonString</code> argument will be ignored, and if using a {@link easel.config.EaselConfigHelper}-style custom String enum, you can use "" as the default value for it.
      * </p>
      * <p>
-     * In the backend, this deserialization works by looping through each saved (addOrder, left, bottom) triplet in the serialized string, and trying to match up the widgets currently in the map. If the current map contains a widget which was added with the same addOrder as the triplet, that particular widget will be {@link AbstractWidget#anchoredAt(float, float, AnchorPosition)} with the (left, bottom) coordinates. This function will also attempt to restore the stacking order correctly - the serialization step stores information in order from bottom to top, and the deserialization loops through that same order and will bring elements to the top if they're valid. If all widgets in the map can be linked 1:1 with the elements in the serialized string, this function will return true.
+     * In the backend, this deserialization works by looping through each saved (id, addOrder, left, bottom) entry in the serialized string, and looking up the matching widget currently in the map: by its ID if the entry has one, or by the order it was added in otherwise. Both lookups take constant time, so restoring a layout takes time linear in the number of widgets. Each matched widget will be {@link AbstractWidget#anchoredAt(float, float, AnchorPosition)} with the (left, bottom) coordinates. This function will also restore the stacking order - the serialization step stores information in order from bottom to top, and the matched widgets are restacked in that same order in a single step, on top of any widgets that weren't in the serialized string. If all widgets in the map can be linked 1:1 with the elements in the serialized string, this function will return true.
      * </p>
      * <p>
      * Note that if you aren't using this function as intended (i.e. if you're getting anything other than true as the output as it fails to 1:1 update each widget), there are no guarantees that this function will be stable and not crash. So if you're doing something custom enough for this to return false, then you really shouldn't be using this at all and should roll your own serialization/deserialization code to fit your particular needs. Scary warning aside, if you're just using this in a predictable way (whenever a deserialize gets called, the container has the same basic structure of widgets added to it when the serialize was called), then this should be safe to use.
@@ -362,35 +665,146 @@ public class MoveContainer extends AbstractWidget<MoveContainer> {
      */
     public boolean loadFromJsonString(String jsonString) {
         if (jsonString.isEmpty())
-            return (map.size() == 0);
+            return (numItems == 0);
 
-        int numValuesUpdated = 0;
+        try {
+            return EaselJsonHelper.fromJsonString(jsonString, this::readJson);
+        }
+        catch (IOException e) {
+            Easel.logger.warn("MoveContainer: could not parse the saved layout; leaving the widgets where they are", e);
+            return false;
+        }
+    }
 
-        Gson gson = new Gson();
-        SerializationHelperContainer container = gson.fromJson(jsonString, SerializationHelperContainer.class);
+    /**
+     * @return a JSON formatted string storing the positions of each element in the map, for recovering later with {@link #loadFromJsonString(String)}
+     * @see #loadFromJsonString(String)
+     */
+    public String toJsonString() {
+        return EaselJsonHelper.toJsonString(this::writeJson);
+    }
 
-        if (container != null && container.widgets != null) {
-            for (SerializationHelperWidget w : container.widgets) {
-                if (forcePosition(w.addOrder, w.left, w.bottom))
-                    ++numValuesUpdated;
-            }
+    /**
+     * Streams the same JSON as {@link #toJsonString()} to the given writer, without building an intermediate string or any other objects along the way.
+     * @param out where to write the positions of each element in the map (from bottom to top)
+     * @throws IOException if the writer fails
+     * @see #readJson(JsonReader)
+     */
+    public void writeJson(JsonWriter out) throws IOException {
+        out.beginObject();
+        out.name("widgets").beginArray();
+
+        for (MapItem item = bottomItem; item != null; item = item.above) {
+            out.beginObject();
+
+            if (item.id != null)
+                out.name("id").value(item.id);
+
+            out.name("addOrder").value(item.addOrder);
+            // Written as floats, so they come out as e.g. 123.4 rather than the widened 123.40000152587891
+            out.name("left").value(Float.valueOf(item.widget.getLeft()));
+            out.name("bottom").value(Float.valueOf(item.widget.getBottom()));
+            out.endObject();
         }
 
-        return (numValuesUpdated == map.size());
+        out.endArray();
+        out.endObject();
     }
 
     /**
-     * @return a JSON formatted string storing the positions of each element in the map, for recovering later with {@link #loadFromJsonString(String)}
+     * Streams in JSON written by {@link #writeJson(JsonWriter)} (or {@link #toJsonString()}) and restores the widget positions, exactly like {@link #loadFromJsonString(String)}. Nothing is moved until the whole input has been read, so malformed input leaves every widget where it was.
+     * @param in the reader to read a single JSON value from
+     * @return true if all elements of the input were linked 1 to 1 with all elements of the map and updated
+     * @throws IOException if the input isn't valid JSON (or not in the expected format)
      * @see #loadFromJsonString(String)
      */
-    public String toJsonString() {
-        SerializationHelperContainer container = new SerializationHelperContainer();
-        container.widgets = new ArrayList<>(map.size());
+    public boolean readJson(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return (numItems == 0);
+        }
+
+        // Matched items in their saved stacking order, and their saved (left, bottom) pairs
+        ArrayList<MapItem> restored = new ArrayList<>(numItems);
+        FloatArray positions = new FloatArray(2 * numItems);
+
+        try {
+            readEntries(in, restored, positions);
+
+            for (int i = 0; i < restored.size(); ++i) {
+                MapItem item = restored.get(i);
+
+                item.widget.anchoredAtClamped(positions.get(2 * i), positions.get(2 * i + 1), AnchorPosition.LEFT_BOTTOM, 20);
+                refreshBounds(item);
+            }
+
+            restack(restored);
+        }
+        finally {
+            for (MapItem item : restored)
+                item.restoreSlot = -1;
+        }
+
+        return (restored.size() == numItems);
+    }
+
+    private void readEntries(JsonReader in, ArrayList<MapItem> restored, FloatArray positions) throws IOException {
+        in.beginObject();
+
+        while (in.hasNext()) {
+            if (!in.nextName().equals("widgets") || in.peek() == JsonToken.NULL) {
+                in.skipValue();
+                continue;
+            }
+
+            in.beginArray();
+
+            while (in.hasNext()) {
+                String id = null;
+                int addOrder = 0;
+                float left = 0;
+                float bottom = 0;
+
+                in.beginObject();
+
+                while (in.hasNext()) {
+                    String name = in.nextName();
+
+                    if (name.equals("id") && in.peek() != JsonToken.NULL)
+                        id = in.nextString();
+                    else if (name.equals("addOrder"))
+                        addOrder = in.nextInt();
+                    else if (name.equals("left"))
+                        left = (float)in.nextDouble();
+                    else if (name.equals("bottom"))
+                        bottom = (float)in.nextDouble();
+                    else
+                        in.skipValue();
+                }
+
+                in.endObject();
+
+                MapItem item = findSavedItem(id, addOrder);
+
+                if (item == null)
+                    continue;
+
+                if (item.restoreSlot < 0) {
+                    item.restoreSlot = restored.size();
+                    restored.add(item);
+                    positions.add(left);
+                    positions.add(bottom);
+                }
+                else {
+                    // Listed twice: the last position wins
+                    positions.set(2 * item.restoreSlot, left);
+                    positions.set(2 * item.restoreSlot + 1, bottom);
+                }
+            }
 
-        for (MapItem item : map.values()) {
-            container.widgets.add(new SerializationHelperWidget(item.addOrder, item.widget));
+            in.endArray();
         }
 
-        return new Gson().toJson(container);
+        in.endObject();
     }
 }
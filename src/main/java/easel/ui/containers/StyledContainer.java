@@ -1,13 +1,13 @@
 package easel.ui.containers;
 
 import com.badlogic.gdx.graphics.Color;
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
-import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.megacrit.cardcrawl.core.Settings;
+import easel.runtime.EaselRuntime;
+import easel.runtime.ScreenMetrics;
 import easel.ui.AbstractWidget;
 import easel.ui.AnchorPosition;
-import easel.ui.InterpolationSpeed;
 import easel.ui.graphics.ninepatch.NinePatchWidget;
 import easel.ui.layouts.VerticalLayout;
 import easel.ui.text.Label;
@@ -53,7 +53,8 @@ public class StyledContainer extends AbstractWidget<StyledContainer> {
     private AnchorPosition headerAnchor = AnchorPosition.CENTER;
     private AnchorPosition contentAnchor = AnchorPosition.CENTER;
 
-    private static final TextureAtlas atlas = TextureAtlasDatabase.STYLED_CONTAINER.getTextureAtlas();
+    // Regions come from the shared runtime atlas, so the shadow, base, trim, and header all draw from the same page
+    private static final TextureAtlasDatabase atlas = TextureAtlasDatabase.STYLED_CONTAINER;
 
     private NinePatchWidget npFullShadow;
     private NinePatchWidget npFullBase;
@@ -80,7 +81,7 @@ public class StyledContainer extends AbstractWidget<StyledContainer> {
 
     private static final float OUTER_TRIM_SIZE = 4;
     private static final float SHADOW_SIZE = 4;
-    private static final Texture SHADOW_TEXTURE = TextureDatabase.BLACK_GRADIENT_VERTICAL.getTexture();
+    private static final TextureRegion SHADOW_REGION = TextureDatabase.BLACK_GRADIENT_VERTICAL.getRegion();
 
     // --------------------------------------------------------------------------------
 
@@ -102,6 +103,9 @@ public class StyledContainer extends AbstractWidget<StyledContainer> {
         this.npFullTrimHighlight = new NinePatchWidget(width, height, atlas.findRegion("trim_highlight"))
                 .withColor(trimHighlightColor);
 
+        Stream.of(npFullShadow, npFullBase, npFullTrim, npFullTrimHighlight)
+                .forEach(this::attachChild);
+
         this.width = width;
         this.height = height;
     }
@@ -111,11 +115,23 @@ public class StyledContainer extends AbstractWidget<StyledContainer> {
     private void constructHeaderNP() {
         AbstractWidget headerContents = (hasCustomHeader) ? customHeader : defaultHeader;
 
+        detachChild(npHeaderBase);
+        detachChild(npHeaderTrim);
+
         this.npHeaderBase = new NinePatchWidget(width, headerContents.getHeight(), atlas.findRegion("header_base"))
                 .withColor(headerColor);
 
         this.npHeaderTrim = new NinePatchWidget(width, headerContents.getHeight(), atlas.findRegion("header_trim"))
                 .withColor(trimColor);
+
+        attachChild(npHeaderBase);
+        attachChild(npHeaderTrim);
+        attachChild(headerContents);
+    }
+
+    private void detachHeaderContents() {
+        detachChild(defaultHeader);
+        detachChild(customHeader);
     }
 
     /**
@@ -124,13 +140,15 @@ public class StyledContainer extends AbstractWidget<StyledContainer> {
      * @return this widget
      */
     public StyledContainer withHeader(String title) {
+        detachHeaderContents();
+
         this.hasHeader = true;
         this.hasCustomHeader = false;
 
         this.defaultHeader = new VerticalLayout(width, 0)
                 .withMargins(40, 20)
                 .withDefaultChildAnchorPosition(headerAnchor)
-                .withChild(new Label(title, EaselFonts.SMALLER_TIP_BODY, Settings.CREAM_COLOR))
+                .withChild(new Label(title, EaselFonts.getSmallerTipBody(), EaselRuntime.getFonts().getDefaultColor()))
                 .scaleToWidestChild();
 
         constructHeaderNP();
@@ -145,14 +163,16 @@ public class StyledContainer extends AbstractWidget<StyledContainer> {
      * @return this widget
      */
     public StyledContainer withHeader(String title, String subtitle) {
+        detachHeaderContents();
+
         this.hasHeader = true;
         this.hasCustomHeader = false;
 
         this.defaultHeader = new VerticalLayout(width, 0)
                 .withMargins(40, 20)
                 .withDefaultChildAnchorPosition(headerAnchor)
-                .withChild(new Label(title, EaselFonts.SMALLER_TIP_BODY, Settings.CREAM_COLOR))
-                .withChild(new Label(subtitle, EaselFonts.MEDIUM_ITALIC, Color.GRAY))
+                .withChild(new Label(title, EaselFonts.getSmallerTipBody(), EaselRuntime.getFonts().getDefaultColor()))
+                .withChild(new Label(subtitle, EaselFonts.getMediumItalic(), Color.GRAY))
                 .scaleToWidestChild();
 
         constructHeaderNP();
@@ -167,6 +187,8 @@ public class StyledContainer extends AbstractWidget<StyledContainer> {
      * @return this widget
      */
     public StyledContainer withHeader(AbstractWidget customHeader, boolean autoAddMargins) {
+        detachHeaderContents();
+
         this.hasHeader = true;
         this.hasCustomHeader = true;
 
@@ -229,10 +251,8 @@ public class StyledContainer extends AbstractWidget<StyledContainer> {
 
     // --------------------------------------------------------------------------------
 
-    // TODO remember to talk about the need to refreshAnchor() afterwards
-
     /**
-     * Sets the position of the header contents inside the header region. Requires anchoring after calling this in order for the changes to take effect.
+     * Sets the position of the header contents inside the header region. The header is re-arranged automatically during the next layout pass.
      * @param headerAnchor where the header contents are anchored inside the header region
      * @return this widget
      */
@@ -243,16 +263,18 @@ public class StyledContainer extends AbstractWidget<StyledContainer> {
             defaultHeader.forceChildAnchors(headerAnchor);
         }
 
+        invalidateLayout();
         return this;
     }
 
     /**
-     * Sets the position of the main contents inside the bottom region. Requires anchoring afterwards for the changes to take effect.
+     * Sets the position of the main contents inside the bottom region. The content is re-arranged automatically during the next layout pass.
      * @param contentAnchor where the main contents are anchored in the bottom section of the container
      * @return this widget
      */
     public StyledContainer withContentAnchor(AnchorPosition contentAnchor) {
         this.contentAnchor = contentAnchor;
+        invalidateLayout();
         return this;
     }
 
@@ -263,6 +285,7 @@ public class StyledContainer extends AbstractWidget<StyledContainer> {
      */
     public StyledContainer withShadows(boolean enabled) {
         this.renderFullShadows = enabled;
+        invalidateRender();
         return this;
     }
 
@@ -275,7 +298,9 @@ public class StyledContainer extends AbstractWidget<StyledContainer> {
      * @return this widget
      */
     public StyledContainer withContent(AbstractWidget content, boolean autoAddMargins) {
+        detachChild(this.content);
         this.content = content;
+        attachChild(content);
 
         if (autoAddMargins)
             this.content.withMargins(40);
@@ -555,26 +580,24 @@ public class StyledContainer extends AbstractWidget<StyledContainer> {
     // --------------------------------------------------------------------------------
 
     @Override
-    public StyledContainer anchoredAt(float x, float y, AnchorPosition anchorPosition, InterpolationSpeed movementSpeed) {
-        super.anchoredAt(x, y, anchorPosition, movementSpeed);
-
-        npFullShadow.anchoredAt(getContentLeft() + SHADOW_OFFSET_X, getContentTop() - SHADOW_OFFSET_Y, AnchorPosition.LEFT_TOP, movementSpeed);
-        npFullBase.anchoredAt(getContentLeft(), getContentTop(), AnchorPosition.LEFT_TOP, movementSpeed);
-        npFullTrim.anchoredAt(getContentLeft(), getContentTop(), AnchorPosition.LEFT_TOP, movementSpeed);
-        npFullTrimHighlight.anchoredAt(getContentLeft(), getContentTop(), AnchorPosition.LEFT_TOP, movementSpeed);
+    protected void arrange() {
+        npFullShadow.anchoredAt(getContentLeft() + SHADOW_OFFSET_X, getContentTop() - SHADOW_OFFSET_Y, AnchorPosition.LEFT_TOP);
+        npFullBase.anchoredAt(getContentLeft(), getContentTop(), AnchorPosition.LEFT_TOP);
+        npFullTrim.anchoredAt(getContentLeft(), getContentTop(), AnchorPosition.LEFT_TOP);
+        npFullTrimHighlight.anchoredAt(getContentLeft(), getContentTop(), AnchorPosition.LEFT_TOP);
 
         // Header
         if (hasHeader) {
-            npHeaderBase.anchoredAt(getContentLeft(), getContentTop(), AnchorPosition.LEFT_TOP, movementSpeed);
-            npHeaderTrim.anchoredAt(getContentLeft(), getContentTop(), AnchorPosition.LEFT_TOP, movementSpeed);
+            npHeaderBase.anchoredAt(getContentLeft(), getContentTop(), AnchorPosition.LEFT_TOP);
+            npHeaderTrim.anchoredAt(getContentLeft(), getContentTop(), AnchorPosition.LEFT_TOP);
 
             float hx = headerAnchor.getXFromLeft(getContentLeft(), getContentWidth());
             float hy = headerAnchor.getYFromTop(getContentTop(), getHeaderHeight());
 
             if (hasCustomHeader)
-                customHeader.anchoredAt(hx, hy, headerAnchor, movementSpeed);
+                customHeader.anchoredAt(hx, hy, headerAnchor);
             else
-                defaultHeader.anchoredAt(hx, hy, headerAnchor, movementSpeed);
+                defaultHeader.anchoredAt(hx, hy, headerAnchor);
         }
 
         // Content
@@ -586,10 +609,8 @@ public class StyledContainer extends AbstractWidget<StyledContainer> {
             //   the content anchoring may shift off a few pixels to the left and right and because of this
             //   scaleToContent() WILL no longer make the contentAnchor obsolete
 
-            content.anchoredAt(cx, cy, contentAnchor, movementSpeed);
+            content.anchoredAt(cx, cy, contentAnchor);
         }
-
-        return this;
     }
 
 
@@ -613,25 +634,6 @@ public class StyledContainer extends AbstractWidget<StyledContainer> {
             content.cancelMovementQueue(shouldTryAndResolveOneLastTime);
     }
 
-    @Override
-    protected void setChildrenDelayedMovement(float deltaX, float deltaY, InterpolationSpeed movementSpeed, long startingTimeMillis) {
-        Stream.of(npFullBase, npFullShadow, npFullTrim, npFullTrimHighlight)
-                .forEach(elt -> elt.setAllDelayedMovement(deltaX, deltaY, movementSpeed, startingTimeMillis));
-
-        if (hasHeader) {
-            npHeaderBase.setAllDelayedMovement(deltaX, deltaY, movementSpeed, startingTimeMillis);
-            npHeaderTrim.setAllDelayedMovement(deltaX, deltaY, movementSpeed, startingTimeMillis);
-
-            if (hasCustomHeader)
-                customHeader.setAllDelayedMovement(deltaX, deltaY, movementSpeed, startingTimeMillis);
-            else
-                defaultHeader.setAllDelayedMovement(deltaX, deltaY, movementSpeed, startingTimeMillis);
-        }
-
-        if (content != null)
-            content.setAllDelayedMovement(deltaX, deltaY, movementSpeed, startingTimeMillis);
-    }
-
     // --------------------------------------------------------------------------------
 
     @Override
@@ -668,13 +670,14 @@ public class StyledContainer extends AbstractWidget<StyledContainer> {
 
         if (hasHeader) {
             // Vertical shadow under header (this will render on top of the content, but it probably never ends up mattering)
-            float left = (getContentLeft() + OUTER_TRIM_SIZE) * Settings.xScale;
-            float bottom = (getContentTop() - getHeaderHeight() - SHADOW_SIZE) * Settings.yScale;
-            float width = (getContentWidth() - 2 * OUTER_TRIM_SIZE) * Settings.xScale;
+            ScreenMetrics screen = EaselRuntime.getScreen();
+            float left = (getContentLeft() + OUTER_TRIM_SIZE) * screen.getXScale();
+            float bottom = (getContentTop() - getHeaderHeight() - SHADOW_SIZE) * screen.getYScale();
+            float width = (getContentWidth() - 2 * OUTER_TRIM_SIZE) * screen.getXScale();
             float height = SHADOW_SIZE;
 
             sb.setColor(EaselColors.HALF_TRANSPARENT_WHITE);
-            sb.draw(SHADOW_TEXTURE, left, bottom, width, height);
+            sb.draw(SHADOW_REGION, left, bottom, width, height);
         }
 
         npFullTrim.render(sb);
@@ -4,7 +4,6 @@ import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import easel.Easel;
 import easel.ui.AbstractWidget;
 import easel.ui.AnchorPosition;
-import easel.ui.InterpolationSpeed;
 
 // TODO: make sure withView has been called at least once before using, and that withWidget has been made for all views
 //   or at least that it doesn't crash if you omit these two critical things!
@@ -45,14 +44,12 @@ public class SwapContainer<T extends Enum<T>> extends AbstractWidget<SwapContain
     }
 
     public SwapContainer<T> withWidget(T view, AbstractWidget widget, boolean activeView, AnchorPosition childAnchor) {
+        detachChild(this.widgets[view.ordinal()]);
+        attachChild(widget);
+
         this.widgets[view.ordinal()] = widget;
         this.internalAnchors[view.ordinal()] = childAnchor;
 
-        if (widget.getWidth() > maxWidth)
-            this.maxWidth = widget.getWidth();
-        if (widget.getHeight() > maxHeight)
-            this.maxHeight = widget.getHeight();
-
         if (activeView) {
             this.activeWidget = widget;
             this.currentView = view;
@@ -71,11 +68,14 @@ public class SwapContainer<T extends Enum<T>> extends AbstractWidget<SwapContain
     public SwapContainer<T> forceChildAnchors(AnchorPosition forcedChildAnchorPosition) {
         for (int i = 0; i < widgets.length; ++i)
             internalAnchors[i] = forcedChildAnchorPosition;
+
+        invalidateLayout();
         return this;
     }
 
     public SwapContainer<T> updateAnchorAt(T view, AnchorPosition newAnchor) {
         internalAnchors[view.ordinal()] = newAnchor;
+        invalidateLayout();
         return this;
     }
 
@@ -92,6 +92,7 @@ public class SwapContainer<T extends Enum<T>> extends AbstractWidget<SwapContain
 
         this.activeWidget = target;
         this.currentView = choice;
+        invalidateRender();
 
         // Show new widget if we should be showing it
         if (isShowing && activeWidget != null)
@@ -108,9 +109,20 @@ public class SwapContainer<T extends Enum<T>> extends AbstractWidget<SwapContain
     // --------------------------------------------------------------------------------
 
     @Override
-    public SwapContainer<T> anchoredAt(float x, float y, AnchorPosition anchorPosition, InterpolationSpeed movementSpeed) {
-        super.anchoredAt(x, y, anchorPosition, movementSpeed);
+    protected void measure() {
+        this.maxWidth = 0.0f;
+        this.maxHeight = 0.0f;
+
+        for (AbstractWidget widget : widgets) {
+            if (widget != null) {
+                this.maxWidth = Math.max(maxWidth, widget.getWidth());
+                this.maxHeight = Math.max(maxHeight, widget.getHeight());
+            }
+        }
+    }
 
+    @Override
+    protected void arrange() {
         for (int i = 0; i < widgets.length; ++i) {
             AbstractWidget w = widgets[i];
 
@@ -123,17 +135,24 @@ public class SwapContainer<T extends Enum<T>> extends AbstractWidget<SwapContain
                 float wx = anchor.getXFromLeft(getContentLeft(), getContentWidth());
                 float wy = anchor.getYFromBottom(getContentBottom(), getContentHeight());
 
-                w.anchoredAt(wx, wy, anchor, movementSpeed);
+                w.anchoredAt(wx, wy, anchor);
             }
         }
-
-        return this;
     }
 
     // --------------------------------------------------------------------------------
 
-    @Override public float getContentWidth() { return maxWidth; }
-    @Override public float getContentHeight() { return maxHeight; }
+    @Override
+    public float getContentWidth() {
+        measureIfNeeded();
+        return maxWidth;
+    }
+
+    @Override
+    public float getContentHeight() {
+        measureIfNeeded();
+        return maxHeight;
+    }
 
     @Override
     protected void renderWidget(SpriteBatch sb) {
@@ -141,6 +160,11 @@ public class SwapContainer<T extends Enum<T>> extends AbstractWidget<SwapContain
             activeWidget.render(sb);
     }
 
+    @Override
+    protected boolean rendersOnlyChildren() {
+        return true;
+    }
+
     @Override
     protected void updateWidget() {
         if (activeWidget != null)
@@ -149,6 +173,8 @@ public class SwapContainer<T extends Enum<T>> extends AbstractWidget<SwapContain
 
     @Override
     public void show() {
+        super.show();
+
         if (activeWidget != null)
             activeWidget.show();
 
@@ -157,6 +183,8 @@ public class SwapContainer<T extends Enum<T>> extends AbstractWidget<SwapContain
 
     @Override
     public void hide() {
+        super.hide();
+
         if (activeWidget != null)
             activeWidget.hide();
 
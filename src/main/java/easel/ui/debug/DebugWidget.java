@@ -35,6 +35,7 @@ public class DebugWidget extends AbstractWidget<DebugWidget> {
 
     public void setColor(Color color) {
         this.color = color;
+        invalidateRender();
     }
 
     @Override public float getContentWidth() { return width; }
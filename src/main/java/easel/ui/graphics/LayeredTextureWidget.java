@@ -6,7 +6,6 @@ import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import easel.ui.AbstractWidget;
 import easel.ui.AnchorPosition;
-import easel.ui.InterpolationSpeed;
 
 import java.util.ArrayList;
 
@@ -26,24 +25,26 @@ public class LayeredTextureWidget extends AbstractWidget<LayeredTextureWidget> {
 
     // --------------------------------------------------------------------------------
 
-    public LayeredTextureWidget withLayer(TextureRegion textureRegion) {
-        layers.add(new SimpleTextureWidget(width, height, textureRegion));
+    private LayeredTextureWidget withLayer(SimpleTextureWidget layer) {
+        layers.add(layer);
+        attachChild(layer);
         return this;
     }
 
+    public LayeredTextureWidget withLayer(TextureRegion textureRegion) {
+        return withLayer(new SimpleTextureWidget(width, height, textureRegion));
+    }
+
     public LayeredTextureWidget withLayer(TextureRegion textureRegion, Color renderColor) {
-        layers.add(new SimpleTextureWidget(width, height, textureRegion).withColor(renderColor));
-        return this;
+        return withLayer(new SimpleTextureWidget(width, height, textureRegion).withColor(renderColor));
     }
 
     public LayeredTextureWidget withLayer(Texture texture) {
-        layers.add(new SimpleTextureWidget(width, height, texture));
-        return this;
+        return withLayer(new SimpleTextureWidget(width, height, texture));
     }
 
     public LayeredTextureWidget withLayer(Texture texture, Color renderColor) {
-        layers.add(new SimpleTextureWidget(width, height, texture).withColor(renderColor));
-        return this;
+        return withLayer(new SimpleTextureWidget(width, height, texture).withColor(renderColor));
     }
 
     // --------------------------------------------------------------------------------
@@ -88,10 +89,8 @@ public class LayeredTextureWidget extends AbstractWidget<LayeredTextureWidget> {
     // --------------------------------------------------------------------------------
 
     @Override
-    public LayeredTextureWidget anchoredAt(float x, float y, AnchorPosition anchorPosition, InterpolationSpeed movementSpeed) {
-        super.anchoredAt(x, y, anchorPosition, movementSpeed);
-        layers.forEach(layer -> layer.anchoredAt(x, y, anchorPosition, movementSpeed));
-        return this;
+    protected void arrange() {
+        layers.forEach(layer -> layer.anchoredAt(getContentLeft(), getContentBottom(), AnchorPosition.LEFT_BOTTOM));
     }
 
 
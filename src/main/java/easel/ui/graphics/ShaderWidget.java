@@ -1,40 +1,71 @@
 package easel.ui.graphics;
 
-import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.glutils.ShaderProgram;
-import com.megacrit.cardcrawl.core.Settings;
-import com.megacrit.cardcrawl.helpers.ImageMaster;
-import easel.Easel;
+import easel.runtime.EaselRuntime;
+import easel.runtime.ScreenMetrics;
 import easel.ui.AbstractWidget;
+import easel.utils.ShaderCache;
+
+import java.lang.reflect.Method;
 
 /**
+ * <p>
  * A base for widgets that use custom shaders to render graphics. This widget is potentially too niche for general use; its use case is primarily for leveraging GLSL code for letting a vertex shader and a fragment shader generate the graphics. By default, this widget attempts to render a white square onto the SpriteBatch, letting the provided shaders overwrite the rendering entirely if necessary. This process is designed for a specific style of customized 2D graphics and isn't set up for 3D. You may wish to look at the source code for this widget and use it as a starting point for more complicated applications, but really this ShaderWidget is simply the abstracted base for the {@link easel.ui.graphics.pie.PieChartWidget} and future as-of-yet unimplemented widgets that may use the same idea. (You probably won't find much use out of this widget as is).
+ * </p>
+ * <p>
+ * Shader programs are shared between every widget using the same pair of shader files through the {@link ShaderCache}, so constructing many instances (e.g. a screen full of pie charts) only compiles the shaders once. Disposing a widget (or any container holding it, see {@link AbstractWidget#dispose()}) frees the program once nothing else uses it.
+ * </p>
+ * <p>
+ * The program stays bound after a widget renders, so consecutive widgets using the same program are drawn in a single batch (see {@link AbstractWidget#useSharedShader(SpriteBatch, ShaderProgram)}). As a consequence, subclasses should pass their per-widget parameters through the vertices they draw (positions, vertex colors and texture coordinates) instead of through uniforms, which would otherwise apply to every widget in the batch. See {@link #renderTexture(SpriteBatch)}.
+ * </p>
+ * <p>
+ * Subclasses that still need per-widget uniforms can override {@link #setUniforms()}. Those widgets opt out of the shared batch: they bind their program, set their uniforms and restore the previous shader on every render, flushing the batch twice each time.
+ * </p>
  */
 public abstract class ShaderWidget<T extends ShaderWidget<T>> extends AbstractWidget<T> {
-    protected Texture tex = ImageMaster.WHITE_SQUARE_IMG;
+    protected Texture tex = EaselRuntime.getTextures().getWhiteSquare();
     protected ShaderProgram shaderProgram;
 
     protected float width;
     protected float height;
 
+    // Whether the concrete class overrides setUniforms(), and therefore can't share a batch with other widgets
+    private static final ClassValue<Boolean> SETS_UNIFORMS = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            for (Class<?> c = type; c != ShaderWidget.class; c = c.getSuperclass()) {
+                for (Method method : c.getDeclaredMethods()) {
+                    if (method.getName().equals("setUniforms") && method.getParameterCount() == 0)
+                        return true;
+                }
+            }
+
+            return false;
+        }
+    };
+
+    private final boolean setsUniforms = SETS_UNIFORMS.get(getClass());
+
     public ShaderWidget(float width, float height, String vertexShaderPath, String fragmentShaderPath) {
         this.width = width;
         this.height = height;
 
-        this.shaderProgram = new ShaderProgram(
-                Gdx.files.internal(vertexShaderPath).readString(),
-                Gdx.files.internal(fragmentShaderPath).readString()
-        );
+        this.shaderProgram = ShaderCache.acquire(vertexShaderPath, fragmentShaderPath);
+    }
 
-        if (shaderProgram.isCompiled()) {
-            Easel.logger.info("Shaders compiled successfully.");
-        }
-        else {
-            Easel.logger.error("ERROR: shaders failed to compile");
-            Easel.logger.error(shaderProgram.getLog());
+    /**
+     * Releases this widget's reference to its (shared) shader program. The program itself is only disposed once every widget using it has been disposed. This widget should not be rendered again afterwards. Calling this more than once has no further effect.
+     */
+    @Override
+    public void dispose() {
+        super.dispose();
+
+        if (shaderProgram != null) {
+            ShaderCache.release(shaderProgram);
+            shaderProgram = null;
         }
     }
 
@@ -80,39 +111,55 @@ public abstract class ShaderWidget<T extends ShaderWidget<T>> extends AbstractWi
     public T withDimensions(float newWidth, float newHeight) {
         this.width = newWidth;
         this.height = newHeight;
+        scaleHitboxToContent();
         return (T)this;
     }
 
     // --------------------------------------------------------------------------------
 
+    /**
+     * Sets the uniforms of the (already bound) shader program right before {@link #renderTexture(SpriteBatch)}. Does nothing by default. Overriding this stops the widget from sharing its program's batch with other widgets (see the class description), so prefer encoding per-widget parameters in the vertices where possible.
+     */
     protected void setUniforms() { }
 
+    /**
+     * Draws the geometry of this widget with the shader program already bound. By default, this draws the white square texture over the content area. Anything that differs between widgets sharing the same program must be encoded in the vertices, as the batch is not flushed between them.
+     * @param sb the SpriteBatch to render on
+     */
     protected void renderTexture(SpriteBatch sb) {
+        ScreenMetrics screen = EaselRuntime.getScreen();
+
         sb.setColor(Color.WHITE);
         sb.draw(tex,
-                getContentLeft() * Settings.xScale,
-                getContentBottom() * Settings.yScale,
-                getContentWidth() * Settings.xScale,
-                getContentHeight() * Settings.yScale);
+                getContentLeft() * screen.getXScale(),
+                getContentBottom() * screen.getYScale(),
+                getContentWidth() * screen.getXScale(),
+                getContentHeight() * screen.getYScale());
+    }
+
+    @Override
+    protected boolean usesSharedShader() {
+        return !setsUniforms;
     }
 
     @Override
     protected void renderWidget(SpriteBatch sb) {
-        sb.end();
+        if (setsUniforms) {
+            // Swapping shaders while drawing flushes the batch and binds the new program (no need for end() / begin())
+            ShaderProgram oldShader = sb.getShader();
+            sb.setShader(shaderProgram);
 
-        ShaderProgram oldShader = sb.getShader();
-        sb.setShader(shaderProgram);
+            setUniforms();
+            renderTexture(sb);
 
-        // Do shader based renders
-        sb.begin();
+            // Reset
+            sb.setShader(oldShader);
+            return;
+        }
 
-        setUniforms();
+        // Only flushes if the previous widget drew with a different program; the replaced shader is restored by the
+        //   next widget that doesn't share it
+        useSharedShader(sb, shaderProgram);
         renderTexture(sb);
-
-        sb.end();
-
-        // Reset
-        sb.setShader(oldShader);
-        sb.begin();
     }
 }
@@ -4,7 +4,8 @@ import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
-import com.megacrit.cardcrawl.core.Settings;
+import easel.runtime.EaselRuntime;
+import easel.runtime.ScreenMetrics;
 import easel.ui.AbstractWidget;
 
 /**
@@ -54,6 +55,7 @@ public class SimpleTextureWidget extends AbstractWidget<SimpleTextureWidget> {
      */
     public SimpleTextureWidget withColor(Color renderColor) {
         this.renderColor = renderColor;
+        invalidateRender();
         return this;
     }
 
@@ -107,13 +109,15 @@ public class SimpleTextureWidget extends AbstractWidget<SimpleTextureWidget> {
 
     @Override
     protected void renderWidget(SpriteBatch sb) {
+        ScreenMetrics screen = EaselRuntime.getScreen();
+
         sb.setColor(renderColor);
         sb.draw(textureRegion,
-                Math.round(getContentLeft() * Settings.xScale),
-                Math.round(getContentBottom() * Settings.yScale),
-//                getContentWidth() * Settings.xScale,
-//                getContentHeight() * Settings.yScale);
-                Math.round(getContentWidth() * Settings.scale),
-                Math.round(getContentHeight() * Settings.scale));
+                Math.round(getContentLeft() * screen.getXScale()),
+                Math.round(getContentBottom() * screen.getYScale()),
+//                getContentWidth() * screen.getXScale(),
+//                getContentHeight() * screen.getYScale());
+                Math.round(getContentWidth() * screen.getScale()),
+                Math.round(getContentHeight() * screen.getScale()));
     }
 }
@@ -6,7 +6,6 @@ import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import easel.ui.AbstractWidget;
 import easel.ui.AnchorPosition;
-import easel.ui.InterpolationSpeed;
 
 import java.util.ArrayList;
 
@@ -65,6 +64,12 @@ public class LayeredNinePatch extends AbstractWidget<LayeredNinePatch> {
 
     // --------------------------------------------------------------------------------
 
+    private LayeredNinePatch withLayer(NinePatchWidget layer) {
+        layers.add(layer);
+        attachChild(layer);
+        return this;
+    }
+
     /**
      * Pushes a new {@link NinePatchWidget} on top of the rest using a textureRegion. The render color of this layer defaults to WHITE.
      * @param textureRegion the texture of the newest ninepatch
@@ -73,8 +78,7 @@ public class LayeredNinePatch extends AbstractWidget<LayeredNinePatch> {
      * @see #withLayer(TextureRegion, Color)
      */
     public LayeredNinePatch withLayer(TextureRegion textureRegion) {
-        layers.add(new NinePatchWidget(width, height, patchLeft, patchRight, patchTop, patchBottom, textureRegion));
-        return this;
+        return withLayer(new NinePatchWidget(width, height, patchLeft, patchRight, patchTop, patchBottom, textureRegion));
     }
 
     /**
@@ -85,8 +89,7 @@ public class LayeredNinePatch extends AbstractWidget<LayeredNinePatch> {
      * @see #withLayer(TextureRegion)
      */
     public LayeredNinePatch withLayer(TextureRegion textureRegion, Color color) {
-        layers.add(new NinePatchWidget(width, height, patchLeft, patchRight, patchTop, patchBottom, textureRegion).withColor(color));
-        return this;
+        return withLayer(new NinePatchWidget(width, height, patchLeft, patchRight, patchTop, patchBottom, textureRegion).withColor(color));
     }
 
     /**
@@ -97,8 +100,7 @@ public class LayeredNinePatch extends AbstractWidget<LayeredNinePatch> {
      * @see #withLayer(Texture, Color)
      */
     public LayeredNinePatch withLayer(Texture texture) {
-        layers.add(new NinePatchWidget(width, height, patchLeft, patchRight, patchTop, patchBottom, texture));
-        return this;
+        return withLayer(new NinePatchWidget(width, height, patchLeft, patchRight, patchTop, patchBottom, texture));
     }
 
     /**
@@ -110,8 +112,7 @@ public class LayeredNinePatch extends AbstractWidget<LayeredNinePatch> {
      * @see #withLayer(TextureRegion)
      */
     public LayeredNinePatch withLayer(Texture texture, Color color) {
-        layers.add(new NinePatchWidget(width, height, patchLeft, patchRight, patchTop, patchBottom, texture).withColor(color));
-        return this;
+        return withLayer(new NinePatchWidget(width, height, patchLeft, patchRight, patchTop, patchBottom, texture).withColor(color));
     }
 
 
@@ -189,10 +190,8 @@ public class LayeredNinePatch extends AbstractWidget<LayeredNinePatch> {
     }
 
     @Override
-    public LayeredNinePatch anchoredAt(float x, float y, AnchorPosition anchorPosition, InterpolationSpeed movementSpeed) {
-        super.anchoredAt(x, y, anchorPosition, movementSpeed);
-        layers.forEach(layer -> layer.anchoredAt(x, y, anchorPosition, movementSpeed));
-        return this;
+    protected void arrange() {
+        layers.forEach(layer -> layer.anchoredAt(getContentLeft(), getContentBottom(), AnchorPosition.LEFT_BOTTOM));
     }
 
     // --------------------------------------------------------------------------------
@@ -5,7 +5,8 @@ import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.NinePatch;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
-import com.megacrit.cardcrawl.core.Settings;
+import easel.runtime.EaselRuntime;
+import easel.runtime.ScreenMetrics;
 import easel.ui.AbstractWidget;
 import easel.ui.AnchorPosition;
 import easel.ui.InterpolationSpeed;
@@ -117,6 +118,7 @@ public class NinePatchWidget extends AbstractWidget<NinePatchWidget> {
      */
     public NinePatchWidget withColor(Color renderColor) {
         this.renderColor = renderColor;
+        invalidateRender();
         return this;
     }
 
@@ -177,11 +179,13 @@ public class NinePatchWidget extends AbstractWidget<NinePatchWidget> {
 
     @Override
     protected void renderWidget(SpriteBatch sb) {
+        ScreenMetrics screen = EaselRuntime.getScreen();
+
         sb.setColor(renderColor);
         np.draw(sb,
-                getContentLeft() * Settings.xScale,
-                getContentBottom() * Settings.yScale,
-                getContentWidth() * Settings.xScale,
-                getContentHeight() * Settings.yScale);
+                getContentLeft() * screen.getXScale(),
+                getContentBottom() * screen.getYScale(),
+                getContentWidth() * screen.getXScale(),
+                getContentHeight() * screen.getYScale());
     }
 }
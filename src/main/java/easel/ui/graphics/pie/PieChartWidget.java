@@ -1,6 +1,10 @@
 package easel.ui.graphics.pie;
 
 import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.math.MathUtils;
+import easel.runtime.EaselRuntime;
+import easel.runtime.ScreenMetrics;
 import easel.ui.graphics.ShaderWidget;
 
 import java.util.ArrayList;
@@ -10,6 +14,16 @@ import java.util.ArrayList;
  */
 public class PieChartWidget extends ShaderWidget<PieChartWidget> {
     private static final float TWO_PI = (float)Math.PI * 2.0f;
+    private static final float HALF_PI = (float)Math.PI / 2.0f;
+
+    // Half of the chart (in chart space), which covers the circle and its outer border
+    private static final float WEDGE_RADIUS = 0.5f;
+
+    // Half the width of the borders between regions, in unscaled pixels
+    private static final float BORDER_HALF_WIDTH = 1.0f;
+
+    private static final float WHITE_OPAQUE = Color.toFloatBits(1.0f, 1.0f, 1.0f, 1.0f);
+    private static final float WHITE_TRANSPARENT = Color.toFloatBits(1.0f, 1.0f, 1.0f, 0.0f);
 
     private boolean shouldRebuildThetas = true;
     private boolean shouldRebuildColors = true;
@@ -20,6 +34,12 @@ public class PieChartWidget extends ShaderWidget<PieChartWidget> {
     private float[] thetasArray;
     private float[] colorsArray;
 
+    // A single quad, in the SpriteBatch vertex format: (x, y, packed color, u, v) for each of the four corners
+    private final float[] quad = new float[20];
+
+    // Screen space bounds of the chart while rendering
+    private float renderLeft, renderBottom, renderWidth, renderHeight;
+
     // --------------------------------------------------------------------------------
 
     /**
@@ -47,6 +67,7 @@ public class PieChartWidget extends ShaderWidget<PieChartWidget> {
             this.countsList.add(c);
 
         rebuildThetaArray();
+        invalidateRender();
         return this;
     }
 
@@ -68,6 +89,7 @@ public class PieChartWidget extends ShaderWidget<PieChartWidget> {
         }
 
         rebuildColorArray();
+        invalidateRender();
         return this;
     }
 
@@ -85,6 +107,7 @@ public class PieChartWidget extends ShaderWidget<PieChartWidget> {
         shouldRebuildColors = true;
         shouldRebuildThetas = true;
 
+        invalidateRender();
         return this;
     }
 
@@ -108,6 +131,7 @@ public class PieChartWidget extends ShaderWidget<PieChartWidget> {
         shouldRebuildColors = true;
         shouldRebuildThetas = true;
 
+        invalidateRender();
         return this;
     }
 
@@ -125,6 +149,7 @@ public class PieChartWidget extends ShaderWidget<PieChartWidget> {
 
         // O(n) since counts are relative (need to rebuild the whole thing!)
         shouldRebuildThetas = true;
+        invalidateRender();
 
         return true;
     }
@@ -156,6 +181,7 @@ public class PieChartWidget extends ShaderWidget<PieChartWidget> {
             colorsArray[index + 3] = color.a;
         }
 
+        invalidateRender();
         return true;
     }
 
@@ -192,8 +218,65 @@ public class PieChartWidget extends ShaderWidget<PieChartWidget> {
 
     // --------------------------------------------------------------------------------
 
+    private void setVertex(int corner, float x, float y, float color) {
+        int i = corner * 5;
+
+        quad[i] = x;
+        quad[i + 1] = y;
+        quad[i + 2] = color;
+
+        // The shader works in chart space, where (0, 0) is the bottom left corner and (1, 1) the top right
+        quad[i + 3] = (x - renderLeft) / renderWidth;
+        quad[i + 4] = (y - renderBottom) / renderHeight;
+    }
+
+    private float chartToScreenX(float chartX) { return renderLeft + chartX * renderWidth; }
+    private float chartToScreenY(float chartY) { return renderBottom + chartY * renderHeight; }
+
+    /**
+     * Draws the part of the chart between the two angles (at most 90 degrees apart) as a kite shaped quad: the center, the two points on the rim, and the point where the tangents at those two points meet. The shader trims it down to the circle.
+     */
+    private void drawWedge(SpriteBatch sb, float startTheta, float endTheta, float color) {
+        float midTheta = (startTheta + endTheta) / 2.0f;
+        float cornerDist = WEDGE_RADIUS / MathUtils.cos((endTheta - startTheta) / 2.0f);
+
+        setVertex(0, chartToScreenX(0.5f), chartToScreenY(0.5f), color);
+        setVertex(1, chartToScreenX(0.5f + WEDGE_RADIUS * MathUtils.cos(startTheta)), chartToScreenY(0.5f + WEDGE_RADIUS * MathUtils.sin(startTheta)), color);
+        setVertex(2, chartToScreenX(0.5f + cornerDist * MathUtils.cos(midTheta)), chartToScreenY(0.5f + cornerDist * MathUtils.sin(midTheta)), color);
+        setVertex(3, chartToScreenX(0.5f + WEDGE_RADIUS * MathUtils.cos(endTheta)), chartToScreenY(0.5f + WEDGE_RADIUS * MathUtils.sin(endTheta)), color);
+
+        sb.draw(tex, quad, 0, quad.length);
+    }
+
+    /**
+     * Draws the white border running from the center of the chart outwards at the given angle, as two quads which fade out from the center line to either side.
+     */
+    private void drawBorder(SpriteBatch sb, float theta, float halfWidth) {
+        float centerX = chartToScreenX(0.5f);
+        float centerY = chartToScreenY(0.5f);
+        float endX = chartToScreenX(0.5f + WEDGE_RADIUS * MathUtils.cos(theta));
+        float endY = chartToScreenY(0.5f + WEDGE_RADIUS * MathUtils.sin(theta));
+
+        float length = (float)Math.sqrt((endX - centerX) * (endX - centerX) + (endY - centerY) * (endY - centerY));
+        if (length <= 0.0f)
+            return;
+
+        // Perpendicular to the border, in screen space
+        float normalX = -(endY - centerY) / length * halfWidth;
+        float normalY = (endX - centerX) / length * halfWidth;
+
+        for (int side = -1; side <= 1; side += 2) {
+            setVertex(0, centerX, centerY, WHITE_OPAQUE);
+            setVertex(1, endX, endY, WHITE_OPAQUE);
+            setVertex(2, endX + side * normalX, endY + side * normalY, WHITE_TRANSPARENT);
+            setVertex(3, centerX + side * normalX, centerY + side * normalY, WHITE_TRANSPARENT);
+
+            sb.draw(tex, quad, 0, quad.length);
+        }
+    }
+
     @Override
-    protected void setUniforms() {
+    protected void renderTexture(SpriteBatch sb) {
         // Construct the arrays, if we haven't yet (or if they're dirty)
         if (shouldRebuildColors)
             rebuildColorArray();
@@ -201,13 +284,46 @@ public class PieChartWidget extends ShaderWidget<PieChartWidget> {
         if (shouldRebuildThetas)
             rebuildThetaArray();
 
-        // Set the uniforms used by the shader
-        shaderProgram.setUniformf("borderSize", 2.0f / Math.min(getContentWidth(), getContentHeight()));
+        int numColors = colorsArray.length / 4;
+        if (thetasArray.length == 0 || numColors == 0)
+            return;
+
+        ScreenMetrics screen = EaselRuntime.getScreen();
+        renderLeft = getContentLeft() * screen.getXScale();
+        renderBottom = getContentBottom() * screen.getYScale();
+        renderWidth = getContentWidth() * screen.getXScale();
+        renderHeight = getContentHeight() * screen.getYScale();
+
+        if (renderWidth <= 0.0f || renderHeight <= 0.0f)
+            return;
+
+        // Every region is drawn with its color in the vertices, so the whole chart (and any pie charts rendered right
+        //   after it) goes out in a single batch. Regions are split into pieces of at most 90 degrees to keep each quad convex
+        float startTheta = 0.0f;
+
+        for (int i = 0; i < thetasArray.length; ++i) {
+            float endTheta = thetasArray[i];
+
+            // Also skips everything if the counts sum to zero (NaN angles)
+            if (endTheta > startTheta) {
+                int c = Math.min(i, numColors - 1) * 4;
+                float color = Color.toFloatBits(colorsArray[c], colorsArray[c + 1], colorsArray[c + 2], 1.0f);
+
+                int numPieces = MathUtils.ceil((endTheta - startTheta) / HALF_PI);
+                float pieceSize = (endTheta - startTheta) / numPieces;
+
+                for (int piece = 0; piece < numPieces; ++piece)
+                    drawWedge(sb, startTheta + piece * pieceSize, startTheta + (piece + 1) * pieceSize, color);
+
+                startTheta = endTheta;
+            }
+        }
 
-        shaderProgram.setUniformi("numThetas", thetasArray.length);
-        shaderProgram.setUniform1fv("thetas", thetasArray, 0, thetasArray.length);
+        // Borders between the regions render on top of the colors (the last region always ends back at the first border)
+        float halfWidth = BORDER_HALF_WIDTH * screen.getXScale();
+        drawBorder(sb, 0.0f, halfWidth);
 
-        shaderProgram.setUniformi("numColors", colorsArray.length / 4);
-        shaderProgram.setUniform4fv("colors", colorsArray, 0, colorsArray.length);
+        for (int i = 0; i < thetasArray.length - 1; ++i)
+            drawBorder(sb, thetasArray[i], halfWidth);
     }
 }
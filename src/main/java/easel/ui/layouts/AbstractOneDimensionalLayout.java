@@ -3,7 +3,6 @@ package easel.ui.layouts;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import easel.ui.AbstractWidget;
 import easel.ui.AnchorPosition;
-import easel.ui.InterpolationSpeed;
 
 import java.util.ArrayList;
 import java.util.stream.Stream;
@@ -16,7 +15,6 @@ abstract class AbstractOneDimensionalLayout<T extends AbstractOneDimensionalLayo
     protected float spacing;
 
     protected boolean shouldAutoScaleToContent = false;
-    private boolean hasAlreadyScaledToContent = false;
 
     public AbstractOneDimensionalLayout(float spacing) {
         this.spacing = spacing;
@@ -43,6 +41,8 @@ abstract class AbstractOneDimensionalLayout<T extends AbstractOneDimensionalLayo
     public T forceChildAnchors(AnchorPosition forcedChildAnchorPosition) {
         for (LayoutItem child : children)
             child.anchor = forcedChildAnchorPosition;
+
+        invalidateLayout();
         return (T) this;
     }
 
@@ -50,13 +50,11 @@ abstract class AbstractOneDimensionalLayout<T extends AbstractOneDimensionalLayo
      * Stop managing all widgets previously managed by this layout.
      */
     public void clear() {
+        children.forEach(item -> detachChild(item.widget));
         children.clear();
-    }
-
-    // --------------------------------------------------------------------------------
 
-    protected abstract void updateSize(AbstractWidget newChild);
-    protected abstract void anchorChildren(InterpolationSpeed withDelay);
+        invalidateLayout();
+    }
 
     // --------------------------------------------------------------------------------
 
@@ -69,7 +67,9 @@ abstract class AbstractOneDimensionalLayout<T extends AbstractOneDimensionalLayo
      */
     public final T withChild(AbstractWidget child, AnchorPosition anchor) {
         children.add(new LayoutItem(child, anchor));
-        updateSize(child);
+        attachChild(child);
+        invalidateLayout();
+
         return (T)this;
     }
 
@@ -84,25 +84,6 @@ abstract class AbstractOneDimensionalLayout<T extends AbstractOneDimensionalLayo
     }
 
     // --------------------------------------------------------------------------------
-    protected abstract void autoscale();
-
-    @Override
-    public T anchoredAt(float x, float y, AnchorPosition anchorPosition, InterpolationSpeed movementSpeed) {
-        if (shouldAutoScaleToContent && !hasAlreadyScaledToContent) {
-            shouldAutoScaleToContent = false;
-            hasAlreadyScaledToContent = true;
-            autoscale();
-        }
-
-        super.anchoredAt(x, y, anchorPosition, movementSpeed);
-        anchorChildren(movementSpeed);
-        return (T)this;
-    }
-
-    @Override
-    protected void setChildrenDelayedMovement(float deltaX, float deltaY, InterpolationSpeed movementSpeed, long startingTimeMillis) {
-        iterator().forEach(child -> child.setAllDelayedMovement(deltaX, deltaY, movementSpeed, startingTimeMillis));
-    }
 
     @Override
     protected void cancelMovementQueueForAllChildren(boolean shouldTryAndResolveOneLastTime) {
@@ -130,8 +111,9 @@ abstract class AbstractOneDimensionalLayout<T extends AbstractOneDimensionalLayo
     // --------------------------------------------------------------------------------
 
     @Override protected void renderWidget(SpriteBatch sb) { children.forEach(w -> w.widget.render(sb)); }
+    @Override protected boolean rendersOnlyChildren() { return true; }
     @Override public void renderTopLevel(SpriteBatch sb) { children.forEach(w -> w.widget.renderTopLevel(sb)); }
 
-    @Override public void hide() { children.forEach(w -> w.widget.hide()); }
-    @Override public void show() { children.forEach(w -> w.widget.show()); }
+    @Override public void hide() { super.hide(); children.forEach(w -> w.widget.hide()); }
+    @Override public void show() { super.show(); children.forEach(w -> w.widget.show()); }
 }
\ No newline at end of file
@@ -6,19 +6,30 @@ import easel.ui.AbstractWidget;
 import easel.ui.AnchorPosition;
 import easel.ui.InterpolationSpeed;
 
-import java.util.*;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 /**
  * UNSTABLE / API subject to change. A more powerful layout to aid arranging things in a grid. Since this class is probably going to be redesigned before the first official release, this documentation will remain unfinished until the API is more stable. For now, the general pattern to use this layout is to construct a new Grid, set up the rows/columns by calling one of {@link #withExactRows(float...)}, {@link #withNEvenlySizedRows(float, int)}, etc. and one of {@link #withExactCols(float...)}, {@link #withRelativeCols(float, float...)}, etc. (use one of the row builders to initialize the rows and one of the column builders for the columns). After that, you may add children using the convenience methods {@link #withChildrenInRow(int, AbstractWidget[])} or by directly specifying the cell {@link #withChild(int, int, AbstractWidget)} it falls into. (Row 0, Column 0) is the top left corner and the grid layout grows down and to the right of that, and when specifying widgets to go into certain cells you must be careful to place them into positions that actually exist from your initialized version in order for the grid to function properly. Finally, when you call an {@link #anchoredAt(float, float, AnchorPosition)}, the children are all moved into place. Like other layouts, you can automatically scale rows or columns using the various helper methods, (e.g. {@link #resizeRowToFitTallestChild(int)}), and managing the usual suspects (render, update, etc.) is as simple as calling those functions on the layout itself (as everything will trickle down the hierarchy as usual).
  */
 public final class GridLayout extends AbstractWidget<GridLayout> {
-    private HashMap<GridLocation, LayoutItem> children = new HashMap<>();
+    // Dense row-major storage of all cells: the child at (row, col) is children[row * storedCols + col] (or null if empty)
+    private LayoutItem[] children = new LayoutItem[0];
+    private int storedRows;
+    private int storedCols;
+
     private float totalWidth;
     private float totalHeight;
 
-    private ArrayList<Float> rowHeights = new ArrayList<>();
-    private ArrayList<Float> colWidths = new ArrayList<>();
+    private float[] rowHeights = new float[0];
+    private float[] colWidths = new float[0];
+
+    // Prefix sums of the track sizes, recomputed in place during the measure pass: rowTops[i] is the total height of rows
+    //   [0, i) and colLefts[i] the total width of cols [0, i). Both have one more entry than there are tracks.
+    private float[] rowTops = new float[1];
+    private float[] colLefts = new float[1];
 
     private AnchorPosition defaultChildAnchor = AnchorPosition.LEFT_TOP;
 
@@ -32,55 +43,101 @@ public final class GridLayout extends AbstractWidget<GridLayout> {
     }
 
     public void clear() {
-        children.clear();
+        for (LayoutItem item : children)
+            if (item != null)
+                detachChild(item.widget);
+
+        // The (now empty) storage is kept, so that filling the grid again doesn't have to allocate
+        Arrays.fill(children, null);
+        this.storedRows = 0;
+        this.storedCols = 0;
+
+        invalidateLayout();
     }
 
     // --------------------------------------------------------------------------------
 
-    private void updateTotalHeight() {
-        this.totalHeight = rowHeights.stream().reduce(Float::sum).orElse(0.0f);
+    @Override
+    protected void measure() {
+        this.rowTops = buildPrefixSums(rowHeights, rowTops);
+        this.colLefts = buildPrefixSums(colWidths, colLefts);
+
+        this.totalHeight = rowTops[rowHeights.length];
+        this.totalWidth = colLefts[colWidths.length];
     }
 
-    private void updateTotalWidth() {
-        this.totalWidth = colWidths.stream().reduce(Float::sum).orElse(0.0f);
+    /**
+     * @param sizes the track sizes
+     * @param sums the previous prefix sums, reused if the number of tracks hasn't changed
+     * @return the prefix sums of the given sizes
+     */
+    private static float[] buildPrefixSums(float[] sizes, float[] sums) {
+        if (sums.length != sizes.length + 1)
+            sums = new float[sizes.length + 1];
+
+        sums[0] = 0.0f;
+        for (int i = 0; i < sizes.length; ++i)
+            sums[i + 1] = sums[i] + sizes[i];
+
+        return sums;
     }
 
-    // --------------------------------------------------------------------------------
+    /**
+     * Grows the dense child storage (if necessary) so that it can hold the given cell, keeping every existing child in its (row, col).
+     */
+    private void ensureCellExists(int row, int col) {
+        if (row < storedRows && col < storedCols)
+            return;
+
+        // Size for every defined track up front, so that filling a grid only allocates once
+        int newRows = Math.max(Math.max(storedRows, rowHeights.length), row + 1);
+        int newCols = Math.max(Math.max(storedCols, colWidths.length), col + 1);
+
+        // Nothing to move when the storage is empty (e.g. after a clear), so the old array can be reused if it's big enough
+        if (storedRows == 0 && storedCols == 0 && children.length >= newRows * newCols) {
+            this.storedRows = newRows;
+            this.storedCols = newCols;
+            return;
+        }
 
-    private ArrayList<Float> buildExactSizeArray(float... values) {
-        ArrayList<Float> sizes = new ArrayList<>();
+        LayoutItem[] grown = new LayoutItem[newRows * newCols];
 
-        for (float v : values)
-            sizes.add(v);
+        for (int r = 0; r < storedRows; ++r)
+            System.arraycopy(children, r * storedCols, grown, r * newCols, storedCols);
 
-        return sizes;
+        this.children = grown;
+        this.storedRows = newRows;
+        this.storedCols = newCols;
     }
 
-    private ArrayList<Float> buildRelativeSizeArray(float total, float... values) {
-        ArrayList<Float> sizes = new ArrayList<>();
+    // --------------------------------------------------------------------------------
 
+    private float[] buildExactSizeArray(float... values) {
+        return Arrays.copyOf(values, values.length);
+    }
+
+    private float[] buildRelativeSizeArray(float total, float... values) {
         if (values.length == 0)
-            return sizes;
+            return new float[0];
 
         float sum = 0.0f;
         for (float v : values)
             sum += v;
 
         if (sum == 0.0f)
-            return sizes;
+            return new float[0];
 
-        for (float v : values)
-            sizes.add((v / sum) * total);
+        float[] sizes = new float[values.length];
+
+        for (int i = 0; i < values.length; ++i)
+            sizes[i] = (values[i] / sum) * total;
 
         return sizes;
     }
 
-    private ArrayList<Float> buildNSizeArray(float total, int count) {
-        ArrayList<Float> sizes = new ArrayList<>();
-
-        for (int i = 0; i < count; ++i)
-            sizes.add(total / count);
-
+    private float[] buildNSizeArray(float total, int count) {
+        float[] sizes = new float[count];
+        Arrays.fill(sizes, total / count);
         return sizes;
     }
 
@@ -103,7 +160,7 @@ public final class GridLayout extends AbstractWidget<GridLayout> {
      */
     public GridLayout withExactRows(float... heights) {
         this.rowHeights = buildExactSizeArray(heights);
-        updateTotalHeight();
+        invalidateLayout();
         return this;
     }
 
@@ -124,7 +181,7 @@ public final class GridLayout extends AbstractWidget<GridLayout> {
      */
     public GridLayout withExactCols(float... widths) {
         this.colWidths = buildExactSizeArray(widths);
-        updateTotalWidth();
+        invalidateLayout();
         return this;
     }
 
@@ -154,7 +211,7 @@ public final class GridLayout extends AbstractWidget<GridLayout> {
      */
     public GridLayout withRelativeRows(float totalHeight, float... heightRatios) {
         this.rowHeights = buildRelativeSizeArray(totalHeight, heightRatios);
-        updateTotalHeight();
+        invalidateLayout();
         return this;
     }
 
@@ -184,7 +241,7 @@ public final class GridLayout extends AbstractWidget<GridLayout> {
      */
     public GridLayout withRelativeCols(float totalWidth, float... widthRatios) {
         this.colWidths = buildRelativeSizeArray(totalWidth, widthRatios);
-        updateTotalWidth();
+        invalidateLayout();
         return this;
     }
 
@@ -200,7 +257,7 @@ public final class GridLayout extends AbstractWidget<GridLayout> {
      */
     public GridLayout withNEvenlySizedRows(float totalHeight, int numRows) {
         this.rowHeights = buildNSizeArray(totalHeight, numRows);
-        updateTotalHeight();
+        invalidateLayout();
         return this;
     }
 
@@ -216,7 +273,7 @@ public final class GridLayout extends AbstractWidget<GridLayout> {
      */
     public GridLayout withNEvenlySizedCols(float totalWidth, int numCols) {
         this.colWidths = buildNSizeArray(totalWidth, numCols);
-        updateTotalWidth();
+        invalidateLayout();
         return this;
     }
 
@@ -239,38 +296,50 @@ public final class GridLayout extends AbstractWidget<GridLayout> {
     // --------------------------------------------------------------------------------
 
 
-    @Override public float getContentWidth() { return totalWidth; }
-    @Override public float getContentHeight() { return totalHeight; }
+    @Override
+    public float getContentWidth() {
+        measureIfNeeded();
+        return totalWidth;
+    }
+
+    @Override
+    public float getContentHeight() {
+        measureIfNeeded();
+        return totalHeight;
+    }
 
 
     // --------------------------------------------------------------------------------
 
     /**
-     * Returns all children in the given row, in no particular order.
+     * Returns all children in the given row, ordered from left to right. This only looks at the cells of that row.
      * @param row the row to pull children from
      * @return a stream containing any widget that sits in this row
      */
     public Stream<LayoutItem> iteratorByRow(int row) {
-        return children.entrySet()
-                .stream()
-                .filter(a -> a.getKey().row == row)
-                .map(Map.Entry::getValue);
+        if (row < 0 || row >= storedRows)
+            return Stream.empty();
+
+        return Arrays.stream(children, row * storedCols, (row + 1) * storedCols)
+                .filter(Objects::nonNull);
     }
 
     /**
-     * Returns all children in the given column, in no particular order.
+     * Returns all children in the given column, ordered from top to bottom. This only looks at the cells of that column.
      * @param col the column to pull children from
      * @return a stream containing any widget that sits in this column
      */
     public Stream<LayoutItem> iteratorByCol(int col) {
-        return children.entrySet()
-                .stream()
-                .filter(a -> a.getKey().col == col)
-                .map(Map.Entry::getValue);
+        if (col < 0 || col >= storedCols)
+            return Stream.empty();
+
+        return IntStream.range(0, storedRows)
+                .mapToObj(row -> children[row * storedCols + col])
+                .filter(Objects::nonNull);
     }
 
     /**
-     * Returns all children in the given column of a particular type, in no particular order. Children in this column which are not instances of the given type are not added to the stream. This is mostly for convenience as recovering the type inside the stream can make some code cleaner. This variant of {@link #iteratorByCol(int)} has a slight performance penalty due to making sure the casts are safe.
+     * Returns all children in the given column of a particular type, ordered from top to bottom. Children in this column which are not instances of the given type are not added to the stream. This is mostly for convenience as recovering the type inside the stream can make some code cleaner. This variant of {@link #iteratorByCol(int)} has a slight performance penalty due to making sure the casts are safe.
      * @param col the column to pull children from
      * @param clz the class of widget caught by the filter
      * @param <T> the type of widget that will be in the final stream
@@ -282,7 +351,7 @@ public final class GridLayout extends AbstractWidget<GridLayout> {
     }
 
     /**
-     * Returns all children in the given row of a particular type, in no particular order. Children in this row which are not instances of the given type are not added to the stream. This is mostly for convenience as recovering the type inside the stream can make some code cleaner. This variant of {@link #iteratorByRow(int)} has a slight performance penalty due to making sure the casts are safe.
+     * Returns all children in the given row of a particular type, ordered from left to right. Children in this row which are not instances of the given type are not added to the stream. This is mostly for convenience as recovering the type inside the stream can make some code cleaner. This variant of {@link #iteratorByRow(int)} has a slight performance penalty due to making sure the casts are safe.
      * @param row the row to pull children from
      * @param clz the class of widget caught by the filter
      * @param <T> the type of widget that will be in the final stream
@@ -319,7 +388,7 @@ public final class GridLayout extends AbstractWidget<GridLayout> {
      * Let this grid manage the given widget. This function uses the specified anchor (ignoring <code>defaultChildAnchor</code>) to position this child inside its grid cell. The widget is moved into the proper position next time {@link #anchoredAt(float, float, AnchorPosition)} (or another in the <code>anchoredAt</code> family) is called.
      * </p>
      * <p>
-     * NOTE: This widget will replace any existing widget at the same (row, col) position if it already exists. It also assumes that (row,col) will be a valid position in the grid, but no bounds checking is provided. The grid will add this widget to its tracked HashMap regardless.
+     * NOTE: This widget will replace any existing widget at the same (row, col) position if it already exists. It also assumes that (row,col) will be a valid position in the grid, but no bounds checking is provided. The grid will track this widget regardless (growing its internal storage if needed).
      * </p>
      * @param row the row the widget will be placed in (0 is the top-most row)
      * @param col the col the widget will be placed in (0 is the left-most column)
@@ -329,7 +398,18 @@ public final class GridLayout extends AbstractWidget<GridLayout> {
      * @return this layout
      */
     public GridLayout withChild(int row, int col, AbstractWidget widget, AnchorPosition anchorPosition) {
-        children.put(new GridLocation(row, col), new LayoutItem(widget, anchorPosition));
+        ensureCellExists(row, col);
+
+        int index = row * storedCols + col;
+        LayoutItem replaced = children[index];
+        children[index] = new LayoutItem(widget, anchorPosition);
+
+        if (replaced != null && replaced.widget != widget)
+            detachChild(replaced.widget);
+
+        attachChild(widget);
+        invalidateLayout();
+
         return this;
     }
 
@@ -338,7 +418,7 @@ public final class GridLayout extends AbstractWidget<GridLayout> {
      * Let this grid manage the given widget. This function uses the current <code>defaultChildAnchor</code> position to set this child's position inside its grid cell (see {@link #withDefaultChildAnchorPosition(AnchorPosition)} for details). The widget is moved into the proper position next time {@link #anchoredAt(float, float, AnchorPosition)} (or another in the <code>anchoredAt</code> family) is called.
      * </p>
      * <p>
-     * NOTE: This widget will replace any existing widget at the same (row, col) position if it already exists. It also assumes that (row,col) will be a valid position in the grid, but no bounds checking is provided. The grid will add this widget to its tracked HashMap regardless.
+     * NOTE: This widget will replace any existing widget at the same (row, col) position if it already exists. It also assumes that (row,col) will be a valid position in the grid, but no bounds checking is provided. The grid will track this widget regardless (growing its internal storage if needed).
      * </p>
      * @param row the row the widget will be placed in (0 is the top-most row)
      * @param col the col the widget will be placed in (0 is the left-most column)
@@ -412,72 +492,86 @@ public final class GridLayout extends AbstractWidget<GridLayout> {
     // Convenient row / col position access
     // --------------------------------------------------------------------------------
 
-    private float getColLeft(int col)  {
-        float pos = 0.0f;
-        for (int i = 0; i < col && i < colWidths.size(); ++i)
-            pos += colWidths.get(i);
-        return pos;
+    private float getColLeft(int col) {
+        measureIfNeeded();
+        return colLefts[Math.min(col, colWidths.length)];
     }
 
     private float getRowTop(int row) {
-        float pos = 0.0f;
-        for (int i = 0; i < row && i < rowHeights.size(); ++i)
-            pos -= rowHeights.get(i);
-        return pos;
+        measureIfNeeded();
+        return -rowTops[Math.min(row, rowHeights.length)];
     }
 
     private float getColWidth(int col) {
-        return (col < colWidths.size()) ? colWidths.get(col) : 0.0f;
+        return (col < colWidths.length) ? colWidths[col] : 0.0f;
     }
 
     private float getRowHeight(int row) {
-        return (row < rowHeights.size()) ? rowHeights.get(row) : 0.0f;
+        return (row < rowHeights.length) ? rowHeights[row] : 0.0f;
     }
 
     // --------------------------------------------------------------------------------
 
     public GridLayout resizeRowToFitTallestChild(int row) {
-        if (row > rowHeights.size())
+        if (row < 0 || row >= rowHeights.length)
             return this;
 
-        float maxHeightInRow = children.entrySet().stream()
-                .filter(entry -> entry.getKey().row == row)
-                .map(entry -> entry.getValue().widget.getHeight())
+        rowHeights[row] = iteratorByRow(row)
+                .map(item -> item.widget.getHeight())
                 .max(Float::compareTo)
                 .orElse(0.0f);
 
-        rowHeights.set(row, maxHeightInRow);
-        updateTotalHeight();
+        invalidateLayout();
 
         return this;
     }
 
     public GridLayout resizeRowsToFitTallestChildren() {
-        for (int row = 0; row < rowHeights.size(); ++row)
-            resizeRowToFitTallestChild(row);
+        // Single pass over the cells instead of one full scan per row
+        Arrays.fill(rowHeights, 0.0f);
+
+        for (int row = 0; row < storedRows && row < rowHeights.length; ++row) {
+            for (int col = 0; col < storedCols; ++col) {
+                LayoutItem item = children[row * storedCols + col];
+
+                if (item != null)
+                    rowHeights[row] = Math.max(rowHeights[row], item.widget.getHeight());
+            }
+        }
+
+        invalidateLayout();
 
         return this;
     }
 
     public GridLayout resizeColToFitWidestChild(int col) {
-        if (col > colWidths.size())
+        if (col < 0 || col >= colWidths.length)
             return this;
 
-        float maxWidthInCol = children.entrySet().stream()
-                .filter(entry -> entry.getKey().col == col)
-                .map(entry -> entry.getValue().widget.getWidth())
+        colWidths[col] = iteratorByCol(col)
+                .map(item -> item.widget.getWidth())
                 .max(Float::compareTo)
                 .orElse(0.0f);
 
-        colWidths.set(col, maxWidthInCol);
-        updateTotalWidth();
+        invalidateLayout();
 
         return this;
     }
 
     public GridLayout resizeColsToFitWidestChildren() {
-        for (int col = 0; col < colWidths.size(); ++col)
-            resizeColToFitWidestChild(col);
+        // Single pass over the cells instead of one full scan per column
+        Arrays.fill(colWidths, 0.0f);
+
+        for (int row = 0; row < storedRows; ++row) {
+            for (int col = 0; col < storedCols && col < colWidths.length; ++col) {
+                LayoutItem item = children[row * storedCols + col];
+
+                if (item != null)
+                    colWidths[col] = Math.max(colWidths[col], item.widget.getWidth());
+            }
+        }
+
+        invalidateLayout();
 
         return this;
     }
@@ -485,15 +579,15 @@ public final class GridLayout extends AbstractWidget<GridLayout> {
     // --------------------------------------------------------------------------------
 
     /**
-     * The ordering of this stream is dependent on the underlying map (which does not have a predictable order).
-     * @return a stream of all children currently handled by this widget, in no particular order
+     * The children are visited in row-major order (left to right along row 0, then row 1, etc.).
+     * @return a stream of all children currently handled by this widget
      */
     public Stream<AbstractWidget> iterator() {
-        return this.children.values().stream().map(item -> item.widget);
+        return items().map(item -> item.widget);
     }
 
     /**
-     * A stream of children handled by this widget who are of the specific type, for convenience purposes. Like {@link #iterator()}, the resulting stream is in no particular order. If you know you've built the layout with all objects of a particular type, you can quickly recover them all into a stream that remembers the type. This has a slight performance penalty over {@link #iterator()} due to checking each child against the type for safe casts, but the resulting stream will be properly typed to make it easier to work with. Children managed by this layout who are not of the given type will not be included in the stream, so be wary if using this variant of the iterator.
+     * A stream of children handled by this widget who are of the specific type, for convenience purposes. Like {@link #iterator()}, the resulting stream is in row-major order. If you know you've built the layout with all objects of a particular type, you can quickly recover them all into a stream that remembers the type. This has a slight performance penalty over {@link #iterator()} due to checking each child against the type for safe casts, but the resulting stream will be properly typed to make it easier to work with. Children managed by this layout who are not of the given type will not be included in the stream, so be wary if using this variant of the iterator.
      * @param clz the class for the type
      * @param <T> the type of child to extract
      * @return a stream of children who fit the given type
@@ -505,9 +599,9 @@ public final class GridLayout extends AbstractWidget<GridLayout> {
 
     // --------------------------------------------------------------------------------
 
-    private void anchorChild(AbstractWidget child, int row, int col, AnchorPosition target, InterpolationSpeed withDelay) {
+    private void anchorChild(AbstractWidget child, int row, int col, AnchorPosition target) {
         // Ensure the child position is indeed tracked by this grid
-        if (row >= rowHeights.size() || col >= colWidths.size()) {
+        if (row >= rowHeights.length || col >= colWidths.length) {
             Easel.logger.warn("Warning: attempt to anchor child " + child + " to GridLayout " + this + " failed: (row, col) index out of bounds.");
         }
 
@@ -529,18 +623,25 @@ public final class GridLayout extends AbstractWidget<GridLayout> {
         else if (target.isBottom())
             y -= rowHeight;
 
-        child.anchoredAt(x + getContentLeft(), y + getContentTop(), target, withDelay);
+        child.anchoredAt(x + getContentLeft(), y + getContentTop(), target, InterpolationSpeed.INSTANT);
     }
 
-    private void anchorAllChildren(InterpolationSpeed withDelay) {
-        for (Map.Entry<GridLocation, LayoutItem> gridEntry : children.entrySet()) {
-            GridLocation location = gridEntry.getKey();
-            LayoutItem item = gridEntry.getValue();
-
-            anchorChild(item.widget, location.row, location.col, item.anchor, withDelay);
+    @Override
+    protected void arrange() {
+        for (int row = 0; row < storedRows; ++row) {
+            for (int col = 0; col < storedCols; ++col) {
+                LayoutItem item = children[row * storedCols + col];
+
+                if (item != null)
+                    anchorChild(item.widget, row, col, item.anchor);
+            }
         }
     }
 
+    private Stream<LayoutItem> items() {
+        return Arrays.stream(children).filter(Objects::nonNull);
+    }
+
     @Override
     protected void cancelMovementQueueForAllChildren(boolean shouldTryAndResolveOneLastTime) {
         iterator().forEach(child -> child.cancelMovementQueue(shouldTryAndResolveOneLastTime));
@@ -548,18 +649,6 @@ public final class GridLayout extends AbstractWidget<GridLayout> {
 
     // --------------------------------------------------------------------------------
 
-    @Override
-    public GridLayout anchoredAt(float x, float y, AnchorPosition anchorPosition, InterpolationSpeed movementSpeed) {
-        super.anchoredAt(x, y, anchorPosition, movementSpeed);
-        anchorAllChildren(movementSpeed);
-        return this;
-    }
-
-    @Override
-    protected void setChildrenDelayedMovement(float deltaX, float deltaY, InterpolationSpeed movementSpeed, long startingTimeMillis) {
-        iterator().forEach(child -> child.setAllDelayedMovement(deltaX, deltaY, movementSpeed, startingTimeMillis));
-    }
-
     //    @Override
 //    public GridLayout anchoredAt(float x, float y, AnchorPosition anchorPosition) {
 //        return anchoredAt(x, y, anchorPosition, InterpolationSpeed.INSTANT);
@@ -589,26 +678,33 @@ public final class GridLayout extends AbstractWidget<GridLayout> {
 //                getContentWidth() * Settings.xScale,
 //                getContentHeight() * Settings.yScale);
 
-        children.values().forEach(w -> w.widget.render(sb));
+        items().forEach(w -> w.widget.render(sb));
+    }
+
+    @Override
+    protected boolean rendersOnlyChildren() {
+        return true;
     }
 
     @Override
     public void renderTopLevel(SpriteBatch sb) {
-        children.values().forEach(c -> c.widget.renderTopLevel(sb));
+        items().forEach(c -> c.widget.renderTopLevel(sb));
     }
 
     @Override
     public void updateWidget() {
-        children.values().forEach(w -> w.widget.update());
+        items().forEach(w -> w.widget.update());
     }
 
     @Override
     public void show() {
-        children.values().forEach(w -> w.widget.show());
+        super.show();
+        items().forEach(w -> w.widget.show());
     }
 
     @Override
     public void hide() {
-        children.values().forEach(w -> w.widget.hide());
+        super.hide();
+        items().forEach(w -> w.widget.hide());
     }
 }
@@ -35,7 +35,7 @@ public class HorizontalLayout extends AbstractOneDimensionalLayout<HorizontalLay
     }
 
     /**
-     * Constructs a new horizontal layout with the given horizontal spacing. This constructor guarantees that {@link #scaleToTallestChild()} will be called the FIRST time that any {@link #anchoredAt(float, float, AnchorPosition)} anchoring occurs (only the first time). This is essentially a convenience method for the usual pattern where the row height set by the other constructor is ignored with a manual {@link #scaleToTallestChild()} before anchoring. This variant just does it automatically. To ensure performance, this auto-scaling only occurs the first time an anchoring occurs (which, presumably is after all children have been added), and must be done manually later if things change beyond that.
+     * Constructs a new horizontal layout with the given horizontal spacing. This constructor makes the row height always track the height of the tallest child (as if {@link #scaleToTallestChild()} was called). This is essentially a convenience method for the usual pattern where the row height set by the other constructor is ignored with a manual {@link #scaleToTallestChild()} before anchoring. This variant just does it automatically. The height is recomputed as part of the regular measure pass, i.e. only when children are added or change size (see {@link #invalidateLayout()}), so it stays up to date without any extra cost per frame.
      * @param spacing the horizontal gap in between elements of the layout
      * @see #HorizontalLayout(float, float)
      */
@@ -44,18 +44,36 @@ public class HorizontalLayout extends AbstractOneDimensionalLayout<HorizontalLay
         this.shouldAutoScaleToContent = true;
     }
 
-    @Override public float getContentWidth() { return totalWidth - spacing; }
-    @Override public float getContentHeight() { return totalHeight; }
+    @Override
+    public float getContentWidth() {
+        measureIfNeeded();
+        return totalWidth - spacing;
+    }
 
     @Override
-    protected void updateSize(AbstractWidget newChild) {
-        this.totalWidth += (spacing + newChild.getWidth());
+    public float getContentHeight() {
+        measureIfNeeded();
+        return totalHeight;
     }
 
-    @Override protected void autoscale() { scaleToTallestChild(); }
+    @Override
+    protected void measure() {
+        float width = 0.0f;
+        float tallest = 0.0f;
+
+        for (LayoutItem child : children) {
+            width += (spacing + child.widget.getWidth());
+            tallest = Math.max(tallest, child.widget.getHeight());
+        }
+
+        this.totalWidth = width;
+
+        if (shouldAutoScaleToContent)
+            this.totalHeight = tallest;
+    }
 
     @Override
-    protected void anchorChildren(InterpolationSpeed withDelay) {
+    protected void arrange() {
         float top = getContentTop();
         float currX = getContentLeft();
 
@@ -68,18 +86,12 @@ public class HorizontalLayout extends AbstractOneDimensionalLayout<HorizontalLay
             float x = anchor.getXFromLeft(currX, widgetWidth);
             float y = anchor.getYFromTop(top, totalHeight);
 
-            widget.anchoredAt(x, y, anchor, withDelay);
+            widget.anchoredAt(x, y, anchor, InterpolationSpeed.INSTANT);
 
             currX += (widgetWidth + spacing);
         }
     }
 
-    @Override
-    public void clear() {
-        super.clear();
-        this.totalWidth = 0;
-    }
-
     /**
      * Replaces the <code>desiredHeight</code> set in the constructor ({@link #HorizontalLayout(float, float)}) with the height of the tallest child. Useful for dynamically scaling the height of this widget to fit the heights of its children. NOTE: should call this function AFTER adding all children and before anchoring.
      * @return this widget
@@ -90,6 +102,7 @@ public class HorizontalLayout extends AbstractOneDimensionalLayout<HorizontalLay
                 .max(Float::compareTo)
                 .orElse(0.0f);
 
+        invalidateLayout();
         return this;
     }
 }
@@ -34,7 +34,7 @@ public class VerticalLayout extends AbstractOneDimensionalLayout<VerticalLayout>
     }
 
     /**
-     * Constructs a new vertical layout with the given vertical spacing. This constructor guarantees that {@link #scaleToWidestChild()} will be called the FIRST time that any {@link #anchoredAt(float, float, AnchorPosition)} anchoring occurs (only the first time). This is essentially a convenience method for the usual pattern where the column width set by the other constructor is ignored with a manual {@link #scaleToWidestChild()} before anchoring. This variant just does it automatically. To ensure performance, this auto-scaling only occurs the first time an anchoring occurs (which, presumably is after all children have been added), and must be done manually later if things change beyond that.
+     * Constructs a new vertical layout with the given vertical spacing. This constructor makes the column width always track the width of the widest child (as if {@link #scaleToWidestChild()} was called). This is essentially a convenience method for the usual pattern where the column width set by the other constructor is ignored with a manual {@link #scaleToWidestChild()} before anchoring. This variant just does it automatically. The width is recomputed as part of the regular measure pass, i.e. only when children are added or change size (see {@link #invalidateLayout()}), so it stays up to date without any extra cost per frame.
      * @param spacing the vertical gap in between elements of the layout
      * @see #VerticalLayout(float, float)
      */
@@ -43,24 +43,36 @@ public class VerticalLayout extends AbstractOneDimensionalLayout<VerticalLayout>
         this.shouldAutoScaleToContent = true;
     }
 
-    @Override public float getContentWidth() { return totalWidth; }
-    @Override public float getContentHeight() { return totalHeight - spacing; }
-
     @Override
-    protected void updateSize(AbstractWidget newChild) {
-        this.totalHeight += (spacing + newChild.getHeight());
+    public float getContentWidth() {
+        measureIfNeeded();
+        return totalWidth;
     }
 
     @Override
-    public void clear() {
-        super.clear();
-        this.totalHeight = 0;
+    public float getContentHeight() {
+        measureIfNeeded();
+        return totalHeight - spacing;
     }
 
-    @Override protected void autoscale() { scaleToWidestChild(); }
+    @Override
+    protected void measure() {
+        float height = 0.0f;
+        float widest = 0.0f;
+
+        for (LayoutItem child : children) {
+            height += (spacing + child.widget.getHeight());
+            widest = Math.max(widest, child.widget.getWidth());
+        }
+
+        this.totalHeight = height;
+
+        if (shouldAutoScaleToContent)
+            this.totalWidth = widest;
+    }
 
     @Override
-    protected void anchorChildren(InterpolationSpeed withDelay) {
+    protected void arrange() {
         float left = getContentLeft();
         float currY = getContentTop();
 
@@ -73,7 +85,7 @@ public class VerticalLayout extends AbstractOneDimensionalLayout<VerticalLayout>
             float x = anchor.getXFromLeft(left, totalWidth);
             float y = anchor.getYFromTop(currY, widgetHeight);
 
-            widget.anchoredAt(x, y, anchor, withDelay);
+            widget.anchoredAt(x, y, anchor, InterpolationSpeed.INSTANT);
 
             currY -= (widgetHeight + spacing);
         }
@@ -90,6 +102,7 @@ public class VerticalLayout extends AbstractOneDimensionalLayout<VerticalLayout>
                 .max(Float::compareTo)
                 .orElse(0.0f);
 
+        invalidateLayout();
         return this;
     }
 }
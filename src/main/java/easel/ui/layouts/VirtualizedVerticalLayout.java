@@ -0,0 +1,409 @@
+package easel.ui.layouts;
+
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.scenes.scene2d.utils.ScissorStack;
+import easel.runtime.EaselRuntime;
+import easel.runtime.ScreenMetrics;
+import easel.ui.AbstractWidget;
+import easel.ui.AnchorPosition;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * <p>
+ * A scrollable version of a {@link VerticalLayout} for very large lists (logs, run histories, card lists, etc.). Instead of managing one child widget per element, this layout is given a data source (a <code>List</code> of items) along with a row factory (which constructs an empty row widget) and a row binder (which fills an existing row widget with the contents of a particular item). Only the rows that are currently visible inside the viewport are ever materialized: as the list scrolls, rows that leave the viewport are recycled and rebound to the items that scroll into view. Rows are clipped to the viewport, so partially visible rows at the edges render correctly.
+ * </p>
+ * <p>
+ * Since rows are recycled, every row has the same height (set in the constructor), and the cost of updating and rendering this layout depends only on the size of the viewport, not on the number of items. The following example shows a scrollable list of strings, 400px wide and 300px tall, with 40px tall rows:
+ * </p>
+ * <pre>
+ * {@code
+ * VirtualizedVerticalLayout<String, Label> log = new VirtualizedVerticalLayout<String, Label>(400, 300, 40, 0)
+ *     .withRowFactory(() -> new Label(""), (label, text) -> label.withText(text))
+ *     .withData(messages)
+ *     .anchoredAt(x, y, AnchorPosition.LEFT_TOP);
+ * }
+ * </pre>
+ * <p>
+ * Unlike {@link VerticalLayout}, this is not an {@link AbstractOneDimensionalLayout}: the rows are owned and recycled by the list itself, so children can't be added (or cleared) directly with <code>withChild</code>. It shares the same handling of <code>defaultChildAnchorPosition</code> though.
+ * </p>
+ * <p>
+ * If the contents of the data source change, call {@link #notifyDataChanged()} to rebind the visible rows. The layout scrolls with the mouse wheel while the mouse is over it, and can be scrolled programmatically with {@link #scrollBy(float)}, {@link #scrollTo(float)}, and {@link #scrollToItem(int)}.
+ * </p>
+ * @param <T> the type of item in the data source
+ * @param <W> the type of widget used to display a single item
+ * @see VerticalLayout
+ */
+public class VirtualizedVerticalLayout<T, W extends AbstractWidget> extends AbstractWidget<VirtualizedVerticalLayout<T, W>> {
+    private final float width;
+    private final float viewportHeight;
+    private final float rowHeight;
+    private final float spacing;
+
+    private AnchorPosition defaultChildAnchorPosition = AnchorPosition.LEFT_TOP;
+
+    private List<T> data = Collections.emptyList();
+
+    private Supplier<W> rowFactory;
+    private BiConsumer<W, T> rowBinder;
+
+    // Rows currently on screen: activeRows.get(i) displays data.get(firstActiveIndex + i)
+    private ArrayList<W> activeRows = new ArrayList<>();
+    private ArrayList<W> nextActiveRows = new ArrayList<>();
+    private int firstActiveIndex = 0;
+
+    // Rows that have scrolled out of view, waiting to be rebound
+    private final ArrayList<W> recycledRows = new ArrayList<>();
+
+    private float scrollOffset = 0.0f;
+    private float scrollSpeed = 50.0f;
+    private boolean rowsOutOfDate = true;
+
+    private boolean isShowing = true;
+
+    private final Rectangle clipArea = new Rectangle();
+    private final Rectangle clipBounds = new Rectangle();
+
+    // Only its combined matrix is used, set to the batch's projection so the clip follows wherever the batch draws
+    private static final OrthographicCamera clipCamera = new OrthographicCamera();
+
+    // --------------------------------------------------------------------------------
+
+    /**
+     * Constructs a new virtualized list. Set up how rows are constructed with {@link #withRowFactory(Supplier, BiConsumer)} and what they contain with {@link #withData(List)} before using.
+     * @param width the width of the list (and of the space given to each row)
+     * @param viewportHeight the visible height of the list; rows outside of this area are not rendered
+     * @param rowHeight the height allotted to each row
+     * @param spacing the vertical gap in between rows
+     */
+    public VirtualizedVerticalLayout(float width, float viewportHeight, float rowHeight, float spacing) {
+        this.width = width;
+        this.viewportHeight = viewportHeight;
+        this.rowHeight = rowHeight;
+        this.spacing = spacing;
+    }
+
+    // --------------------------------------------------------------------------------
+
+    /**
+     * Sets how rows are produced. The <code>rowFactory</code> is only called when there are not enough recycled rows available to cover the viewport, so it will be called roughly as many times as there are visible rows. The <code>rowBinder</code> is called whenever a row is (re)assigned to display a particular item and should update the row widget to show that item (e.g. by changing the text of a label).
+     * @param rowFactory constructs a new, empty row widget
+     * @param rowBinder updates an existing row widget to display the given item
+     * @return this layout
+     */
+    public VirtualizedVerticalLayout<T, W> withRowFactory(Supplier<W> rowFactory, BiConsumer<W, T> rowBinder) {
+        this.rowFactory = rowFactory;
+        this.rowBinder = rowBinder;
+
+        // Rows built by the old factory may not be compatible with the new binder
+        recycleAllRows();
+
+        // Rows are owned by this layout, so the ones built by the old factory won't be used by anything else
+        for (W row : recycledRows) {
+            detachChild(row);
+            row.dispose();
+        }
+
+        recycledRows.clear();
+
+        this.rowsOutOfDate = true;
+        return this;
+    }
+
+    /**
+     * Sets the data source for this list. The list is not copied: if it changes later on, call {@link #notifyDataChanged()} so that the visible rows can be rebound.
+     * @param data the items to display, from top to bottom
+     * @return this layout
+     */
+    public VirtualizedVerticalLayout<T, W> withData(List<T> data) {
+        this.data = data;
+        return notifyDataChanged();
+    }
+
+    /**
+     * Rebinds every visible row to the current contents of the data source. Should be called whenever items are added to, removed from, or changed inside the data source. The scroll position is kept (but clamped, if the list got shorter).
+     * @return this layout
+     */
+    public VirtualizedVerticalLayout<T, W> notifyDataChanged() {
+        recycleAllRows();
+        this.scrollOffset = clampScroll(scrollOffset);
+        this.rowsOutOfDate = true;
+        return this;
+    }
+
+    /**
+     * Sets the horizontal position of each row inside the width of this list. Like {@link VerticalLayout}, only the horizontal information of the anchor is used. Defaults to <code>AnchorPosition.LEFT_TOP</code>.
+     * @param defaultChildAnchorPosition where each row is placed inside its slot
+     * @return this layout
+     */
+    public VirtualizedVerticalLayout<T, W> withDefaultChildAnchorPosition(AnchorPosition defaultChildAnchorPosition) {
+        this.defaultChildAnchorPosition = defaultChildAnchorPosition;
+        this.rowsOutOfDate = true;
+        return this;
+    }
+
+    /**
+     * @param scrollSpeed how far a single mouse wheel tick scrolls the list, in pixels. Defaults to 50px.
+     * @return this layout
+     */
+    public VirtualizedVerticalLayout<T, W> withScrollSpeed(float scrollSpeed) {
+        this.scrollSpeed = scrollSpeed;
+        return this;
+    }
+
+    // --------------------------------------------------------------------------------
+    // Scrolling
+    // --------------------------------------------------------------------------------
+
+    private float getRowPitch() {
+        return rowHeight + spacing;
+    }
+
+    /**
+     * @return the full height of every row in the data source stacked on top of each other (i.e. the height this list would have if it wasn't virtualized)
+     */
+    public float getScrollHeight() {
+        return Math.max(0.0f, data.size() * getRowPitch() - spacing);
+    }
+
+    /**
+     * @return how far the list is currently scrolled down, in pixels (0 is the top of the list)
+     */
+    public float getScrollOffset() {
+        return scrollOffset;
+    }
+
+    private float clampScroll(float offset) {
+        float maxScroll = Math.max(0.0f, getScrollHeight() - viewportHeight);
+        return Math.max(0.0f, Math.min(offset, maxScroll));
+    }
+
+    /**
+     * Scrolls the list so that the given offset (in pixels from the top of the list) is at the top of the viewport. The offset is clamped so that the list never scrolls past its first or last rows.
+     * @param offset the new scroll position
+     * @return this layout
+     */
+    public VirtualizedVerticalLayout<T, W> scrollTo(float offset) {
+        float clamped = clampScroll(offset);
+
+        if (clamped != scrollOffset) {
+            this.scrollOffset = clamped;
+            this.rowsOutOfDate = true;
+        }
+
+        return this;
+    }
+
+    /**
+     * Scrolls the list by a given amount.
+     * @param deltaY how far to scroll, in pixels (positive values scroll further down the list)
+     * @return this layout
+     */
+    public VirtualizedVerticalLayout<T, W> scrollBy(float deltaY) {
+        return scrollTo(scrollOffset + deltaY);
+    }
+
+    /**
+     * Scrolls the list so that the item with the given index is at the top of the viewport (or as close as possible, if the item is near the end of the list).
+     * @param index the index of the item in the data source
+     * @return this layout
+     */
+    public VirtualizedVerticalLayout<T, W> scrollToItem(int index) {
+        return scrollTo(index * getRowPitch());
+    }
+
+    // --------------------------------------------------------------------------------
+    // Row recycling
+    // --------------------------------------------------------------------------------
+
+    private W obtainRow(int index) {
+        W row;
+
+        if (recycledRows.isEmpty()) {
+            row = rowFactory.get();
+            attachChild(row);
+        }
+        else {
+            row = recycledRows.remove(recycledRows.size() - 1);
+        }
+
+        rowBinder.accept(row, data.get(index));
+
+        if (isShowing)
+            row.show();
+
+        return row;
+    }
+
+    private void recycleRow(W row) {
+        row.hide();
+        recycledRows.add(row);
+    }
+
+    private void recycleAllRows() {
+        for (W row : activeRows)
+            recycleRow(row);
+
+        activeRows.clear();
+        firstActiveIndex = 0;
+    }
+
+    /**
+     * Makes sure that exactly the rows intersecting the viewport are materialized, bound, and positioned. Rows that stay in view keep their binding; only rows scrolling into view are rebound.
+     */
+    private void refreshVisibleRows() {
+        this.rowsOutOfDate = false;
+
+        if (rowFactory == null)
+            return;
+
+        float pitch = getRowPitch();
+
+        int first = 0;
+        int last = 0;
+
+        if (!data.isEmpty() && pitch > 0) {
+            first = Math.max(0, (int)(scrollOffset / pitch));
+            last = Math.min(data.size(), (int)Math.ceil((scrollOffset + viewportHeight) / pitch));
+        }
+
+        int oldFirst = firstActiveIndex;
+        int oldLast = firstActiveIndex + activeRows.size();
+
+        // Recycle anything that left the viewport
+        for (int i = oldFirst; i < oldLast; ++i) {
+            if (i < first || i >= last)
+                recycleRow(activeRows.get(i - oldFirst));
+        }
+
+        // Keep rows that are still visible, and fill in the rest
+        nextActiveRows.clear();
+
+        for (int i = first; i < last; ++i) {
+            if (i >= oldFirst && i < oldLast)
+                nextActiveRows.add(activeRows.get(i - oldFirst));
+            else
+                nextActiveRows.add(obtainRow(i));
+        }
+
+        ArrayList<W> swap = activeRows;
+        this.activeRows = nextActiveRows;
+        this.nextActiveRows = swap;
+        this.firstActiveIndex = first;
+
+        // Position the visible rows
+        float left = getContentLeft();
+        float top = getContentTop() + scrollOffset;
+
+        for (int i = 0; i < activeRows.size(); ++i) {
+            float rowTop = top - (first + i) * pitch;
+
+            float x = defaultChildAnchorPosition.getXFromLeft(left, width);
+            float y = defaultChildAnchorPosition.getYFromTop(rowTop, rowHeight);
+
+            activeRows.get(i).anchoredAt(x, y, defaultChildAnchorPosition);
+        }
+    }
+
+    // --------------------------------------------------------------------------------
+
+    @Override public float getContentWidth() { return width; }
+    @Override public float getContentHeight() { return viewportHeight; }
+
+    @Override
+    protected void arrange() {
+        refreshVisibleRows();
+    }
+
+    /**
+     * @return a stream of the rows currently materialized (i.e. visible), from top to bottom
+     */
+    public Stream<W> iterator() {
+        return activeRows.stream();
+    }
+
+    // --------------------------------------------------------------------------------
+
+    @Override
+    protected void updateWidget() {
+        if (isMouseInContentBounds()) {
+            if (EaselRuntime.getInput().isScrolledDown())
+                scrollBy(scrollSpeed);
+            else if (EaselRuntime.getInput().isScrolledUp())
+                scrollBy(-scrollSpeed);
+        }
+
+        if (rowsOutOfDate)
+            refreshVisibleRows();
+
+        for (int i = 0; i < activeRows.size(); ++i)
+            activeRows.get(i).update();
+    }
+
+    @Override
+    protected void renderWidget(SpriteBatch sb) {
+        if (rowsOutOfDate)
+            refreshVisibleRows();
+
+        if (activeRows.isEmpty())
+            return;
+
+        // Clip to the viewport: its bounds in world coordinates, projected into window pixels the same way as the batch
+        ScreenMetrics screen = EaselRuntime.getScreen();
+        clipArea.set(getContentLeft() * screen.getXScale(),
+                getContentBottom() * screen.getYScale(),
+                getContentWidth() * screen.getXScale(),
+                getContentHeight() * screen.getYScale());
+
+        clipCamera.combined.set(sb.getProjectionMatrix());
+        ScissorStack.calculateScissors(clipCamera, sb.getTransformMatrix(), clipArea, clipBounds);
+
+        sb.flush();
+
+        if (ScissorStack.pushScissors(clipBounds)) {
+            for (int i = 0; i < activeRows.size(); ++i)
+                activeRows.get(i).render(sb);
+
+            sb.flush();
+            ScissorStack.popScissors();
+        }
+    }
+
+    // The flushes around the clipped region draw the children's vertices with whatever shader they left bound
+    @Override
+    protected boolean rendersOnlyChildren() {
+        return true;
+    }
+
+    @Override
+    public void renderTopLevel(SpriteBatch sb) {
+        for (int i = 0; i < activeRows.size(); ++i)
+            activeRows.get(i).renderTopLevel(sb);
+    }
+
+    @Override
+    public void show() {
+        super.show();
+        this.isShowing = true;
+        activeRows.forEach(AbstractWidget::show);
+    }
+
+    @Override
+    public void hide() {
+        super.hide();
+        this.isShowing = false;
+        activeRows.forEach(AbstractWidget::hide);
+    }
+
+    @Override
+    protected void cancelMovementQueueForAllChildren(boolean shouldTryAndResolveOneLastTime) {
+        activeRows.forEach(row -> row.cancelMovementQueue(shouldTryAndResolveOneLastTime));
+    }
+}
@@ -0,0 +1,100 @@
+package easel.ui.text;
+
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.BitmapFontCache;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import easel.runtime.ScreenMetrics;
+import easel.utils.DistanceFieldFonts;
+
+/**
+ * <p>
+ * The laid out glyph geometry of a text widget, reused every frame until something it depends on changes. Besides the text itself (see {@link #invalidate()}), that's the screen scale the glyphs were laid out for and the scale of the font, which can be changed by anyone sharing the font.
+ * </p>
+ * <p>
+ * Fonts with a distance field (see {@link DistanceFieldFonts}) are drawn with their shared shader, which the owning widget should return from {@link easel.ui.AbstractWidget#getSharedShader()} so that consecutive labels are drawn in a single batch.
+ * </p>
+ */
+final class GlyphCache {
+    private final BitmapFont font;
+    private BitmapFontCache cache;
+
+    private boolean outOfDate = true;
+
+    // What the cache was last laid out for
+    private float xScale;
+    private float yScale;
+    private float fontScaleX;
+    private float fontScaleY;
+
+    GlyphCache(BitmapFont font) {
+        this.font = font;
+    }
+
+    /**
+     * Makes the next {@link #isOutOfDate(ScreenMetrics)} return true, e.g. after the text changed.
+     */
+    void invalidate() {
+        this.outOfDate = true;
+    }
+
+    /**
+     * @param screen the current screen
+     * @return true if the glyphs need to be laid out again with {@link #rebuild(ScreenMetrics)} before drawing
+     */
+    boolean isOutOfDate(ScreenMetrics screen) {
+        return outOfDate
+                || xScale != screen.getXScale() || yScale != screen.getYScale()
+                || fontScaleX != font.getScaleX() || fontScaleY != font.getScaleY();
+    }
+
+    /**
+     * Empties the cache so the caller can lay the glyphs out again (relative to the origin), and considers it up to date for the current screen and font scale.
+     * @param screen the current screen
+     * @return the emptied cache
+     */
+    BitmapFontCache rebuild(ScreenMetrics screen) {
+        if (cache == null)
+            cache = DistanceFieldFonts.newFontCache(font);
+
+        cache.clear();
+        cache.setPosition(0, 0);
+
+        this.xScale = screen.getXScale();
+        this.yScale = screen.getYScale();
+        this.fontScaleX = font.getScaleX();
+        this.fontScaleY = font.getScaleY();
+        this.outOfDate = false;
+
+        return cache;
+    }
+
+    /**
+     * @return the cache, or null if it was never built
+     */
+    BitmapFontCache getCache() {
+        return cache;
+    }
+
+    /**
+     * @return the distance field shader if the font needs it, or null
+     */
+    ShaderProgram getSharedShader() {
+        return DistanceFieldFonts.isDistanceField(font) ? DistanceFieldFonts.getShader() : null;
+    }
+
+    /**
+     * Draws the glyphs shifted to the given position. For a distance field font, the shader from {@link #getSharedShader()} must already be bound.
+     * @param sb the SpriteBatch to draw on
+     * @param x the horizontal offset, in screen pixels
+     * @param y the vertical offset, in screen pixels
+     */
+    void draw(SpriteBatch sb, float x, float y) {
+        cache.setPosition(x, y);
+
+        if (DistanceFieldFonts.isDistanceField(font))
+            DistanceFieldFonts.drawWithBoundShader(sb, cache);
+        else
+            cache.draw(sb);
+    }
+}
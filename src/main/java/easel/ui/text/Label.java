@@ -2,9 +2,12 @@ package easel.ui.text;
 
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.BitmapFontCache;
+import com.badlogic.gdx.graphics.g2d.GlyphLayout;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
-import com.megacrit.cardcrawl.core.Settings;
-import com.megacrit.cardcrawl.helpers.FontHelper;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import easel.runtime.EaselRuntime;
+import easel.runtime.ScreenMetrics;
 import easel.ui.AbstractWidget;
 
 /**
@@ -12,7 +15,10 @@ import easel.ui.AbstractWidget;
  * Labels are the quick and easy way to render text with a widget. Labels can change their text dynamically with {@link #withText(String)}, but doing so will alter the size of the widget and may require re-anchoring.
  * </p>
  * <p>
- * Labels won't handle "smart text" effects (e.g. text wrapping, inline use of color modifiers, " NL " for newlines, etc.), as this widget is just a simple wrapper over <code>FontHelper.renderFontLeftDownAligned()</code>. For more flexible text rendering, consider using a SmartLabel instead (not yet implemented).
+ * Labels won't handle "smart text" effects (e.g. text wrapping, inline use of color modifiers, " NL " for newlines, etc.), and render the same way as the base game's <code>FontHelper.renderFontLeftDownAligned()</code>. For more flexible text rendering, consider using a {@link SmartLabel} instead.
+ * </p>
+ * <p>
+ * The glyphs are laid out once into a <code>BitmapFontCache</code> and reused every frame: moving the label just shifts the cached geometry, and only a change in the text, color, screen scale, or font scale requires laying the text out again.
  * </p>
  */
 public class Label extends AbstractWidget<Label> {
@@ -24,26 +30,33 @@ public class Label extends AbstractWidget<Label> {
     private float textWidth;
     private float textHeight;
 
+    // Cached glyph geometry, laid out with its left edge at x = 0 and its cap height at y = 0
+    private final GlyphCache glyphs;
+    private float cachedColorBits;
+    private float cachedTextHeight;
+
     public Label(String text) {
-        this(text, FontHelper.tipBodyFont, Settings.CREAM_COLOR);
+        this(text, EaselRuntime.getFonts().getDefaultFont(), EaselRuntime.getFonts().getDefaultColor());
     }
 
     public Label(String text, Color color) {
-        this(text, FontHelper.tipBodyFont, color);
+        this(text, EaselRuntime.getFonts().getDefaultFont(), color);
     }
 
     public Label(String text, BitmapFont font, Color color) {
         this.font = font;
         this.color = color;
+        this.glyphs = new GlyphCache(font);
         withText(text);
     }
 
     public Label withText(String text) {
         this.text = text;
 
-        this.textWidth = FontHelper.getWidth(font, text, 1);
+        this.textWidth = EaselRuntime.getFonts().getWidth(font, text, 1);
         this.textHeight = font.getLineHeight();
 
+        glyphs.invalidate();
         scaleHitboxToContent();
 
         return this;
@@ -51,6 +64,7 @@ public class Label extends AbstractWidget<Label> {
 
     public Label withColor(Color color) {
         this.color = color;
+        invalidateRender();
         return this;
     }
 
@@ -61,14 +75,35 @@ public class Label extends AbstractWidget<Label> {
     @Override public float getContentWidth() { return textWidth; }
     @Override public float getContentHeight() { return textHeight; }
 
+    private void rebuildCache(ScreenMetrics screen) {
+        BitmapFontCache cache = glyphs.rebuild(screen);
+        cache.setColor(color);
+
+        GlyphLayout layout = cache.addText(text, 0, 0);
+
+        this.cachedTextHeight = layout.height;
+        this.cachedColorBits = color.toFloatBits();
+    }
+
+    @Override
+    protected ShaderProgram getSharedShader() {
+        return glyphs.getSharedShader();
+    }
+
     @Override
     protected void renderWidget(SpriteBatch sb) {
-        FontHelper.renderFontLeftDownAligned(sb,
-                font,
-                text,
-                getContentLeft() * Settings.xScale,
-                getContentBottom() * Settings.yScale,
-                color);
+        ScreenMetrics screen = EaselRuntime.getScreen();
+
+        if (glyphs.isOutOfDate(screen))
+            rebuildCache(screen);
+        else if (cachedColorBits != color.toFloatBits()) {
+            // Colors can be mutated in place, so this is checked every frame; recoloring doesn't need a new layout
+            cachedColorBits = color.toFloatBits();
+            glyphs.getCache().setColors(cachedColorBits);
+        }
+
+        // Matches FontHelper.renderFontLeftDownAligned(), which draws from the top of the text
+        glyphs.draw(sb, getContentLeft() * screen.getXScale(), getContentBottom() * screen.getYScale() + cachedTextHeight);
 
 //        GraphicsHelper.drawDebugRects(sb, this);
     }
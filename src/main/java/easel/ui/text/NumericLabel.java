@@ -0,0 +1,454 @@
+package easel.ui.text;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.BitmapFontCache;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import easel.runtime.EaselRuntime;
+import easel.runtime.ScreenMetrics;
+import easel.ui.AbstractWidget;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * A single line label for values that change constantly (e.g. counters, timers, and live stats), which can be updated every frame without producing any garbage. Instead of building a new <code>String</code> for each value, the number is formatted straight into a reused character buffer, and only the characters after the first one that changed are measured again (using cached glyph advances). Rendering goes through a reused <code>BitmapFontCache</code> which reads from the same buffer.
+ * </p>
+ * <p>
+ * Values are set with {@link #withInt(int)}, {@link #withFixed(float, int)}, {@link #withPercent(float, int)}, and {@link #withDuration(float)}, optionally surrounded by a constant prefix and suffix. Setting the same value again is essentially free. The size of the widget follows the width of its text, so it is a good idea to use {@link #withReservedDigits(int)} for values that are re-anchored inside layouts: as long as the text fits in the reserved room, a new value won't change the size and won't cause a re-layout.
+ * </p>
+ * <pre>
+ * {@code
+ * NumericLabel gold = new NumericLabel(FontHelper.tipBodyFont, Settings.GOLD_COLOR)
+ *         .withPrefix("Gold: ")
+ *         .withReservedDigits(4)
+ *         .anchoredAt(100, 100, AnchorPosition.LEFT_BOTTOM);
+ *
+ * // Each frame
+ * gold.withInt(AbstractDungeon.player.gold);
+ * }
+ * </pre>
+ * <p>
+ * Widths are computed from the glyph advances of the font, and may differ from <code>FontHelper.getWidth()</code> by a pixel or so at the very end of the text.
+ * </p>
+ */
+public class NumericLabel extends AbstractWidget<NumericLabel> {
+    private static final int MAX_DECIMALS = 6;
+    private static final long[] POWERS_OF_TEN = { 1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L };
+
+    private final BitmapFont font;
+    private Color color;
+
+    private char[] prefix = new char[0];
+    private char[] suffix = new char[0];
+
+    private enum Format { INT, FIXED, PERCENT, DURATION }
+
+    // The last value shown, so it can be formatted again when the prefix or suffix changes
+    private Format format = Format.INT;
+    private double value;
+    private int decimals;
+
+    // The displayed text, and the scratch buffer the next value is formatted into before being compared against it
+    private char[] chars = new char[32];
+    private int length;
+    private char[] next = new char[32];
+    private int nextLength;
+
+    // x position (in screen pixels) of the start of each character; xs[length] is the total width
+    private float[] xs = new float[33];
+
+    // Glyph advances (screen pixels) of ASCII characters, NaN when not yet looked up
+    private final float[] advances = new float[128];
+    private float advanceScale;
+
+    private float reservedWidth;
+    private int reservedDigits;
+
+    private float textWidth;
+    private final float textHeight;
+
+    private final GlyphCache glyphs;
+    private float cachedColorBits;
+
+    private final CharSequence text = new CharSequence() {
+        @Override public int length() { return length; }
+        @Override public char charAt(int index) { return chars[index]; }
+        @Override public CharSequence subSequence(int start, int end) { return new String(chars, start, end - start); }
+        @Override public String toString() { return new String(chars, 0, length); }
+    };
+
+    // --------------------------------------------------------------------------------
+
+    /**
+     * Convenience constructor for {@link #NumericLabel(BitmapFont, Color)} with the default font (the base game's <code>FontHelper.tipBodyFont</code>) and the base game's <code>Settings.CREAM_COLOR</code>.
+     */
+    public NumericLabel() {
+        this(EaselRuntime.getFonts().getDefaultFont(), EaselRuntime.getFonts().getDefaultColor());
+    }
+
+    /**
+     * Constructs a new label showing <code>0</code>.
+     * @param font the font of the text
+     * @param color the color of the text
+     */
+    public NumericLabel(BitmapFont font, Color color) {
+        this.font = font;
+        this.color = color;
+        this.glyphs = new GlyphCache(font);
+
+        this.textHeight = EaselRuntime.getFonts().getHeight(font) / EaselRuntime.getScreen().getScale();
+        Arrays.fill(advances, Float.NaN);
+
+        withInt(0);
+    }
+
+    // --------------------------------------------------------------------------------
+
+    /**
+     * @param prefix constant text placed before every value (e.g. <code>"HP: "</code>)
+     * @return this widget
+     */
+    public NumericLabel withPrefix(String prefix) {
+        this.prefix = prefix.toCharArray();
+        refreshReservedWidth();
+        return reformat();
+    }
+
+    /**
+     * @param suffix constant text placed after every value (e.g. <code>" gold"</code>)
+     * @return this widget
+     */
+    public NumericLabel withSuffix(String suffix) {
+        this.suffix = suffix.toCharArray();
+        refreshReservedWidth();
+        return reformat();
+    }
+
+    /**
+     * Makes this widget at least as wide as the prefix and suffix with the given number of digits in between, so values which fit in that room never change its size (and never invalidate the layout of its ancestors).
+     * @param digits the number of digits to make room for
+     * @return this widget
+     */
+    public NumericLabel withReservedDigits(int digits) {
+        this.reservedDigits = digits;
+        refreshReservedWidth();
+        return refreshSize();
+    }
+
+    /**
+     * Sets the color of the text. Mutating the given color in place later on is also picked up.
+     * @param color the new color
+     * @return this widget
+     */
+    public NumericLabel withColor(Color color) {
+        this.color = color;
+        invalidateRender();
+        return this;
+    }
+
+    // --------------------------------------------------------------------------------
+
+    /**
+     * Shows a whole number, e.g. <code>-1250</code>.
+     * @param value the value to show
+     * @return this widget
+     */
+    public NumericLabel withInt(int value) {
+        return format(Format.INT, value, 0);
+    }
+
+    /**
+     * Shows a number with a fixed number of decimal places (rounded half away from zero), e.g. <code>3.14</code> for two decimal places.
+     * @param value the value to show
+     * @param decimals how many digits to show after the decimal point (0 to 6)
+     * @return this widget
+     */
+    public NumericLabel withFixed(float value, int decimals) {
+        return format(Format.FIXED, value, decimals);
+    }
+
+    /**
+     * Shows a fraction as a percentage, e.g. <code>42.5%</code> for a fraction of 0.425 with one decimal place.
+     * @param fraction the value to show, where 1.0 is 100%
+     * @param decimals how many digits to show after the decimal point (0 to 6)
+     * @return this widget
+     */
+    public NumericLabel withPercent(float fraction, int decimals) {
+        return format(Format.PERCENT, fraction, decimals);
+    }
+
+    /**
+     * Shows a length of time as minutes and seconds (<code>m:ss</code>), or hours, minutes, and seconds (<code>h:mm:ss</code>) once it reaches an hour. Fractions of a second are dropped and negative values are shown as zero.
+     * @param seconds the length of time to show
+     * @return this widget
+     */
+    public NumericLabel withDuration(float seconds) {
+        return format(Format.DURATION, seconds, 0);
+    }
+
+    /**
+     * @return a new string with the text currently shown (note: allocates; intended for debugging)
+     */
+    public String getText() {
+        return text.toString();
+    }
+
+    // --------------------------------------------------------------------------------
+    // Formatting (into the scratch buffer)
+
+    private NumericLabel format(Format format, double value, int decimals) {
+        this.format = format;
+        this.value = value;
+        this.decimals = decimals;
+
+        nextLength = 0;
+        appendChars(prefix);
+
+        switch (format) {
+            case INT:
+                appendLong((long)value);
+                break;
+            case FIXED:
+                appendFixed(value, decimals);
+                break;
+            case PERCENT:
+                appendFixed(value * 100.0, decimals);
+                appendChar('%');
+                break;
+            case DURATION:
+                appendDuration(value);
+                break;
+        }
+
+        appendChars(suffix);
+
+        return swapIfChanged();
+    }
+
+    private NumericLabel reformat() {
+        return format(format, value, decimals);
+    }
+
+    private void appendChar(char c) {
+        if (nextLength == next.length)
+            next = Arrays.copyOf(next, next.length * 2);
+
+        next[nextLength++] = c;
+    }
+
+    private void appendChars(char[] cs) {
+        for (char c : cs)
+            appendChar(c);
+    }
+
+    private void appendLong(long value) {
+        if (value < 0) {
+            appendChar('-');
+
+            // Digits are produced from negative values, which also covers Long.MIN_VALUE
+        }
+        else {
+            value = -value;
+        }
+
+        int start = nextLength;
+
+        do {
+            appendChar((char)('0' - (value % 10)));
+            value /= 10;
+        } while (value != 0);
+
+        // Digits were appended least significant first
+        for (int i = start, j = nextLength - 1; i < j; ++i, --j) {
+            char tmp = next[i];
+            next[i] = next[j];
+            next[j] = tmp;
+        }
+    }
+
+    private void appendTwoDigits(long value) {
+        appendChar((char)('0' + (value / 10) % 10));
+        appendChar((char)('0' + value % 10));
+    }
+
+    private void appendFixed(double value, int decimals) {
+        decimals = Math.max(0, Math.min(decimals, MAX_DECIMALS));
+        long power = POWERS_OF_TEN[decimals];
+
+        long scaled = Math.round(Math.abs(value) * power);
+
+        // Don't show "-0.00"
+        if (value < 0 && scaled != 0)
+            appendChar('-');
+
+        appendLong(scaled / power);
+
+        if (decimals > 0) {
+            appendChar('.');
+
+            long fraction = scaled % power;
+            for (long digit = power / 10; digit > 0; digit /= 10)
+                appendChar((char)('0' + (fraction / digit) % 10));
+        }
+    }
+
+    private void appendDuration(double seconds) {
+        long total = (seconds > 0) ? (long)seconds : 0;
+
+        long hours = total / 3600;
+        long minutes = (total / 60) % 60;
+        long secs = total % 60;
+
+        if (hours > 0) {
+            appendLong(hours);
+            appendChar(':');
+            appendTwoDigits(minutes);
+        }
+        else {
+            appendLong(minutes);
+        }
+
+        appendChar(':');
+        appendTwoDigits(secs);
+    }
+
+    private NumericLabel swapIfChanged() {
+        // Find the first character that differs from the text already shown
+        int firstChange = 0;
+        int common = Math.min(length, nextLength);
+
+        while (firstChange < common && chars[firstChange] == next[firstChange])
+            ++firstChange;
+
+        if (firstChange == nextLength && nextLength == length)
+            return this;
+
+        // Swap buffers
+        char[] tmp = chars;
+        chars = next;
+        length = nextLength;
+        next = tmp;
+
+        glyphs.invalidate();
+        remeasureFrom(firstChange);
+
+        return refreshSize();
+    }
+
+    // --------------------------------------------------------------------------------
+    // Measurement
+
+    private float getAdvance(char c, BitmapFont.BitmapFontData data) {
+        if (c < advances.length) {
+            float advance = advances[c];
+
+            if (Float.isNaN(advance)) {
+                advance = lookupAdvance(c, data);
+                advances[c] = advance;
+            }
+
+            return advance;
+        }
+
+        return lookupAdvance(c, data);
+    }
+
+    private static float lookupAdvance(char c, BitmapFont.BitmapFontData data) {
+        BitmapFont.Glyph glyph = data.getGlyph(c);
+        return (glyph == null) ? 0.0f : glyph.xadvance * data.scaleX;
+    }
+
+    private static float getKerning(char prev, char c, BitmapFont.BitmapFontData data) {
+        BitmapFont.Glyph glyph = data.getGlyph(prev);
+        return (glyph == null) ? 0.0f : glyph.getKerning(c) * data.scaleX;
+    }
+
+    private void remeasureFrom(int firstChange) {
+        BitmapFont.BitmapFontData data = font.getData();
+
+        // The font may have been rescaled since the advances were cached
+        if (advanceScale != data.scaleX) {
+            Arrays.fill(advances, Float.NaN);
+            advanceScale = data.scaleX;
+            firstChange = 0;
+        }
+
+        if (xs.length < length + 1)
+            xs = Arrays.copyOf(xs, Math.max(xs.length * 2, length + 1));
+
+        xs[0] = 0.0f;
+
+        for (int i = firstChange; i < length; ++i) {
+            char c = chars[i];
+            float x = xs[i];
+
+            if (i > 0)
+                x += getKerning(chars[i - 1], c, data);
+
+            xs[i + 1] = x + getAdvance(c, data);
+        }
+    }
+
+    private void refreshReservedWidth() {
+        BitmapFont.BitmapFontData data = font.getData();
+
+        float widestDigit = 0.0f;
+        for (char c = '0'; c <= '9'; ++c)
+            widestDigit = Math.max(widestDigit, getAdvance(c, data));
+
+        float width = reservedDigits * widestDigit;
+
+        for (char c : prefix)
+            width += getAdvance(c, data);
+        for (char c : suffix)
+            width += getAdvance(c, data);
+
+        this.reservedWidth = width;
+    }
+
+    private NumericLabel refreshSize() {
+        float width = Math.max(xs[length], reservedWidth) / EaselRuntime.getScreen().getScale();
+
+        if (width != textWidth) {
+            this.textWidth = width;
+            scaleHitboxToContent();
+        }
+        else {
+            invalidateRender();
+        }
+
+        return this;
+    }
+
+    // --------------------------------------------------------------------------------
+
+    @Override public float getContentWidth() { return textWidth; }
+    @Override public float getContentHeight() { return textHeight; }
+
+    @Override
+    protected ShaderProgram getSharedShader() {
+        return glyphs.getSharedShader();
+    }
+
+    @Override
+    protected void renderWidget(SpriteBatch sb) {
+        ScreenMetrics screen = EaselRuntime.getScreen();
+
+        if (glyphs.isOutOfDate(screen)) {
+            BitmapFontCache cache = glyphs.rebuild(screen);
+            cache.setColor(color);
+            cache.addText(text, 0, 0);
+
+            cachedColorBits = color.toFloatBits();
+        }
+        else if (cachedColorBits != color.toFloatBits()) {
+            cachedColorBits = color.toFloatBits();
+            glyphs.getCache().setColors(cachedColorBits);
+        }
+
+        // Drawn from the top of the text, like the SmartLabel
+        glyphs.draw(sb, getContentLeft() * screen.getXScale(), getContentTop() * screen.getYScale());
+    }
+}
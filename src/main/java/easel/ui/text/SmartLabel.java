@@ -2,10 +2,14 @@ package easel.ui.text;
 
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.BitmapFontCache;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
-import com.megacrit.cardcrawl.core.Settings;
-import com.megacrit.cardcrawl.helpers.FontHelper;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import easel.runtime.EaselRuntime;
+import easel.runtime.FontMetrics;
+import easel.runtime.ScreenMetrics;
 import easel.ui.AbstractWidget;
+import easel.utils.TextMeasurementCache;
 
 import java.util.ArrayList;
 import java.util.function.Supplier;
@@ -19,7 +23,7 @@ import java.util.function.Supplier;
  * </p>
  * <pre>
  * {@code
- * new SmartLabel(EaselFonts.MEDIUM_ITALIC, 300, 10)
+ * new SmartLabel(EaselFonts.getMediumItalic(), 300, 10)
  *   .withTextColor(Color.GREEN)
  *   .withText(Color.GRAY, "Hello, world")
  *   .withNewlines(2)
@@ -29,6 +33,9 @@ import java.util.function.Supplier;
  *   .anchoredCenteredOnScreen();
  * }
  * </pre>
+ * <p>
+ * All of the text is laid out once into a single <code>BitmapFontCache</code>, which is reused every frame. Moving the label just shifts the cached geometry, and dynamic colors (e.g. from a supplier) only recolor the affected glyphs. The text is only laid out again when more is appended, or when the screen scale or the font's scale changes.
+ * </p>
  */
 public class SmartLabel extends AbstractWidget<SmartLabel> {
     private float textHeight;
@@ -39,7 +46,7 @@ public class SmartLabel extends AbstractWidget<SmartLabel> {
 
     private BitmapFont font;
 
-    private Supplier<Color> colorSupplier = () -> Settings.CREAM_COLOR;
+    private Supplier<Color> colorSupplier = () -> EaselRuntime.getFonts().getDefaultColor();
 
     private static final class TextGroup {
         String text;
@@ -47,6 +54,11 @@ public class SmartLabel extends AbstractWidget<SmartLabel> {
         Supplier<Color> colorSupplier;
         float width;
 
+        // Range of glyphs in the cache belonging to this group, and the color they were last given
+        int firstGlyph;
+        int endGlyph;
+        float colorBits;
+
         public TextGroup(String text, int line, Supplier<Color> colorSupplier, float width) {
             this.text = text;
             this.line = line;
@@ -57,10 +69,17 @@ public class SmartLabel extends AbstractWidget<SmartLabel> {
 
     private ArrayList<TextGroup> groups = new ArrayList<>();
 
+    // Cached glyph geometry of every group, laid out relative to the top left corner of the content area
+    private final GlyphCache glyphs;
+
+    // All in unscaled units. lastLeft is the right edge of the last word on the current line
     private float spaceWidth;
     private float lastLeft;
     private int lastLine;
 
+    // Width of the text group currently being built (see stringBuilder)
+    private float groupWidth;
+
     private float fontLineHeight;
     private boolean startOfLine = true;
 
@@ -72,7 +91,7 @@ public class SmartLabel extends AbstractWidget<SmartLabel> {
      * Convenience constructor for {@link #SmartLabel(BitmapFont, float, float)} with the base game's <code>FontHelper.tipBodyFont</code> and no automatic line wrapping.
      */
     public SmartLabel() {
-        this(FontHelper.tipBodyFont);
+        this(EaselRuntime.getFonts().getDefaultFont());
     }
 
     /**
@@ -80,7 +99,7 @@ public class SmartLabel extends AbstractWidget<SmartLabel> {
      * @param lineWidth the width before the line breaks automatically
      */
     public SmartLabel(float lineWidth) {
-        this(FontHelper.tipBodyFont, lineWidth);
+        this(EaselRuntime.getFonts().getDefaultFont(), lineWidth);
     }
 
     /**
@@ -108,9 +127,13 @@ public class SmartLabel extends AbstractWidget<SmartLabel> {
      */
     public SmartLabel(BitmapFont font, float lineWidth, float lineSpacing) {
         this.font = font;
+        this.glyphs = new GlyphCache(font);
+
+        FontMetrics fonts = EaselRuntime.getFonts();
+        float scale = EaselRuntime.getScreen().getScale();
 
-        this.spaceWidth = FontHelper.getWidth(font, " ", 1.0f) / Settings.scale;
-        this.fontLineHeight = FontHelper.getHeight(font) / Settings.scale;
+        this.spaceWidth = TextMeasurementCache.getWidth(font, " ") / scale;
+        this.fontLineHeight = fonts.getHeight(font) / scale;
 
         this.lineWidth = lineWidth;
         this.lineSpacing = lineSpacing;
@@ -169,6 +192,7 @@ public class SmartLabel extends AbstractWidget<SmartLabel> {
      */
     public SmartLabel withTextColor(Color color) {
         this.colorSupplier = () -> color;
+        invalidateRender();
         return this;
     }
 
@@ -179,6 +203,7 @@ public class SmartLabel extends AbstractWidget<SmartLabel> {
      */
     public SmartLabel withTextColor(Supplier<Color> colorSupplier) {
         this.colorSupplier = colorSupplier;
+        invalidateRender();
         return this;
     }
 
@@ -221,53 +246,61 @@ public class SmartLabel extends AbstractWidget<SmartLabel> {
     // --------------------------------------------------------------------------------
 
     private void finalizeTextGroup() {
-        String contents = stringBuilder.toString();
-
-        if (!contents.isEmpty()) {
-            float width = FontHelper.getWidth(font, contents, 1.0f) / Settings.scale;
-
-            groups.add(new TextGroup(contents, lastLine, colorSupplier, width));
+        if (stringBuilder.length() > 0) {
+            // The group width is the sum of its (already measured) words and spaces, so nothing is measured twice
+            groups.add(new TextGroup(stringBuilder.toString(), lastLine, colorSupplier, groupWidth));
 
             // Recompute the total textWidth
             if (lastLeft > textWidth)
                 textWidth = lastLeft;
 
             // Reset
-            stringBuilder = new StringBuilder();
+            stringBuilder.setLength(0);
+            groupWidth = 0;
         }
     }
 
     private void appendTextByWords(String text) {
+        float scale = EaselRuntime.getScreen().getScale();
+
         for (String word : text.split(" ")) {
             if (word.isEmpty())
                 continue;
 
-            float wordWidth = FontHelper.getWidth(font, word, 1.0f);
+            // Same (unscaled) units as the spaceWidth and the lineWidth
+            float wordWidth = TextMeasurementCache.getWidth(font, word) / scale;
 
+            // First word of a line always goes on that line, even if it is too long to fit
+            if (startOfLine) {
+                startOfLine = false;
+
+                stringBuilder.append(word);
+                groupWidth += wordWidth;
+                lastLeft = wordWidth;
+            }
             // Make a new line
-            if (lastLeft + spaceWidth + wordWidth > lineWidth) {
+            else if (lastLeft + spaceWidth + wordWidth > lineWidth) {
                 finalizeTextGroup();
 
                 // Start the next text group on a new line
                 stringBuilder.append(word);
+                groupWidth = wordWidth;
                 lastLeft = wordWidth;
                 lastLine = lastLine + 1;
             }
             // Fits on current line
             else {
-                if (startOfLine)
-                    startOfLine = false;
-                else
-                    stringBuilder.append(" ");
-
-                stringBuilder.append(word);
-
-                lastLeft += (wordWidth + spaceWidth);
+                stringBuilder.append(' ').append(word);
+                groupWidth += spaceWidth + wordWidth;
+                lastLeft += spaceWidth + wordWidth;
             }
         }
 
         finalizeTextGroup();
         recomputeTextHeight();
+
+        glyphs.invalidate();
+        invalidateLayout();
     }
 
     private void recomputeTextHeight() {
@@ -284,30 +317,74 @@ public class SmartLabel extends AbstractWidget<SmartLabel> {
     @Override public float getContentWidth() { return textWidth; }
     @Override public float getContentHeight() { return textHeight; }
 
-    @Override
-    protected void renderWidget(SpriteBatch sb) {
-        int currLine = 0;
+    private static int getGlyphCount(BitmapFontCache cache) {
+        int count = 0;
 
-        float contentLeft = getContentLeft();
+        for (int page = 0; page < cache.getFont().getRegions().size; ++page)
+            count += cache.getVertexCount(page) / 20;
 
-        float left = contentLeft;
-        float top = getContentTop();
+        return count;
+    }
 
-        for (TextGroup group : groups) {
-            String text = group.text;
-            Color color = group.colorSupplier.get();
+    private void rebuildCache(ScreenMetrics screen) {
+        BitmapFontCache cache = glyphs.rebuild(screen);
 
+        int currLine = 0;
+
+        float left = 0;
+        float top = 0;
+
+        for (TextGroup group : groups) {
             while (currLine < group.line) {
                 top -= (fontLineHeight + lineSpacing);
                 ++currLine;
 
-                left = contentLeft;
+                left = 0;
             }
 
-            FontHelper.renderFontLeftTopAligned(sb, font, text, left * Settings.xScale, top * Settings.yScale, color);
+            Color color = group.colorSupplier.get();
+
+            group.firstGlyph = getGlyphCount(cache);
+            group.colorBits = color.toFloatBits();
+
+            // Matches FontHelper.renderFontLeftTopAligned(), which draws from the top of the text
+            cache.setColor(color);
+            cache.addText(group.text, left * screen.getXScale(), top * screen.getYScale());
+
+            group.endGlyph = getGlyphCount(cache);
 
             left += group.width;
         }
+    }
+
+    @Override
+    protected ShaderProgram getSharedShader() {
+        return glyphs.getSharedShader();
+    }
+
+    @Override
+    protected void renderWidget(SpriteBatch sb) {
+        if (groups.isEmpty())
+            return;
+
+        ScreenMetrics screen = EaselRuntime.getScreen();
+
+        if (glyphs.isOutOfDate(screen)) {
+            rebuildCache(screen);
+        }
+        else {
+            // Suppliers may hand out a different color each frame; only the glyphs of groups whose color changed are touched
+            for (TextGroup group : groups) {
+                float colorBits = group.colorSupplier.get().toFloatBits();
+
+                if (colorBits != group.colorBits) {
+                    group.colorBits = colorBits;
+                    glyphs.getCache().setColors(colorBits, group.firstGlyph, group.endGlyph);
+                }
+            }
+        }
+
+        glyphs.draw(sb, getContentLeft() * screen.getXScale(), getContentTop() * screen.getYScale());
 
 //        EaselGraphicsHelper.drawDebugRects(sb, this);
     }
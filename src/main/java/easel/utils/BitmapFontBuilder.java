@@ -1,23 +1,17 @@
 package easel.utils;
 
-import basemod.ReflectionHacks;
-import com.badlogic.gdx.Gdx;
-import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator;
 import com.megacrit.cardcrawl.core.Settings;
-import com.megacrit.cardcrawl.helpers.FontHelper;
 import com.megacrit.cardcrawl.localization.LocalizedStrings;
 
-import java.util.HashMap;
-
 // this probably isn't ok lol
 import static com.megacrit.cardcrawl.ui.panels.ExhaustPanel.fontScale;
 
 /**
- * A builder for making font creation a bit more convenient. The default settings attempt to mimic the <code>tipBodyFont</code> from the base game, and you can alter individual pieces of it without needing to worry about changing the entire thing. Fonts should be built in a post-initialize hook from BaseMod and then stored statically somewhere for access. Easel comes built with a few custom fonts already, e.g. {@link EaselFonts#SMALLER_TIP_BODY}, whose constructions use this builder if you're looking for examples of use.
+ * A builder for making font creation a bit more convenient. The default settings attempt to mimic the <code>tipBodyFont</code> from the base game, and you can alter individual pieces of it without needing to worry about changing the entire thing. Fonts should be made in (or after) a post-initialize hook from BaseMod. Prefer {@link #acquire()}, which shares fonts through the {@link FontRegistry} and only generates them on first use, over {@link #build()}, which always makes a new copy. Easel comes built with a few custom fonts already, e.g. {@link EaselFonts#getSmallerTipBody()}, whose constructions use this builder if you're looking for examples of use.
  */
 public class BitmapFontBuilder {
     // Defaults mimic tipBodyFont
@@ -35,8 +29,9 @@ public class BitmapFontBuilder {
     private float borderGamma = 0.9f;
 
     private Color shadowColor = Settings.QUARTER_TRANSPARENT_BLACK_COLOR;
-    private int shadowOffsetX = (int)(3.0f * Settings.scale);
-    private int shadowOffsetY = (int)(3.0f * Settings.scale);
+    // Scaled by the resolution when the font is generated
+    private int unscaledShadowOffsetX = 3;
+    private int unscaledShadowOffsetY = 3;
 
     private static final String KREON_REGULAR_LOCATION = "font/Kreon-Regular.ttf";
     private static final String KREON_BOLD_LOCATION = "font/Kreon-Bold.ttf";
@@ -44,6 +39,8 @@ public class BitmapFontBuilder {
 
     private String font = KREON_REGULAR_LOCATION;
 
+    private boolean isDistanceField = false;
+
     // --------------------------------------------------------------------------------
     // modify with builders
 
@@ -83,6 +80,24 @@ public class BitmapFontBuilder {
         return this;
     }
 
+    /**
+     * Makes a distance field font instead of a regular bitmap font. Distance field fonts of the same face share a single set of glyph pages across every size and resolution, stay crisp when scaled, and don't need to be regenerated when the resolution changes. The trade-offs: borders and shadows aren't supported, and only a fixed set of characters is available (see {@link DistanceFieldFonts}). Easel's text widgets draw these fonts with the right shader automatically.
+     * @param distanceField whether to make a distance field font
+     * @return this builder
+     */
+    public BitmapFontBuilder withDistanceField(boolean distanceField) {
+        this.isDistanceField = distanceField;
+        return this;
+    }
+
+    /**
+     * Shorthand for {@link #withDistanceField(boolean)} with <code>true</code>.
+     * @return this builder
+     */
+    public BitmapFontBuilder withDistanceField() {
+        return withDistanceField(true);
+    }
+
     public BitmapFontBuilder withShadow(Color shadowColor) {
         this.shadowColor = shadowColor;
         return this;
@@ -90,8 +105,8 @@ public class BitmapFontBuilder {
 
     public BitmapFontBuilder withShadow(Color shadowColor, int unscaledOffsetX, int unscaledOffsetY) {
         this.shadowColor = shadowColor;
-        this.shadowOffsetX = (int)(unscaledOffsetX * Settings.scale);
-        this.shadowOffsetY = (int)(unscaledOffsetY * Settings.scale);
+        this.unscaledShadowOffsetX = unscaledOffsetX;
+        this.unscaledShadowOffsetY = unscaledOffsetY;
         return this;
     }
 
@@ -111,11 +126,26 @@ public class BitmapFontBuilder {
     // --------------------------------------------------------------------------------
 
     /**
-     * Constructs the final bitmap font after setting all the parameters with the builder methods.
+     * Constructs a brand new bitmap font after setting all the parameters with the builder methods. The font belongs to the caller, who is responsible for disposing it. Most of the time, {@link #acquire()} is the better choice, as it shares identical fonts between everyone who asks for them.
      * @return the constructed font
+     * @see #acquire()
      */
     public BitmapFont build() {
-        return prepFont(size,
+        return generate(toKey());
+    }
+
+    /**
+     * Gets the shared font matching the parameters set with the builder methods from the {@link FontRegistry}. The font is only generated once it is first needed, and every mod asking for the same parameters gets the same font. Release the handle when finished with it.
+     * @return a handle to the shared font
+     * @see FontRegistry#acquire(BitmapFontBuilder)
+     */
+    public FontRegistry.SharedFont acquire() {
+        return FontRegistry.acquire(this);
+    }
+
+    FontRegistry.Key toKey() {
+        return new FontRegistry.Key(font,
+                size,
                 isLinearFiltering,
                 gamma,
                 spaceX,
@@ -125,85 +155,74 @@ public class BitmapFontBuilder {
                 borderWidth,
                 borderGamma,
                 shadowColor,
-                shadowOffsetX,
-                shadowOffsetY,
-                font);
+                unscaledShadowOffsetX,
+                unscaledShadowOffsetY,
+                isDistanceField);
     }
 
     // --------------------------------------------------------------------------------
 
-    private static BitmapFont prepFont(float size,
-                                       boolean isLinearFiltering,
-                                       float gamma,
-                                       int spaceX,
-                                       int spaceY,
-                                       Color borderColor,
-                                       boolean borderStraight,
-                                       float borderWidth,
-                                       float borderGamma,
-                                       Color shadowColor,
-                                       int shadowOffsetX,
-                                       int shadowOffsetY,
-                                       String font
-    ) {
-        FreeTypeFontGenerator g;
-
-        HashMap<String, FreeTypeFontGenerator> generators = (HashMap<String, FreeTypeFontGenerator>) ReflectionHacks.getPrivateStatic(FontHelper.class, "generators");
-        //FileHandle fontFile = (FileHandle) ReflectionHacks.getPrivateStatic(FontHelper.class, "fontFile");
-
-        FileHandle fontFile = Gdx.files.internal(font);
-
-        if (generators.containsKey(fontFile.path())) {
-            g = (FreeTypeFontGenerator)generators.get(fontFile.path());
-        } else {
-            System.out.println("ERROR: this shouldn't occur!");
-            // TODO: throw an exception I guess
+    /**
+     * Generates a new font from the given parameters at the current resolution, loading it from the {@link FontAtlasCache} when possible.
+     * @param key the font parameters
+     * @return the generated font
+     */
+    static BitmapFont generate(FontRegistry.Key key) {
+        FreeTypeFontGenerator.FreeTypeFontParameter p = makeParameter(key);
+
+        BitmapFont font;
+
+        if (key.isDistanceField)
+            font = DistanceFieldFonts.create(key, p);
+        else
+            font = FontAtlasCache.isEnabled() ? FontAtlasCache.obtain(key, p) : null;
 
-            g = new FreeTypeFontGenerator(fontFile);
-            generators.put(fontFile.path(), g);
+        if (font == null) {
+            FreeTypeFontGenerator g = FontRegistry.getGenerator(key.fontPath);
+            g.scaleForPixelHeight(p.size);
+            font = g.generateFont(p);
         }
 
-        if (Settings.BIG_TEXT_MODE) {
-            size *= 1.2F;
+        font.setUseIntegerPositions(!key.isLinearFiltering && !key.isDistanceField);
+        font.getData().markupEnabled = true;
+        if (LocalizedStrings.break_chars != null) {
+            font.getData().breakChars = LocalizedStrings.break_chars.toCharArray();
         }
 
-        return prepFont(g, size, isLinearFiltering, gamma, spaceX, spaceY, borderColor, borderStraight, borderWidth, borderGamma, shadowColor, shadowOffsetX, shadowOffsetY);
+        return font;
     }
 
+    /**
+     * Converts the builder parameters into FreeType parameters at the current resolution. The result describes an incremental font with no pre-rendered characters.
+     * @param key the font parameters
+     * @return a new set of FreeType parameters
+     */
+    static FreeTypeFontGenerator.FreeTypeFontParameter makeParameter(FontRegistry.Key key) {
+        float size = key.size;
+
+        if (Settings.BIG_TEXT_MODE) {
+            size *= 1.2F;
+        }
 
-    private static BitmapFont prepFont(FreeTypeFontGenerator g,
-                                       float size,
-                                       boolean isLinearFiltering,
-                                       float gamma,
-                                       int spaceX,
-                                       int spaceY,
-                                       Color borderColor,
-                                       boolean borderStraight,
-                                       float borderWidth,
-                                       float borderGamma,
-                                       Color shadowColor,
-                                       int shadowOffsetX,
-                                       int shadowOffsetY
-    ) {
         FreeTypeFontGenerator.FreeTypeFontParameter p = new FreeTypeFontGenerator.FreeTypeFontParameter();
         p.characters = "";
         p.incremental = true;
         p.size = Math.round(size * fontScale * Settings.scale);
 
-        p.gamma = gamma;
-        p.spaceX = spaceX;
-        p.spaceY = spaceY;
+        p.gamma = key.gamma;
+        p.spaceX = key.spaceX;
+        p.spaceY = key.spaceY;
 
-        p.borderColor = borderColor;
-        p.borderStraight = borderStraight;
-        p.borderWidth = borderWidth;
-        p.borderGamma = borderGamma;
+        p.borderColor = key.borderColor;
+        p.borderStraight = key.borderStraight;
+        p.borderWidth = key.borderWidth;
+        p.borderGamma = key.borderGamma;
 
-        p.shadowColor = shadowColor;
-        p.shadowOffsetX = shadowOffsetX;
-        p.shadowOffsetY = shadowOffsetY;
+        p.shadowColor = key.shadowColor;
+        p.shadowOffsetX = (int)(key.unscaledShadowOffsetX * Settings.scale);
+        p.shadowOffsetY = (int)(key.unscaledShadowOffsetY * Settings.scale);
 
-        if (isLinearFiltering) {
+        if (key.isLinearFiltering) {
             p.minFilter = Texture.TextureFilter.Linear;
             p.magFilter = Texture.TextureFilter.Linear;
         } else {
@@ -211,15 +230,7 @@ public class BitmapFontBuilder {
             p.magFilter = Texture.TextureFilter.MipMapLinearNearest;
         }
 
-        g.scaleForPixelHeight(p.size);
-        BitmapFont font = g.generateFont(p);
-        font.setUseIntegerPositions(!isLinearFiltering);
-        font.getData().markupEnabled = true;
-        if (LocalizedStrings.break_chars != null) {
-            font.getData().breakChars = LocalizedStrings.break_chars.toCharArray();
-        }
-
-        return font;
+        return p;
     }
 
 }
@@ -0,0 +1,494 @@
+package easel.utils;
+
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.BitmapFontCache;
+import com.badlogic.gdx.graphics.g2d.DistanceFieldFont;
+import com.badlogic.gdx.graphics.g2d.PixmapPacker;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import easel.Easel;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * <p>
+ * Support for distance field fonts (see {@link BitmapFontBuilder#withDistanceField()}). Instead of rasterizing every size of a font separately, a distance field font rasterizes each glyph once, at a large size, and stores how far each pixel is from the edge of the glyph. A special shader turns those distances back into crisp edges at draw time, so a single set of glyph pages serves every font size (and every resolution), and text can be scaled smoothly without blurring.
+ * </p>
+ * <p>
+ * The glyph pages are shared by every distance field font with the same font face, regardless of size: each font is just a lightweight set of scaled metrics pointing at the shared pages, which are disposed once the last font using them is. Only the characters set by {@link #setCharacters(String)} are generated (the distance field can't be extended incrementally like a regular font), and borders and shadows from the builder are ignored, as the distance field only describes the shape of each glyph.
+ * </p>
+ * <p>
+ * Distance field fonts must be drawn with the shader from {@link #getShader()}; easel's text widgets do this automatically. When drawing a font cache yourself, use {@link #draw(Batch, BitmapFontCache)}, which works for both kinds of font.
+ * </p>
+ * <p>
+ * The shader's smoothing depends on the size of the font, and changing it requires flushing the batch. Caches made with {@link #newFontCache(BitmapFont)} leave the smoothing to {@link #drawWithBoundShader(Batch, BitmapFontCache)}, which only changes it when it differs from the previous draw. Easel's text widgets also keep the shader bound between consecutive labels (see {@link easel.ui.AbstractWidget#useSharedShader}), so a run of labels with the same font size is drawn in a single batch.
+ * </p>
+ */
+public class DistanceFieldFonts {
+    // Glyphs are rasterized at BASE_SIZE * UPSCALE, then the distance field is sampled down to BASE_SIZE
+    private static final int BASE_SIZE = 42;
+    private static final int UPSCALE = 4;
+
+    // How far (in BASE_SIZE pixels) the distance field extends outside each glyph
+    private static final int SPREAD = 4;
+
+    private static final int PAGE_SIZE = 1024;
+
+    private static final String VERTEX_SHADER_PATH = "easel/shaders/distancefield/vert.glsl";
+    private static final String FRAGMENT_SHADER_PATH = "easel/shaders/distancefield/frag.glsl";
+
+    private static String characters = FreeTypeFontGenerator.DEFAULT_CHARS;
+
+    private static final HashMap<String, Atlas> atlases = new HashMap<>();
+    private static ShaderProgram shader;
+
+    // The smoothing last set on the shader (NaN if unknown)
+    private static float boundSmoothing = Float.NaN;
+
+    // --------------------------------------------------------------------------------
+
+    /**
+     * The shared glyph pages (and unscaled metrics) for one font face.
+     */
+    private static class Atlas {
+        final String fontPath;
+        final BitmapFont.BitmapFontData data;
+        final Array<TextureRegion> regions;
+        int refCount;
+
+        Atlas(String fontPath, BitmapFont.BitmapFontData data, Array<TextureRegion> regions) {
+            this.fontPath = fontPath;
+            this.data = data;
+            this.regions = regions;
+        }
+    }
+
+    /**
+     * A distance field font at one particular size, using the glyph pages of a shared atlas.
+     */
+    private static class SizedFont extends DistanceFieldFont implements FontRegistry.ResourceOwner {
+        private final AtlasReference reference;
+
+        SizedFont(Atlas atlas, BitmapFont.BitmapFontData data) {
+            super(data, atlas.regions, false);
+            this.reference = new AtlasReference(atlas);
+
+            setOwnsTexture(false);
+            setDistanceFieldSmoothing(SPREAD);
+        }
+
+        @Override
+        public Disposable getResources() {
+            return reference;
+        }
+
+        @Override
+        public void dispose() {
+            reference.dispose();
+        }
+    }
+
+    /**
+     * One font's claim on a shared atlas, kept apart from the font so the atlas can be released after the font is garbage collected.
+     */
+    private static class AtlasReference implements Disposable {
+        private Atlas atlas;
+
+        AtlasReference(Atlas atlas) {
+            this.atlas = atlas;
+        }
+
+        @Override
+        public void dispose() {
+            if (atlas != null) {
+                release(atlas);
+                atlas = null;
+            }
+        }
+    }
+
+    // --------------------------------------------------------------------------------
+
+    /**
+     * Sets the characters included in distance field fonts. Only affects font faces generated afterwards.
+     * @param characters the characters to include (defaults to {@link FreeTypeFontGenerator#DEFAULT_CHARS})
+     */
+    public static void setCharacters(String characters) {
+        DistanceFieldFonts.characters = characters;
+    }
+
+    /**
+     * @return the shader needed to draw distance field fonts (shared; do not dispose it)
+     */
+    public static ShaderProgram getShader() {
+        if (shader == null) {
+            shader = ShaderCache.acquire(VERTEX_SHADER_PATH, FRAGMENT_SHADER_PATH);
+            boundSmoothing = Float.NaN;
+        }
+
+        return shader;
+    }
+
+    /**
+     * @param font the font to check
+     * @return true if the font needs to be drawn with the distance field shader
+     */
+    public static boolean isDistanceField(BitmapFont font) {
+        return font instanceof DistanceFieldFont;
+    }
+
+    /**
+     * Makes a new cache for the given font. Unlike <code>font.newFontCache()</code>, a cache for a distance field font doesn't flush the batch before and after every draw to set its smoothing; draw it with {@link #draw(Batch, BitmapFontCache)} or {@link #drawWithBoundShader(Batch, BitmapFontCache)} instead.
+     * @param font the font the cache will use
+     * @return a new, empty cache
+     */
+    public static BitmapFontCache newFontCache(BitmapFont font) {
+        return new BitmapFontCache(font, font.usesIntegerPositions());
+    }
+
+    /**
+     * Draws the font cache, switching the batch to the distance field shader (and back) if the cache uses a distance field font.
+     * @param batch the batch to draw with
+     * @param cache the cache to draw
+     */
+    public static void draw(Batch batch, BitmapFontCache cache) {
+        if (!isDistanceField(cache.getFont())) {
+            cache.draw(batch);
+            return;
+        }
+
+        ShaderProgram previous = batch.getShader();
+
+        if (previous != getShader())
+            batch.setShader(shader);
+
+        drawWithBoundShader(batch, cache);
+
+        if (previous != shader)
+            batch.setShader(previous);
+    }
+
+    /**
+     * Draws the cache of a distance field font while the distance field shader ({@link #getShader()}) is already bound to the batch. The smoothing is only updated (which flushes the batch) if it differs from the one used by the previous draw.
+     * @param batch the batch to draw with, currently using the distance field shader
+     * @param cache the cache to draw, using a distance field font
+     */
+    public static void drawWithBoundShader(Batch batch, BitmapFontCache cache) {
+        // Caches from font.newFontCache() set (and then reset) the smoothing themselves
+        if (cache.getClass() != BitmapFontCache.class) {
+            cache.draw(batch);
+            boundSmoothing = Float.NaN;
+            return;
+        }
+
+        DistanceFieldFont font = (DistanceFieldFont)cache.getFont();
+        float smoothing = font.getDistanceFieldSmoothing() * font.getScaleX();
+
+        if (smoothing != boundSmoothing) {
+            // Text already in the batch was laid out for the previous smoothing
+            batch.flush();
+            batch.getShader().setUniformf("u_smoothing", smoothing);
+            boundSmoothing = smoothing;
+        }
+
+        cache.draw(batch);
+    }
+
+    // --------------------------------------------------------------------------------
+
+    /**
+     * Makes a distance field font for the given parameters, generating the shared glyph pages for its font face if necessary.
+     * @param key the font parameters
+     * @param p the FreeType parameters for the font at the current resolution, used for the target size
+     * @return a new font, scaled to the target size
+     */
+    static BitmapFont create(FontRegistry.Key key, FreeTypeFontGenerator.FreeTypeFontParameter p) {
+        Atlas atlas = atlases.get(key.fontPath);
+
+        if (atlas == null) {
+            atlas = generateAtlas(key.fontPath);
+            atlases.put(key.fontPath, atlas);
+        }
+
+        BitmapFont.BitmapFontData source = atlas.data;
+        BitmapFont.BitmapFontData data = new BitmapFont.BitmapFontData();
+
+        // The glyphs themselves are never scaled (the scale is applied while laying out), so they can be shared
+        System.arraycopy(source.glyphs, 0, data.glyphs, 0, source.glyphs.length);
+        data.missingGlyph = source.missingGlyph;
+
+        data.lineHeight = source.lineHeight;
+        data.capHeight = source.capHeight;
+        data.ascent = source.ascent;
+        data.descent = source.descent;
+        data.down = source.down;
+        data.spaceWidth = source.spaceWidth;
+        data.xHeight = source.xHeight;
+        data.padTop = source.padTop;
+        data.padRight = source.padRight;
+        data.padBottom = source.padBottom;
+        data.padLeft = source.padLeft;
+        data.imagePaths = source.imagePaths;
+
+        data.setScale(p.size / (float)BASE_SIZE);
+
+        ++atlas.refCount;
+        return new SizedFont(atlas, data);
+    }
+
+    private static void release(Atlas atlas) {
+        if (--atlas.refCount <= 0) {
+            atlases.remove(atlas.fontPath);
+
+            for (TextureRegion region : atlas.regions)
+                region.getTexture().dispose();
+        }
+    }
+
+    // --------------------------------------------------------------------------------
+
+    private static Atlas generateAtlas(String fontPath) {
+        long start = System.nanoTime();
+
+        // Rasterize the plain glyph shapes at a large size into a private packer (so they never become textures)
+        FreeTypeFontGenerator.FreeTypeFontParameter p = new FreeTypeFontGenerator.FreeTypeFontParameter();
+        p.size = BASE_SIZE * UPSCALE;
+        p.characters = characters;
+        p.incremental = false;
+        p.packer = new PixmapPacker(PAGE_SIZE, PAGE_SIZE, Pixmap.Format.RGBA8888, 1, false, new PixmapPacker.GuillotineStrategy());
+
+        FreeTypeFontGenerator g = FontRegistry.getGenerator(fontPath);
+        g.scaleForPixelHeight(p.size);
+        FreeTypeFontGenerator.FreeTypeBitmapFontData hiRes = g.generateData(p);
+
+        PixmapPacker packer = new PixmapPacker(PAGE_SIZE, PAGE_SIZE, Pixmap.Format.RGBA8888, 1, false, new PixmapPacker.GuillotineStrategy());
+
+        BitmapFont.BitmapFontData data = new BitmapFont.BitmapFontData();
+        HashMap<BitmapFont.Glyph, BitmapFont.Glyph> converted = new HashMap<>();
+
+        // (FreeTypeBitmapFontData hides the glyph pages behind a field of the same name)
+        for (BitmapFont.Glyph[] page : ((BitmapFont.BitmapFontData)hiRes).glyphs) {
+            if (page == null) continue;
+
+            for (BitmapFont.Glyph glyph : page) {
+                if (glyph == null) continue;
+
+                BitmapFont.Glyph result = convertGlyph(glyph, p.packer, packer);
+                converted.put(glyph, result);
+                data.setGlyph(glyph.id, result);
+            }
+        }
+
+        // Kerning is stored per glyph, in pixels
+        for (BitmapFont.Glyph glyph : converted.keySet()) {
+            if (glyph.kerning == null) continue;
+
+            BitmapFont.Glyph result = converted.get(glyph);
+
+            for (int page = 0; page < glyph.kerning.length; ++page) {
+                byte[] amounts = glyph.kerning[page];
+                if (amounts == null) continue;
+
+                for (int i = 0; i < amounts.length; ++i) {
+                    if (amounts[i] != 0)
+                        result.setKerning(page * amounts.length + i, Math.round(amounts[i] / (float)UPSCALE));
+                }
+            }
+        }
+
+        if (hiRes.missingGlyph != null) {
+            data.missingGlyph = converted.get(hiRes.missingGlyph);
+
+            if (data.missingGlyph == null)
+                data.missingGlyph = convertGlyph(hiRes.missingGlyph, p.packer, packer);
+        }
+
+        data.lineHeight = hiRes.lineHeight / UPSCALE;
+        data.capHeight = hiRes.capHeight / UPSCALE;
+        data.ascent = hiRes.ascent / UPSCALE;
+        data.descent = hiRes.descent / UPSCALE;
+        data.down = hiRes.down / UPSCALE;
+        data.spaceWidth = hiRes.spaceWidth / UPSCALE;
+        data.xHeight = hiRes.xHeight / UPSCALE;
+
+        // Each glyph carries SPREAD pixels of field on every side, which shouldn't count towards the size of the text
+        data.padTop = SPREAD;
+        data.padRight = SPREAD;
+        data.padBottom = SPREAD;
+        data.padLeft = SPREAD;
+
+        p.packer.dispose();
+
+        Array<TextureRegion> regions = new Array<>();
+        packer.updateTextureRegions(regions, Texture.TextureFilter.Linear, Texture.TextureFilter.Linear, false);
+
+        data.imagePaths = new String[regions.size];
+        for (int i = 0; i < regions.size; ++i)
+            data.imagePaths[i] = "";
+
+        Easel.logger.info("DistanceFieldFonts: generated " + converted.size() + " glyphs for " + fontPath + " in " + (System.nanoTime() - start) / 1000000L + " ms");
+
+        return new Atlas(fontPath, data, regions);
+    }
+
+    /**
+     * Computes the distance field for one large glyph and packs it into the output at the base size.
+     */
+    private static BitmapFont.Glyph convertGlyph(BitmapFont.Glyph glyph, PixmapPacker source, PixmapPacker destination) {
+        BitmapFont.Glyph result = new BitmapFont.Glyph();
+        result.id = glyph.id;
+        result.xadvance = Math.round(glyph.xadvance / (float)UPSCALE);
+        result.fixedWidth = glyph.fixedWidth;
+
+        if (glyph.width == 0 || glyph.height == 0)
+            return result;
+
+        // Align the output grid to multiples of the upscale factor, so the offsets stay whole pixels at the base size
+        int left = Math.floorDiv(glyph.xoffset, UPSCALE) - SPREAD;
+        int bottom = Math.floorDiv(glyph.yoffset, UPSCALE) - SPREAD;
+        int right = ceilDiv(glyph.xoffset + glyph.width, UPSCALE) + SPREAD;
+        int top = ceilDiv(glyph.yoffset + glyph.height, UPSCALE) + SPREAD;
+
+        int width = right - left;
+        int height = top - bottom;
+
+        int hiWidth = width * UPSCALE;
+        int hiHeight = height * UPSCALE;
+
+        // Where the glyph bitmap sits inside the (y down) high resolution grid
+        int offsetX = glyph.xoffset - left * UPSCALE;
+        int offsetY = top * UPSCALE - (glyph.yoffset + glyph.height);
+
+        Pixmap page = source.getPages().get(glyph.page).getPixmap();
+        ByteBuffer pixels = page.getPixels();
+        int pageWidth = page.getWidth();
+
+        double[] toInside = new double[hiWidth * hiHeight];
+        double[] toOutside = new double[hiWidth * hiHeight];
+
+        Arrays.fill(toInside, INF);
+
+        for (int y = 0; y < glyph.height; ++y) {
+            for (int x = 0; x < glyph.width; ++x) {
+                int alpha = pixels.get(((glyph.srcY + y) * pageWidth + glyph.srcX + x) * 4 + 3) & 0xFF;
+
+                if (alpha > 127) {
+                    int i = (offsetY + y) * hiWidth + offsetX + x;
+                    toInside[i] = 0;
+                    toOutside[i] = INF;
+                }
+            }
+        }
+
+        squaredDistanceTransform(toInside, hiWidth, hiHeight);
+        squaredDistanceTransform(toOutside, hiWidth, hiHeight);
+
+        // Written directly into the pixel buffer, since drawing onto a pixmap would blend the alpha
+        Pixmap field = new Pixmap(width, height, Pixmap.Format.RGBA8888);
+        ByteBuffer out = field.getPixels();
+        double spread = SPREAD * UPSCALE;
+
+        for (int y = 0; y < height; ++y) {
+            for (int x = 0; x < width; ++x) {
+                int i = (y * UPSCALE + UPSCALE / 2) * hiWidth + x * UPSCALE + UPSCALE / 2;
+
+                // Above 0.5 is inside the glyph, below is outside
+                double distance = Math.sqrt(toOutside[i]) - Math.sqrt(toInside[i]);
+                double value = Math.max(0.0, Math.min(1.0, 0.5 + distance / (2.0 * spread)));
+
+                int o = (y * width + x) * 4;
+                out.put(o, (byte)0xFF);
+                out.put(o + 1, (byte)0xFF);
+                out.put(o + 2, (byte)0xFF);
+                out.put(o + 3, (byte)Math.round(value * 255.0));
+            }
+        }
+
+        String name = Integer.toString(glyph.id);
+        Rectangle rect = destination.pack(name, field);
+        field.dispose();
+
+        result.srcX = (int)rect.x;
+        result.srcY = (int)rect.y;
+        result.width = width;
+        result.height = height;
+        result.xoffset = left;
+        result.yoffset = bottom;
+        result.page = destination.getPageIndex(name);
+
+        return result;
+    }
+
+    private static int ceilDiv(int a, int b) {
+        return -Math.floorDiv(-a, b);
+    }
+
+    // --------------------------------------------------------------------------------
+    // Exact Euclidean distance transform (Felzenszwalb & Huttenlocher), in place on squared distances
+
+    private static final double INF = 1e20;
+
+    private static void squaredDistanceTransform(double[] grid, int width, int height) {
+        int n = Math.max(width, height);
+
+        double[] f = new double[n];
+        double[] d = new double[n];
+        int[] v = new int[n];
+        double[] z = new double[n + 1];
+
+        for (int x = 0; x < width; ++x) {
+            for (int y = 0; y < height; ++y)
+                f[y] = grid[y * width + x];
+
+            transform1D(f, height, d, v, z);
+
+            for (int y = 0; y < height; ++y)
+                grid[y * width + x] = d[y];
+        }
+
+        for (int y = 0; y < height; ++y) {
+            System.arraycopy(grid, y * width, f, 0, width);
+            transform1D(f, width, d, v, z);
+            System.arraycopy(d, 0, grid, y * width, width);
+        }
+    }
+
+    private static void transform1D(double[] f, int n, double[] d, int[] v, double[] z) {
+        int k = 0;
+        v[0] = 0;
+        z[0] = -INF;
+        z[1] = INF;
+
+        for (int q = 1; q < n; ++q) {
+            double s = ((f[q] + q * q) - (f[v[k]] + v[k] * v[k])) / (2 * q - 2 * v[k]);
+
+            while (s <= z[k]) {
+                --k;
+                s = ((f[q] + q * q) - (f[v[k]] + v[k] * v[k])) / (2 * q - 2 * v[k]);
+            }
+
+            ++k;
+            v[k] = q;
+            z[k] = s;
+            z[k + 1] = INF;
+        }
+
+        k = 0;
+        for (int q = 0; q < n; ++q) {
+            while (z[k + 1] < q)
+                ++k;
+
+            double dq = q - v[k];
+            d[q] = dq * dq + f[v[k]];
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package easel.utils;
+
+import com.badlogic.gdx.Gdx;
+
+/**
+ * <p>
+ * The single source of time for everything in easel that animates (widget movements, {@link easel.ui.InterpolationSpeed} curves, color effects, etc.). Time only advances between frames: every call made during the same frame sees the same time and the same delta, so widgets stay in sync with each other and nothing has to ask the operating system for the time on its own.
+ * </p>
+ * <p>
+ * By default, time is driven by libGDX's frame delta ({@link com.badlogic.gdx.Graphics#getDeltaTime()}), sampled the first time the clock is read in a new frame. For deterministic testing (or for running animations faster or slower than real time), swap in a {@link VirtualSource} with {@link #setSource(Source)} and step it manually:
+ * </p>
+ * <pre>
+ * {@code
+ * EaselClock.VirtualSource clock = new EaselClock.VirtualSource();
+ * EaselClock.setSource(clock);
+ *
+ * // Simulate two seconds at 144 FPS
+ * for (int i = 0; i < 288; ++i) {
+ *     clock.step(1.0f / 144.0f);
+ *     widget.render(sb);
+ * }
+ *
+ * EaselClock.useGdxClock();
+ * }
+ * </pre>
+ */
+public class EaselClock {
+    /**
+     * Where the clock gets its frame timing from.
+     */
+    public interface Source {
+        /**
+         * @return an id that changes exactly once per frame
+         */
+        long getFrameId();
+
+        /**
+         * @return the time (in seconds) between the previous frame and the current one
+         */
+        float getDeltaTime();
+    }
+
+    /**
+     * The default source: real frames and real time, as reported by libGDX. Long hitches (e.g. loading screens) are capped at a tenth of a second, so they don't make everything jump to the end of its animation in a single frame.
+     */
+    public static class GdxSource implements Source {
+        private static final float MAX_DELTA_SECONDS = 0.1f;
+
+        @Override public long getFrameId() { return Gdx.graphics.getFrameId(); }
+        @Override public float getDeltaTime() { return Math.min(Gdx.graphics.getDeltaTime(), MAX_DELTA_SECONDS); }
+    }
+
+    /**
+     * A manually driven source. Each call to {@link #step(float)} begins a new simulated frame.
+     */
+    public static class VirtualSource implements Source {
+        private long frameId;
+        private float deltaTime;
+
+        /**
+         * Begins a new simulated frame.
+         * @param deltaSeconds how much time passed since the previous simulated frame
+         * @return this source
+         */
+        public VirtualSource step(float deltaSeconds) {
+            ++frameId;
+            this.deltaTime = deltaSeconds;
+            return this;
+        }
+
+        @Override public long getFrameId() { return frameId; }
+        @Override public float getDeltaTime() { return deltaTime; }
+    }
+
+    // --------------------------------------------------------------------------------
+
+    private static Source source = new GdxSource();
+
+    private static long lastFrameId = Long.MIN_VALUE;
+    private static float deltaSeconds;
+    private static double elapsedSeconds;
+    private static long timeMillis;
+
+    private static void sync() {
+        long frameId = source.getFrameId();
+
+        if (frameId != lastFrameId) {
+            lastFrameId = frameId;
+
+            deltaSeconds = Math.max(0.0f, source.getDeltaTime());
+            elapsedSeconds += deltaSeconds;
+            timeMillis = (long)(elapsedSeconds * 1000.0);
+        }
+    }
+
+    // --------------------------------------------------------------------------------
+
+    /**
+     * Replaces the source of frame timing. Time continues on from its current value, so anything already scheduled stays valid.
+     * @param newSource the new source
+     * @see #useGdxClock()
+     */
+    public static void setSource(Source newSource) {
+        source = newSource;
+        lastFrameId = Long.MIN_VALUE;
+        deltaSeconds = 0.0f;
+    }
+
+    /**
+     * Restores the default (real time) source.
+     * @see #setSource(Source)
+     */
+    public static void useGdxClock() {
+        setSource(new GdxSource());
+    }
+
+    /**
+     * @return the time (in seconds) that passed between the previous frame and the current one
+     */
+    public static float getDeltaSeconds() {
+        sync();
+        return deltaSeconds;
+    }
+
+    /**
+     * @return the current frame time in seconds, with full precision (see {@link #getTimeMillis()})
+     */
+    public static double getTimeSeconds() {
+        sync();
+        return elapsedSeconds;
+    }
+
+    /**
+     * @return the current frame time in milliseconds. This is NOT wall clock time; it only measures time relative to other values returned by this function (e.g. for scheduling something to start later)
+     */
+    public static long getTimeMillis() {
+        sync();
+        return timeMillis;
+    }
+}
@@ -5,34 +5,71 @@ import easel.Easel;
 import easel.utils.colors.EaselColors;
 
 /**
- * Some pre-built fonts used by Easel which can be used in other mods.
+ * Some pre-built fonts used by Easel which can be used in other mods. The fonts are shared through the {@link FontRegistry} and are only generated the first time they're asked for (and again after the resolution changes).
  */
 public class EaselFonts {
+    private static FontRegistry.SharedFont smallerTipBody;
+    private static FontRegistry.SharedFont mediumItalic;
+
     /**
      * A slightly smaller version of {@link com.megacrit.cardcrawl.helpers.FontHelper#tipBodyFont}.
+     * @deprecated kept for compatibility: this is null until {@link #getSmallerTipBody()} is first called, and only follows resolution changes when that getter is called again. Use {@link #getSmallerTipBody()} instead.
      */
+    @Deprecated
     public static BitmapFont SMALLER_TIP_BODY;
 
     /**
      * A medium sized italic font.
+     * @deprecated kept for compatibility: this is null until {@link #getMediumItalic()} is first called, and only follows resolution changes when that getter is called again. Use {@link #getMediumItalic()} instead.
      */
+    @Deprecated
     public static BitmapFont MEDIUM_ITALIC;
 
+    // --------------------------------------------------------------------------------
+
+    /**
+     * @return a slightly smaller version of {@link com.megacrit.cardcrawl.helpers.FontHelper#tipBodyFont}
+     */
+    public static BitmapFont getSmallerTipBody() {
+        acquireFonts();
+
+        SMALLER_TIP_BODY = smallerTipBody.get();
+        return SMALLER_TIP_BODY;
+    }
+
+    /**
+     * @return a medium sized italic font
+     */
+    public static BitmapFont getMediumItalic() {
+        acquireFonts();
+
+        MEDIUM_ITALIC = mediumItalic.get();
+        return MEDIUM_ITALIC;
+    }
+
+    // --------------------------------------------------------------------------------
+
     /**
-     * Initializes the fonts. Automatically called by the Easel API at game boot.
+     * Registers the fonts with the {@link FontRegistry}, without generating them. Automatically called by the Easel API at game boot.
      */
     public static void loadFonts() {
-        // Setup all fonts
-        SMALLER_TIP_BODY = new BitmapFontBuilder()
+        acquireFonts();
+
+        Easel.logger.info("Registered " + 2 + " extra font(s).");
+    }
+
+    private static void acquireFonts() {
+        if (smallerTipBody != null)
+            return;
+
+        smallerTipBody = new BitmapFontBuilder()
                 .withSize(18)
-                .build();
+                .acquire();
 
-        MEDIUM_ITALIC = new BitmapFontBuilder()
+        mediumItalic = new BitmapFontBuilder()
                 .withSize(18)
                 .withItalic()
                 .withShadow(EaselColors.ONE_TENTH_TRANSPARENT_BLACK)
-                .build();
-
-        Easel.logger.info("Initialized " + 2 + " extra font(s).");
+                .acquire();
     }
 }
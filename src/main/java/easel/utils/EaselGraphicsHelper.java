@@ -2,14 +2,14 @@ package easel.utils;
 
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
-import com.megacrit.cardcrawl.core.Settings;
-import com.megacrit.cardcrawl.helpers.ImageMaster;
+import easel.runtime.EaselRuntime;
+import easel.runtime.ScreenMetrics;
 import easel.ui.AbstractWidget;
 import easel.ui.debug.DebugWidget;
 
 public class EaselGraphicsHelper {
     /**
-     * Draws a simple rectangle onto the SpriteBatch. Takes in unscaled position/dimension data (i.e. will scale by Settings.xScale and Settings.yScale in the render step).
+     * Draws a simple rectangle onto the SpriteBatch. Takes in unscaled position/dimension data (i.e. will scale by the screen's xScale and yScale in the render step, see {@link EaselRuntime#getScreen()}).
      * @param sb the SpriteBatch to render on
      * @param left the left most x-coordinate of the rectangle
      * @param bottom the bottom most y-coordinate of the rectangle
@@ -18,12 +18,14 @@ public class EaselGraphicsHelper {
      * @param color the color of the rectangle
      */
     public static void drawRect(SpriteBatch sb, float left, float bottom, float width, float height, Color color) {
+        ScreenMetrics screen = EaselRuntime.getScreen();
+
         sb.setColor(color);
-        sb.draw(ImageMaster.WHITE_SQUARE_IMG,
-                left * Settings.xScale,
-                bottom * Settings.yScale,
-                width * Settings.scale,
-                height * Settings.scale);
+        sb.draw(EaselRuntime.getTextures().getWhiteSquare(),
+                left * screen.getXScale(),
+                bottom * screen.getYScale(),
+                width * screen.getScale(),
+                height * screen.getScale());
     }
 
     /**
@@ -71,6 +73,7 @@ public class EaselGraphicsHelper {
      */
     public static void dimFullScreen(SpriteBatch sb, boolean fullyDark) {
         Color color = fullyDark ? Color.BLACK : DEBUG_DIM_COLOR;
-        drawRect(sb, 0, 0, Settings.WIDTH, Settings.HEIGHT, color);
+        ScreenMetrics screen = EaselRuntime.getScreen();
+        drawRect(sb, 0, 0, screen.getWidth(), screen.getHeight(), color);
     }
 }
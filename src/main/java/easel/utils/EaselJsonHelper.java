@@ -0,0 +1,157 @@
+package easel.utils;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * <p>
+ * Shared plumbing for easel's JSON persistence (config helpers, move container layouts, etc.). Rather than building an object tree and serializing that, each persistent class writes and reads itself directly with a streaming {@link JsonWriter} / {@link JsonReader}; the functions here just connect those to strings and files. Writing to a file goes straight from the widgets / values to disk in a single pass, without an intermediate string.
+ * </p>
+ * <p>
+ * Files are always written to a temporary file next to the real one first, and then renamed over it once complete, so a crash (or full disk) in the middle of a save never leaves a half written file behind.
+ * </p>
+ */
+public class EaselJsonHelper {
+    /**
+     * Streams JSON out through the given writer.
+     */
+    @FunctionalInterface
+    public interface Writing {
+        void write(JsonWriter writer) throws IOException;
+    }
+
+    /**
+     * Streams JSON in from the given reader.
+     * @param <T> the result of reading
+     */
+    @FunctionalInterface
+    public interface Reading<T> {
+        T read(JsonReader reader) throws IOException;
+    }
+
+    // --------------------------------------------------------------------------------
+
+    private static JsonWriter newWriter(Writer out) {
+        JsonWriter writer = new JsonWriter(out);
+
+        // Match Gson's defaults: null values are left out entirely
+        writer.setSerializeNulls(false);
+        return writer;
+    }
+
+    /**
+     * @param writing writes a single JSON value
+     * @return the written JSON, as a compact string
+     */
+    public static String toJsonString(Writing writing) {
+        StringWriter out = new StringWriter();
+
+        try {
+            writing.write(newWriter(out));
+        }
+        catch (IOException e) {
+            // Can't happen with a StringWriter
+            throw new IllegalStateException(e);
+        }
+
+        return out.toString();
+    }
+
+    /**
+     * @param json a JSON formatted string
+     * @param reading reads a single JSON value
+     * @param <T> the result of reading
+     * @return whatever <code>reading</code> returned
+     * @throws IOException if the string isn't valid JSON (or isn't in the format <code>reading</code> expects)
+     */
+    public static <T> T fromJsonString(String json, Reading<T> reading) throws IOException {
+        try (JsonReader reader = new JsonReader(new StringReader(json))) {
+            return reading.read(reader);
+        }
+        catch (IllegalStateException | NumberFormatException e) {
+            // JsonReader reports unexpected tokens with unchecked exceptions
+            throw new IOException(e);
+        }
+    }
+
+    // --------------------------------------------------------------------------------
+
+    /**
+     * Atomically replaces the contents of a file with the written JSON (UTF-8), and forces it onto the disk before returning. Missing parent directories are created.
+     * @param file the file to write
+     * @param writing writes a single JSON value
+     * @throws IOException if the file couldn't be written, in which case the original file is left untouched
+     * @see #writeFile(File, Writing, boolean)
+     */
+    public static void writeFile(File file, Writing writing) throws IOException {
+        writeFile(file, writing, true);
+    }
+
+    /**
+     * Atomically replaces the contents of a file with the written JSON (UTF-8). Missing parent directories are created.
+     * @param file the file to write
+     * @param writing writes a single JSON value
+     * @param durable if true, the file is forced onto the disk (fsync) before it replaces the original. This can take a long time (tens of milliseconds on some systems), so it's best left off for writes made on the render thread; the rename still makes sure the file is never seen half written by easel itself
+     * @throws IOException if the file couldn't be written, in which case the original file is left untouched
+     */
+    public static void writeFile(File file, Writing writing, boolean durable) throws IOException {
+        File dir = file.getAbsoluteFile().getParentFile();
+        if (dir != null && !dir.exists() && !dir.mkdirs())
+            throw new IOException("Could not create directory " + dir);
+
+        File temp = new File(file.getPath() + ".tmp");
+
+        try {
+            try (FileOutputStream stream = new FileOutputStream(temp)) {
+                BufferedWriter out = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8));
+
+                writing.write(newWriter(out));
+                out.flush();
+
+                if (durable)
+                    stream.getFD().sync();
+            }
+
+            try {
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            }
+            catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        finally {
+            // Only still around if something went wrong before the move. Best effort, so the original exception (if any)
+            //   isn't replaced
+            temp.delete();
+        }
+    }
+
+    /**
+     * @param file a file written by {@link #writeFile(File, Writing)} (or any other UTF-8 JSON file)
+     * @param reading reads a single JSON value
+     * @param <T> the result of reading
+     * @return whatever <code>reading</code> returned
+     * @throws IOException if the file couldn't be read, isn't valid JSON, or isn't in the format <code>reading</code> expects
+     */
+    public static <T> T readFile(File file, Reading<T> reading) throws IOException {
+        try (JsonReader reader = new JsonReader(Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8))) {
+            return reading.read(reader);
+        }
+        catch (IllegalStateException | NumberFormatException e) {
+            throw new IOException(e);
+        }
+    }
+}
@@ -0,0 +1,682 @@
+package easel.utils;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.PixmapIO;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.GlyphLayout;
+import com.badlogic.gdx.graphics.g2d.PixmapPacker;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.IntSet;
+import easel.Easel;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * <p>
+ * A persistent, on-disk cache of the glyph pages generated for easel fonts. Normally, fonts are generated incrementally: each glyph is rasterized by FreeType on the render thread the first time it is drawn, which causes hitches the first time a long (localized) string shows up, and all of that work is thrown away when the game closes. With the cache enabled (the default), the first time a font is generated its common characters (see {@link #setCharacters(String)}) are rasterized up front and saved as a standard BMFont <code>.fnt</code> file plus PNG pages. Later launches load those files instead of running FreeType at all.
+ * </p>
+ * <p>
+ * Cached files are named by a hash of the font file contents, every generation parameter (including the pixel size, so each resolution gets its own entry) and the character set, so stale entries are never used; they simply stop being read. Characters that aren't in the cached pages still work: the first time one is needed, a regular incremental font is generated behind the scenes to supply the missing glyphs.
+ * </p>
+ * <p>
+ * Fonts can be pre-warmed on a background thread with {@link #prewarm(BitmapFontBuilder...)}, ideally during startup. The rasterizing and PNG encoding happens entirely off the render thread, so by the time the font is first drawn, it is just a file load. Cache files are written to a temporary name and renamed into place once complete, so a partially written entry is never read.
+ * </p>
+ */
+public class FontAtlasCache {
+    // Bump when the file layout changes, so old entries are ignored
+    private static final int FORMAT_VERSION = 1;
+    private static final int PAGE_SIZE = 1024;
+
+    private static boolean enabled = true;
+    private static FileHandle directory;
+    private static volatile String characters = FreeTypeFontGenerator.DEFAULT_CHARS;
+
+    private static final ConcurrentHashMap<String, String> fontFileHashes = new ConcurrentHashMap<>();
+    private static final Set<String> pendingWrites = ConcurrentHashMap.newKeySet();
+
+    private static ExecutorService executor;
+
+    // --------------------------------------------------------------------------------
+
+    /**
+     * @return true if fonts are saved to and loaded from disk
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Turns the cache on or off. Only affects fonts generated afterwards.
+     * @param enabled whether to save and load fonts on disk
+     */
+    public static void setEnabled(boolean enabled) {
+        FontAtlasCache.enabled = enabled;
+    }
+
+    /**
+     * @return the directory the cache files are stored in (by default, "easel/fontcache" in the game directory)
+     */
+    public static FileHandle getCacheDirectory() {
+        if (directory == null)
+            directory = Gdx.files.local("easel/fontcache/");
+
+        return directory;
+    }
+
+    /**
+     * @param directory where to store the cache files
+     */
+    public static void setCacheDirectory(FileHandle directory) {
+        FontAtlasCache.directory = directory;
+    }
+
+    /**
+     * Sets the characters pre-rendered into each cached font. Characters outside of this set are still generated on demand, but aren't saved to disk. Changing the set invalidates every existing entry.
+     * @param characters the characters to pre-render (defaults to {@link FreeTypeFontGenerator#DEFAULT_CHARS})
+     */
+    public static void setCharacters(String characters) {
+        FontAtlasCache.characters = characters;
+    }
+
+    /**
+     * Generates and saves the cache entries for the given fonts (at the current resolution) on a background thread, skipping any that are already cached. Does nothing if the cache is disabled. Note that pre-warming does not register the fonts with the {@link FontRegistry}; it only makes their eventual generation cheap.
+     * @param builders the fonts to pre-warm
+     */
+    public static void prewarm(BitmapFontBuilder... builders) {
+        if (!enabled)
+            return;
+
+        FileHandle dir = getCacheDirectory();
+        String chars = characters;
+
+        for (BitmapFontBuilder builder : builders) {
+            // Everything depending on the game state is resolved here, on the calling thread
+            FontRegistry.Key key = builder.toKey();
+            FreeTypeFontGenerator.FreeTypeFontParameter p = BitmapFontBuilder.makeParameter(key);
+
+            getExecutor().submit(() -> prewarm(dir, key, p, chars));
+        }
+    }
+
+    /**
+     * Deletes every cache entry. Fonts already loaded are unaffected.
+     */
+    public static void clear() {
+        FileHandle dir = getCacheDirectory();
+
+        if (dir.exists())
+            dir.deleteDirectory();
+    }
+
+    // --------------------------------------------------------------------------------
+
+    /**
+     * Loads the font from the cache, or generates (and saves) it if there's no entry yet. Must be called from the render thread.
+     * @param key the font parameters
+     * @param p the FreeType parameters describing the font at the current resolution (will be modified)
+     * @return the font, or null if the cache couldn't be used
+     */
+    static BitmapFont obtain(FontRegistry.Key key, FreeTypeFontGenerator.FreeTypeFontParameter p) {
+        FileHandle dir = getCacheDirectory();
+        String chars = characters;
+        String name;
+
+        try {
+            name = getEntryName(key, p, chars);
+        } catch (Exception e) {
+            Easel.logger.warn("FontAtlasCache: could not hash " + key.fontPath + ", not caching it", e);
+            return null;
+        }
+
+        FileHandle fnt = dir.child(name + ".fnt");
+
+        if (fnt.exists() && !pendingWrites.contains(name)) {
+            try {
+                return load(dir, fnt, key, p);
+            } catch (Exception e) {
+                Easel.logger.warn("FontAtlasCache: could not load " + fnt.path() + ", regenerating it", e);
+            }
+        }
+
+        return generateAndSave(dir, name, key, p, chars);
+    }
+
+    // --------------------------------------------------------------------------------
+    // Generation
+
+    private static BitmapFont generateAndSave(FileHandle dir, String name, FontRegistry.Key key, FreeTypeFontGenerator.FreeTypeFontParameter p, String chars) {
+        PixmapPacker packer = makePacker(p);
+
+        // Only the cached characters are rendered up front; the rest come from the fallback, exactly as if the font
+        // had been loaded from disk. This way the packer isn't needed once its pages are uploaded and saved.
+        p.characters = chars;
+        p.incremental = false;
+        p.packer = packer;
+
+        FreeTypeFontGenerator g = FontRegistry.getGenerator(key.fontPath);
+        g.scaleForPixelHeight(p.size);
+
+        FreeTypeFontGenerator.FreeTypeBitmapFontData generated = g.generateData(p);
+
+        CachedFontData data = new CachedFontData(key);
+        data.copyFrom(generated);
+
+        Array<TextureRegion> regions = new Array<>();
+
+        for (PixmapPacker.Page page : packer.getPages()) {
+            Texture texture = new Texture(page.getPixmap());
+            texture.setFilter(p.minFilter, p.magFilter);
+            regions.add(new TextureRegion(texture));
+        }
+
+        BitmapFont font = new CachedFont(data, regions);
+
+        if (!pendingWrites.add(name)) {
+            packer.dispose();
+            return font;
+        }
+
+        String fnt = toFnt(name, key.fontPath, p.size, generated, packer.getPages().size);
+
+        Array<Pixmap> pages = new Array<>();
+        for (PixmapPacker.Page page : packer.getPages())
+            pages.add(page.getPixmap());
+
+        getExecutor().submit(() -> {
+            try {
+                write(dir, name, fnt, pages);
+            } catch (Exception e) {
+                Easel.logger.warn("FontAtlasCache: could not save " + name, e);
+            } finally {
+                // The textures have their own copy of the pages, so the packer's pixmaps can go as soon as they're saved
+                packer.dispose();
+                pendingWrites.remove(name);
+            }
+        });
+
+        return font;
+    }
+
+    private static void prewarm(FileHandle dir, FontRegistry.Key key, FreeTypeFontGenerator.FreeTypeFontParameter p, String chars) {
+        String name;
+
+        try {
+            name = getEntryName(key, p, chars);
+        } catch (Exception e) {
+            Easel.logger.warn("FontAtlasCache: could not hash " + key.fontPath + ", not pre-warming it", e);
+            return;
+        }
+
+        if (dir.child(name + ".fnt").exists() || !pendingWrites.add(name))
+            return;
+
+        // The shared generators belong to the render thread, so this one is private
+        FreeTypeFontGenerator g = null;
+        PixmapPacker packer = null;
+
+        try {
+            long start = System.nanoTime();
+
+            g = new FreeTypeFontGenerator(Gdx.files.internal(key.fontPath));
+            packer = makePacker(p);
+
+            // Providing our own packer keeps the generator from touching GL, which isn't allowed on this thread
+            p.characters = chars;
+            p.incremental = false;
+            p.packer = packer;
+
+            g.scaleForPixelHeight(p.size);
+            FreeTypeFontGenerator.FreeTypeBitmapFontData data = g.generateData(p);
+
+            Array<Pixmap> pages = new Array<>();
+            for (PixmapPacker.Page page : packer.getPages())
+                pages.add(page.getPixmap());
+
+            write(dir, name, toFnt(name, key.fontPath, p.size, data, pages.size), pages);
+
+            Easel.logger.info("FontAtlasCache: pre-warmed " + key + " in " + (System.nanoTime() - start) / 1000000L + " ms");
+        } catch (Exception e) {
+            Easel.logger.warn("FontAtlasCache: could not pre-warm " + key, e);
+        } finally {
+            if (packer != null)
+                packer.dispose();
+
+            if (g != null)
+                g.dispose();
+
+            pendingWrites.remove(name);
+        }
+    }
+
+    private static PixmapPacker makePacker(FreeTypeFontGenerator.FreeTypeFontParameter p) {
+        PixmapPacker packer = new PixmapPacker(PAGE_SIZE, PAGE_SIZE, Pixmap.Format.RGBA8888, 1, false, new PixmapPacker.GuillotineStrategy());
+
+        // Same as the generator does for its own packers, so filtering doesn't bleed a visible fringe around glyphs
+        Color transparent = new Color(p.borderWidth > 0 ? p.borderColor : p.color);
+        transparent.a = 0;
+        packer.setTransparentColor(transparent);
+
+        return packer;
+    }
+
+    private static synchronized ExecutorService getExecutor() {
+        if (executor == null) {
+            executor = Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, "Easel font cache");
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            });
+        }
+
+        return executor;
+    }
+
+    // --------------------------------------------------------------------------------
+    // Naming
+
+    private static String getEntryName(FontRegistry.Key key, FreeTypeFontGenerator.FreeTypeFontParameter p, String chars) throws NoSuchAlgorithmException {
+        String fontHash = fontFileHashes.get(key.fontPath);
+
+        if (fontHash == null) {
+            fontHash = sha1(Gdx.files.internal(key.fontPath).readBytes());
+            fontFileHashes.put(key.fontPath, fontHash);
+        }
+
+        String description = FORMAT_VERSION + "|" + fontHash
+                + "|" + p.size
+                + "|" + p.gamma
+                + "|" + p.spaceX + "," + p.spaceY
+                + "|" + p.borderColor + "," + p.borderStraight + "," + p.borderWidth + "," + p.borderGamma
+                + "|" + p.shadowColor + "," + p.shadowOffsetX + "," + p.shadowOffsetY
+                + "|" + p.minFilter + "," + p.magFilter
+                + "|" + sha1(chars.getBytes(StandardCharsets.UTF_8));
+
+        return sha1(description.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String sha1(byte[] bytes) throws NoSuchAlgorithmException {
+        byte[] digest = MessageDigest.getInstance("SHA-1").digest(bytes);
+
+        StringBuilder sb = new StringBuilder(digest.length * 2);
+        for (byte b : digest)
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+
+        return sb.toString();
+    }
+
+    // --------------------------------------------------------------------------------
+    // Files
+
+    private static void write(FileHandle dir, String name, String fnt, Array<Pixmap> pages) {
+        for (int i = 0; i < pages.size; ++i) {
+            FileHandle tmp = dir.child(name + "_" + i + ".png.tmp");
+            PixmapIO.writePNG(tmp, pages.get(i));
+            tmp.moveTo(dir.child(name + "_" + i + ".png"));
+        }
+
+        // The .fnt goes last: once it exists, the entry is complete
+        FileHandle tmp = dir.child(name + ".fnt.tmp");
+        tmp.writeString(fnt, false, "UTF-8");
+        tmp.moveTo(dir.child(name + ".fnt"));
+    }
+
+    /**
+     * Writes the font in the AngelCode BMFont text format. The exact (floating point) metrics used by libGDX are appended on a final "easel" line, which other BMFont readers ignore.
+     */
+    private static String toFnt(String name, String fontPath, int size, BitmapFont.BitmapFontData data, int numPages) {
+        StringBuilder sb = new StringBuilder();
+
+        String face = fontPath.substring(fontPath.lastIndexOf('/') + 1);
+
+        sb.append("info face=\"").append(face).append("\" size=").append(size)
+                .append(" bold=0 italic=0 charset=\"\" unicode=1 stretchH=100 smooth=1 aa=1 padding=")
+                .append((int)data.padTop).append(',').append((int)data.padRight).append(',')
+                .append((int)data.padBottom).append(',').append((int)data.padLeft)
+                .append(" spacing=0,0\n");
+
+        sb.append("common lineHeight=").append((int)data.lineHeight)
+                .append(" base=").append(Math.round(data.lineHeight + data.descent))
+                .append(" scaleW=").append(PAGE_SIZE).append(" scaleH=").append(PAGE_SIZE)
+                .append(" pages=").append(numPages).append(" packed=0\n");
+
+        for (int i = 0; i < numPages; ++i)
+            sb.append("page id=").append(i).append(" file=\"").append(name).append('_').append(i).append(".png\"\n");
+
+        Array<BitmapFont.Glyph> glyphs = new Array<>();
+        for (BitmapFont.Glyph[] page : data.glyphs) {
+            if (page == null) continue;
+
+            for (BitmapFont.Glyph glyph : page) {
+                // Glyphs generated after the snapshot may be on pages that aren't being saved
+                if (glyph != null && glyph.page < numPages)
+                    glyphs.add(glyph);
+            }
+        }
+
+        // The missing glyph is saved as character 0, unless the font has a real glyph there
+        BitmapFont.Glyph missing = data.missingGlyph;
+        BitmapFont.Glyph zero = data.glyphs[0] != null ? data.glyphs[0][0] : null;
+        boolean hasZero = zero != null && zero.page < numPages;
+        boolean writeMissing = !hasZero && missing != null && missing.page < numPages;
+        boolean missingIsZero = writeMissing || (hasZero && zero == missing);
+
+        sb.append("chars count=").append(glyphs.size + (writeMissing ? 1 : 0)).append('\n');
+
+        if (writeMissing)
+            appendChar(sb, 0, missing);
+
+        for (BitmapFont.Glyph glyph : glyphs)
+            appendChar(sb, glyph.id, glyph);
+
+        StringBuilder kernings = new StringBuilder();
+        int numKernings = 0;
+
+        for (BitmapFont.Glyph glyph : glyphs) {
+            if (glyph.kerning == null) continue;
+
+            for (int page = 0; page < glyph.kerning.length; ++page) {
+                byte[] amounts = glyph.kerning[page];
+                if (amounts == null) continue;
+
+                for (int i = 0; i < amounts.length; ++i) {
+                    if (amounts[i] == 0) continue;
+
+                    kernings.append("kerning first=").append(glyph.id)
+                            .append(" second=").append(page * amounts.length + i)
+                            .append(" amount=").append(amounts[i]).append('\n');
+                    ++numKernings;
+                }
+            }
+        }
+
+        sb.append("kernings count=").append(numKernings).append('\n').append(kernings);
+
+        sb.append("easel version=").append(FORMAT_VERSION)
+                .append(" lineHeight=").append(data.lineHeight)
+                .append(" capHeight=").append(data.capHeight)
+                .append(" ascent=").append(data.ascent)
+                .append(" descent=").append(data.descent)
+                .append(" down=").append(data.down)
+                .append(" spaceWidth=").append(data.spaceWidth)
+                .append(" xHeight=").append(data.xHeight)
+                .append(" missing=").append(missingIsZero ? 1 : 0)
+                .append('\n');
+
+        return sb.toString();
+    }
+
+    private static void appendChar(StringBuilder sb, int id, BitmapFont.Glyph glyph) {
+        // BMFont measures yoffset from the top of the line down; libGDX measures it from the baseline up
+        sb.append("char id=").append(id)
+                .append(" x=").append(glyph.srcX)
+                .append(" y=").append(glyph.srcY)
+                .append(" width=").append(glyph.width)
+                .append(" height=").append(glyph.height)
+                .append(" xoffset=").append(glyph.xoffset)
+                .append(" yoffset=").append(-(glyph.yoffset + glyph.height))
+                .append(" xadvance=").append(glyph.xadvance)
+                .append(" page=").append(glyph.page)
+                .append(" chnl=15\n");
+    }
+
+    private static BitmapFont load(FileHandle dir, FileHandle fnt, FontRegistry.Key key, FreeTypeFontGenerator.FreeTypeFontParameter p) {
+        CachedFontData data = new CachedFontData(key);
+        data.fontFile = fnt;
+
+        Array<String> pageFiles = new Array<>();
+        boolean complete = false;
+
+        for (String line : fnt.readString("UTF-8").split("\n")) {
+            if (line.startsWith("page ")) {
+                int start = line.indexOf("file=\"") + 6;
+                pageFiles.add(line.substring(start, line.indexOf('"', start)));
+            }
+            else if (line.startsWith("char ")) {
+                BitmapFont.Glyph glyph = new BitmapFont.Glyph();
+                glyph.id = intValue(line, "id");
+                glyph.srcX = intValue(line, "x");
+                glyph.srcY = intValue(line, "y");
+                glyph.width = intValue(line, "width");
+                glyph.height = intValue(line, "height");
+                glyph.xoffset = intValue(line, "xoffset");
+                glyph.yoffset = -(glyph.height + intValue(line, "yoffset"));
+                glyph.xadvance = intValue(line, "xadvance");
+                glyph.page = intValue(line, "page");
+
+                data.setGlyph(glyph.id, glyph);
+            }
+            else if (line.startsWith("kerning ")) {
+                BitmapFont.Glyph glyph = data.getGlyphWithoutFallback(intValue(line, "first"));
+
+                if (glyph != null)
+                    glyph.setKerning(intValue(line, "second"), intValue(line, "amount"));
+            }
+            else if (line.startsWith("easel ")) {
+                if (intValue(line, "version") != FORMAT_VERSION)
+                    throw new IllegalStateException("unsupported version");
+
+                data.lineHeight = floatValue(line, "lineHeight");
+                data.capHeight = floatValue(line, "capHeight");
+                data.ascent = floatValue(line, "ascent");
+                data.descent = floatValue(line, "descent");
+                data.down = floatValue(line, "down");
+                data.spaceWidth = floatValue(line, "spaceWidth");
+                data.xHeight = floatValue(line, "xHeight");
+
+                if (intValue(line, "missing") != 0)
+                    data.missingGlyph = data.getGlyphWithoutFallback(0);
+
+                complete = true;
+            }
+        }
+
+        if (!complete)
+            throw new IllegalStateException("missing metrics");
+
+        data.imagePaths = pageFiles.toArray(String.class);
+
+        Array<TextureRegion> regions = new Array<>();
+
+        for (String file : pageFiles) {
+            Texture texture = new Texture(dir.child(file));
+            texture.setFilter(p.minFilter, p.magFilter);
+            regions.add(new TextureRegion(texture));
+        }
+
+        return new CachedFont(data, regions);
+    }
+
+    private static String value(String line, String key) {
+        String prefix = " " + key + "=";
+        int start = line.indexOf(prefix);
+
+        if (start < 0)
+            throw new IllegalStateException("missing " + key + " in: " + line);
+
+        start += prefix.length();
+        int end = line.indexOf(' ', start);
+
+        return (end < 0 ? line.substring(start) : line.substring(start, end)).trim();
+    }
+
+    private static int intValue(String line, String key) {
+        return Integer.parseInt(value(line, key));
+    }
+
+    private static float floatValue(String line, String key) {
+        return Float.parseFloat(value(line, key));
+    }
+
+    // --------------------------------------------------------------------------------
+    // Cached fonts
+
+    /**
+     * Font data loaded from the cache, which falls back to an incremental FreeType font for any character that wasn't pre-rendered.
+     */
+    private static class CachedFontData extends BitmapFont.BitmapFontData implements Disposable {
+        private final FontRegistry.Key key;
+        private final FreeTypeFontGenerator.FreeTypeFontParameter fallbackParameter;
+
+        // The owning font's pages: the cached pages first, then the fallback font's pages as they appear
+        private Array<TextureRegion> regions;
+        private int numCachedPages;
+
+        private BitmapFont fallback;
+        private final IntSet unavailable = new IntSet();
+        private final GlyphLayout.GlyphRun scratch = new GlyphLayout.GlyphRun();
+
+        CachedFontData(FontRegistry.Key key) {
+            this.key = key;
+
+            // The parameters as originally made: incremental, with nothing pre-rendered
+            this.fallbackParameter = BitmapFontBuilder.makeParameter(key);
+        }
+
+        void attach(Array<TextureRegion> regions) {
+            this.regions = regions;
+            this.numCachedPages = regions.size;
+        }
+
+        /**
+         * Takes the glyphs and metrics of a freshly generated font, instead of reading them from a cache file.
+         */
+        void copyFrom(BitmapFont.BitmapFontData source) {
+            for (BitmapFont.Glyph[] page : source.glyphs) {
+                if (page == null) continue;
+
+                for (BitmapFont.Glyph glyph : page) {
+                    if (glyph != null)
+                        setGlyph(glyph.id, glyph);
+                }
+            }
+
+            missingGlyph = source.missingGlyph;
+
+            lineHeight = source.lineHeight;
+            capHeight = source.capHeight;
+            ascent = source.ascent;
+            descent = source.descent;
+            down = source.down;
+            spaceWidth = source.spaceWidth;
+            xHeight = source.xHeight;
+            padTop = source.padTop;
+            padRight = source.padRight;
+            padBottom = source.padBottom;
+            padLeft = source.padLeft;
+        }
+
+        BitmapFont.Glyph getGlyphWithoutFallback(int ch) {
+            return super.getGlyph((char)ch);
+        }
+
+        @Override
+        public BitmapFont.Glyph getGlyph(char ch) {
+            BitmapFont.Glyph glyph = super.getGlyph(ch);
+
+            if (glyph == null && regions != null && !unavailable.contains(ch))
+                glyph = getFallbackGlyph(ch);
+
+            return glyph;
+        }
+
+        private BitmapFont.Glyph getFallbackGlyph(char ch) {
+            if (fallback == null) {
+                FreeTypeFontGenerator g = FontRegistry.getGenerator(key.fontPath);
+                g.scaleForPixelHeight(fallbackParameter.size);
+                fallback = g.generateFont(fallbackParameter);
+            }
+
+            BitmapFont.BitmapFontData fallbackData = fallback.getData();
+
+            // Going through getGlyphs (instead of getGlyph) makes the fallback font upload its updated pages
+            scratch.glyphs.clear();
+            scratch.xAdvances.clear();
+            fallbackData.getGlyphs(scratch, String.valueOf(ch), 0, 1, false);
+
+            BitmapFont.Glyph source = scratch.glyphs.size > 0 ? scratch.glyphs.first() : null;
+
+            if (source == null || source == fallbackData.missingGlyph) {
+                unavailable.add(ch);
+                return null;
+            }
+
+            Array<TextureRegion> fallbackRegions = fallback.getRegions();
+            while (regions.size - numCachedPages < fallbackRegions.size)
+                regions.add(fallbackRegions.get(regions.size - numCachedPages));
+
+            BitmapFont.Glyph glyph = new BitmapFont.Glyph();
+            glyph.id = source.id;
+            glyph.srcX = source.srcX;
+            glyph.srcY = source.srcY;
+            glyph.width = source.width;
+            glyph.height = source.height;
+            glyph.u = source.u;
+            glyph.v = source.v;
+            glyph.u2 = source.u2;
+            glyph.v2 = source.v2;
+            glyph.xoffset = source.xoffset;
+            glyph.yoffset = source.yoffset;
+            glyph.xadvance = source.xadvance;
+            glyph.kerning = source.kerning;
+            glyph.fixedWidth = source.fixedWidth;
+            glyph.page = source.page + numCachedPages;
+
+            setGlyph(ch, glyph);
+            return glyph;
+        }
+
+        @Override
+        public void dispose() {
+            if (fallback != null) {
+                fallback.dispose();
+                ((Disposable)fallback.getData()).dispose();
+                fallback = null;
+            }
+        }
+    }
+
+    private static class CachedFont extends BitmapFont implements FontRegistry.ResourceOwner {
+        private final Disposable resources;
+
+        CachedFont(CachedFontData data, Array<TextureRegion> regions) {
+            super(data, regions, true);
+
+            data.attach(getRegions());
+            resources = getResources(data, getRegions(), regions.size);
+        }
+
+        private static Disposable getResources(CachedFontData data, Array<TextureRegion> regions, int numCachedPages) {
+            return () -> {
+                // The pages after the cached ones belong to the fallback font, which disposes them itself
+                for (int i = 0; i < numCachedPages; ++i)
+                    regions.get(i).getTexture().dispose();
+
+                data.dispose();
+            };
+        }
+
+        @Override
+        public Disposable getResources() {
+            return resources;
+        }
+
+        @Override
+        public void dispose() {
+            resources.dispose();
+        }
+    }
+}
@@ -0,0 +1,391 @@
+package easel.utils;
+
+import basemod.ReflectionHacks;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.megacrit.cardcrawl.core.Settings;
+import com.megacrit.cardcrawl.helpers.FontHelper;
+import com.megacrit.cardcrawl.ui.panels.ExhaustPanel;
+import easel.Easel;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * <p>
+ * A reference counted registry of shared fonts, keyed by the complete set of {@link BitmapFontBuilder} parameters. Two mods asking for the same font (e.g. Kreon 18 with the default shadow) get the same {@link SharedFont}, and therefore the same glyph pages. Entries are created by {@link #acquire(BitmapFontBuilder)} but the actual font is only generated the first time {@link SharedFont#get()} is called, so fonts that are registered but never drawn cost nothing. Every acquire should eventually be paired with a {@link SharedFont#release()}; once the last user releases a font, it is disposed and removed from the registry.
+ * </p>
+ * <p>
+ * The generated font depends on the game's current resolution scale, {@link Settings#BIG_TEXT_MODE}, and font scale, so these are recorded alongside each generated font. If any of them changed since the font was generated (e.g. the player changed resolution), the next {@link SharedFont#get()} quietly generates a replacement from the same parameters. Only fonts that are actually used again are regenerated. Widgets constructed before the change may still be holding onto (and drawing with) the replaced fonts, so those are only weakly held: each one is disposed once nothing references it anymore (i.e. once it has been garbage collected), or when the shared font is released, whichever comes first.
+ * </p>
+ * <p>
+ * The FreeType generators for each font face are shared with the base game's {@link FontHelper} where possible, and are looked up only once instead of on every build. Fonts are GL resources, so the registry should only be touched from the render thread.
+ * </p>
+ */
+public class FontRegistry {
+    /**
+     * An immutable snapshot of every {@link BitmapFontBuilder} parameter that affects the generated font. Two keys are equal exactly when the fonts they describe would be identical (at the same resolution).
+     */
+    public static final class Key {
+        final String fontPath;
+        final float size;
+        final boolean isLinearFiltering;
+        final float gamma;
+        final int spaceX;
+        final int spaceY;
+
+        final Color borderColor;
+        final boolean borderStraight;
+        final float borderWidth;
+        final float borderGamma;
+
+        final Color shadowColor;
+        final int unscaledShadowOffsetX;
+        final int unscaledShadowOffsetY;
+
+        final boolean isDistanceField;
+
+        private final int hash;
+
+        Key(String fontPath,
+            float size,
+            boolean isLinearFiltering,
+            float gamma,
+            int spaceX,
+            int spaceY,
+            Color borderColor,
+            boolean borderStraight,
+            float borderWidth,
+            float borderGamma,
+            Color shadowColor,
+            int unscaledShadowOffsetX,
+            int unscaledShadowOffsetY,
+            boolean isDistanceField) {
+            this.fontPath = fontPath;
+            this.size = size;
+            this.isLinearFiltering = isLinearFiltering;
+            this.gamma = gamma;
+            this.spaceX = spaceX;
+            this.spaceY = spaceY;
+
+            // Copies, since the colors handed to the builder are usually shared (and mutable) constants
+            this.borderColor = new Color(borderColor);
+            this.borderStraight = borderStraight;
+            this.borderWidth = borderWidth;
+            this.borderGamma = borderGamma;
+
+            this.shadowColor = new Color(shadowColor);
+            this.unscaledShadowOffsetX = unscaledShadowOffsetX;
+            this.unscaledShadowOffsetY = unscaledShadowOffsetY;
+
+            this.isDistanceField = isDistanceField;
+
+            int h = fontPath.hashCode();
+            h = 31 * h + Float.floatToIntBits(size);
+            h = 31 * h + (isLinearFiltering ? 1 : 0);
+            h = 31 * h + Float.floatToIntBits(gamma);
+            h = 31 * h + spaceX;
+            h = 31 * h + spaceY;
+            h = 31 * h + this.borderColor.hashCode();
+            h = 31 * h + (borderStraight ? 1 : 0);
+            h = 31 * h + Float.floatToIntBits(borderWidth);
+            h = 31 * h + Float.floatToIntBits(borderGamma);
+            h = 31 * h + this.shadowColor.hashCode();
+            h = 31 * h + unscaledShadowOffsetX;
+            h = 31 * h + unscaledShadowOffsetY;
+            h = 31 * h + (isDistanceField ? 1 : 0);
+            this.hash = h;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+
+            Key other = (Key)o;
+            return hash == other.hash
+                    && Float.compare(size, other.size) == 0
+                    && isLinearFiltering == other.isLinearFiltering
+                    && Float.compare(gamma, other.gamma) == 0
+                    && spaceX == other.spaceX
+                    && spaceY == other.spaceY
+                    && borderColor.equals(other.borderColor)
+                    && borderStraight == other.borderStraight
+                    && Float.compare(borderWidth, other.borderWidth) == 0
+                    && Float.compare(borderGamma, other.borderGamma) == 0
+                    && shadowColor.equals(other.shadowColor)
+                    && unscaledShadowOffsetX == other.unscaledShadowOffsetX
+                    && unscaledShadowOffsetY == other.unscaledShadowOffsetY
+                    && isDistanceField == other.isDistanceField
+                    && fontPath.equals(other.fontPath);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public String toString() {
+            return fontPath + " @ " + size
+                    + (isDistanceField ? " (distance field)" : "")
+                    + (isLinearFiltering ? " (linear)" : "")
+                    + (borderWidth > 0 ? " border " + borderWidth + " " + borderColor : "")
+                    + " shadow " + shadowColor + " (" + unscaledShadowOffsetX + ", " + unscaledShadowOffsetY + ")";
+        }
+    }
+
+    /**
+     * A handle to a font in the registry. The handle itself is cheap; the font is generated on the first call to {@link #get()} and regenerated whenever the resolution changes.
+     */
+    public static final class SharedFont {
+        private final Key key;
+        private int refCount;
+
+        private BitmapFont font;
+        private final ArrayList<RetiredFont> replaced = new ArrayList<>();
+
+        // The global settings the current font was generated with
+        private float generatedScale;
+        private float generatedFontScale;
+        private boolean generatedBigText;
+
+        private SharedFont(Key key) {
+            this.key = key;
+        }
+
+        private boolean isStale() {
+            return generatedScale != Settings.scale
+                    || generatedFontScale != ExhaustPanel.fontScale
+                    || generatedBigText != Settings.BIG_TEXT_MODE;
+        }
+
+        /**
+         * @return the shared font, generating it first if this is the first use (or if the resolution changed since it was last generated). Do NOT dispose it yourself; use {@link #release()} when finished
+         */
+        public BitmapFont get() {
+            disposeUnreferenced();
+
+            if (font == null || isStale()) {
+                if (font != null)
+                    replaced.add(new RetiredFont(this, font));
+
+                generatedScale = Settings.scale;
+                generatedFontScale = ExhaustPanel.fontScale;
+                generatedBigText = Settings.BIG_TEXT_MODE;
+
+                font = BitmapFontBuilder.generate(key);
+                ++numGenerated;
+            }
+
+            return font;
+        }
+
+        /**
+         * @return true if the font has been generated for the current resolution, i.e. {@link #get()} will return immediately
+         */
+        public boolean isGenerated() {
+            return font != null && !isStale();
+        }
+
+        /**
+         * @return the parameters describing this font
+         */
+        public Key getKey() {
+            return key;
+        }
+
+        /**
+         * Gives up one reference to this font. The font (and any older versions of it replaced after resolution changes) are disposed once the reference count hits zero, and the handle should not be used afterwards.
+         */
+        public void release() {
+            FontRegistry.release(this);
+        }
+
+        private void dispose() {
+            if (font != null)
+                getResources(font).dispose();
+
+            for (RetiredFont old : replaced)
+                old.dispose();
+
+            font = null;
+            replaced.clear();
+        }
+    }
+
+    /**
+     * Implemented by fonts whose resources aren't simply their own pages and data (e.g. fonts drawing from pages shared with other fonts).
+     */
+    interface ResourceOwner {
+        /**
+         * @return an object disposing everything the font owns, exactly like disposing the font would. It must not reference the font itself, as it is used to clean up after the font has been garbage collected
+         */
+        Disposable getResources();
+    }
+
+    /**
+     * A font replaced after a resolution change, along with everything needed to dispose its resources once the font itself is gone.
+     */
+    private static final class RetiredFont extends WeakReference<BitmapFont> {
+        private final SharedFont owner;
+        private Disposable resources;
+
+        RetiredFont(SharedFont owner, BitmapFont font) {
+            super(font, retired);
+
+            this.owner = owner;
+            this.resources = getResources(font);
+        }
+
+        void dispose() {
+            // Cleared references are never enqueued, so this can't be disposed a second time
+            clear();
+
+            if (resources != null) {
+                resources.dispose();
+                resources = null;
+            }
+        }
+    }
+
+    // --------------------------------------------------------------------------------
+
+    private static final HashMap<Key, SharedFont> fonts = new HashMap<>();
+    private static final ReferenceQueue<BitmapFont> retired = new ReferenceQueue<>();
+
+    private static Map<String, FreeTypeFontGenerator> generators;
+    private static int numGenerated;
+
+    // --------------------------------------------------------------------------------
+
+    /**
+     * Gets the shared font described by the builder's current parameters, registering it first if no one else has asked for it yet. Increments the reference count of the font. The font itself isn't generated until {@link SharedFont#get()} is called.
+     * @param builder the font parameters
+     * @return a handle to the shared font
+     * @see BitmapFontBuilder#acquire()
+     */
+    public static SharedFont acquire(BitmapFontBuilder builder) {
+        Key key = builder.toKey();
+        SharedFont shared = fonts.get(key);
+
+        if (shared == null) {
+            shared = new SharedFont(key);
+            fonts.put(key, shared);
+        }
+
+        ++shared.refCount;
+        return shared;
+    }
+
+    private static void release(SharedFont shared) {
+        if (fonts.get(shared.key) != shared) {
+            Easel.logger.warn("FontRegistry: tried to release a font that isn't in the registry (" + shared.key + ")");
+            return;
+        }
+
+        if (--shared.refCount <= 0) {
+            fonts.remove(shared.key);
+            shared.dispose();
+        }
+    }
+
+    /**
+     * Regenerates every font that has already been generated and whose resolution settings are out of date. This is entirely optional, as {@link SharedFont#get()} does this automatically on demand; it only exists to move the work somewhere convenient (e.g. right after the player changes resolution) instead of the first frame the fonts are drawn.
+     */
+    public static void regenerateStale() {
+        disposeUnreferenced();
+
+        for (SharedFont shared : fonts.values()) {
+            if (shared.font != null && shared.isStale())
+                shared.get();
+        }
+    }
+
+    /**
+     * Disposes the replaced fonts which have been garbage collected since the last check. The check is cheap (and doesn't lock anything) when there's nothing to dispose.
+     */
+    private static void disposeUnreferenced() {
+        RetiredFont old;
+
+        while ((old = (RetiredFont)retired.poll()) != null) {
+            old.owner.replaced.remove(old);
+            old.dispose();
+        }
+    }
+
+    /**
+     * Gathers everything a font owns: its pages (if it owns them) and its data, which for FreeType fonts includes the packer and stroker kept around to generate glyphs incrementally. Unlike {@link BitmapFont#dispose()}, disposing the result frees all of it.
+     * @param font the font
+     * @return an object disposing the font's resources, which doesn't reference the font itself
+     */
+    static Disposable getResources(BitmapFont font) {
+        if (font instanceof ResourceOwner)
+            return ((ResourceOwner)font).getResources();
+
+        Array<TextureRegion> regions = font.getRegions();
+        boolean ownsTexture = font.ownsTexture();
+        BitmapFont.BitmapFontData data = font.getData();
+
+        return () -> {
+            if (ownsTexture) {
+                for (TextureRegion region : regions)
+                    region.getTexture().dispose();
+            }
+
+            if (data instanceof Disposable)
+                ((Disposable)data).dispose();
+        };
+    }
+
+    // --------------------------------------------------------------------------------
+
+    /**
+     * Finds the FreeType generator for the given font face. The base game's generators are reused when available, so fonts made through easel share their face data with {@link FontHelper}. The base game's generator map is only looked up once.
+     * @param fontPath the internal path of the font file (e.g. "font/Kreon-Regular.ttf")
+     * @return a generator for the font face (owned by the registry or the base game, so do not dispose it)
+     */
+    static FreeTypeFontGenerator getGenerator(String fontPath) {
+        if (generators == null) {
+            generators = ReflectionHacks.getPrivateStatic(FontHelper.class, "generators");
+
+            if (generators == null) {
+                Easel.logger.warn("FontRegistry: could not find the base game's font generators; easel will make its own");
+                generators = new HashMap<>();
+            }
+        }
+
+        FreeTypeFontGenerator g = generators.get(fontPath);
+
+        if (g == null) {
+            g = new FreeTypeFontGenerator(Gdx.files.internal(fontPath));
+            generators.put(fontPath, g);
+        }
+
+        return g;
+    }
+
+    // --------------------------------------------------------------------------------
+
+    /**
+     * @return the number of distinct fonts currently registered (whether or not they've been generated yet)
+     */
+    public static int size() {
+        return fonts.size();
+    }
+
+    /**
+     * @return the total number of fonts generated by the registry so far, including regenerations after resolution changes
+     */
+    public static int getNumGenerated() {
+        return numGenerated;
+    }
+}
@@ -0,0 +1,99 @@
+package easel.utils;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import easel.Easel;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+
+/**
+ * <p>
+ * A reference counted cache of compiled shader programs, keyed by the internal file paths of their vertex and fragment shaders. Each unique pair of shader files is compiled exactly once, no matter how many widgets use it. Every {@link #acquire(String, String)} should eventually be paired with a {@link #release(ShaderProgram)}; once the last user releases a program, it is disposed and removed from the cache (and will be recompiled if it is acquired again later).
+ * </p>
+ * <p>
+ * Shader programs are GL resources, so this cache should only be touched from the render thread.
+ * </p>
+ */
+public class ShaderCache {
+    private static class Entry {
+        final String key;
+        final ShaderProgram program;
+        int refCount;
+
+        Entry(String key, ShaderProgram program) {
+            this.key = key;
+            this.program = program;
+        }
+    }
+
+    private static final HashMap<String, Entry> byPath = new HashMap<>();
+    private static final IdentityHashMap<ShaderProgram, Entry> byProgram = new IdentityHashMap<>();
+
+    private static String makeKey(String vertexShaderPath, String fragmentShaderPath) {
+        return vertexShaderPath + "|" + fragmentShaderPath;
+    }
+
+    // --------------------------------------------------------------------------------
+
+    /**
+     * Gets the compiled shader program for the given pair of shader files, compiling it first if it isn't already cached. Increments the reference count of the program.
+     * @param vertexShaderPath the internal path of the vertex shader (e.g. "easel/shaders/pie/vert.glsl")
+     * @param fragmentShaderPath the internal path of the fragment shader (e.g. "easel/shaders/pie/frag.glsl")
+     * @return the shared shader program (do NOT dispose it yourself; use {@link #release(ShaderProgram)} when finished)
+     * @see #release(ShaderProgram)
+     */
+    public static ShaderProgram acquire(String vertexShaderPath, String fragmentShaderPath) {
+        String key = makeKey(vertexShaderPath, fragmentShaderPath);
+        Entry entry = byPath.get(key);
+
+        if (entry == null) {
+            ShaderProgram program = new ShaderProgram(
+                    Gdx.files.internal(vertexShaderPath).readString(),
+                    Gdx.files.internal(fragmentShaderPath).readString()
+            );
+
+            if (program.isCompiled()) {
+                Easel.logger.info("Shaders compiled successfully: " + vertexShaderPath + ", " + fragmentShaderPath);
+            }
+            else {
+                Easel.logger.error("ERROR: shaders failed to compile: " + vertexShaderPath + ", " + fragmentShaderPath);
+                Easel.logger.error(program.getLog());
+            }
+
+            entry = new Entry(key, program);
+            byPath.put(key, entry);
+            byProgram.put(program, entry);
+        }
+
+        ++entry.refCount;
+        return entry.program;
+    }
+
+    /**
+     * Gives up one reference to a program previously obtained from {@link #acquire(String, String)}. The program is disposed once its reference count hits zero. Releasing a program that isn't managed by this cache is ignored (with a warning).
+     * @param program the program to release
+     * @see #acquire(String, String)
+     */
+    public static void release(ShaderProgram program) {
+        Entry entry = byProgram.get(program);
+
+        if (entry == null) {
+            Easel.logger.warn("ShaderCache: tried to release a shader program that isn't in the cache");
+            return;
+        }
+
+        if (--entry.refCount <= 0) {
+            byPath.remove(entry.key);
+            byProgram.remove(program);
+            program.dispose();
+        }
+    }
+
+    /**
+     * @return the number of distinct shader programs currently compiled and held by the cache
+     */
+    public static int size() {
+        return byPath.size();
+    }
+}
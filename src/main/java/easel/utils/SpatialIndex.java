@@ -0,0 +1,325 @@
+package easel.utils;
+
+import com.badlogic.gdx.utils.IntArray;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * A uniform grid spatial index over axis-aligned rectangles, used to answer "what is under this point?" without testing every rectangle. The indexed area is split into square cells, and each rectangle is recorded in every cell it overlaps. A point query only has to look at the rectangles stored in the single cell containing that point, so its cost depends on how crowded that part of the screen is rather than on the total number of rectangles.
+ * </p>
+ * <p>
+ * Each entry is identified by an integer handle returned from {@link #insert(Object, float, float, float, float, int)}, and carries a priority used to break ties when several rectangles overlap a point (e.g. the stacking order of widgets). Rectangles outside of the indexed area are still tracked correctly (they are simply stored in the border cells), so the area only needs to roughly match the region where queries happen.
+ * </p>
+ * <p>
+ * Like the widgets that use it, this class is not thread-safe.
+ * </p>
+ * @param <T> the type of item associated with each rectangle
+ */
+public final class SpatialIndex<T> {
+    public static final int NONE = -1;
+
+    private final float cellSize;
+    private float width, height;
+    private int numCols;
+    private int numRows;
+
+    // Handles of all entries overlapping each cell, row-major
+    private IntArray[] cells;
+
+    // Entry data, indexed by handle
+    private float[] lefts = new float[0];
+    private float[] bottoms = new float[0];
+    private float[] rights = new float[0];
+    private float[] tops = new float[0];
+    private int[] priorities = new int[0];
+    private int[] minCols = new int[0];
+    private int[] minRows = new int[0];
+    private int[] maxCols = new int[0];
+    private int[] maxRows = new int[0];
+    private Object[] items = new Object[0];
+
+    // Free list of handles (nextFree[i] is the next free handle after i)
+    private int[] nextFree = new int[0];
+    private int freeHead = NONE;
+    private int size;
+
+    /**
+     * Constructs a new index covering the area from (0, 0) to (width, height).
+     * @param width the width of the indexed area
+     * @param height the height of the indexed area
+     * @param cellSize the side length of each grid cell; roughly the size of a typical rectangle works well
+     */
+    public SpatialIndex(float width, float height, float cellSize) {
+        this.cellSize = cellSize;
+        buildGrid(width, height);
+    }
+
+    private void buildGrid(float width, float height) {
+        this.width = width;
+        this.height = height;
+        this.numCols = Math.max(1, (int)Math.ceil(width / cellSize));
+        this.numRows = Math.max(1, (int)Math.ceil(height / cellSize));
+
+        this.cells = new IntArray[numCols * numRows];
+        for (int i = 0; i < cells.length; ++i)
+            cells[i] = new IntArray(false, 4);
+    }
+
+    // --------------------------------------------------------------------------------
+
+    private int toCol(float x) {
+        int col = (int)Math.floor(x / cellSize);
+        return Math.max(0, Math.min(col, numCols - 1));
+    }
+
+    private int toRow(float y) {
+        int row = (int)Math.floor(y / cellSize);
+        return Math.max(0, Math.min(row, numRows - 1));
+    }
+
+    private void grow() {
+        int oldCapacity = items.length;
+        int newCapacity = Math.max(16, oldCapacity * 2);
+
+        lefts = Arrays.copyOf(lefts, newCapacity);
+        bottoms = Arrays.copyOf(bottoms, newCapacity);
+        rights = Arrays.copyOf(rights, newCapacity);
+        tops = Arrays.copyOf(tops, newCapacity);
+        priorities = Arrays.copyOf(priorities, newCapacity);
+        minCols = Arrays.copyOf(minCols, newCapacity);
+        minRows = Arrays.copyOf(minRows, newCapacity);
+        maxCols = Arrays.copyOf(maxCols, newCapacity);
+        maxRows = Arrays.copyOf(maxRows, newCapacity);
+        items = Arrays.copyOf(items, newCapacity);
+        nextFree = Arrays.copyOf(nextFree, newCapacity);
+
+        for (int i = newCapacity - 1; i >= oldCapacity; --i) {
+            nextFree[i] = freeHead;
+            freeHead = i;
+        }
+    }
+
+    private void computeCells(int handle) {
+        minCols[handle] = toCol(lefts[handle]);
+        minRows[handle] = toRow(bottoms[handle]);
+        maxCols[handle] = toCol(rights[handle]);
+        maxRows[handle] = toRow(tops[handle]);
+    }
+
+    private void addToCells(int handle) {
+        for (int row = minRows[handle]; row <= maxRows[handle]; ++row)
+            for (int col = minCols[handle]; col <= maxCols[handle]; ++col)
+                cells[row * numCols + col].add(handle);
+    }
+
+    private void removeFromCells(int handle) {
+        for (int row = minRows[handle]; row <= maxRows[handle]; ++row)
+            for (int col = minCols[handle]; col <= maxCols[handle]; ++col)
+                cells[row * numCols + col].removeValue(handle);
+    }
+
+    private void setBounds(int handle, float left, float bottom, float width, float height) {
+        lefts[handle] = left;
+        bottoms[handle] = bottom;
+        rights[handle] = left + width;
+        tops[handle] = bottom + height;
+    }
+
+    // --------------------------------------------------------------------------------
+
+    /**
+     * Adds a new rectangle to the index.
+     * @param item the item associated with this rectangle (returned by {@link #get(int)})
+     * @param left the left edge of the rectangle
+     * @param bottom the bottom edge of the rectangle
+     * @param width the width of the rectangle
+     * @param height the height of the rectangle
+     * @param priority used by {@link #findTopMost(float, float)} to pick between overlapping rectangles (higher wins)
+     * @return a handle used to update or remove this entry later
+     */
+    public int insert(T item, float left, float bottom, float width, float height, int priority) {
+        if (freeHead == NONE)
+            grow();
+
+        int handle = freeHead;
+        freeHead = nextFree[handle];
+        ++size;
+
+        items[handle] = item;
+        priorities[handle] = priority;
+
+        setBounds(handle, left, bottom, width, height);
+        computeCells(handle);
+        addToCells(handle);
+
+        return handle;
+    }
+
+    /**
+     * Moves and/or resizes an existing rectangle. Cheap if the rectangle stays inside the same set of cells, and does nothing at all if the bounds are unchanged.
+     * @param handle the entry to update
+     * @param left the new left edge
+     * @param bottom the new bottom edge
+     * @param width the new width
+     * @param height the new height
+     */
+    public void update(int handle, float left, float bottom, float width, float height) {
+        if (lefts[handle] == left && bottoms[handle] == bottom && rights[handle] == left + width && tops[handle] == bottom + height)
+            return;
+
+        setBounds(handle, left, bottom, width, height);
+
+        int minCol = toCol(left);
+        int minRow = toRow(bottom);
+        int maxCol = toCol(left + width);
+        int maxRow = toRow(bottom + height);
+
+        if (minCol == minCols[handle] && minRow == minRows[handle] && maxCol == maxCols[handle] && maxRow == maxRows[handle])
+            return;
+
+        removeFromCells(handle);
+
+        minCols[handle] = minCol;
+        minRows[handle] = minRow;
+        maxCols[handle] = maxCol;
+        maxRows[handle] = maxRow;
+
+        addToCells(handle);
+    }
+
+    /**
+     * @param handle the entry to update
+     * @param priority the new priority (higher values are considered on top)
+     */
+    public void setPriority(int handle, int priority) {
+        priorities[handle] = priority;
+    }
+
+    /**
+     * Removes the entry from the index. The handle may be reused by a later insert.
+     * @param handle the entry to remove
+     */
+    public void remove(int handle) {
+        removeFromCells(handle);
+
+        items[handle] = null;
+        nextFree[handle] = freeHead;
+        freeHead = handle;
+        --size;
+    }
+
+    /**
+     * Changes the area covered by the grid (e.g. after the screen resolution changed), keeping every entry and its handle. Rebuilds the whole grid, so this takes time linear in the number of entries; does nothing if the area is unchanged.
+     * @param width the new width of the indexed area
+     * @param height the new height of the indexed area
+     */
+    public void resize(float width, float height) {
+        if (width == this.width && height == this.height)
+            return;
+
+        buildGrid(width, height);
+
+        for (int handle = 0; handle < items.length; ++handle) {
+            if (items[handle] != null) {
+                computeCells(handle);
+                addToCells(handle);
+            }
+        }
+    }
+
+    /**
+     * Removes every entry from the index.
+     */
+    public void clear() {
+        for (IntArray cell : cells)
+            cell.clear();
+
+        Arrays.fill(items, null);
+
+        freeHead = NONE;
+        for (int i = items.length - 1; i >= 0; --i) {
+            nextFree[i] = freeHead;
+            freeHead = i;
+        }
+
+        size = 0;
+    }
+
+    // --------------------------------------------------------------------------------
+
+    /**
+     * @param handle a valid entry
+     * @return the item associated with this entry
+     */
+    public T get(int handle) {
+        return (T)items[handle];
+    }
+
+    /**
+     * @return one more than the largest handle ever handed out (every valid handle is less than this)
+     */
+    public int capacity() {
+        return items.length;
+    }
+
+    /**
+     * @return the number of entries currently in the index
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param handle a valid entry
+     * @param x the x coordinate of the point
+     * @param y the y coordinate of the point
+     * @return true if the point lies inside (or on the border of) the entry's rectangle
+     */
+    public boolean contains(int handle, float x, float y) {
+        return x >= lefts[handle] && x <= rights[handle] && y >= bottoms[handle] && y <= tops[handle];
+    }
+
+    /**
+     * Finds every entry whose rectangle contains the given point. Does not allocate (as long as <code>out</code> has enough room).
+     * @param x the x coordinate of the point
+     * @param y the y coordinate of the point
+     * @param out receives the handles of all matching entries (it is not cleared first)
+     * @return the number of handles added to <code>out</code>
+     */
+    public int queryPoint(float x, float y, IntArray out) {
+        IntArray cell = cells[toRow(y) * numCols + toCol(x)];
+
+        int found = 0;
+        for (int i = 0; i < cell.size; ++i) {
+            int handle = cell.items[i];
+
+            if (contains(handle, x, y)) {
+                out.add(handle);
+                ++found;
+            }
+        }
+
+        return found;
+    }
+
+    /**
+     * Finds the entry with the highest priority whose rectangle contains the given point.
+     * @param x the x coordinate of the point
+     * @param y the y coordinate of the point
+     * @return the handle of the top-most entry under the point, or {@link #NONE} if there isn't one
+     */
+    public int findTopMost(float x, float y) {
+        IntArray cell = cells[toRow(y) * numCols + toCol(x)];
+
+        int best = NONE;
+        for (int i = 0; i < cell.size; ++i) {
+            int handle = cell.items[i];
+
+            if (contains(handle, x, y) && (best == NONE || priorities[handle] > priorities[best]))
+                best = handle;
+        }
+
+        return best;
+    }
+}
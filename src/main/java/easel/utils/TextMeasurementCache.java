@@ -0,0 +1,127 @@
+package easel.utils;
+
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import easel.runtime.EaselRuntime;
+import easel.runtime.FontMetrics;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * <p>
+ * Remembers how wide pieces of text are, so that text which shows up over and over (e.g. the words of tooltips and card descriptions) only goes through a full measurement once. Each font gets its own bounded cache which evicts the least recently used entries once it is full, so memory use stays flat no matter how much unique text is measured.
+ * </p>
+ * <p>
+ * Widths are the same as those returned by {@link FontMetrics#getWidth(BitmapFont, String, float)} with a scale of 1 (i.e. in screen pixels). A font's entries are thrown out automatically if its data scale changes, or if the runtime's font metrics are swapped out (see {@link EaselRuntime}), and fonts that are no longer used anywhere are released along with their entries. Like the widgets using it, this cache is not thread-safe.
+ * </p>
+ */
+public class TextMeasurementCache {
+    /**
+     * The default maximum number of entries remembered per font.
+     */
+    public static final int DEFAULT_CAPACITY_PER_FONT = 2048;
+
+    private static int capacityPerFont = DEFAULT_CAPACITY_PER_FONT;
+
+    private static class FontEntry extends LinkedHashMap<String, Float> {
+        private static final long serialVersionUID = 1L;
+
+        FontMetrics metrics;
+        float scaleX;
+        float scaleY;
+
+        FontEntry() {
+            // Access order: iteration (and eviction) starts at the least recently used entry
+            super(64, 0.75f, true);
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Float> eldest) {
+            // Trim the whole surplus, not just one entry, in case the capacity shrank since the last addition
+            Iterator<String> it = keySet().iterator();
+
+            while (size() > capacityPerFont && it.hasNext()) {
+                it.next();
+                it.remove();
+            }
+
+            return false;
+        }
+    }
+
+    private static final WeakHashMap<BitmapFont, FontEntry> fonts = new WeakHashMap<>();
+
+    private static FontEntry getEntry(BitmapFont font, FontMetrics metrics) {
+        FontEntry entry = fonts.get(font);
+
+        if (entry == null) {
+            entry = new FontEntry();
+            fonts.put(font, entry);
+        }
+        else if (entry.metrics != metrics || entry.scaleX != font.getScaleX() || entry.scaleY != font.getScaleY()) {
+            entry.clear();
+        }
+
+        entry.metrics = metrics;
+        entry.scaleX = font.getScaleX();
+        entry.scaleY = font.getScaleY();
+
+        return entry;
+    }
+
+    // --------------------------------------------------------------------------------
+
+    /**
+     * Measures a single line of text, using the cached width if this exact text was measured with this font recently.
+     * @param font the font to measure with
+     * @param text the text to measure
+     * @return the width of the text, in screen pixels
+     */
+    public static float getWidth(BitmapFont font, String text) {
+        FontMetrics metrics = EaselRuntime.getFonts();
+        FontEntry entry = getEntry(font, metrics);
+
+        Float width = entry.get(text);
+
+        if (width == null) {
+            width = metrics.getWidth(font, text, 1.0f);
+            entry.put(text, width);
+        }
+
+        return width;
+    }
+
+    /**
+     * Changes how many entries are remembered for each font. Fonts holding more than the new capacity shrink the next time they are added to.
+     * @param capacity the maximum number of entries per font
+     */
+    public static void setCapacityPerFont(int capacity) {
+        capacityPerFont = Math.max(capacity, 1);
+    }
+
+    /**
+     * @param font the font to check
+     * @return the number of pieces of text currently remembered for the given font
+     */
+    public static int size(BitmapFont font) {
+        FontEntry entry = fonts.get(font);
+        return (entry == null) ? 0 : entry.size();
+    }
+
+    /**
+     * Forgets every cached width for the given font, e.g. after modifying its glyphs.
+     * @param font the font to forget
+     */
+    public static void clear(BitmapFont font) {
+        fonts.remove(font);
+    }
+
+    /**
+     * Forgets every cached width, for every font.
+     */
+    public static void clear() {
+        fonts.clear();
+    }
+}
@@ -3,6 +3,7 @@ package easel.utils.colors;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.math.MathUtils;
 import easel.ui.InterpolationSpeed;
+import easel.utils.EaselClock;
 
 /**
  * <p>
@@ -169,9 +170,9 @@ public class EaselColors {
     }
 
     public static Color rainbow() {
-        float r = (MathUtils.cosDeg((float) (System.currentTimeMillis() / 10L % 360L)) + 1.25F) / 2.3F;
-        float g = (MathUtils.cosDeg((float)((System.currentTimeMillis() + 1000L) / 10L % 360L)) + 1.25F) / 2.3F;
-        float b = (MathUtils.cosDeg((float)((System.currentTimeMillis() + 2000L) / 10L % 360L)) + 1.25F) / 2.3F;
+        float r = (MathUtils.cosDeg((float) (EaselClock.getTimeMillis() / 10L % 360L)) + 1.25F) / 2.3F;
+        float g = (MathUtils.cosDeg((float)((EaselClock.getTimeMillis() + 1000L) / 10L % 360L)) + 1.25F) / 2.3F;
+        float b = (MathUtils.cosDeg((float)((EaselClock.getTimeMillis() + 2000L) / 10L % 360L)) + 1.25F) / 2.3F;
         return new Color(r, g, b, 1.0f);
     }
 
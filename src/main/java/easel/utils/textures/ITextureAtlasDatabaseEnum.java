@@ -1,9 +1,44 @@
 package easel.utils.textures;
 
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas;
 
 public interface ITextureAtlasDatabaseEnum {
     void load();
     TextureAtlas getTextureAtlas();
+
+    /**
+     * Starts decoding the atlas in the background so that its first use only has to upload it. Optional; the default does nothing.
+     */
+    default void prefetch() {
+    }
+
+    /**
+     * Takes a reference to the atlas (loading it if necessary), to be given back with {@link #release()}. The default just returns {@link #getTextureAtlas()} and never disposes anything.
+     * @return the atlas
+     */
+    default TextureAtlas acquire() {
+        return getTextureAtlas();
+    }
+
+    /**
+     * Gives back a reference taken with {@link #acquire()}, disposing the atlas if it was the last one (and the implementation supports it).
+     */
+    default void release() {
+    }
+
+    /**
+     * Enums built on a {@link LazyTextureAtlas} should return it here, which lets {@link TextureLoader#packTextureAtlases(Enum[])} copy the decoded pixels straight into the shared {@link RuntimeTextureAtlas} without ever uploading the original atlas. The default returns null, in which case the atlas is loaded and read back instead.
+     * @return the lazily loaded atlas backing this enum, or null
+     */
+    default LazyTextureAtlas getLazyTextureAtlas() {
+        return null;
+    }
+
+    /**
+     * @param name the name of the region in this atlas
+     * @return the region from the shared {@link RuntimeTextureAtlas} if it was packed with {@link TextureLoader#packTextureAtlases(Enum[])}, or from this atlas otherwise (null if no such region exists)
+     */
+    default TextureAtlas.AtlasRegion findRegion(String name) {
+        return RuntimeTextureAtlas.findRegion(this, name);
+    }
 }
@@ -1,8 +1,44 @@
 package easel.utils.textures;
 
 import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
 
 public interface ITextureDatabaseEnum {
     void load();
     Texture getTexture();
+
+    /**
+     * Starts decoding the texture in the background so that its first use only has to upload it. Optional; the default does nothing.
+     */
+    default void prefetch() {
+    }
+
+    /**
+     * Takes a reference to the texture (loading it if necessary), to be given back with {@link #release()}. The default just returns {@link #getTexture()} and never disposes anything.
+     * @return the texture
+     */
+    default Texture acquire() {
+        return getTexture();
+    }
+
+    /**
+     * Gives back a reference taken with {@link #acquire()}, disposing the texture if it was the last one (and the implementation supports it).
+     */
+    default void release() {
+    }
+
+    /**
+     * Enums built on a {@link LazyTexture} should return it here, which lets {@link TextureLoader#packTextures(Enum[])} copy the decoded pixels straight into the shared {@link RuntimeTextureAtlas} without ever uploading the original texture. The default returns null, in which case the texture is loaded and read back instead.
+     * @return the lazily loaded texture backing this enum, or null
+     */
+    default LazyTexture getLazyTexture() {
+        return null;
+    }
+
+    /**
+     * @return the texture as a region of the shared {@link RuntimeTextureAtlas} if it was packed with {@link TextureLoader#packTextures(Enum[])}, or a region covering the whole texture otherwise
+     */
+    default TextureRegion getRegion() {
+        return RuntimeTextureAtlas.getRegion(this);
+    }
 }
@@ -0,0 +1,165 @@
+package easel.utils.textures;
+
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import easel.Easel;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * <p>
+ * The shared machinery behind {@link LazyTexture} and {@link LazyTextureAtlas}: a GL resource loaded from a file the first time it is needed, instead of all at once during startup. Loading is split into two halves: decoding the file into memory (slow, but safe on any thread) and uploading it to the GPU (fast, but only possible on the render thread). {@link #prefetch()} queues the decode on a background thread, so by the time the resource is first used only the upload is left to do. Without a prefetch, the first use simply does both on the spot.
+ * </p>
+ * <p>
+ * There are two ways to hold onto the resource. {@link #get()} loads it and keeps it loaded forever, which is how the texture enums have always behaved. {@link #acquire()} and {@link #release()} are reference counted instead: once every acquire has been released (and nothing has called {@link #get()}), the resource is disposed. It will be loaded again if anyone asks for it later. Apart from the background decode, everything here should only be touched from the render thread.
+ * </p>
+ * @param <T> the loaded resource
+ * @param <D> the decoded (CPU side) data the resource is uploaded from
+ */
+public abstract class LazyResource<T extends Disposable, D> {
+    private final String internalPath;
+
+    private T resource;
+    private Future<D> pending;
+
+    private int refCount;
+    private boolean isPinned;
+
+    LazyResource(String internalPath) {
+        this.internalPath = internalPath;
+    }
+
+    // --------------------------------------------------------------------------------
+
+    /**
+     * Starts decoding the file on a background thread, if it isn't already loaded (or being decoded). Does nothing else; the resource is still only uploaded when first used. Decoded data that is never used stays in memory, so only prefetch things you expect to need.
+     */
+    public void prefetch() {
+        if (resource == null && pending == null)
+            pending = TextureLoader.submit(this::timedDecode);
+    }
+
+    /**
+     * @return the resource, loading it first if necessary. The resource stays loaded from now on, regardless of {@link #release()}
+     */
+    public T get() {
+        isPinned = true;
+        return load();
+    }
+
+    /**
+     * Loads the resource if necessary and adds one reference to it. Every acquire should be paired with a {@link #release()}.
+     * @return the resource
+     */
+    public T acquire() {
+        ++refCount;
+        return load();
+    }
+
+    /**
+     * Gives up a reference taken with {@link #acquire()}. The resource is disposed when the last reference is released, unless something has called {@link #get()} on it.
+     */
+    public void release() {
+        if (refCount <= 0) {
+            Easel.logger.warn("LazyResource: released " + internalPath + " more times than it was acquired");
+            return;
+        }
+
+        if (--refCount == 0 && !isPinned && resource != null) {
+            resource.dispose();
+            resource = null;
+        }
+    }
+
+    /**
+     * @return true if the resource is currently uploaded, i.e. using it won't cause any loading
+     */
+    public boolean isLoaded() {
+        return resource != null;
+    }
+
+    /**
+     * @return the internal path of the file the resource is loaded from
+     */
+    public String getInternalPath() {
+        return internalPath;
+    }
+
+    // --------------------------------------------------------------------------------
+
+    private D timedDecode() {
+        long start = System.nanoTime();
+        D decoded = decode();
+        TextureLoader.recordDecode(System.nanoTime() - start);
+
+        return decoded;
+    }
+
+    /**
+     * Waits for the prefetched data if there is any, and decodes it on the spot otherwise.
+     */
+    private D getDecoded() {
+        if (pending == null)
+            return decode();
+
+        try {
+            return pending.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GdxRuntimeException("Interrupted while loading " + internalPath, e);
+        }
+        catch (ExecutionException e) {
+            throw new GdxRuntimeException("Couldn't load " + internalPath, e.getCause());
+        }
+        finally {
+            pending = null;
+        }
+    }
+
+    /**
+     * Hands over the decoded data without uploading anything, for callers that only need the pixels (i.e. the {@link RuntimeTextureAtlas}, which would otherwise upload the resource just to read it back again). Uses the prefetched data if there is any. The caller owns the result, and must free it with {@link #discard(Object)} when done. The resource stays unloaded, so if it is used later on after all, it is simply decoded again.
+     * @return the decoded data, or null if the resource is already uploaded (in which case the caller should use the resource itself)
+     */
+    D takeDecoded() {
+        return (resource == null) ? getDecoded() : null;
+    }
+
+    private T load() {
+        if (resource == null) {
+            long start = System.nanoTime();
+            boolean wasPrefetched = pending != null;
+            D decoded = getDecoded();
+
+            try {
+                resource = upload(decoded);
+            }
+            catch (RuntimeException e) {
+                discard(decoded);
+                throw e;
+            }
+
+            TextureLoader.recordLoad(internalPath, System.nanoTime() - start, wasPrefetched);
+        }
+
+        return resource;
+    }
+
+    // --------------------------------------------------------------------------------
+
+    /**
+     * Reads and decodes the file. Called from a background thread when prefetched, so this must not touch GL.
+     */
+    abstract D decode();
+
+    /**
+     * Creates the GL resource out of the decoded data, taking ownership of it. Always called on the render thread.
+     */
+    abstract T upload(D decoded);
+
+    /**
+     * Frees decoded data that couldn't be uploaded.
+     */
+    abstract void discard(D decoded);
+}
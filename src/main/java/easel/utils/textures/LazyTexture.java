@@ -0,0 +1,41 @@
+package easel.utils.textures;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.glutils.FileTextureData;
+
+/**
+ * <p>
+ * A {@link Texture} loaded on first use (see {@link LazyResource}). This is what {@link TextureDatabase} uses under the hood, and it works just as well for your own {@link ITextureDatabaseEnum}: hold one per enum constant and forward the enum's methods to it.
+ * </p>
+ * <p>
+ * The texture is created exactly like <code>new Texture(internalPath)</code> would, i.e. with nearest filtering, clamped wrapping, and no mipmaps.
+ * </p>
+ */
+public final class LazyTexture extends LazyResource<Texture, Pixmap> {
+    /**
+     * @param internalPath internal path to an image file
+     */
+    public LazyTexture(String internalPath) {
+        super(internalPath);
+    }
+
+    @Override
+    Pixmap decode() {
+        return new Pixmap(Gdx.files.internal(getInternalPath()));
+    }
+
+    @Override
+    Texture upload(Pixmap decoded) {
+        // Keeping the file around lets the texture reload itself after a context loss
+        FileHandle file = Gdx.files.internal(getInternalPath());
+        return new Texture(new FileTextureData(file, decoded, null, false));
+    }
+
+    @Override
+    void discard(Pixmap decoded) {
+        decoded.dispose();
+    }
+}
@@ -0,0 +1,85 @@
+package easel.utils.textures;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.glutils.FileTextureData;
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * <p>
+ * A {@link TextureAtlas} loaded on first use (see {@link LazyResource}). This is what {@link TextureAtlasDatabase} uses under the hood, and it works just as well for your own {@link ITextureAtlasDatabaseEnum}: hold one per enum constant and forward the enum's methods to it.
+ * </p>
+ * <p>
+ * Both the .atlas file and every page image are read and decoded in the background when prefetched, leaving just the page uploads for the render thread.
+ * </p>
+ */
+public final class LazyTextureAtlas extends LazyResource<TextureAtlas, LazyTextureAtlas.Decoded> {
+    static final class Decoded {
+        final TextureAtlas.TextureAtlasData data;
+        final Pixmap[] pages;
+
+        Decoded(TextureAtlas.TextureAtlasData data, Pixmap[] pages) {
+            this.data = data;
+            this.pages = pages;
+        }
+    }
+
+    /**
+     * @param internalPath internal path to an .atlas file (the page images should be in the same directory)
+     */
+    public LazyTextureAtlas(String internalPath) {
+        super(internalPath);
+    }
+
+    @Override
+    Decoded decode() {
+        FileHandle packFile = Gdx.files.internal(getInternalPath());
+        TextureAtlas.TextureAtlasData data = new TextureAtlas.TextureAtlasData(packFile, packFile.parent(), false);
+
+        Array<TextureAtlas.TextureAtlasData.Page> pages = data.getPages();
+        Pixmap[] pixmaps = new Pixmap[pages.size];
+
+        try {
+            for (int i = 0; i < pages.size; ++i)
+                pixmaps[i] = new Pixmap(pages.get(i).textureFile);
+        }
+        catch (RuntimeException e) {
+            discard(new Decoded(data, pixmaps));
+            throw e;
+        }
+
+        return new Decoded(data, pixmaps);
+    }
+
+    @Override
+    TextureAtlas upload(Decoded decoded) {
+        Array<TextureAtlas.TextureAtlasData.Page> pages = decoded.data.getPages();
+
+        // The atlas only loads pages itself if they don't have a texture yet (and takes ownership of the ones we make)
+        for (int i = 0; i < pages.size; ++i) {
+            TextureAtlas.TextureAtlasData.Page page = pages.get(i);
+            page.texture = new Texture(new FileTextureData(page.textureFile, decoded.pages[i], page.format, page.useMipMaps));
+            decoded.pages[i] = null;
+        }
+
+        return new TextureAtlas(decoded.data);
+    }
+
+    @Override
+    void discard(Decoded decoded) {
+        for (Pixmap pixmap : decoded.pages) {
+            if (pixmap != null)
+                pixmap.dispose();
+        }
+
+        for (TextureAtlas.TextureAtlasData.Page page : decoded.data.getPages()) {
+            if (page.texture != null) {
+                page.texture.dispose();
+                page.texture = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,358 @@
+package easel.utils.textures;
+
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.TextureData;
+import com.badlogic.gdx.graphics.g2d.PixmapPacker;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.utils.Array;
+import easel.Easel;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+
+/**
+ * <p>
+ * A texture atlas built at load time out of the textures from {@link ITextureDatabaseEnum}s and the (small) regions of {@link ITextureAtlasDatabaseEnum}s. Every time the sprite batch has to switch to a different texture, it has to flush everything drawn so far; packing the images a widget uses onto the same page means the whole widget (and usually a whole screen of them) can be drawn without a single switch.
+ * </p>
+ * <p>
+ * Images are added with {@link TextureLoader#packTextures(Enum[])} and {@link TextureLoader#packTextureAtlases(Enum[])}, after the enums have been loaded, and then looked up with {@link ITextureDatabaseEnum#getRegion()} and {@link ITextureAtlasDatabaseEnum#findRegion(String)}. Anything that wasn't (or couldn't be) packed is returned from its original texture instead, so these lookups always work. Only images drawn with nearest filtering and no texture wrapping are packed, since a page can only have a single set of texture parameters, and atlas regions which are rotated, whitespace stripped, or larger than {@link #MAX_REGION_SIZE} stay where they are. Enums built on {@link LazyTexture} / {@link LazyTextureAtlas} are packed straight from their decoded pixels (prefetched in the background, if {@link TextureLoader#prefetchTextures(Enum[])} was called first), so the originals are never uploaded to the GPU at all; {@link ITextureDatabaseEnum#getTexture()} still works, and just loads them on demand. Other enums are loaded and only borrowed while copying, so (for enums supporting {@link ITextureDatabaseEnum#release()}) they are unloaded again afterwards unless something else uses them.
+ * </p>
+ * <p>
+ * More images can be packed at any time (e.g. by another mod after easel has packed its own), in which case the existing pages are updated in place and regions returned earlier stay valid. Like all GL resources, this should only be touched from the render thread.
+ * </p>
+ */
+public class RuntimeTextureAtlas {
+    /**
+     * The largest width or height of an atlas region that will be merged into the runtime atlas. Larger regions don't gain much from sharing a page.
+     */
+    public static final int MAX_REGION_SIZE = 512;
+
+    private static final int PAGE_SIZE = 1024;
+
+    private static PixmapPacker packer;
+    private static TextureAtlas atlas;
+
+    private static final IdentityHashMap<ITextureDatabaseEnum, TextureRegion> textureRegions = new IdentityHashMap<>();
+    private static final IdentityHashMap<ITextureAtlasDatabaseEnum, HashMap<String, TextureAtlas.AtlasRegion>> atlasRegions = new IdentityHashMap<>();
+
+    private static class Pending {
+        final String packedName;
+        final ITextureDatabaseEnum texture;
+        final ITextureAtlasDatabaseEnum atlas;
+
+        // What describes the original atlas region (rather than where it is)
+        final String name;
+        final int index;
+        final int[] splits;
+        final int[] pads;
+        final boolean isFirstWithName;
+
+        Pending(String packedName, ITextureDatabaseEnum texture) {
+            this(packedName, texture, null, null, -1, null, null, true);
+        }
+
+        Pending(String packedName, ITextureDatabaseEnum texture, ITextureAtlasDatabaseEnum atlas, String name, int index, int[] splits, int[] pads, boolean isFirstWithName) {
+            this.packedName = packedName;
+            this.texture = texture;
+            this.atlas = atlas;
+            this.name = name;
+            this.index = index;
+            this.splits = splits;
+            this.pads = pads;
+            this.isFirstWithName = isFirstWithName;
+        }
+    }
+
+    private static final ArrayList<Pending> pending = new ArrayList<>();
+
+    // --------------------------------------------------------------------------------
+    // Lookups
+
+    /**
+     * @param texture a loaded texture enum
+     * @return the region of the runtime atlas holding the texture, or a region covering the original texture if it wasn't packed
+     */
+    public static TextureRegion getRegion(ITextureDatabaseEnum texture) {
+        TextureRegion region = textureRegions.get(texture);
+
+        if (region == null) {
+            region = new TextureRegion(texture.getTexture());
+            textureRegions.put(texture, region);
+        }
+
+        return region;
+    }
+
+    /**
+     * @param atlas a loaded texture atlas enum
+     * @param name the name of the region in the original atlas
+     * @return the region of the runtime atlas holding the image, or the region from the original atlas if it wasn't packed (null if the original atlas has no such region)
+     */
+    public static TextureAtlas.AtlasRegion findRegion(ITextureAtlasDatabaseEnum atlas, String name) {
+        HashMap<String, TextureAtlas.AtlasRegion> regions = atlasRegions.computeIfAbsent(atlas, a -> new HashMap<>());
+        TextureAtlas.AtlasRegion region = regions.get(name);
+
+        if (region == null) {
+            region = atlas.getTextureAtlas().findRegion(name);
+
+            if (region != null)
+                regions.put(name, region);
+        }
+
+        return region;
+    }
+
+    /**
+     * @return the number of pages in the runtime atlas
+     */
+    public static int getNumPages() {
+        return packer == null ? 0 : packer.getPages().size;
+    }
+
+    // --------------------------------------------------------------------------------
+    // Packing
+
+    private static PixmapPacker getPacker() {
+        if (packer == null) {
+            // Duplicated borders keep stretched images (e.g. nine patches) from sampling their neighbors
+            packer = new PixmapPacker(PAGE_SIZE, PAGE_SIZE, Pixmap.Format.RGBA8888, 2, true, new PixmapPacker.GuillotineStrategy());
+        }
+
+        return packer;
+    }
+
+    private static boolean isPackable(Texture.TextureFilter minFilter, Texture.TextureFilter magFilter, Texture.TextureWrap uWrap, Texture.TextureWrap vWrap) {
+        return minFilter == Texture.TextureFilter.Nearest
+                && magFilter == Texture.TextureFilter.Nearest
+                && uWrap == Texture.TextureWrap.ClampToEdge
+                && vWrap == Texture.TextureWrap.ClampToEdge;
+    }
+
+    private static boolean isPackable(Texture texture) {
+        return isPackable(texture.getMinFilter(), texture.getMagFilter(), texture.getUWrap(), texture.getVWrap())
+                && texture.getTextureData().getType() == TextureData.TextureDataType.Pixmap;
+    }
+
+    /**
+     * Reads the pixels back out of a texture. The caller must dispose the result if (and only if) <code>mustDispose</code> says so.
+     */
+    private static Pixmap readPixels(Texture texture, boolean[] mustDispose) {
+        TextureData data = texture.getTextureData();
+
+        if (!data.isPrepared())
+            data.prepare();
+
+        mustDispose[0] = data.disposePixmap();
+        return data.consumePixmap();
+    }
+
+    private static boolean fitsOnPage(Pixmap pixels) {
+        return pixels.getWidth() <= PAGE_SIZE && pixels.getHeight() <= PAGE_SIZE;
+    }
+
+    private static void copyRegion(Pixmap pixels, String packedName, int left, int top, int w, int h) {
+        Pixmap image = new Pixmap(w, h, Pixmap.Format.RGBA8888);
+        image.drawPixmap(pixels, 0, 0, left, top, w, h);
+
+        getPacker().pack(packedName, image);
+        image.dispose();
+    }
+
+    static void addTexture(String name, ITextureDatabaseEnum texture) {
+        if (getPacker().getRect(name) != null)
+            return;
+
+        // Lazy textures are created with nearest filtering and clamped wrapping, so their pixels can go straight in
+        LazyTexture lazy = texture.getLazyTexture();
+        Pixmap decoded = (lazy != null) ? lazy.takeDecoded() : null;
+
+        if (decoded != null) {
+            try {
+                if (fitsOnPage(decoded)) {
+                    getPacker().pack(name, decoded);
+                    pending.add(new Pending(name, texture));
+                }
+            }
+            finally {
+                lazy.discard(decoded);
+            }
+
+            return;
+        }
+
+        // Only borrowed: once the pixels are copied, the original can be unloaded again if nothing else needs it
+        Texture source = texture.acquire();
+
+        try {
+            if (source == null || !isPackable(source) || source.getWidth() > PAGE_SIZE || source.getHeight() > PAGE_SIZE)
+                return;
+
+            boolean[] mustDispose = new boolean[1];
+            Pixmap pixels = readPixels(source, mustDispose);
+
+            getPacker().pack(name, pixels);
+            pending.add(new Pending(name, texture));
+
+            if (mustDispose[0])
+                pixels.dispose();
+        }
+        finally {
+            texture.release();
+        }
+    }
+
+    static void addTextureAtlas(String name, ITextureAtlasDatabaseEnum atlas) {
+        LazyTextureAtlas lazy = atlas.getLazyTextureAtlas();
+        LazyTextureAtlas.Decoded decoded = (lazy != null) ? lazy.takeDecoded() : null;
+
+        if (decoded != null) {
+            try {
+                addTextureAtlas(name, atlas, decoded);
+            }
+            finally {
+                lazy.discard(decoded);
+            }
+
+            return;
+        }
+
+        TextureAtlas source = atlas.acquire();
+
+        try {
+            if (source != null)
+                addTextureAtlas(name, atlas, source);
+        }
+        finally {
+            atlas.release();
+        }
+    }
+
+    private static String getPackedName(String atlasName, String regionName, int index) {
+        return atlasName + "/" + regionName + (index >= 0 ? "_" + index : "");
+    }
+
+    /**
+     * Packs the regions of a decoded (but never uploaded) atlas, using the same rules as for loaded atlases below.
+     */
+    private static void addTextureAtlas(String name, ITextureAtlasDatabaseEnum atlas, LazyTextureAtlas.Decoded decoded) {
+        Array<TextureAtlas.TextureAtlasData.Page> pages = decoded.data.getPages();
+        HashSet<String> seenNames = new HashSet<>();
+
+        Pixmap.Blending blending = Pixmap.getBlending();
+        Pixmap.setBlending(Pixmap.Blending.None);
+
+        for (TextureAtlas.TextureAtlasData.Region region : decoded.data.getRegions()) {
+            // Like TextureAtlas.findRegion(), name lookups should get the first region with that name
+            boolean isFirstWithName = seenNames.add(region.name);
+
+            TextureAtlas.TextureAtlasData.Page page = region.page;
+            Pixmap pixels = decoded.pages[pages.indexOf(page, true)];
+
+            if (region.rotate
+                    || region.width != region.originalWidth
+                    || region.height != region.originalHeight
+                    || region.width > MAX_REGION_SIZE
+                    || region.height > MAX_REGION_SIZE
+                    || page.useMipMaps
+                    || !isPackable(page.minFilter, page.magFilter, page.uWrap, page.vWrap))
+                continue;
+
+            String packedName = getPackedName(name, region.name, region.index);
+
+            if (getPacker().getRect(packedName) != null)
+                continue;
+
+            copyRegion(pixels, packedName, region.left, region.top, region.width, region.height);
+            pending.add(new Pending(packedName, null, atlas, region.name, region.index, region.splits, region.pads, isFirstWithName));
+        }
+
+        Pixmap.setBlending(blending);
+    }
+
+    private static void addTextureAtlas(String name, ITextureAtlasDatabaseEnum atlas, TextureAtlas source) {
+        // Grouped by page, so each page only has to be read back once
+        IdentityHashMap<Texture, ArrayList<TextureAtlas.AtlasRegion>> byPage = new IdentityHashMap<>();
+
+        for (TextureAtlas.AtlasRegion region : source.getRegions()) {
+            if (region.rotate
+                    || region.packedWidth != region.originalWidth
+                    || region.packedHeight != region.originalHeight
+                    || region.getRegionWidth() > MAX_REGION_SIZE
+                    || region.getRegionHeight() > MAX_REGION_SIZE
+                    || !isPackable(region.getTexture()))
+                continue;
+
+            byPage.computeIfAbsent(region.getTexture(), t -> new ArrayList<>()).add(region);
+        }
+
+        boolean[] mustDispose = new boolean[1];
+
+        for (Texture page : byPage.keySet()) {
+            Pixmap pixels = readPixels(page, mustDispose);
+
+            Pixmap.Blending blending = Pixmap.getBlending();
+            Pixmap.setBlending(Pixmap.Blending.None);
+
+            for (TextureAtlas.AtlasRegion region : byPage.get(page)) {
+                String packedName = getPackedName(name, region.name, region.index);
+
+                if (getPacker().getRect(packedName) != null)
+                    continue;
+
+                copyRegion(pixels, packedName, region.getRegionX(), region.getRegionY(), region.getRegionWidth(), region.getRegionHeight());
+
+                // Like TextureAtlas.findRegion(), name lookups should get the first region with that name
+                boolean isFirstWithName = source.findRegion(region.name) == region;
+                pending.add(new Pending(packedName, null, atlas, region.name, region.index, region.splits, region.pads, isFirstWithName));
+            }
+
+            Pixmap.setBlending(blending);
+
+            if (mustDispose[0])
+                pixels.dispose();
+        }
+    }
+
+    /**
+     * Uploads everything packed since the last update, and points the lookups at the new regions.
+     */
+    static void update() {
+        if (pending.isEmpty())
+            return;
+
+        if (atlas == null)
+            atlas = getPacker().generateTextureAtlas(Texture.TextureFilter.Nearest, Texture.TextureFilter.Nearest, false);
+        else
+            getPacker().updateTextureAtlas(atlas, Texture.TextureFilter.Nearest, Texture.TextureFilter.Nearest, false);
+
+        for (Pending p : pending) {
+            TextureAtlas.AtlasRegion packed = atlas.findRegion(p.packedName);
+
+            if (packed == null) {
+                Easel.logger.warn("RuntimeTextureAtlas: lost track of " + p.packedName);
+                continue;
+            }
+
+            if (p.texture != null) {
+                textureRegions.put(p.texture, packed);
+            }
+            else {
+                // Keep what describes the image (rather than where it is), so the region is a drop-in replacement
+                packed.name = p.name;
+                packed.index = p.index;
+                packed.splits = p.splits;
+                packed.pads = p.pads;
+
+                if (p.isFirstWithName)
+                    atlasRegions.computeIfAbsent(p.atlas, a -> new HashMap<>()).put(p.name, packed);
+            }
+        }
+
+        Easel.logger.info("RuntimeTextureAtlas: packed " + pending.size() + " images (" + getNumPages() + " page(s) total)");
+        pending.clear();
+    }
+}
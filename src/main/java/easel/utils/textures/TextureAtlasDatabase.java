@@ -15,21 +15,36 @@ public enum TextureAtlasDatabase implements ITextureAtlasDatabaseEnum {
     NO_HEADERED_TOOL_TIP("easel/textures/headeredToolTips/NoHeadered.atlas")
     ;
 
-    private final String internalPath;
-    private TextureAtlas atlas;
+    private final LazyTextureAtlas atlas;
 
     /**
      * @param internalPath internal path to an .atlas file (texture PNG itself should be in the same spot)
      */
     TextureAtlasDatabase(String internalPath) {
-        this.internalPath = internalPath;
+        this.atlas = new LazyTextureAtlas(internalPath);
     }
 
     public void load() {
-        this.atlas = new TextureAtlas(internalPath);
+        atlas.get();
+    }
+
+    public void prefetch() {
+        atlas.prefetch();
     }
 
     public TextureAtlas getTextureAtlas() {
+        return atlas.get();
+    }
+
+    public TextureAtlas acquire() {
+        return atlas.acquire();
+    }
+
+    public void release() {
+        atlas.release();
+    }
+
+    public LazyTextureAtlas getLazyTextureAtlas() {
         return atlas;
     }
 }
@@ -13,18 +13,33 @@ public enum TextureDatabase implements ITextureDatabaseEnum {
     BLACK_GRADIENT_VERTICAL("easel/textures/black_gradient_vertical.png")
     ;
 
-    private final String internalPath;
-    private Texture texture;
+    private final LazyTexture texture;
 
     TextureDatabase(String internalPath) {
-        this.internalPath = internalPath;
+        this.texture = new LazyTexture(internalPath);
     }
 
     public void load() {
-        this.texture = new Texture(internalPath);
+        texture.get();
+    }
+
+    public void prefetch() {
+        texture.prefetch();
     }
 
     public Texture getTexture() {
+        return texture.get();
+    }
+
+    public Texture acquire() {
+        return texture.acquire();
+    }
+
+    public void release() {
+        texture.release();
+    }
+
+    public LazyTexture getLazyTexture() {
         return texture;
     }
 }
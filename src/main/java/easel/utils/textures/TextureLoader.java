@@ -1,5 +1,15 @@
 package easel.utils.textures;
 
+import easel.Easel;
+
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
  * Loads up a texture database (or texture atlas database) enum to allow the textures to be used in game. The
  * {@link #loadTextures(Enum[])} function must be called before using any texture. This should be done in your
@@ -8,6 +18,17 @@ package easel.utils.textures;
  * . Using a more complex system like this enum-based texture loader is not recommended for small projects!
  */
 public class TextureLoader {
+    private static ExecutorService executor;
+
+    // Timing stats for the report. Decodes happen on the loader threads; everything else is on the render thread
+    private static final AtomicLong decodeNanos = new AtomicLong();
+    private static final AtomicInteger numDecoded = new AtomicInteger();
+
+    private static long loadNanos;
+    private static int numLoaded;
+    private static int numPrefetchedLoads;
+    private static final ArrayList<String> loadedPaths = new ArrayList<>();
+    private static final ArrayList<Long> loadedNanos = new ArrayList<>();
 
 //    public static void loadTextures() {
 //        for (TextureDatabase t : TextureDatabase.values())
@@ -48,6 +69,13 @@ public class TextureLoader {
      * used by Easel, it goes through an enum that implements {@link ITextureDatabaseEnum}. Check out
      * {@link TextureDatabase} for the main enum used.
      * </p>
+     *
+     * <p>
+     * Note that the enums provided by easel ({@link TextureDatabase} and {@link TextureAtlasDatabase}), as well as any
+     * enum built on {@link LazyTexture} / {@link LazyTextureAtlas}, load themselves on first use, so calling this is
+     * optional for them. It is usually better to call {@link #prefetchTextures(Enum[])} instead, which moves the slow
+     * part of loading off the render thread and skips anything that is never used.
+     * </p>
      * @param src pass in your enum's <code>.values()</code> here
      * @param <T> the type for your enum
      */
@@ -67,4 +95,147 @@ public class TextureLoader {
         for (T x : src)
             x.load();
     }
+
+    /**
+     * <p>
+     * Copies the textures of your enum onto the pages of the shared {@link RuntimeTextureAtlas}, so that they can be
+     * drawn alongside easel's own textures without the sprite batch having to switch textures (and flush) in between.
+     * Call this in your postInitialize hook, and then draw with YourEnum.NAME.getRegion() instead of
+     * YourEnum.NAME.getTexture().
+     * </p>
+     * <p>
+     * Enums built on {@link LazyTexture} (see {@link ITextureDatabaseEnum#getLazyTexture()}) are packed straight from
+     * their decoded pixels without uploading the originals; call {@link #prefetchTextures(Enum[])} first (and do some
+     * other work in between) to have them decoded in the background. Other enums are loaded first if necessary.
+     * </p>
+     * <p>
+     * Only textures using nearest filtering and the default clamped wrapping are packed; everything else is left
+     * alone and {@link ITextureDatabaseEnum#getRegion()} will just return a region covering the original texture.
+     * </p>
+     * @param src pass in your enum's <code>.values()</code> here
+     * @param <T> the type for your enum
+     */
+    public static <T extends Enum<T> & ITextureDatabaseEnum> void packTextures(T[] src) {
+        for (T x : src)
+            RuntimeTextureAtlas.addTexture(x.getDeclaringClass().getName() + "." + x.name(), x);
+
+        RuntimeTextureAtlas.update();
+    }
+
+    /**
+     * Similar to {@link #packTextures(Enum[])} but for the regions of TextureAtlas objects. Regions larger than
+     * {@link RuntimeTextureAtlas#MAX_REGION_SIZE} (as well as rotated or whitespace stripped ones) are left in their
+     * original atlas. Use YourEnum.NAME.findRegion(...) to look up the regions afterwards.
+     * @param src pass in your enum's <code>.values()</code> here
+     * @param <T> the type for your enum
+     * @see #packTextures(Enum[])
+     */
+    public static <T extends Enum<T> & ITextureAtlasDatabaseEnum> void packTextureAtlases(T[] src) {
+        for (T x : src)
+            RuntimeTextureAtlas.addTextureAtlas(x.getDeclaringClass().getName() + "." + x.name(), x);
+
+        RuntimeTextureAtlas.update();
+    }
+
+    /**
+     * <p>
+     * Starts decoding the images of your enum on background threads, without loading anything on the render thread.
+     * Each texture is then uploaded the first time it is actually used (e.g. through getTexture()), which by then is
+     * usually just a quick copy to the GPU. Textures that are never used are never uploaded at all. This is the
+     * recommended replacement for {@link #loadTextures(Enum[])} in your postInitialize hook, if your enum supports it
+     * (see {@link LazyTexture}); for other enums it does nothing.
+     * </p>
+     * @param src pass in your enum's <code>.values()</code> here
+     * @param <T> the type for your enum
+     */
+    public static <T extends Enum<T> & ITextureDatabaseEnum> void prefetchTextures(T[] src) {
+        for (T x : src)
+            x.prefetch();
+    }
+
+    /**
+     * Similar to {@link #prefetchTextures(Enum[])} but for handling TextureAtlas objects instead of just plain
+     * Texture objects.
+     * @param src pass in your enum's <code>.values()</code> here
+     * @param <T> the type for your enum
+     * @see #prefetchTextures(Enum[])
+     */
+    public static <T extends Enum<T> & ITextureAtlasDatabaseEnum> void prefetchTextureAtlases(T[] src) {
+        for (T x : src)
+            x.prefetch();
+    }
+
+    // --------------------------------------------------------------------------------
+    // Background loading
+
+    static synchronized <D> Future<D> submit(Callable<D> decode) {
+        if (executor == null) {
+            int numThreads = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+
+            executor = Executors.newFixedThreadPool(numThreads, r -> {
+                Thread t = new Thread(r, "Easel texture loader");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+
+        return executor.submit(decode);
+    }
+
+    static void recordDecode(long nanos) {
+        decodeNanos.addAndGet(nanos);
+        numDecoded.incrementAndGet();
+    }
+
+    static void recordLoad(String internalPath, long nanos, boolean wasPrefetched) {
+        loadNanos += nanos;
+        ++numLoaded;
+
+        if (wasPrefetched)
+            ++numPrefetchedLoads;
+
+        loadedPaths.add(internalPath);
+        loadedNanos.add(nanos);
+    }
+
+    // --------------------------------------------------------------------------------
+    // Timing report
+
+    /**
+     * Summarizes the time spent loading textures (and atlases) so far: how many were loaded, how much render thread
+     * time that took (including any waiting on unfinished background decodes), how much time the background threads
+     * spent decoding, and which files were the slowest to load.
+     * @return a human readable, multi-line report
+     */
+    public static String getTimingReport() {
+        StringBuilder sb = new StringBuilder();
+
+        sb.append("TextureLoader: ")
+                .append(numLoaded).append(" loaded (").append(numPrefetchedLoads).append(" prefetched), ")
+                .append(String.format("%.1f", loadNanos / 1e6)).append(" ms on the render thread; ")
+                .append(numDecoded.get()).append(" decoded in the background in ")
+                .append(String.format("%.1f", decodeNanos.get() / 1e6)).append(" ms");
+
+        ArrayList<Integer> slowest = new ArrayList<>();
+        for (int i = 0; i < loadedNanos.size(); ++i)
+            slowest.add(i);
+
+        slowest.sort((a, b) -> Long.compare(loadedNanos.get(b), loadedNanos.get(a)));
+
+        for (int i = 0; i < Math.min(5, slowest.size()); ++i) {
+            int index = slowest.get(i);
+            sb.append("\n  ")
+                    .append(String.format("%.1f", loadedNanos.get(index) / 1e6)).append(" ms: ")
+                    .append(loadedPaths.get(index));
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * Writes {@link #getTimingReport()} to the log.
+     */
+    public static void logTimingReport() {
+        Easel.logger.info(getTimingReport());
+    }
 }
@@ -0,0 +1,27 @@
+#ifdef GL_ES
+precision mediump float;
+#endif
+
+uniform sampler2D u_texture;
+
+// Set by libGDX's DistanceFieldFontCache: the spread of the distance field times the font scale
+uniform float u_smoothing;
+
+varying vec4 v_color;
+varying vec2 v_texCoord0;
+
+void main()
+{
+    if (u_smoothing > 0.0) {
+        // The glyph edge is where the distance crosses 0.5; blending over about one screen pixel
+        // around it keeps the edge antialiased at any scale
+        float smoothing = 0.25 / u_smoothing;
+        float distance = texture2D(u_texture, v_texCoord0).a;
+        float alpha = smoothstep(0.5 - smoothing, 0.5 + smoothing, distance);
+
+        gl_FragColor = vec4(v_color.rgb, alpha * v_color.a);
+    }
+    else {
+        gl_FragColor = v_color * texture2D(u_texture, v_texCoord0);
+    }
+}
@@ -0,0 +1,19 @@
+attribute vec4 a_position;
+attribute vec4 a_color;
+attribute vec2 a_texCoord0;
+
+uniform mat4 u_projTrans;
+
+varying vec4 v_color;
+varying vec2 v_texCoord0;
+
+void main()
+{
+    v_color = a_color;
+
+    // Batch colors are packed with 254 steps of alpha, so fully opaque needs a nudge back to 1.0
+    v_color.a = v_color.a * (255.0 / 254.0);
+    v_texCoord0 = a_texCoord0;
+
+    gl_Position = u_projTrans * a_position;
+}
@@ -0,0 +1,8 @@
+package basemod.interfaces;
+
+/**
+ * Test stand-in for BaseMod's <code>PostInitializeSubscriber</code>, so that <code>easel.Easel</code> (and its logger) can be loaded outside of the game.
+ */
+public interface PostInitializeSubscriber {
+    void receivePostInitialize();
+}
@@ -0,0 +1,64 @@
+package com.evacipated.cardcrawl.modthespire.lib;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Properties;
+
+/**
+ * Test stand-in for ModTheSpire's <code>SpireConfig</code>, so that <code>easel.config.EaselConfigHelper</code> can be loaded outside of the game. Like the real one, each config is a properties file in a folder named after the mod, but everything is kept under {@link #directory} instead of the game's preferences folder.
+ */
+public class SpireConfig {
+    /**
+     * Where the config files go (tests point this at a temporary folder).
+     */
+    public static File directory = new File(System.getProperty("java.io.tmpdir"), "easel-test-config");
+
+    private final File file;
+    private final Properties properties = new Properties();
+
+    public SpireConfig(String modName, String fileName) throws IOException {
+        this.file = new File(makeFilePath(modName, fileName));
+        load();
+    }
+
+    public static String makeFilePath(String modName, String fileName) {
+        return makeFilePath(modName, fileName, "properties");
+    }
+
+    public static String makeFilePath(String modName, String fileName, String ext) {
+        return new File(new File(directory, modName), fileName + "." + ext).getPath();
+    }
+
+    public void load() throws IOException {
+        if (!file.exists())
+            return;
+
+        try (InputStream in = new FileInputStream(file)) {
+            properties.load(in);
+        }
+    }
+
+    public void save() throws IOException {
+        file.getParentFile().mkdirs();
+
+        try (OutputStream out = new FileOutputStream(file)) {
+            properties.store(out, null);
+        }
+    }
+
+    public boolean has(String key) {
+        return properties.containsKey(key);
+    }
+
+    public String getString(String key) {
+        return properties.getProperty(key);
+    }
+
+    public void setString(String key, String value) {
+        properties.setProperty(key, value);
+    }
+}
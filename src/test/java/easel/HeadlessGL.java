@@ -0,0 +1,70 @@
+package easel;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+
+import java.lang.reflect.Proxy;
+import java.nio.IntBuffer;
+
+/**
+ * <p>
+ * A stand-in GL context for tests that need a real {@link SpriteBatch} (e.g. to check which shader is bound), without a window or a GPU. Every GL call does nothing, aside from reporting shaders and programs as successfully compiled and linked. Nothing drawn this way ever shows up anywhere; only the state tracked by libGDX itself (bound shaders, colors, etc.) is meaningful.
+ * </p>
+ * <p>
+ * The headless backend supplies <code>Gdx.app</code> and <code>Gdx.graphics</code>, and loads the desktop natives that the batch's vertex buffers are allocated through.
+ * </p>
+ */
+public class HeadlessGL {
+    private static boolean initialized;
+
+    private static void initialize() {
+        if (initialized)
+            return;
+
+        new HeadlessApplication(new ApplicationAdapter() {});
+
+        GL20 gl = (GL20)Proxy.newProxyInstance(GL20.class.getClassLoader(), new Class<?>[] { GL20.class }, (proxy, method, args) -> {
+            // GL_COMPILE_STATUS / GL_LINK_STATUS
+            if ((method.getName().equals("glGetShaderiv") || method.getName().equals("glGetProgramiv")) && args[2] instanceof IntBuffer)
+                ((IntBuffer)args[2]).put(0, 1);
+
+            Class<?> type = method.getReturnType();
+
+            if (type == int.class)
+                return 1;
+            else if (type == float.class)
+                return 0.0f;
+            else if (type == boolean.class)
+                return false;
+            else if (type == String.class)
+                return "";
+            else
+                return null;
+        });
+
+        Gdx.gl = gl;
+        Gdx.gl20 = gl;
+
+        initialized = true;
+    }
+
+    /**
+     * @return a new SpriteBatch drawing into the stand-in context
+     */
+    public static SpriteBatch newSpriteBatch() {
+        initialize();
+        return new SpriteBatch();
+    }
+
+    /**
+     * @return a new (do nothing) shader program, distinct from every other program
+     */
+    public static ShaderProgram newShader() {
+        initialize();
+        return SpriteBatch.createDefaultShader();
+    }
+}
@@ -0,0 +1,161 @@
+package easel.config;
+
+import com.evacipated.cardcrawl.modthespire.lib.SpireConfig;
+import easel.config.samples.SampleBooleanChoices;
+import easel.config.samples.SampleIntegerChoices;
+import easel.config.samples.SampleStringChoices;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EaselConfigHelperTest {
+    private static final String MOD_NAME = "TestMod";
+    private static final String CONFIG_NAME = "config";
+
+    @TempDir
+    File directory;
+
+    @BeforeEach
+    void setup() {
+        SpireConfig.directory = directory;
+    }
+
+    private static EaselConfigHelper<SampleBooleanChoices, SampleIntegerChoices, SampleStringChoices> makeHelper() {
+        return EaselConfigHelper.fromBooleansIntegersStrings(MOD_NAME, CONFIG_NAME, SampleBooleanChoices.class, SampleIntegerChoices.class, SampleStringChoices.class);
+    }
+
+    private static void writeFile(File file, String contents) throws IOException {
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), contents.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void writeLegacyConfig(String json) throws IOException {
+        SpireConfig legacy = new SpireConfig(MOD_NAME, CONFIG_NAME);
+        legacy.setString("json", json);
+        legacy.save();
+    }
+
+    // --------------------------------------------------------------------------------
+
+    @Test
+    void startsWithTheDefaultsWhenNothingWasSaved() {
+        EaselConfigHelper<SampleBooleanChoices, SampleIntegerChoices, SampleStringChoices> config = makeHelper();
+
+        assertTrue(config.getBoolean(SampleBooleanChoices.BOOL_ONE));
+        assertFalse(config.getBoolean(SampleBooleanChoices.BOOL_TWO));
+        assertEquals(1, config.getInt(SampleIntegerChoices.INT_ONE));
+        assertEquals(2, config.getInt(SampleIntegerChoices.INT_TWO));
+        assertEquals("one", config.getString(SampleStringChoices.STRING_ONE));
+        assertEquals("two", config.getString(SampleStringChoices.STRING_TWO));
+
+        assertFalse(config.getFile().exists());
+    }
+
+    @Test
+    void settersSaveValuesThatAreLoadedAgain() {
+        EaselConfigHelper<SampleBooleanChoices, SampleIntegerChoices, SampleStringChoices> config = makeHelper();
+
+        assertTrue(config.setBoolean(SampleBooleanChoices.BOOL_TWO, true));
+        assertTrue(config.setInt(SampleIntegerChoices.INT_ONE, -40));
+        assertTrue(config.setString(SampleStringChoices.STRING_TWO, "quoted \"text\""));
+        assertTrue(config.getFile().exists());
+
+        EaselConfigHelper<SampleBooleanChoices, SampleIntegerChoices, SampleStringChoices> loaded = makeHelper();
+
+        assertTrue(loaded.getBoolean(SampleBooleanChoices.BOOL_ONE));
+        assertTrue(loaded.getBoolean(SampleBooleanChoices.BOOL_TWO));
+        assertEquals(-40, loaded.getInt(SampleIntegerChoices.INT_ONE));
+        assertEquals(2, loaded.getInt(SampleIntegerChoices.INT_TWO));
+        assertEquals("quoted \"text\"", loaded.getString(SampleStringChoices.STRING_TWO));
+
+        assertEquals(config.toString(), loaded.toString());
+    }
+
+    @Test
+    void writesTheSameFormatGsonUsedTo() {
+        String json = makeHelper().toString();
+
+        assertEquals("{\"booleans\":{\"BOOL_ONE\":true,\"BOOL_TWO\":false},"
+                + "\"integers\":{\"INT_ONE\":1,\"INT_TWO\":2},"
+                + "\"strings\":{\"STRING_ONE\":\"one\",\"STRING_TWO\":\"two\"},"
+                + "\"modName\":\"TestMod\",\"configName\":\"config\"}", json);
+    }
+
+    @Test
+    void keepsOptionsItDoesNotKnowAbout() throws IOException {
+        writeFile(makeHelper().getFile(), "{\"booleans\":{\"BOOL_ONE\":false,\"OLD_BOOL\":true},"
+                + "\"integers\":{\"OLD_INT\":7},"
+                + "\"strings\":{\"OLD_STRING\":\"kept\"},"
+                + "\"modName\":\"TestMod\",\"configName\":\"config\",\"extra\":[1,2,3]}");
+
+        EaselConfigHelper<SampleBooleanChoices, SampleIntegerChoices, SampleStringChoices> config = makeHelper();
+        assertFalse(config.getBoolean(SampleBooleanChoices.BOOL_ONE));
+
+        // Saving again must not lose the options of other versions of the mod
+        config.setInt(SampleIntegerChoices.INT_TWO, 22);
+
+        String saved = new String(Files.readAllBytes(config.getFile().toPath()), StandardCharsets.UTF_8);
+        assertTrue(saved.contains("\"OLD_BOOL\":true"));
+        assertTrue(saved.contains("\"OLD_INT\":7"));
+        assertTrue(saved.contains("\"OLD_STRING\":\"kept\""));
+        assertTrue(saved.contains("\"INT_TWO\":22"));
+    }
+
+    @Test
+    void migratesLegacyConfigs() throws IOException {
+        writeLegacyConfig("{\"booleans\":{\"BOOL_ONE\":false},\"integers\":{\"INT_TWO\":99},\"strings\":{\"STRING_ONE\":\"legacy\"}}");
+        File legacyFile = new File(SpireConfig.makeFilePath(MOD_NAME, CONFIG_NAME));
+
+        EaselConfigHelper<SampleBooleanChoices, SampleIntegerChoices, SampleStringChoices> config = makeHelper();
+
+        assertFalse(config.getBoolean(SampleBooleanChoices.BOOL_ONE));
+        assertEquals(99, config.getInt(SampleIntegerChoices.INT_TWO));
+        assertEquals("legacy", config.getString(SampleStringChoices.STRING_ONE));
+        assertEquals("two", config.getString(SampleStringChoices.STRING_TWO));
+
+        // Saved in the new format right away, with the old file left for older versions of the mod
+        assertTrue(config.getFile().exists());
+        assertTrue(legacyFile.exists());
+        assertEquals(config.toString(), new String(Files.readAllBytes(config.getFile().toPath()), StandardCharsets.UTF_8).trim());
+    }
+
+    @Test
+    void newFileTakesPrecedenceOverTheLegacyOne() throws IOException {
+        writeLegacyConfig("{\"integers\":{\"INT_ONE\":10}}");
+        makeHelper().setInt(SampleIntegerChoices.INT_ONE, 20);
+
+        assertEquals(20, makeHelper().getInt(SampleIntegerChoices.INT_ONE));
+    }
+
+    @Test
+    void legacyConfigWithoutJsonIsIgnored() throws IOException {
+        SpireConfig legacy = new SpireConfig(MOD_NAME, CONFIG_NAME);
+        legacy.setString("somethingElse", "value");
+        legacy.save();
+
+        EaselConfigHelper<SampleBooleanChoices, SampleIntegerChoices, SampleStringChoices> config = makeHelper();
+
+        assertEquals(1, config.getInt(SampleIntegerChoices.INT_ONE));
+        assertFalse(config.getFile().exists());
+    }
+
+    @Test
+    void malformedFileLeavesTheDefaults() throws IOException {
+        writeFile(makeHelper().getFile(), "{\"booleans\":{\"BOOL_TWO\":true},\"integers\":{\"INT_ONE\":");
+
+        EaselConfigHelper<SampleBooleanChoices, SampleIntegerChoices, SampleStringChoices> config = makeHelper();
+
+        assertFalse(config.load());
+        assertFalse(config.getBoolean(SampleBooleanChoices.BOOL_TWO));
+        assertEquals(1, config.getInt(SampleIntegerChoices.INT_ONE));
+    }
+}
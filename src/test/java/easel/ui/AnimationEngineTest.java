@@ -0,0 +1,167 @@
+package easel.ui;
+
+import easel.runtime.EaselRuntime;
+import easel.runtime.HeadlessRuntime;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AnimationEngineTest {
+    private HeadlessRuntime runtime;
+    private int baseline;
+
+    @BeforeEach
+    void setup() {
+        runtime = EaselRuntime.useHeadlessRuntime();
+        runtime.setFrameSeconds(1.0f / 60.0f);
+
+        baseline = AnimationEngine.INSTANCE.size();
+    }
+
+    /**
+     * Advances the simulated clock by the given number of frames, resolving the movement queues of the widgets on each.
+     */
+    private void runFrames(int frames, AbstractWidget... widgets) {
+        for (int i = 0; i < frames; ++i) {
+            runtime.endFrame();
+
+            for (AbstractWidget widget : widgets)
+                widget.resolveMovementQueue();
+        }
+    }
+
+    // --------------------------------------------------------------------------------
+
+    @Test
+    void instantMoveResolvesImmediately() {
+        TestBox box = new TestBox(10, 10).anchoredAt(100, 200, AnchorPosition.LEFT_BOTTOM);
+
+        assertEquals(100, box.getLeft());
+        assertEquals(200, box.getBottom());
+        assertEquals(baseline, AnimationEngine.INSTANCE.size());
+    }
+
+    @Test
+    void exponentialMoveApproachesWithoutOvershootingAndSnaps() {
+        TestBox box = new TestBox(10, 10).anchoredAt(0, 0, AnchorPosition.LEFT_BOTTOM);
+        box.anchoredAt(300, 0, AnchorPosition.LEFT_BOTTOM, InterpolationSpeed.SLOW);
+
+        float previous = box.getLeft();
+
+        for (int frame = 0; frame < 30; ++frame) {
+            runFrames(1, box);
+
+            assertTrue(box.getLeft() > previous);
+            assertTrue(box.getLeft() < 300);
+            previous = box.getLeft();
+        }
+
+        runFrames(90, box);
+
+        assertEquals(300, box.getLeft());
+        assertEquals(baseline, AnimationEngine.INSTANCE.size());
+    }
+
+    @Test
+    void exponentialMoveIsFrameRateIndependent() {
+        TestBox slowFrames = new TestBox(10, 10).anchoredAt(0, 0, AnchorPosition.LEFT_BOTTOM);
+        slowFrames.anchoredAt(300, 0, AnchorPosition.LEFT_BOTTOM, InterpolationSpeed.SLOW);
+
+        runtime.setFrameSeconds(1.0f / 30.0f);
+        runFrames(6, slowFrames);
+
+        TestBox fastFrames = new TestBox(10, 10).anchoredAt(0, 0, AnchorPosition.LEFT_BOTTOM);
+        fastFrames.anchoredAt(300, 0, AnchorPosition.LEFT_BOTTOM, InterpolationSpeed.SLOW);
+
+        runtime.setFrameSeconds(1.0f / 120.0f);
+        runFrames(24, fastFrames);
+
+        // A fifth of a second either way: 300 * (1 - e^(-6 * 0.2))
+        float expected = 300.0f * (1.0f - (float)Math.exp(-1.2));
+
+        assertEquals(expected, slowFrames.getLeft(), 0.1f);
+        assertEquals(expected, fastFrames.getLeft(), 0.1f);
+    }
+
+    @Test
+    void easingMoveFinishesOnTime() {
+        TestBox box = new TestBox(10, 10).anchoredAt(0, 0, AnchorPosition.LEFT_BOTTOM);
+        box.anchoredAt(0, 400, AnchorPosition.LEFT_BOTTOM, InterpolationSpeed.EASE_OUT);
+
+        // 200 ms into the 250 ms curve
+        runFrames(12, box);
+        assertTrue(box.getBottom() > 300 && box.getBottom() < 400);
+
+        runFrames(4, box);
+        assertEquals(400, box.getBottom());
+        assertEquals(baseline, AnimationEngine.INSTANCE.size());
+    }
+
+    @Test
+    void springMoveSettlesOnTarget() {
+        TestBox box = new TestBox(10, 10).anchoredAt(0, 0, AnchorPosition.LEFT_BOTTOM);
+        box.anchoredAt(200, 100, AnchorPosition.LEFT_BOTTOM, InterpolationSpeed.SPRING_BOUNCY);
+
+        runFrames(180, box);
+
+        assertEquals(200, box.getLeft());
+        assertEquals(100, box.getBottom());
+        assertEquals(baseline, AnimationEngine.INSTANCE.size());
+    }
+
+    @Test
+    void delayedMoveWaitsForItsStartTime() {
+        TestBox box = new TestBox(10, 10).anchoredAt(50, 50, AnchorPosition.LEFT_BOTTOM);
+        box.delayedTranslate(100, 0, InterpolationSpeed.INSTANT, 500);
+
+        runFrames(24, box);
+        assertEquals(50, box.getLeft());
+
+        runFrames(12, box);
+        assertEquals(150, box.getLeft());
+        assertEquals(baseline, AnimationEngine.INSTANCE.size());
+    }
+
+    @Test
+    void queuedMovesRunOneAfterAnother() {
+        TestBox box = new TestBox(10, 10).anchoredAt(0, 0, AnchorPosition.LEFT_BOTTOM);
+        box.anchoredAt(100, 0, AnchorPosition.LEFT_BOTTOM, InterpolationSpeed.EASE_OUT);
+        box.anchoredAt(100, 100, AnchorPosition.LEFT_BOTTOM, InterpolationSpeed.EASE_OUT);
+
+        // The second move only starts once the first has finished
+        runFrames(16, box);
+        assertEquals(100, box.getLeft());
+        assertTrue(box.getBottom() < 100);
+
+        runFrames(16, box);
+        assertEquals(100, box.getBottom());
+        assertEquals(baseline, AnimationEngine.INSTANCE.size());
+    }
+
+    @Test
+    void poolGrowsPastItsInitialCapacityAndEmptiesAgain() {
+        List<TestBox> boxes = new ArrayList<>();
+
+        for (int i = 0; i < 600; ++i) {
+            TestBox box = new TestBox(10, 10).anchoredAt(0, 0, AnchorPosition.LEFT_BOTTOM);
+            box.anchoredAt(i, 500, AnchorPosition.LEFT_BOTTOM, InterpolationSpeed.EASE_IN_OUT);
+            boxes.add(box);
+        }
+
+        assertEquals(baseline + 600, AnimationEngine.INSTANCE.size());
+
+        runFrames(30, boxes.toArray(new AbstractWidget[0]));
+
+        for (int i = 0; i < boxes.size(); ++i) {
+            assertEquals(i, boxes.get(i).getLeft());
+            assertEquals(500, boxes.get(i).getBottom());
+        }
+
+        assertEquals(baseline, AnimationEngine.INSTANCE.size());
+    }
+}
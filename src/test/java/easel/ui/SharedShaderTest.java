@@ -0,0 +1,118 @@
+package easel.ui;
+
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import easel.HeadlessGL;
+import easel.runtime.EaselRuntime;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class SharedShaderTest {
+    private SpriteBatch sb;
+    private ShaderProgram defaultShader;
+    private ShaderProgram program;
+
+    /**
+     * Binds a shared program, like the distance field labels and pie charts do.
+     */
+    private class SharingWidget extends AbstractWidget<SharingWidget> {
+        @Override public float getContentWidth() { return 10; }
+        @Override public float getContentHeight() { return 10; }
+
+        @Override protected boolean usesSharedShader() { return true; }
+        @Override protected void renderWidget(SpriteBatch sb) { useSharedShader(sb, program); }
+    }
+
+    /**
+     * Renders its children and draws something of its own after each one, like StyledContainer does with its header shadow.
+     */
+    private static class DrawingContainer extends AbstractWidget<DrawingContainer> {
+        final List<AbstractWidget> children;
+        final List<ShaderProgram> shadersAfterChildren = new ArrayList<>();
+
+        DrawingContainer(AbstractWidget... children) {
+            this.children = Arrays.asList(children);
+        }
+
+        @Override public float getContentWidth() { return 10; }
+        @Override public float getContentHeight() { return 10; }
+
+        @Override
+        protected void renderWidget(SpriteBatch sb) {
+            for (AbstractWidget child : children) {
+                child.render(sb);
+                shadersAfterChildren.add(sb.getShader());
+            }
+        }
+    }
+
+    /**
+     * Only renders its children, like the layouts.
+     */
+    private static class ChildOnlyContainer extends DrawingContainer {
+        ChildOnlyContainer(AbstractWidget... children) {
+            super(children);
+        }
+
+        @Override protected boolean rendersOnlyChildren() { return true; }
+    }
+
+    @BeforeEach
+    void setup() {
+        EaselRuntime.useHeadlessRuntime();
+
+        sb = HeadlessGL.newSpriteBatch();
+        defaultShader = sb.getShader();
+        program = HeadlessGL.newShader();
+    }
+
+    @Test
+    void containerDrawingAfterChildUsesItsOwnShader() {
+        DrawingContainer container = new DrawingContainer(new SharingWidget());
+        container.render(sb);
+
+        assertSame(defaultShader, container.shadersAfterChildren.get(0));
+        assertSame(defaultShader, sb.getShader());
+    }
+
+    @Test
+    void shaderStaysBoundBetweenSiblingsOfAChildOnlyContainer() {
+        ChildOnlyContainer layout = new ChildOnlyContainer(new SharingWidget(), new SharingWidget());
+        layout.render(sb);
+
+        assertSame(program, layout.shadersAfterChildren.get(0));
+        assertSame(program, layout.shadersAfterChildren.get(1));
+        assertSame(defaultShader, sb.getShader());
+    }
+
+    @Test
+    void childOnlyContainerRestoresBeforeReturningToADrawingParent() {
+        ChildOnlyContainer layout = new ChildOnlyContainer(new SharingWidget());
+        DrawingContainer parent = new DrawingContainer(layout);
+        parent.render(sb);
+
+        assertSame(program, layout.shadersAfterChildren.get(0));
+        assertSame(defaultShader, parent.shadersAfterChildren.get(0));
+    }
+
+    @Test
+    void nonSharingSiblingRestoresTheShader() {
+        ShaderProgram[] seen = new ShaderProgram[1];
+
+        AbstractWidget plain = new AbstractWidget() {
+            @Override public float getContentWidth() { return 10; }
+            @Override public float getContentHeight() { return 10; }
+            @Override protected void renderWidget(SpriteBatch sb) { seen[0] = sb.getShader(); }
+        };
+
+        new ChildOnlyContainer(new SharingWidget(), plain).render(sb);
+
+        assertSame(defaultShader, seen[0]);
+    }
+}
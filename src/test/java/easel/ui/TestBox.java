@@ -0,0 +1,21 @@
+package easel.ui;
+
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+
+/**
+ * A plain fixed size widget for tests. Renders nothing.
+ */
+public class TestBox extends AbstractWidget<TestBox> {
+    private final float width;
+    private final float height;
+
+    public TestBox(float width, float height) {
+        this.width = width;
+        this.height = height;
+    }
+
+    @Override public float getContentWidth() { return width; }
+    @Override public float getContentHeight() { return height; }
+
+    @Override protected void renderWidget(SpriteBatch sb) { }
+}
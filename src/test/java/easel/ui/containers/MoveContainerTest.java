@@ -0,0 +1,156 @@
+package easel.ui.containers;
+
+import easel.runtime.EaselRuntime;
+import easel.ui.AbstractWidget;
+import easel.ui.AnchorPosition;
+import easel.ui.TestBox;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MoveContainerTest {
+    private TestBox first;
+    private TestBox second;
+    private TestBox third;
+
+    @BeforeEach
+    void setup() {
+        EaselRuntime.useHeadlessRuntime();
+
+        first = new TestBox(100, 50);
+        second = new TestBox(100, 50);
+        third = new TestBox(100, 50);
+    }
+
+    private static void place(AbstractWidget widget, float left, float bottom) {
+        widget.anchoredAt(left, bottom, AnchorPosition.LEFT_BOTTOM);
+    }
+
+    private static List<AbstractWidget> stackingOrder(MoveContainer container) {
+        return container.iterator().collect(Collectors.toList());
+    }
+
+    // --------------------------------------------------------------------------------
+
+    @Test
+    void restoresPositionsAndStackingOrder() {
+        MoveContainer saved = new MoveContainer()
+                .withChild(first)
+                .withChild(second, "second")
+                .withChild(third);
+
+        place(first, 123.4f, 200);
+        place(second, 500, 600.25f);
+        place(third, 900, 80);
+        saved.bringToTop(first);
+
+        String json = saved.toJsonString();
+
+        TestBox firstAgain = new TestBox(100, 50);
+        TestBox secondAgain = new TestBox(100, 50);
+        TestBox thirdAgain = new TestBox(100, 50);
+
+        MoveContainer loaded = new MoveContainer()
+                .withChild(firstAgain)
+                .withChild(secondAgain, "second")
+                .withChild(thirdAgain);
+
+        assertTrue(loaded.loadFromJsonString(json));
+
+        assertEquals(123.4f, firstAgain.getLeft());
+        assertEquals(200, firstAgain.getBottom());
+        assertEquals(500, secondAgain.getLeft());
+        assertEquals(600.25f, secondAgain.getBottom());
+        assertEquals(900, thirdAgain.getLeft());
+        assertEquals(80, thirdAgain.getBottom());
+
+        assertEquals(Arrays.asList(secondAgain, thirdAgain, firstAgain), stackingOrder(loaded));
+        assertEquals(json, loaded.toJsonString());
+    }
+
+    @Test
+    void writesPositionsAsFloats() {
+        MoveContainer container = new MoveContainer().withChild(first);
+        place(first, 123.4f, 200);
+
+        String json = container.toJsonString();
+
+        assertTrue(json.contains("\"left\":123.4"));
+        assertFalse(json.contains("123.4000"));
+    }
+
+    @Test
+    void childrenWithAnIdKeepTheirPositionWhenOthersAreAddedAround() {
+        MoveContainer saved = new MoveContainer()
+                .withChild(first, "first")
+                .withChild(second, "second");
+
+        place(first, 300, 300);
+        place(second, 700, 400);
+
+        String json = saved.toJsonString();
+
+        // A later version of the mod adds a widget in front and swaps the other two around
+        TestBox added = new TestBox(100, 50);
+        place(added, 50, 50);
+
+        MoveContainer loaded = new MoveContainer()
+                .withChild(added, "added")
+                .withChild(second, "second")
+                .withChild(first, "first");
+
+        place(first, 0, 0);
+        place(second, 0, 0);
+
+        // Not every child was in the saved layout
+        assertFalse(loaded.loadFromJsonString(json));
+
+        assertEquals(300, first.getLeft());
+        assertEquals(700, second.getLeft());
+        assertEquals(400, second.getBottom());
+        assertEquals(50, added.getLeft());
+
+        // The unsaved child stays at the bottom, underneath the restored ones
+        assertEquals(Arrays.asList(added, first, second), stackingOrder(loaded));
+    }
+
+    @Test
+    void positionsAreKeptOnScreen() {
+        MoveContainer container = new MoveContainer().withChild(first);
+
+        assertTrue(container.loadFromJsonString("{\"widgets\":[{\"addOrder\":0,\"left\":-500,\"bottom\":5000}]}"));
+
+        assertEquals(20, first.getLeft());
+        assertEquals(EaselRuntime.getScreen().getHeight() - 20, first.getTop());
+    }
+
+    @Test
+    void malformedInputLeavesTheWidgetsWhereTheyAre() {
+        MoveContainer container = new MoveContainer()
+                .withChild(first)
+                .withChild(second);
+
+        place(first, 100, 100);
+        place(second, 200, 200);
+
+        assertFalse(container.loadFromJsonString("{\"widgets\":[{\"addOrder\":0,\"left\":400,\"bottom\":400},{\"addOrder\":1,\"left\":"));
+        assertFalse(container.loadFromJsonString("{\"widgets\":[{\"addOrder\":0,\"left\":\"far away\"}]}"));
+
+        assertEquals(100, first.getLeft());
+        assertEquals(200, second.getLeft());
+        assertEquals(Arrays.asList(first, second), stackingOrder(container));
+    }
+
+    @Test
+    void emptyInputOnlySucceedsForAnEmptyContainer() {
+        assertTrue(new MoveContainer().loadFromJsonString(""));
+        assertFalse(new MoveContainer().withChild(first).loadFromJsonString(""));
+    }
+}
@@ -0,0 +1,103 @@
+package easel.ui.text;
+
+import easel.runtime.EaselRuntime;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NumericLabelTest {
+    private NumericLabel label;
+
+    @BeforeEach
+    void setup() {
+        EaselRuntime.useHeadlessRuntime();
+        label = new NumericLabel();
+    }
+
+    @Test
+    void startsAtZero() {
+        assertEquals("0", label.getText());
+    }
+
+    @Test
+    void formatsWholeNumbers() {
+        assertEquals("7", label.withInt(7).getText());
+        assertEquals("-1250", label.withInt(-1250).getText());
+        assertEquals("2147483647", label.withInt(Integer.MAX_VALUE).getText());
+        assertEquals("-2147483648", label.withInt(Integer.MIN_VALUE).getText());
+    }
+
+    @Test
+    void formatsFixedDecimals() {
+        assertEquals("3.14", label.withFixed(3.14159f, 2).getText());
+        assertEquals("12.500", label.withFixed(12.5f, 3).getText());
+        assertEquals("0.05", label.withFixed(0.05f, 2).getText());
+        assertEquals("-7.25", label.withFixed(-7.25f, 2).getText());
+    }
+
+    @Test
+    void roundsHalfAwayFromZero() {
+        assertEquals("3", label.withFixed(2.5f, 0).getText());
+        assertEquals("-3", label.withFixed(-2.5f, 0).getText());
+        assertEquals("1.00", label.withFixed(0.999f, 2).getText());
+    }
+
+    @Test
+    void neverShowsNegativeZero() {
+        assertEquals("0.00", label.withFixed(-0.001f, 2).getText());
+        assertEquals("0", label.withFixed(-0.4f, 0).getText());
+    }
+
+    @Test
+    void clampsTheNumberOfDecimals() {
+        assertEquals("1.000000", label.withFixed(1.0f, 9).getText());
+        assertEquals("2", label.withFixed(1.5f, -1).getText());
+    }
+
+    @Test
+    void formatsPercentages() {
+        assertEquals("42.5%", label.withPercent(0.425f, 1).getText());
+        assertEquals("100%", label.withPercent(1.0f, 0).getText());
+    }
+
+    @Test
+    void formatsDurations() {
+        assertEquals("0:00", label.withDuration(0).getText());
+        assertEquals("0:59", label.withDuration(59.9f).getText());
+        assertEquals("1:01", label.withDuration(61).getText());
+        assertEquals("59:59", label.withDuration(3599).getText());
+        assertEquals("1:00:00", label.withDuration(3600).getText());
+        assertEquals("1:02:05", label.withDuration(3725.5f).getText());
+        assertEquals("0:00", label.withDuration(-5).getText());
+    }
+
+    @Test
+    void wrapsValuesInThePrefixAndSuffix() {
+        label.withPrefix("HP: ").withSuffix(" / 80").withInt(42);
+        assertEquals("HP: 42 / 80", label.getText());
+
+        // Changing the prefix reformats the value already shown
+        label.withPrefix("Health: ");
+        assertEquals("Health: 42 / 80", label.getText());
+    }
+
+    @Test
+    void widthFollowsTheText() {
+        float one = label.withInt(1).getContentWidth();
+        float three = label.withInt(100).getContentWidth();
+
+        assertEquals(3 * one, three, 0.001f);
+    }
+
+    @Test
+    void reservedDigitsKeepTheWidthSteady() {
+        label.withReservedDigits(4);
+
+        float width = label.withInt(1).getContentWidth();
+        assertEquals(width, label.withInt(9999).getContentWidth());
+
+        assertTrue(label.withInt(99999).getContentWidth() > width);
+    }
+}
@@ -0,0 +1,120 @@
+package easel.ui.text;
+
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import easel.runtime.EaselRuntime;
+import easel.runtime.HeadlessRuntime;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SmartLabelTest {
+    private static final float LINE_HEIGHT = 20;
+    private static final float LINE_SPACING = 4;
+
+    private BitmapFont font;
+
+    // Widths of a four letter word and of a space
+    private float word;
+    private float space;
+
+    @BeforeEach
+    void setup() {
+        EaselRuntime.useHeadlessRuntime();
+
+        font = HeadlessRuntime.makeMeasurementFont(LINE_HEIGHT, 10, 5);
+        word = width("aaaa");
+        space = width(" ");
+    }
+
+    private float width(String text) {
+        return EaselRuntime.getFonts().getWidth(font, text, 1.0f);
+    }
+
+    private static float heightOfLines(int lines) {
+        return lines * LINE_HEIGHT + (lines - 1) * LINE_SPACING;
+    }
+
+    // --------------------------------------------------------------------------------
+
+    @Test
+    void textThatFitsStaysOnOneLine() {
+        SmartLabel label = new SmartLabel(font, 1000, LINE_SPACING)
+                .withText("aaaa bbbb cccc");
+
+        assertEquals(3 * word + 2 * space, label.getContentWidth(), 0.001f);
+        assertEquals(heightOfLines(1), label.getContentHeight(), 0.001f);
+    }
+
+    @Test
+    void wrapsOnceALineWouldBeTooWide() {
+        // Room for two words and a bit, but not three
+        SmartLabel label = new SmartLabel(font, 2 * word + 2 * space + 1, LINE_SPACING)
+                .withText("aaaa bbbb cccc dddd eeee");
+
+        assertEquals(2 * word + space, label.getContentWidth(), 0.001f);
+        assertEquals(heightOfLines(3), label.getContentHeight(), 0.001f);
+    }
+
+    @Test
+    void wordEndingExactlyAtTheLineWidthStillFits() {
+        SmartLabel label = new SmartLabel(font, 2 * word + space, LINE_SPACING)
+                .withText("aaaa bbbb");
+
+        assertEquals(heightOfLines(1), label.getContentHeight(), 0.001f);
+    }
+
+    @Test
+    void wordWiderThanTheLineGetsALineOfItsOwn() {
+        float longWord = width("aaaaaaaaaaaa");
+
+        SmartLabel label = new SmartLabel(font, 2 * word, LINE_SPACING)
+                .withText("aaaa aaaaaaaaaaaa bbbb");
+
+        assertEquals(longWord, label.getContentWidth(), 0.001f);
+        assertEquals(heightOfLines(3), label.getContentHeight(), 0.001f);
+    }
+
+    @Test
+    void repeatedSpacesAreIgnored() {
+        SmartLabel label = new SmartLabel(font, 1000, LINE_SPACING)
+                .withText("  aaaa    bbbb  ");
+
+        assertEquals(2 * word + space, label.getContentWidth(), 0.001f);
+    }
+
+    @Test
+    void appendedTextContinuesTheCurrentLine() {
+        SmartLabel label = new SmartLabel(font, 2 * word + space, LINE_SPACING)
+                .withText("aaaa")
+                .withText("bbbb")
+                .withText("cccc");
+
+        assertEquals(2 * word + space, label.getContentWidth(), 0.001f);
+        assertEquals(heightOfLines(2), label.getContentHeight(), 0.001f);
+    }
+
+    @Test
+    void newlinesStartFreshLines() {
+        SmartLabel label = new SmartLabel(font, 1000, LINE_SPACING)
+                .withText("aaaa")
+                .withNewlines(2)
+                .withText("bbbb bbbb");
+
+        // An empty line in between
+        assertEquals(2 * word + space, label.getContentWidth(), 0.001f);
+        assertEquals(heightOfLines(3), label.getContentHeight(), 0.001f);
+    }
+
+    @Test
+    void widthsScaleWithTheScreen() {
+        HeadlessRuntime runtime = EaselRuntime.useHeadlessRuntime().setScreenSize(3840, 2160);
+
+        SmartLabel label = new SmartLabel(font, 2 * word + 2 * space + 1, LINE_SPACING)
+                .withText("aaaa bbbb cccc");
+
+        // Font measurements are in screen pixels: at twice the scale the same font is half as wide in layout units
+        assertEquals((3 * word + 2 * space) / runtime.getScale(), label.getContentWidth(), 0.001f);
+        assertEquals(LINE_HEIGHT / runtime.getScale(), label.getContentHeight(), 0.001f);
+    }
+}
@@ -0,0 +1,149 @@
+package easel.utils;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import easel.runtime.EaselRuntime;
+import easel.runtime.FontMetrics;
+import easel.runtime.HeadlessRuntime;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TextMeasurementCacheTest {
+    private HeadlessRuntime runtime;
+    private CountingMetrics metrics;
+    private BitmapFont font;
+
+    /**
+     * Measures through the headless runtime, counting how often it is asked to.
+     */
+    private static class CountingMetrics implements FontMetrics {
+        private final FontMetrics fonts;
+        int numMeasured;
+
+        CountingMetrics(FontMetrics fonts) {
+            this.fonts = fonts;
+        }
+
+        @Override
+        public float getWidth(BitmapFont font, String text, float scale) {
+            ++numMeasured;
+            return fonts.getWidth(font, text, scale);
+        }
+
+        @Override public float getHeight(BitmapFont font) { return fonts.getHeight(font); }
+        @Override public BitmapFont getDefaultFont() { return fonts.getDefaultFont(); }
+        @Override public Color getDefaultColor() { return fonts.getDefaultColor(); }
+    }
+
+    @BeforeEach
+    void setup() {
+        runtime = EaselRuntime.useHeadlessRuntime();
+        metrics = new CountingMetrics(runtime);
+        EaselRuntime.install(runtime, runtime, metrics, runtime);
+
+        font = HeadlessRuntime.makeMeasurementFont(20, 10, 5);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TextMeasurementCache.setCapacityPerFont(TextMeasurementCache.DEFAULT_CAPACITY_PER_FONT);
+        TextMeasurementCache.clear();
+    }
+
+    // --------------------------------------------------------------------------------
+
+    @Test
+    void repeatedTextIsOnlyMeasuredOnce() {
+        float width = TextMeasurementCache.getWidth(font, "hello");
+
+        assertEquals(runtime.getWidth(font, "hello", 1.0f), width);
+        assertEquals(width, TextMeasurementCache.getWidth(font, "hello"));
+        assertEquals(1, metrics.numMeasured);
+        assertEquals(1, TextMeasurementCache.size(font));
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedEntry() {
+        TextMeasurementCache.setCapacityPerFont(3);
+
+        TextMeasurementCache.getWidth(font, "a");
+        TextMeasurementCache.getWidth(font, "b");
+        TextMeasurementCache.getWidth(font, "c");
+
+        // Using "a" again makes "b" the oldest
+        TextMeasurementCache.getWidth(font, "a");
+        TextMeasurementCache.getWidth(font, "d");
+
+        assertEquals(3, TextMeasurementCache.size(font));
+        assertEquals(4, metrics.numMeasured);
+
+        TextMeasurementCache.getWidth(font, "a");
+        assertEquals(4, metrics.numMeasured);
+
+        TextMeasurementCache.getWidth(font, "b");
+        assertEquals(5, metrics.numMeasured);
+    }
+
+    @Test
+    void shrinksToANewCapacityOnTheNextAddition() {
+        for (int i = 0; i < 10; ++i)
+            TextMeasurementCache.getWidth(font, "text " + i);
+
+        TextMeasurementCache.setCapacityPerFont(4);
+        assertEquals(10, TextMeasurementCache.size(font));
+
+        TextMeasurementCache.getWidth(font, "one more");
+        assertEquals(4, TextMeasurementCache.size(font));
+    }
+
+    @Test
+    void eachFontHasItsOwnEntries() {
+        BitmapFont other = HeadlessRuntime.makeMeasurementFont(20, 12, 6);
+        TextMeasurementCache.setCapacityPerFont(2);
+
+        TextMeasurementCache.getWidth(font, "a");
+        TextMeasurementCache.getWidth(font, "b");
+        TextMeasurementCache.getWidth(other, "c");
+        TextMeasurementCache.getWidth(other, "d");
+
+        assertEquals(2, TextMeasurementCache.size(font));
+        assertEquals(2, TextMeasurementCache.size(other));
+        assertEquals(runtime.getWidth(other, "c", 1.0f), TextMeasurementCache.getWidth(other, "c"));
+    }
+
+    @Test
+    void rescalingTheFontForgetsItsEntries() {
+        TextMeasurementCache.getWidth(font, "hello");
+
+        font.getData().setScale(2.0f);
+        float width = TextMeasurementCache.getWidth(font, "hello");
+
+        assertEquals(runtime.getWidth(font, "hello", 1.0f), width);
+        assertEquals(2, metrics.numMeasured);
+    }
+
+    @Test
+    void swappingTheFontMetricsForgetsEveryEntry() {
+        TextMeasurementCache.getWidth(font, "hello");
+
+        CountingMetrics replacement = new CountingMetrics(runtime);
+        EaselRuntime.install(runtime, runtime, replacement, runtime);
+
+        TextMeasurementCache.getWidth(font, "hello");
+        assertEquals(1, replacement.numMeasured);
+    }
+
+    @Test
+    void clearingAFontForgetsItsEntries() {
+        TextMeasurementCache.getWidth(font, "hello");
+        TextMeasurementCache.clear(font);
+
+        assertEquals(0, TextMeasurementCache.size(font));
+
+        TextMeasurementCache.getWidth(font, "hello");
+        assertEquals(2, metrics.numMeasured);
+    }
+}